@@ -0,0 +1,236 @@
+/**
+ * This file is part of veraPDF Benchmarks, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Benchmarks as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Benchmarks as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.benchmarks;
+
+import com.beust.jcommander.JCommander;
+import org.verapdf.apps.Applications;
+import org.verapdf.cli.commands.VeraCliArgParser;
+import org.verapdf.gf.foundry.VeraGreenfieldFoundryProvider;
+import org.verapdf.processor.app.ConfigManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the documents and directory trees the benchmarks run on. Content
+ * only depends on the passed sizes, so every run measures the same input.
+ */
+public final class Corpus {
+	private static final long SEED = 0x7665726150444636L;
+	private static final String[] WORDS = { "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing",
+			"elit", "sed", "do", "eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore", "magna" };
+	private static final int LINES_PER_PAGE = 40;
+	private static final int WORDS_PER_LINE = 10;
+
+	private Corpus() {
+		// disable default constructor
+	}
+
+	/**
+	 * Registers the greenfield foundry used by all veraPDF processing.
+	 */
+	public static void initialise() {
+		VeraGreenfieldFoundryProvider.initialise();
+	}
+
+	/**
+	 * @param dir the directory to create the configuration in
+	 * @return a configuration manager with the default configuration, independent
+	 *         of the configuration of the local veraPDF installation
+	 */
+	public static ConfigManager config(final Path dir) throws IOException {
+		return Applications.createConfigManager(Files.createDirectories(dir.resolve("config")).toFile());
+	}
+
+	/**
+	 * @param args the command line arguments
+	 * @return the parsed arguments
+	 */
+	public static VeraCliArgParser parse(final List<String> args) {
+		VeraCliArgParser parser = new VeraCliArgParser();
+		new JCommander(parser).parse(args.toArray(new String[0]));
+		return parser;
+	}
+
+	/**
+	 * Writes documents of the passed size to a directory.
+	 *
+	 * @param dir the directory to write the documents to
+	 * @param documents the number of documents
+	 * @param pages the number of text pages of each document
+	 * @return the written documents
+	 */
+	public static List<File> documents(final Path dir, final int documents, final int pages) throws IOException {
+		Files.createDirectories(dir);
+		List<File> retVal = new ArrayList<>(documents);
+		for (int i = 0; i < documents; i++) {
+			Path document = dir.resolve(String.format("document-%04d.pdf", i));
+			Files.write(document, document(new Random(SEED + i), pages));
+			retVal.add(document.toFile());
+		}
+		return retVal;
+	}
+
+	/**
+	 * Creates a directory tree of empty files, one in five of which doesn't have a
+	 * PDF extension.
+	 *
+	 * @param dir the root of the tree
+	 * @param depth the number of directory levels below the root
+	 * @param breadth the number of sub-directories of each directory
+	 * @param files the number of files in each directory
+	 */
+	public static void tree(final Path dir, final int depth, final int breadth, final int files) throws IOException {
+		Files.createDirectories(dir);
+		for (int i = 0; i < files; i++) {
+			Files.createFile(dir.resolve(String.format(i % 5 == 4 ? "file-%04d.txt" : "file-%04d.pdf", i)));
+		}
+		if (depth > 0) {
+			for (int i = 0; i < breadth; i++) {
+				tree(dir.resolve(String.format("dir-%02d", i)), depth - 1, breadth, files);
+			}
+		}
+	}
+
+	/**
+	 * @param dir the directory to delete with its content
+	 */
+	public static void delete(final Path dir) throws IOException {
+		if (dir == null || !Files.exists(dir)) {
+			return;
+		}
+		Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				Files.delete(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path directory, IOException exc) throws IOException {
+				Files.delete(directory);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**
+	 * @return a stream discarding everything written to it, for the reports the
+	 *         processors print to standard output
+	 */
+	public static PrintStream nullStream() {
+		return new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+				// discarded
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+				// discarded
+			}
+		});
+	}
+
+	/**
+	 * A PDF of pages of Helvetica text with a cross reference table, valid but not
+	 * PDF/A compliant so validation runs through all rules.
+	 */
+	static byte[] document(final Random random, final int pages) {
+		PdfWriter pdf = new PdfWriter();
+		int pagesId = 2;
+		int fontId = 3;
+		int firstPageId = 4;
+		pdf.object(1, "<< /Type /Catalog /Pages 2 0 R >>");
+		StringBuilder kids = new StringBuilder();
+		for (int i = 0; i < pages; i++) {
+			kids.append(firstPageId + 2 * i).append(" 0 R ");
+		}
+		pdf.object(pagesId, "<< /Type /Pages /Kids [ " + kids + "] /Count " + pages + " >>");
+		pdf.object(fontId, "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica >>");
+		for (int i = 0; i < pages; i++) {
+			int pageId = firstPageId + 2 * i;
+			pdf.object(pageId, "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 595 842] /Resources << /Font << /F1 "
+					+ fontId + " 0 R >> >> /Contents " + (pageId + 1) + " 0 R >>");
+			String content = pageContent(random);
+			pdf.object(pageId + 1, "<< /Length " + content.length() + " >>\nstream\n" + content + "\nendstream");
+		}
+		return pdf.finish(1, firstPageId + 2 * pages);
+	}
+
+	private static String pageContent(final Random random) {
+		StringBuilder content = new StringBuilder("BT /F1 11 Tf 14 TL 50 800 Td\n");
+		for (int line = 0; line < LINES_PER_PAGE; line++) {
+			content.append('(');
+			for (int word = 0; word < WORDS_PER_LINE; word++) {
+				content.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+			}
+			content.append(") '\n");
+		}
+		return content.append("ET").toString();
+	}
+
+	private static final class PdfWriter {
+		private final ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+		private final List<Integer> offsets = new ArrayList<>();
+
+		PdfWriter() {
+			write("%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n");
+		}
+
+		void object(final int id, final String body) {
+			while (this.offsets.size() < id) {
+				this.offsets.add(Integer.valueOf(0));
+			}
+			this.offsets.set(id - 1, Integer.valueOf(this.pdf.size()));
+			write(id + " 0 obj\n" + body + "\nendobj\n");
+		}
+
+		byte[] finish(final int rootId, final int size) {
+			int xref = this.pdf.size();
+			StringBuilder table = new StringBuilder("xref\n0 ").append(size).append("\n0000000000 65535 f \n");
+			for (int i = 1; i < size; i++) {
+				table.append(String.format("%010d 00000 n \n", this.offsets.get(i - 1)));
+			}
+			table.append("trailer\n<< /Size ").append(size).append(" /Root ").append(rootId).append(" 0 R >>\n")
+					.append("startxref\n").append(xref).append("\n%%EOF\n");
+			write(table.toString());
+			return this.pdf.toByteArray();
+		}
+
+		private void write(final String text) {
+			byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+			this.pdf.write(bytes, 0, bytes.length);
+		}
+	}
+}
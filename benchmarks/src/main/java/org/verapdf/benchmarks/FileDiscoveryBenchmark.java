@@ -0,0 +1,82 @@
+/**
+ * This file is part of veraPDF Benchmarks, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Benchmarks as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Benchmarks as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.verapdf.apps.utils.ApplicationUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recursive discovery of the PDF files of a directory tree, the first step of
+ * every batch run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileDiscoveryBenchmark {
+	/** depth:breadth:files per directory */
+	@Param({ "2:10:50", "4:4:20", "1:1:5000" })
+	public String tree;
+
+	private Path dir;
+	private List<File> roots;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		String[] shape = this.tree.split(":");
+		this.dir = Files.createTempDirectory("veraPDF-benchmark");
+		Corpus.tree(this.dir.resolve("tree"), Integer.parseInt(shape[0]), Integer.parseInt(shape[1]),
+				Integer.parseInt(shape[2]));
+		this.roots = Collections.singletonList(this.dir.resolve("tree").toFile());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Corpus.delete(this.dir);
+	}
+
+	@Benchmark
+	public List<File> filterPdfFiles() {
+		return ApplicationUtils.filterPdfFiles(this.roots, true, false);
+	}
+}
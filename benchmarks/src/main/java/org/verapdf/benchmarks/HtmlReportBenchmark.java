@@ -0,0 +1,107 @@
+/**
+ * This file is part of veraPDF Benchmarks, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Benchmarks as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Benchmarks as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.verapdf.apps.utils.ReportMerger;
+import org.verapdf.cli.commands.VeraCliArgParser;
+import org.verapdf.cli.server.ValidationClient;
+import org.verapdf.cli.server.ValidationRequest;
+import org.verapdf.cli.server.ValidationServer;
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.pdfa.flavours.PDFAFlavour;
+import org.verapdf.processor.FormatOption;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merging the XML reports of a batch into the HTML summary report. The job
+ * reports are produced once before the trial, so only the report conversion
+ * is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HtmlReportBenchmark {
+	@Param({ "100", "1000" })
+	public int jobs;
+
+	private final List<byte[]> reports = new ArrayList<>();
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, VeraPDFException {
+		Corpus.initialise();
+		Path dir = Files.createTempDirectory("veraPDF-benchmark");
+		try {
+			List<File> documents = Corpus.documents(dir.resolve("corpus"), 8, 1);
+			VeraCliArgParser args = Corpus.parse(Arrays.asList(VeraCliArgParser.FLAVOUR_FLAG, "1b"));
+			try (ValidationServer server = new ValidationServer(args, Corpus.config(dir), 0)) {
+				Thread serverThread = new Thread(server::serve, "veraPDF-benchmark-server");
+				serverThread.setDaemon(true);
+				serverThread.start();
+				try (ValidationClient client = new ValidationClient(server.getPort())) {
+					for (File document : documents) {
+						this.reports.add(client.validate(ValidationRequest.forPath(PDFAFlavour.PDFA_1_B,
+								FormatOption.XML, document.getAbsolutePath())).getReport());
+					}
+				}
+			}
+		} finally {
+			Corpus.delete(dir);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.reports.clear();
+	}
+
+	@Benchmark
+	public void mergeHtmlReport() {
+		ReportMerger merger = new ReportMerger(Corpus.nullStream(), FormatOption.HTML, null);
+		for (int i = 0; i < this.jobs; i++) {
+			merger.write(this.reports.get(i % this.reports.size()));
+		}
+		merger.endReport();
+	}
+}
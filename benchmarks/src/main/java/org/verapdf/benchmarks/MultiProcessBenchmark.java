@@ -0,0 +1,104 @@
+/**
+ * This file is part of veraPDF Benchmarks, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Benchmarks as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Benchmarks as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.verapdf.cli.CliConstants.ExitCodes;
+import org.verapdf.cli.commands.VeraCliArgParser;
+import org.verapdf.cli.multithread.MultiThreadProcessor;
+import org.verapdf.processor.app.ConfigManager;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@code --processes} batch run with in-process workers, so the numbers
+ * measure the scheduling and report merging rather than JVM start up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MultiProcessBenchmark {
+	@Param({ "1", "2", "4", "8" })
+	public int processes;
+
+	@Param({ "xml", "html" })
+	public String format;
+
+	@Param({ "32" })
+	public int documents;
+
+	@Param({ "4" })
+	public int pages;
+
+	private Path dir;
+	private VeraCliArgParser args;
+	private ConfigManager config;
+	private PrintStream stdout;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		Corpus.initialise();
+		this.dir = Files.createTempDirectory("veraPDF-benchmark");
+		Corpus.documents(this.dir.resolve("corpus"), this.documents, this.pages);
+		this.args = Corpus.parse(Arrays.asList(VeraCliArgParser.FLAVOUR_FLAG, "1b", VeraCliArgParser.FORMAT,
+				this.format, VeraCliArgParser.RECURSE_FLAG, VeraCliArgParser.NUMBER_OF_PROCESSES_FLAG,
+				String.valueOf(this.processes), VeraCliArgParser.IN_PROCESS, this.dir.resolve("corpus").toString()));
+		this.config = Corpus.config(this.dir);
+		this.stdout = System.out;
+	}
+
+	@Setup(Level.Invocation)
+	public void redirectReport() {
+		// the batch report closes its destination, so every run gets a fresh one
+		System.setOut(Corpus.nullStream());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		System.setOut(this.stdout);
+		Corpus.delete(this.dir);
+	}
+
+	@Benchmark
+	public ExitCodes process() throws InterruptedException {
+		return MultiThreadProcessor.process(this.args, this.config);
+	}
+}
@@ -0,0 +1,102 @@
+/**
+ * This file is part of veraPDF Benchmarks, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Benchmarks as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Benchmarks as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.verapdf.cli.commands.VeraCliArgParser;
+import org.verapdf.cli.multithread.ReportFrame;
+import org.verapdf.cli.server.ValidationClient;
+import org.verapdf.cli.server.ValidationRequest;
+import org.verapdf.cli.server.ValidationServer;
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.pdfa.flavours.PDFAFlavour;
+import org.verapdf.processor.FormatOption;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation requests sent to a server mode daemon over its loopback socket,
+ * either as a path the daemon reads or with the document bytes inline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ServerRoundTripBenchmark {
+	@Param({ "false", "true" })
+	public boolean inline;
+
+	@Param({ "4" })
+	public int pages;
+
+	private Path dir;
+	private ValidationServer server;
+	private ValidationClient client;
+	private ValidationRequest request;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, VeraPDFException {
+		Corpus.initialise();
+		this.dir = Files.createTempDirectory("veraPDF-benchmark");
+		File document = Corpus.documents(this.dir.resolve("corpus"), 1, this.pages).get(0);
+		VeraCliArgParser args = Corpus.parse(Arrays.asList(VeraCliArgParser.FLAVOUR_FLAG, "1b"));
+		this.server = new ValidationServer(args, Corpus.config(this.dir), 0);
+		Thread serverThread = new Thread(this.server::serve, "veraPDF-benchmark-server");
+		serverThread.setDaemon(true);
+		serverThread.start();
+		this.client = new ValidationClient(this.server.getPort());
+		this.request = this.inline
+				? ValidationRequest.forBytes(PDFAFlavour.PDFA_1_B, FormatOption.XML, document.getName(),
+						Files.readAllBytes(document.toPath()))
+				: ValidationRequest.forPath(PDFAFlavour.PDFA_1_B, FormatOption.XML, document.getAbsolutePath());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		this.client.close();
+		this.server.close();
+		Corpus.delete(this.dir);
+	}
+
+	@Benchmark
+	public ReportFrame roundTrip() throws IOException {
+		return this.client.validate(this.request);
+	}
+}
@@ -0,0 +1,114 @@
+/**
+ * This file is part of veraPDF Benchmarks, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Benchmarks as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Benchmarks as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.verapdf.benchmarks.Corpus;
+import org.verapdf.cli.CliConstants.ExitCodes;
+import org.verapdf.cli.commands.VeraCliArgParser;
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.processor.app.ConfigManager;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single process validation of a directory, the path taken by a CLI run
+ * without {@code --processes}. Lives in the CLI package as the processor isn't
+ * public.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CliProcessorBenchmark {
+	@Param({ "xml", "text" })
+	public String format;
+
+	@Param({ "16" })
+	public int documents;
+
+	@Param({ "4" })
+	public int pages;
+
+	private Path dir;
+	private List<String> paths;
+	private VeraCliArgParser args;
+	private ConfigManager config;
+	private VeraPdfCliProcessor processor;
+	private PrintStream stdout;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		Corpus.initialise();
+		this.dir = Files.createTempDirectory("veraPDF-benchmark");
+		Corpus.documents(this.dir.resolve("corpus"), this.documents, this.pages);
+		this.paths = Collections.singletonList(this.dir.resolve("corpus").toString());
+		this.args = Corpus.parse(Arrays.asList(VeraCliArgParser.FLAVOUR_FLAG, "1b",
+				VeraCliArgParser.FORMAT, this.format, VeraCliArgParser.RECURSE_FLAG));
+		this.config = Corpus.config(this.dir);
+		this.stdout = System.out;
+	}
+
+	@Setup(Level.Invocation)
+	public void createProcessor() throws VeraPDFException {
+		// the batch report closes its destination, so every run gets a fresh one
+		// and a processor that writes to it
+		System.setOut(Corpus.nullStream());
+		this.processor = VeraPdfCliProcessor.createProcessorFromArgs(this.args, this.config);
+	}
+
+	@TearDown(Level.Invocation)
+	public void closeProcessor() {
+		this.processor.close();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		System.setOut(this.stdout);
+		Corpus.delete(this.dir);
+	}
+
+	@Benchmark
+	public ExitCodes processFilePaths() throws VeraPDFException {
+		return this.processor.processPaths(this.paths, false);
+	}
+}
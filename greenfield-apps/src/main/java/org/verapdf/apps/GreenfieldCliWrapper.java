@@ -23,6 +23,7 @@
  */
 package org.verapdf.apps;
 
+import org.verapdf.apps.utils.SeekableSources;
 import org.verapdf.cli.VeraPdfCli;
 import org.verapdf.core.VeraPDFException;
 import org.verapdf.gf.foundry.VeraGreenfieldFoundryProvider;
@@ -51,6 +52,7 @@ public final class GreenfieldCliWrapper {
 	public static void main(String[] args) throws VeraPDFException {
 		// TODO Auto-generated method stub
 		VeraGreenfieldFoundryProvider.initialise();
+		SeekableSources.setProvider(new GreenfieldSourceProvider());
 		VeraPdfCli.main(args);
 	}
 
@@ -0,0 +1,45 @@
+/**
+ * This file is part of veraPDF Greenfield Applications, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Greenfield Applications is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Greenfield Applications as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Greenfield Applications as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps;
+
+import org.verapdf.apps.utils.SeekableSources;
+import org.verapdf.as.io.ASMemoryInStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Random access sources of the greenfield parser, used as they are instead of
+ * being copied to a temp file.
+ */
+public final class GreenfieldSourceProvider implements SeekableSources.Provider {
+
+	@Override
+	public InputStream map(final File file) throws IOException {
+		return MappedInputStream.open(file);
+	}
+
+	@Override
+	public InputStream wrap(final byte[] buffer, final int length) {
+		return new ASMemoryInStream(buffer, length, false);
+	}
+}
@@ -0,0 +1,238 @@
+/**
+ * This file is part of veraPDF Greenfield Applications, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Greenfield Applications is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Greenfield Applications as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Greenfield Applications as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps;
+
+import org.verapdf.as.io.ASInputStream;
+import org.verapdf.io.SeekableInputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Random access PDF source reading a memory mapped file. Files are mapped in
+ * 1GB segments, so files larger than a single {@link ByteBuffer} can address
+ * are mapped too. Sub streams share the mapping of the stream they were
+ * created from, the parser seeks in and slices the file without copying it.
+ * <p>
+ * The mapping is released by the garbage collector once no stream refers to
+ * it, closing a stream only stops further reads.
+ */
+public final class MappedInputStream extends SeekableInputStream {
+	private static final int SEGMENT_SHIFT = 30;
+	private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+	private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+	private final ByteBuffer[] segments;
+	private final long fileLength;
+	/** Per stream duplicates of the segments, used for bulk reads */
+	private final ByteBuffer[] readers;
+	private final long fromOffset;
+	private final long size;
+	private long offset;
+	private long resetPosition;
+
+	private MappedInputStream(final ByteBuffer[] segments, final long fileLength, final long fromOffset,
+			final long size) {
+		this.segments = segments;
+		this.fileLength = fileLength;
+		this.readers = new ByteBuffer[segments.length];
+		this.fromOffset = fromOffset;
+		this.size = size;
+	}
+
+	/**
+	 * Maps a file read only.
+	 *
+	 * @param file the file to map
+	 * @return a stream over the whole file
+	 * @throws IOException when the file can't be mapped
+	 */
+	public static MappedInputStream open(final File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long length = channel.size();
+			ByteBuffer[] segments = new ByteBuffer[(int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+			for (int i = 0; i < segments.length; i++) {
+				long start = (long) i << SEGMENT_SHIFT;
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, length - start));
+			}
+			// the mapping stays valid after the channel is closed
+			return new MappedInputStream(segments, length, 0, length);
+		}
+	}
+
+	@Override
+	public int read() throws IOException {
+		checkClosed("Reading");
+		if (this.offset >= this.size) {
+			return -1;
+		}
+		return byteAt(this.fromOffset + this.offset++) & 0xFF;
+	}
+
+	@Override
+	public int read(final byte[] buffer, final int size) throws IOException {
+		return read(buffer, 0, size);
+	}
+
+	@Override
+	public int read(final byte[] buffer) throws IOException {
+		return read(buffer, 0, buffer.length);
+	}
+
+	@Override
+	public int read(final byte[] buffer, final int off, final int len) throws IOException {
+		checkClosed("Reading");
+		if (len == 0) {
+			return 0;
+		}
+		long left = this.size - this.offset;
+		if (left <= 0) {
+			return -1;
+		}
+		int toRead = (int) Math.min(len, left);
+		int read = 0;
+		while (read < toRead) {
+			long position = this.fromOffset + this.offset;
+			ByteBuffer reader = reader((int) (position >>> SEGMENT_SHIFT));
+			reader.position((int) (position & SEGMENT_MASK));
+			int chunk = Math.min(toRead - read, reader.remaining());
+			reader.get(buffer, off + read, chunk);
+			read += chunk;
+			this.offset += chunk;
+		}
+		return read;
+	}
+
+	@Override
+	public int skip(final int size) throws IOException {
+		checkClosed("Skipping");
+		long newOffset = Math.min(this.offset + size, this.size);
+		int skipped = (int) (newOffset - this.offset);
+		this.offset = newOffset;
+		return skipped;
+	}
+
+	@Override
+	public long skip(final long n) throws IOException {
+		return n <= 0 ? 0 : skip((int) Math.min(n, Integer.MAX_VALUE));
+	}
+
+	@Override
+	public int available() throws IOException {
+		return (int) Math.min(this.size - this.offset, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public boolean markSupported() {
+		return true;
+	}
+
+	@Override
+	public synchronized void mark(final int readlimit) {
+		this.resetPosition = this.offset;
+	}
+
+	@Override
+	public void reset() throws IOException {
+		seek(this.resetPosition);
+	}
+
+	@Override
+	public void seek(final long offset) throws IOException {
+		checkClosed("Seeking");
+		if (offset < 0) {
+			throw new IOException("Can't seek for offset " + offset + " in MappedInputStream");
+		}
+		if (offset > this.size) {
+			throw new IllegalArgumentException("Destination offset is greater than stream length");
+		}
+		this.offset = offset;
+	}
+
+	@Override
+	public int peek() throws IOException {
+		checkClosed("Peeking");
+		if (this.offset >= this.size) {
+			return -1;
+		}
+		return byteAt(this.fromOffset + this.offset) & 0xFF;
+	}
+
+	@Override
+	public long getOffset() throws IOException {
+		checkClosed("Offset obtaining");
+		return this.offset;
+	}
+
+	@Override
+	public long getCurrentOffset() {
+		return this.fromOffset + this.offset;
+	}
+
+	@Override
+	public long getStreamLength() throws IOException {
+		checkClosed("Stream length obtaining");
+		return this.size;
+	}
+
+	@Override
+	public ASInputStream getStream(final long startOffset, final long length) throws IOException {
+		return getSeekableStream(startOffset, length);
+	}
+
+	@Override
+	public SeekableInputStream getSeekableStream(final long startOffset, final long length) throws IOException {
+		long from = this.fromOffset + startOffset;
+		long streamLeft = this.fileLength - from;
+		if (streamLeft < 0) {
+			throw new IOException("Offset is greater than full stream size");
+		}
+		return new MappedInputStream(this.segments, this.fileLength, from,
+				length < 0 ? streamLeft : Math.min(length, streamLeft));
+	}
+
+	@Override
+	public void closeResource() {
+		this.isSourceClosed = true;
+	}
+
+	private byte byteAt(final long position) {
+		return this.segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & SEGMENT_MASK));
+	}
+
+	private ByteBuffer reader(final int segment) {
+		ByteBuffer reader = this.readers[segment];
+		if (reader == null) {
+			reader = this.segments[segment].duplicate();
+			this.readers[segment] = reader;
+		}
+		return reader;
+	}
+
+	private void checkClosed(final String streamUsage) throws IOException {
+		if (this.isSourceClosed) {
+			throw new IOException(streamUsage + " can't be performed; stream is closed");
+		}
+	}
+}
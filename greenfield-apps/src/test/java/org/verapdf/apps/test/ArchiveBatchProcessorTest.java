@@ -0,0 +1,142 @@
+/**
+ * This file is part of veraPDF Greenfield Applications, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Greenfield Applications is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Greenfield Applications as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Greenfield Applications as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.test;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.verapdf.apps.utils.ArchiveBatchProcessor;
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.gf.foundry.VeraGreenfieldFoundryProvider;
+import org.verapdf.processor.BatchProcessingHandler;
+import org.verapdf.processor.BatchProcessor;
+import org.verapdf.processor.ProcessorConfig;
+import org.verapdf.processor.ProcessorFactory;
+import org.verapdf.processor.ProcessorResult;
+import org.verapdf.processor.reports.BatchSummary;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class ArchiveBatchProcessorTest {
+    private static final String[] TEST_FILES = {"src/test/resources/veraPDFtest-pass-a.pdf",
+            "src/test/resources/tmpFilesTest.pdf"};
+    private static final int ENTRIES = 12;
+
+    private static File archive;
+
+    @BeforeClass
+    public static void createArchive() throws IOException {
+        VeraGreenfieldFoundryProvider.initialise();
+        archive = File.createTempFile("entries", ".zip");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(archive))) {
+            zip.putNextEntry(new ZipEntry("dir/"));
+            zip.putNextEntry(new ZipEntry("readme.txt"));
+            zip.write(new byte[] {'t', 'x', 't'});
+            for (int i = 0; i < ENTRIES; i++) {
+                zip.putNextEntry(new ZipEntry("dir/" + i + ".pdf"));
+                zip.write(Files.readAllBytes(Paths.get(TEST_FILES[i % TEST_FILES.length])));
+            }
+        }
+    }
+
+    @AfterClass
+    public static void deleteArchive() {
+        archive.delete();
+    }
+
+    @Test
+    public void testSameResultsAsSequential() throws VeraPDFException, IOException {
+        List<String> sequential = process(1);
+        List<String> parallel = process(4);
+        assertEquals(ENTRIES, parallel.size());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void testDirectoryRecursion() throws VeraPDFException, IOException {
+        File dir = Files.createTempDirectory("entries").toFile();
+        File subDir = new File(dir, "sub");
+        try {
+            subDir.mkdir();
+            Files.copy(Paths.get(TEST_FILES[0]), new File(dir, "top.pdf").toPath());
+            Files.copy(Paths.get(TEST_FILES[0]), new File(subDir, "nested.pdf").toPath());
+            assertEquals(1, processDir(dir, false));
+            assertEquals(2, processDir(dir, true));
+        } finally {
+            new File(subDir, "nested.pdf").delete();
+            subDir.delete();
+            new File(dir, "top.pdf").delete();
+            dir.delete();
+        }
+    }
+
+    private static List<String> process(final int threads) throws VeraPDFException, IOException {
+        ProcessorConfig config = ProcessorFactory.defaultConfig();
+        List<String> results = new ArrayList<>();
+        try (BatchProcessor processor = ArchiveBatchProcessor.create(config, false, threads)) {
+            BatchSummary summary = processor.process(Collections.singletonList(archive), collector(results));
+            assertEquals(ENTRIES, summary.getTotalJobs());
+        }
+        return results;
+    }
+
+    private static int processDir(final File dir, final boolean recurse) throws VeraPDFException, IOException {
+        List<String> results = new ArrayList<>();
+        try (BatchProcessor processor = ArchiveBatchProcessor.create(ProcessorFactory.defaultConfig(), false, 1)) {
+            processor.process(dir, recurse, collector(results));
+        }
+        return results.size();
+    }
+
+    private static BatchProcessingHandler collector(final List<String> results) {
+        return new BatchProcessingHandler() {
+            @Override
+            public void handleBatchStart(final ProcessorConfig processorConfig) {
+            }
+
+            @Override
+            public void handleResult(final ProcessorResult result, final Boolean isLogsEnabled) {
+                results.add(result.getProcessedItem().getName() + ' ' + result.getValidationResults().size() + ' '
+                        + result.getValidationResults().get(0).isCompliant() + ' '
+                        + result.getValidationResults().get(0).getTotalAssertions());
+            }
+
+            @Override
+            public void handleBatchEnd(final BatchSummary batchSummary) {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * This file is part of veraPDF Greenfield Applications, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Greenfield Applications is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Greenfield Applications as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Greenfield Applications as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.test;
+
+import com.beust.jcommander.JCommander;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.verapdf.apps.Applications;
+import org.verapdf.cli.CliConstants.ExitCodes;
+import org.verapdf.cli.commands.VeraCliArgParser;
+import org.verapdf.cli.multithread.MultiThreadProcessor;
+import org.verapdf.gf.foundry.VeraGreenfieldFoundryProvider;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs the {@code --inprocess} workers over fixture files and checks the
+ * report merged from their document reports and the exit code of the run.
+ */
+public class InProcessRunnerTest {
+    private static final String TEST_FILE = "src/test/resources/veraPDFtest-pass-a.pdf";
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private ExitCodes exitCode;
+    private Document report;
+
+    @BeforeClass
+    public static void init() {
+        VeraGreenfieldFoundryProvider.initialise();
+    }
+
+    @Test
+    public void testCompliantFiles() throws Exception {
+        run(copy("first.pdf"), copy("second.pdf"), copy("third.pdf"));
+        assertEquals(ExitCodes.VALID, this.exitCode);
+        assertEquals(3, this.report.getElementsByTagName("job").getLength());
+        assertEquals("3", batchSummary().getAttribute("totalJobs"));
+        assertEquals("0", batchSummary().getAttribute("failedToParse"));
+        assertEquals("3", validationReports().getAttribute("compliant"));
+    }
+
+    @Test
+    public void testWorstExitCodeReturned() throws Exception {
+        File broken = this.tempFolder.newFile("broken.pdf");
+        Files.write(broken.toPath(), "not a PDF".getBytes(StandardCharsets.US_ASCII));
+        run(copy("first.pdf"), broken, copy("second.pdf"));
+        assertEquals(ExitCodes.FAILED_PARSING, this.exitCode);
+        assertEquals(3, this.report.getElementsByTagName("job").getLength());
+        assertEquals("3", batchSummary().getAttribute("totalJobs"));
+        assertEquals("1", batchSummary().getAttribute("failedToParse"));
+        assertEquals("2", validationReports().getAttribute("compliant"));
+    }
+
+    private File copy(String name) throws IOException {
+        File copy = new File(this.tempFolder.getRoot(), name);
+        Files.copy(Paths.get(TEST_FILE), copy.toPath());
+        return copy;
+    }
+
+    private void run(File... files) throws Exception {
+        List<String> args = new ArrayList<>();
+        args.add("--inprocess");
+        args.add("--processes");
+        args.add("2");
+        for (File file : files) {
+            args.add(file.getAbsolutePath());
+        }
+        VeraCliArgParser parser = new VeraCliArgParser();
+        new JCommander(parser).parse(args.toArray(new String[0]));
+        // the merged report is written to the standard output
+        ByteArrayOutputStream merged = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(merged, true, "UTF-8"));
+        try {
+            this.exitCode = MultiThreadProcessor.process(parser,
+                    Applications.createConfigManager(this.tempFolder.newFolder("config")));
+        } finally {
+            System.setOut(out);
+        }
+        this.report = parse(merged.toByteArray());
+    }
+
+    private static Document parse(byte[] report) throws ParserConfigurationException, SAXException, IOException {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(report));
+    }
+
+    private Element batchSummary() {
+        return (Element) this.report.getElementsByTagName("batchSummary").item(0);
+    }
+
+    private Element validationReports() {
+        return (Element) batchSummary().getElementsByTagName("validationReports").item(0);
+    }
+}
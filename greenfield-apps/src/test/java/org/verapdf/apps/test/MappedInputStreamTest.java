@@ -0,0 +1,88 @@
+/**
+ * This file is part of veraPDF Greenfield Applications, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Greenfield Applications is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Greenfield Applications as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Greenfield Applications as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.test;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.verapdf.apps.MappedInputStream;
+import org.verapdf.io.SeekableInputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MappedInputStreamTest {
+
+    private static final byte[] CONTENT = "%PDF-1.7\n1 0 obj\n<< >>\nendobj\n%%EOF\n".getBytes(StandardCharsets.US_ASCII);
+
+    private static File file;
+
+    @BeforeClass
+    public static void createFile() throws IOException {
+        file = File.createTempFile("mapped", ".pdf");
+        Files.write(file.toPath(), CONTENT);
+    }
+
+    @AfterClass
+    public static void deleteFile() {
+        file.delete();
+    }
+
+    @Test
+    public void testReadAndSeek() throws IOException {
+        try (MappedInputStream stream = MappedInputStream.open(file)) {
+            assertEquals(CONTENT.length, stream.getStreamLength());
+            assertEquals('%', stream.read());
+            assertEquals('P', stream.peek());
+            byte[] header = new byte[7];
+            assertEquals(7, stream.read(header, 7));
+            assertArrayEquals("PDF-1.7".getBytes(StandardCharsets.US_ASCII), header);
+            stream.seekFromEnd(6);
+            assertEquals('%', stream.read());
+            assertEquals(5, stream.skip(10));
+            assertEquals(-1, stream.read());
+            assertEquals(-1, stream.read(header, 7));
+            stream.unread(6);
+            assertEquals(CONTENT.length - 6, stream.getOffset());
+        }
+    }
+
+    @Test
+    public void testSubStreams() throws IOException {
+        try (MappedInputStream stream = MappedInputStream.open(file)) {
+            stream.seek(9);
+            SeekableInputStream rest = SeekableInputStream.getSeekableStream(stream);
+            assertEquals(CONTENT.length - 9, rest.getStreamLength());
+            assertEquals('1', rest.read());
+            assertEquals(10, rest.getCurrentOffset());
+            SeekableInputStream object = rest.getSeekableStream(0, 7);
+            byte[] objectHeader = new byte[16];
+            assertEquals(7, object.read(objectHeader, 16));
+            assertEquals("1 0 obj", new String(objectHeader, 0, 7, StandardCharsets.US_ASCII));
+            assertEquals(-1, object.read());
+        }
+    }
+}
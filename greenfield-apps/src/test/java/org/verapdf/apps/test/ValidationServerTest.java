@@ -0,0 +1,122 @@
+/**
+ * This file is part of veraPDF Greenfield Applications, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Greenfield Applications is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Greenfield Applications as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Greenfield Applications as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.test;
+
+import com.beust.jcommander.JCommander;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.verapdf.apps.Applications;
+import org.verapdf.apps.utils.DocumentWatchdog;
+import org.verapdf.cli.CliConstants.ExitCodes;
+import org.verapdf.cli.commands.VeraCliArgParser;
+import org.verapdf.cli.multithread.ReportFrame;
+import org.verapdf.cli.server.ValidationClient;
+import org.verapdf.cli.server.ValidationRequest;
+import org.verapdf.cli.server.ValidationServer;
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.gf.foundry.VeraGreenfieldFoundryProvider;
+import org.verapdf.pdfa.flavours.PDFAFlavour;
+import org.verapdf.processor.FormatOption;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ValidationServerTest {
+    private static final String TEST_FILE = "src/test/resources/veraPDFtest-pass-a.pdf";
+
+    private static ValidationServer server;
+    private static Thread serverThread;
+
+    @BeforeClass
+    public static void startServer() throws VeraPDFException, IOException {
+        VeraGreenfieldFoundryProvider.initialise();
+        // processors keep the foundry they're first given, the watchdog has to wrap it before the server starts
+        DocumentWatchdog.install(TimeUnit.HOURS.toMillis(1), 0);
+        VeraCliArgParser parser = new VeraCliArgParser();
+        new JCommander(parser).parse("--maxdocumentsize", "1");
+        server = new ValidationServer(parser,
+                Applications.createConfigManager(Files.createTempDirectory("").toFile()), 0);
+        serverThread = new Thread(server::serve, "veraPDF test server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+    }
+
+    @AfterClass
+    public static void stopServer() throws InterruptedException {
+        server.close();
+        serverThread.join(10000);
+    }
+
+    @Test
+    public void testReportReturned() throws IOException {
+        byte[] document = Files.readAllBytes(Paths.get(TEST_FILE));
+        try (ValidationClient client = new ValidationClient(server.getPort())) {
+            ReportFrame frame = client.validate(ValidationRequest.forBytes(PDFAFlavour.NO_FLAVOUR, FormatOption.XML,
+                    "veraPDFtest-pass-a.pdf", document));
+            assertEquals(ExitCodes.VALID, frame.getExitCode());
+            String report = new String(frame.getReport(), StandardCharsets.UTF_8);
+            assertTrue(report, report.contains("isCompliant=\"true\""));
+            assertTrue(report, report.contains("veraPDFtest-pass-a.pdf"));
+
+            frame = client.validate(ValidationRequest.forPath(PDFAFlavour.NO_FLAVOUR, FormatOption.XML,
+                    Paths.get(TEST_FILE).toAbsolutePath().toString()));
+            assertEquals(ExitCodes.VALID, frame.getExitCode());
+        }
+    }
+
+    @Test
+    public void testRejectedRequestKeepsConnection() throws IOException {
+        byte[] document = Files.readAllBytes(Paths.get(TEST_FILE));
+        try (ValidationClient client = new ValidationClient(server.getPort())) {
+            ReportFrame frame = client.validate(ValidationRequest.forBytes(PDFAFlavour.NO_FLAVOUR, FormatOption.XML,
+                    "large.pdf", new byte[2 * 1024 * 1024]));
+            assertEquals(ExitCodes.BAD_PARAMS, frame.getExitCode());
+            assertEquals(0, frame.getReport().length);
+
+            frame = client.validate(ValidationRequest.forBytes(PDFAFlavour.NO_FLAVOUR, FormatOption.XML,
+                    "veraPDFtest-pass-a.pdf", document));
+            assertEquals(ExitCodes.VALID, frame.getExitCode());
+        }
+    }
+
+    @Test
+    public void testTimedOutJobReported() throws IOException {
+        byte[] document = Files.readAllBytes(Paths.get(TEST_FILE));
+        DocumentWatchdog.setExpiring(true);
+        try (ValidationClient client = new ValidationClient(server.getPort())) {
+            ReportFrame frame = client.validate(ValidationRequest.forBytes(PDFAFlavour.NO_FLAVOUR, FormatOption.XML,
+                    "veraPDFtest-pass-a.pdf", document));
+            assertEquals(ExitCodes.TIMEOUT, frame.getExitCode());
+        } finally {
+            DocumentWatchdog.setExpiring(false);
+        }
+        assertTrue(Arrays.asList(server.getMetrics().scrape().split("\n"))
+                .contains("verapdf_job_results_total{exit_code=\"TIMEOUT\"} 1"));
+    }
+}
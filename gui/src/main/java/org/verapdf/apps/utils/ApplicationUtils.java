@@ -85,7 +85,7 @@ public final class ApplicationUtils {
 			}
 			if (file.isFile()) {
 				if (nonPdfExt || FileUtils.hasExtNoCase(file.getName(), GUIConstants.PDF) ||
-						FileUtils.hasExtNoCase(file.getName(), GUIConstants.ZIP)) {
+						isArchive(file.getName())) {
 					retVal.add(file);
 				} else {
 					LOGGER.log(Level.SEVERE, "File " + file.getAbsolutePath() + " doesn't have a .pdf extension. Try using --nonpdfext flag");
@@ -134,6 +134,32 @@ public final class ApplicationUtils {
 		return true;
 	}
 
+	/**
+	 * Checks whether a file is an archive whose PDF entries are processed.
+	 *
+	 * @param fileName
+	 *            the name of the file
+	 * @return true for zip archives and for tar archives, see
+	 *         {@link #isTar(String)}
+	 */
+	public static boolean isArchive(final String fileName) {
+		return FileUtils.hasExtNoCase(fileName, GUIConstants.ZIP) || isTar(fileName);
+	}
+
+	/**
+	 * Checks whether a file is a tar archive, plain or compressed with gzip or
+	 * Zstandard.
+	 *
+	 * @param fileName
+	 *            the name of the file
+	 * @return true for .tar, .tar.gz, .tgz and .tar.zst files
+	 */
+	public static boolean isTar(final String fileName) {
+		return FileUtils.hasExtNoCase(fileName, GUIConstants.TAR) || FileUtils.hasExtNoCase(fileName, GUIConstants.TAR_GZ)
+				|| FileUtils.hasExtNoCase(fileName, GUIConstants.TGZ)
+				|| FileUtils.hasExtNoCase(fileName, GUIConstants.TAR_ZST);
+	}
+
 	/**
 	 * Checks a list of files to ensure that they all have an extension supplied
 	 * in the list of extensions
@@ -0,0 +1,533 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.core.utils.FileUtils;
+import org.verapdf.core.utils.LogsFileHandler;
+import org.verapdf.gui.utils.GUIConstants;
+import org.verapdf.pdfa.validation.validators.ValidatorConfig;
+import org.verapdf.processor.AbstractBatchProcessor;
+import org.verapdf.processor.BatchFileProcessor;
+import org.verapdf.processor.BatchProcessor;
+import org.verapdf.processor.ItemProcessor;
+import org.verapdf.processor.ProcessorConfig;
+import org.verapdf.processor.ProcessorFactory;
+import org.verapdf.processor.ProcessorResult;
+import org.verapdf.processor.reports.ItemDetails;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * File batch processor reading the PDF entries of zip and tar archives
+ * without unpacking them, optionally validating the entries on a pool of
+ * threads.
+ * <p>
+ * Zip entries are decompressed by the thread validating them, straight from
+ * the archive. Tar archives, plain or compressed with gzip or Zstandard, are
+ * read in a single pass: every entry is buffered, in memory or in a temp file
+ * for large entries, and handed to a validation thread while the archive is
+ * still being read. Only a few entries per thread are in flight ahead of the
+ * entry whose result is handled next, so archives of any size are never
+ * inflated as a whole. With a single thread entries are validated on the
+ * calling thread, tar entries straight from the archive stream.
+ * <p>
+ * Results are handed to the batch handler on the calling thread and in the
+ * order of the archive, the report is the same as a sequential one. Entries
+ * validated on threads can share a {@link MemoryBudget}, an entry waits for
+ * the results ahead of it to be handled until its estimate fits. A result
+ * refers to the state of the processor that produced it, so every entry in
+ * flight holds a processor of its own until its result is handled.
+ * <p>
+ * Files outside of archives are processed one by one. The library's
+ * {@link BatchFileProcessor} can't be extended, so directory walking, log
+ * files and item logging mirror it as of veraPDF library 1.29, the range the
+ * apps are built against. Keep them in step when the library version moves.
+ */
+public final class ArchiveBatchProcessor extends AbstractBatchProcessor {
+	private static final Logger LOGGER = Logger.getLogger(ArchiveBatchProcessor.class.getCanonicalName());
+
+	/** Entries validated or waiting for their result to be handled, per thread */
+	private static final int ENTRIES_PER_THREAD = 2;
+	/** Size up to which a tar entry is buffered in memory rather than in a temp file */
+	private static final long ENTRY_SPILL_THRESHOLD = 16 * 1024 * 1024;
+	private static final String ZSTD_INPUT_STREAM = "com.github.luben.zstd.ZstdInputStream"; //$NON-NLS-1$
+
+	private final ProcessorConfig config;
+	private final int threads;
+	private final MemoryBudget budget;
+	private final Queue<ItemProcessor> idleProcessors = new ConcurrentLinkedQueue<>();
+	private final List<ItemProcessor> entryProcessors = new CopyOnWriteArrayList<>();
+	private ExecutorService executor;
+
+	private ArchiveBatchProcessor(final ProcessorConfig config, final boolean isMapped, final int threads,
+			final MemoryBudget budget) {
+		super(MappedItemProcessor.createProcessor(config, isMapped));
+		this.config = config;
+		this.threads = threads;
+		this.budget = budget;
+	}
+
+	/**
+	 * @param config the processor configuration
+	 * @param isMapped whether files should be memory mapped
+	 * @param threads the number of threads validating the entries of an archive
+	 * @return a batch processor validating archive entries on {@code threads}
+	 *         threads, or on the calling thread if a single thread is requested
+	 *         or per document log files are enabled
+	 */
+	public static BatchProcessor create(final ProcessorConfig config, final boolean isMapped, final int threads) {
+		return create(config, isMapped, threads, null);
+	}
+
+	/**
+	 * @param config the processor configuration
+	 * @param isMapped whether files should be memory mapped
+	 * @param threads the number of threads validating the entries of an archive
+	 * @param budget the memory budget of the entries validated at once, null
+	 *            for none
+	 * @return a batch processor validating archive entries on {@code threads}
+	 *         threads within the budget, or on the calling thread if a single
+	 *         thread is requested or per document log files are enabled
+	 */
+	public static BatchProcessor create(final ProcessorConfig config, final boolean isMapped, final int threads,
+			final MemoryBudget budget) {
+		if (threads > 1 && config.getValidatorConfig().isLogsEnabled()) {
+			// log files are switched per document, which only works for one document at a time
+			LOGGER.log(Level.WARNING, "Archive entries are validated one by one when logs are added to reports");
+			return new ArchiveBatchProcessor(config, isMapped, 1, null);
+		}
+		return new ArchiveBatchProcessor(config, isMapped, Math.max(threads, 1), threads > 1 ? budget : null);
+	}
+
+	@Override
+	protected void processContainer(final File container, final boolean recurse) throws VeraPDFException {
+		if (container == null || !container.isDirectory() || !container.canRead()) {
+			LOGGER.log(Level.SEVERE, "Couldn't process: " + container + " is not a readable directory.");
+		} else {
+			processDir(container, recurse);
+		}
+	}
+
+	@Override
+	protected void processList(final List<? extends File> toProcess) throws VeraPDFException {
+		configLogs();
+		for (File file : toProcess) {
+			if (file == null || !file.isFile() || !file.canRead()) {
+				LOGGER.log(Level.SEVERE, "Couldn't process: " + file + " is not a readable file.");
+			} else if (FileUtils.hasExtNoCase(file.getName(), GUIConstants.ZIP)) {
+				processZip(file);
+			} else if (ApplicationUtils.isTar(file.getName())) {
+				processTar(file);
+			} else {
+				processItem(file);
+			}
+		}
+	}
+
+	@Override
+	protected void process(final ItemDetails fileDetails, final InputStream item) throws VeraPDFException {
+		configLogs();
+		startItem(fileDetails.getName());
+		processResult(this.processor.process(fileDetails, item), isLogsEnabled());
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.executor != null) {
+			this.executor.shutdownNow();
+		}
+		for (ItemProcessor entryProcessor : this.entryProcessors) {
+			try {
+				entryProcessor.close();
+			} catch (IOException e) {
+				LOGGER.log(Level.FINER, "Can't close archive entry processor", e);
+			}
+		}
+		super.close();
+	}
+
+	private void processDir(final File dir, final boolean recurse) throws VeraPDFException {
+		for (File item : dir.listFiles()) {
+			if (item.isHidden() || !item.canRead()) {
+				continue;
+			}
+			if (item.isDirectory()) {
+				if (recurse) {
+					processDir(item, true);
+				}
+			} else if (item.isFile() && FileUtils.hasExtNoCase(item.getName(), GUIConstants.PDF)) {
+				processItem(item);
+			}
+		}
+	}
+
+	private void processItem(final File item) throws VeraPDFException {
+		startItem(item.getAbsolutePath());
+		processResult(this.processor.process(item), isLogsEnabled());
+	}
+
+	private void processZip(final File archive) throws VeraPDFException {
+		Deque<PendingEntry> pending = new ArrayDeque<>();
+		try (ZipFile zipFile = new ZipFile(archive)) {
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				if (entry.isDirectory() || !isToProcess(entry.getName())) {
+					continue;
+				}
+				ItemDetails details = entryDetails(archive, entry.getName(), entry.getSize());
+				long reservation = reserve(pending, entry.getSize());
+				submit(pending, new PendingEntry(details, () -> zipFile.getInputStream(entry), null, reservation));
+			}
+			handleAll(pending);
+		} catch (IOException e) {
+			throw new VeraPDFException(e.getMessage(), e);
+		} finally {
+			discardAll(pending);
+		}
+	}
+
+	private void processTar(final File archive) throws VeraPDFException {
+		Deque<PendingEntry> pending = new ArrayDeque<>();
+		try (InputStream archiveStream = openTar(archive)) {
+			TarInputStream tar = new TarInputStream(archiveStream);
+			TarInputStream.Entry entry = tar.next();
+			while (entry != null) {
+				if (entry.isFile() && isToProcess(entry.getName())) {
+					ItemDetails details = entryDetails(archive, entry.getName(), entry.getSize());
+					if (this.threads == 1) {
+						InputStream content = entry.getContent();
+						submit(pending, new PendingEntry(details, () -> content, null, 0));
+					} else {
+						// the archive is read on, the entry is validated from its own buffer
+						long reservation = reserve(pending, entry.getSize());
+						StreamSpool spool;
+						try {
+							spool = StreamSpool.read(entry.getContent(), ENTRY_SPILL_THRESHOLD);
+						} catch (IOException | RuntimeException e) {
+							release(reservation);
+							throw e;
+						}
+						submit(pending, new PendingEntry(details, spool::open, spool, reservation));
+					}
+				}
+				entry = tar.next();
+			}
+			handleAll(pending);
+		} catch (IOException e) {
+			throw new VeraPDFException(e.getMessage(), e);
+		} finally {
+			discardAll(pending);
+		}
+	}
+
+	private static InputStream openTar(final File archive) throws IOException {
+		InputStream stream = new BufferedInputStream(new FileInputStream(archive), 64 * 1024);
+		try {
+			String name = archive.getName();
+			if (FileUtils.hasExtNoCase(name, GUIConstants.TAR_GZ) || FileUtils.hasExtNoCase(name, GUIConstants.TGZ)) {
+				return new GZIPInputStream(stream, 64 * 1024);
+			}
+			if (FileUtils.hasExtNoCase(name, GUIConstants.TAR_ZST)) {
+				return zstdStream(stream);
+			}
+			return stream;
+		} catch (IOException | RuntimeException e) {
+			stream.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Zstandard isn't supported by the JDK, archives are decompressed with
+	 * zstd-jni when it's on the class path.
+	 */
+	private static InputStream zstdStream(final InputStream stream) throws IOException {
+		try {
+			return (InputStream) Class.forName(ZSTD_INPUT_STREAM).getConstructor(InputStream.class)
+					.newInstance(stream);
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Reading .tar.zst archives requires zstd-jni on the class path", e);
+		} catch (InvocationTargetException e) {
+			throw new IOException("Can't read Zstandard compressed archive", e.getCause());
+		} catch (ReflectiveOperationException e) {
+			throw new IOException("Can't read Zstandard compressed archive", e);
+		}
+	}
+
+	private boolean isToProcess(final String entryName) {
+		return validatorConfig().getNonPDFExtension() || FileUtils.hasExtNoCase(entryName, GUIConstants.PDF);
+	}
+
+	private static ItemDetails entryDetails(final File archive, final String entryName, final long size) {
+		return ItemDetails.fromValues(archive.getAbsolutePath() + File.separator
+				+ entryName.replace("/", File.separator).replace("\\", File.separator), size); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private void submit(final Deque<PendingEntry> pending, final PendingEntry entry) throws VeraPDFException {
+		if (pending.size() == inFlightLimit()) {
+			try {
+				handle(pending.removeFirst());
+			} catch (VeraPDFException | RuntimeException e) {
+				entry.discard();
+				release(entry.reservation);
+				throw e;
+			}
+		}
+		startItem(entry.details.getName());
+		if (this.threads == 1) {
+			FutureTask<EntryResult> task = new FutureTask<>(entry);
+			entry.result = task;
+			task.run();
+		} else {
+			entry.result = executor().submit(entry);
+		}
+		pending.addLast(entry);
+	}
+
+	/**
+	 * Reserves the estimated memory of the next entry, handling the results of
+	 * the entries in flight until it fits the budget.
+	 *
+	 * @return the reservation, to be released when the result of the entry is handled
+	 */
+	private long reserve(final Deque<PendingEntry> pending, final long size) throws VeraPDFException {
+		if (this.budget == null) {
+			return 0;
+		}
+		long cost = MemoryBudget.estimate(size, 0);
+		long reservation = this.budget.tryReserve(cost);
+		while (reservation < 0 && !pending.isEmpty()) {
+			handle(pending.removeFirst());
+			reservation = this.budget.tryReserve(cost);
+		}
+		if (reservation < 0) {
+			try {
+				// the budget is shared with jobs outside of this archive
+				reservation = this.budget.reserve(cost);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new VeraPDFException("Interrupted while waiting for the memory budget", e);
+			}
+		}
+		return reservation;
+	}
+
+	private void release(final long reservation) {
+		if (this.budget != null) {
+			this.budget.release(reservation);
+		}
+	}
+
+	private int inFlightLimit() {
+		return this.threads == 1 ? 1 : this.threads * ENTRIES_PER_THREAD;
+	}
+
+	private void handleAll(final Deque<PendingEntry> pending) throws VeraPDFException {
+		while (!pending.isEmpty()) {
+			handle(pending.removeFirst());
+		}
+	}
+
+	private void handle(final PendingEntry entry) throws VeraPDFException {
+		try {
+			handleResult(entry);
+		} finally {
+			release(entry.reservation);
+		}
+	}
+
+	private void handleResult(final PendingEntry entry) throws VeraPDFException {
+		EntryResult result;
+		try {
+			result = entry.result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new VeraPDFException("Interrupted while validating archive entries", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new VeraPDFException(cause.getMessage(), cause);
+		}
+		try {
+			processResult(result.result, isLogsEnabled());
+		} finally {
+			this.idleProcessors.offer(result.processor);
+		}
+	}
+
+	private void discardAll(final Deque<PendingEntry> pending) {
+		// entries left after a failure aren't reported
+		for (PendingEntry entry : pending) {
+			entry.result.cancel(true);
+			entry.discard();
+			release(entry.reservation);
+		}
+	}
+
+	private EntryResult validateEntry(final ItemDetails details, final EntrySource source) throws IOException {
+		ItemProcessor entryProcessor = this.idleProcessors.poll();
+		if (entryProcessor == null) {
+			entryProcessor = ProcessorFactory.createProcessor(this.config);
+			this.entryProcessors.add(entryProcessor);
+		}
+		try (InputStream entryStream = source.open()) {
+			return new EntryResult(entryProcessor, entryProcessor.process(details, entryStream));
+		} catch (IOException | RuntimeException e) {
+			this.idleProcessors.offer(entryProcessor);
+			throw e;
+		}
+	}
+
+	private ExecutorService executor() {
+		if (this.executor == null) {
+			AtomicInteger threadNumber = new AtomicInteger();
+			this.executor = Executors.newFixedThreadPool(this.threads, task -> {
+				Thread thread = new Thread(task, "veraPDF archive validation " + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return this.executor;
+	}
+
+	private ValidatorConfig validatorConfig() {
+		return this.config.getValidatorConfig();
+	}
+
+	private boolean isLogsEnabled() {
+		return validatorConfig().isLogsEnabled();
+	}
+
+	private void configLogs() {
+		if (isLogsEnabled()) {
+			LogsFileHandler.configLogs();
+			LogsFileHandler.setLoggingLevel(validatorConfig().getLoggingLevel());
+		}
+	}
+
+	private void startItem(final String name) {
+		if (validatorConfig().isDebug()) {
+			Level level = validatorConfig().getLoggingLevel();
+			if (isLogsEnabled() && level.intValue() > Level.INFO.intValue()) {
+				LogsFileHandler.setLoggingLevel(Level.INFO);
+			}
+			LOGGER.log(Level.INFO, name);
+			if (isLogsEnabled() && level.intValue() > Level.INFO.intValue()) {
+				LogsFileHandler.setLoggingLevel(level);
+			}
+		}
+		if (isLogsEnabled()) {
+			try {
+				LogsFileHandler.createNewLogFile();
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, "Error while creating log file");
+			}
+		}
+	}
+
+	private interface EntrySource {
+		InputStream open() throws IOException;
+	}
+
+	/**
+	 * An archive entry submitted for validation. Its buffer is released by
+	 * whichever comes first, the validation or the discarding of the entry.
+	 */
+	private final class PendingEntry implements Callable<EntryResult> {
+		private final ItemDetails details;
+		private final EntrySource source;
+		private final StreamSpool spool;
+		private final long reservation;
+		private final AtomicBoolean isClaimed = new AtomicBoolean();
+		private Future<EntryResult> result;
+
+		PendingEntry(final ItemDetails details, final EntrySource source, final StreamSpool spool,
+				final long reservation) {
+			this.details = details;
+			this.source = source;
+			this.spool = spool;
+			this.reservation = reservation;
+		}
+
+		@Override
+		public EntryResult call() throws IOException {
+			if (!this.isClaimed.compareAndSet(false, true)) {
+				throw new IOException("Validation of " + this.details.getName() + " was discarded");
+			}
+			try {
+				return validateEntry(this.details, this.source);
+			} finally {
+				closeSpool();
+			}
+		}
+
+		void discard() {
+			if (this.isClaimed.compareAndSet(false, true)) {
+				closeSpool();
+			}
+		}
+
+		private void closeSpool() {
+			if (this.spool != null) {
+				this.spool.close();
+			}
+		}
+	}
+
+	private static final class EntryResult {
+		private final ItemProcessor processor;
+		private final ProcessorResult result;
+
+		EntryResult(final ItemProcessor processor, final ProcessorResult result) {
+			this.processor = processor;
+			this.result = result;
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The next bytes of a stream carrying several items one after the other, such
+ * as the entries of an archive or framed documents. The content ends with the
+ * item and a stream ending before it is reported as truncated. Closing the
+ * content leaves the underlying stream open for the following items.
+ */
+public final class BoundedInputStream extends FilterInputStream {
+	private final long length;
+	private final String source;
+	private final String name;
+	private long left;
+
+	/**
+	 * @param stream the stream carrying the item
+	 * @param length the length of the item in bytes
+	 * @param source what carries the item, used in truncation messages
+	 * @param name the name of the item, used in truncation messages
+	 */
+	public BoundedInputStream(final InputStream stream, final long length, final String source, final String name) {
+		super(stream);
+		this.length = length;
+		this.left = length;
+		this.source = source;
+		this.name = name;
+	}
+
+	/**
+	 * @return the length of the item in bytes
+	 */
+	public long getLength() {
+		return this.length;
+	}
+
+	/**
+	 * @return the bytes of the item not read yet
+	 */
+	public long getRemaining() {
+		return this.left;
+	}
+
+	/**
+	 * Ends the content early, once its remaining bytes have been skipped on
+	 * the underlying stream. Later reads see the end of the item.
+	 */
+	public void end() {
+		this.left = 0;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (this.left == 0) {
+			return -1;
+		}
+		int read = super.read();
+		if (read < 0) {
+			throw truncated();
+		}
+		this.left--;
+		return read;
+	}
+
+	@Override
+	public int read(final byte[] buffer, final int off, final int len) throws IOException {
+		if (this.left == 0) {
+			return -1;
+		}
+		int read = super.read(buffer, off, (int) Math.min(len, this.left));
+		if (read < 0) {
+			throw truncated();
+		}
+		this.left -= read;
+		return read;
+	}
+
+	@Override
+	public long skip(final long n) throws IOException {
+		long skipped = super.skip(Math.min(n, this.left));
+		this.left -= skipped;
+		return skipped;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return (int) Math.min(super.available(), this.left);
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public void close() {
+		// the underlying stream carries the following items
+	}
+
+	private EOFException truncated() {
+		return new EOFException(this.source + " ends " + this.left + " bytes before the end of " + this.name);
+	}
+}
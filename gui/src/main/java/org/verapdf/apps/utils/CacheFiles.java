@@ -0,0 +1,109 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Digests, hex keys and atomic writes of the files kept between runs: result
+ * cache entries, file stat entries, compiled policies and checkpoint journals.
+ */
+public final class CacheFiles {
+	private static final String DIGEST_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+	/** Length in bytes of the digests made by {@link #newDigest()} */
+	public static final int DIGEST_LENGTH = 32;
+
+	private CacheFiles() {
+		throw new AssertionError("Should never happen"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Content written to a file by {@link CacheFiles#writeAtomically(Path, Content)}.
+	 */
+	@FunctionalInterface
+	public interface Content {
+		/**
+		 * @param os the stream to write the content to
+		 * @throws IOException when the content can't be written
+		 */
+		void writeTo(OutputStream os) throws IOException;
+	}
+
+	/**
+	 * @return a new SHA-256 digest
+	 */
+	public static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance(DIGEST_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * @param bytes the bytes to encode
+	 * @return the bytes as lower case hex digits
+	 */
+	public static String toHex(final byte[] bytes) {
+		StringBuilder builder = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			builder.append(String.format("%02x", Byte.valueOf(b))); //$NON-NLS-1$
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Writes a file to a temp file next to it and moves it into place, so
+	 * processes sharing the file never see it partly written. The parent
+	 * directory is created if missing.
+	 *
+	 * @param target the file to write
+	 * @param content writes the content of the file
+	 * @throws IOException when the file can't be written, the temp file is
+	 *             deleted then
+	 */
+	public static void writeAtomically(final Path target, final Content content) throws IOException {
+		Files.createDirectories(target.getParent());
+		Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp"); //$NON-NLS-1$
+		try {
+			try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(temp))) {
+				content.writeTo(os);
+			}
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,248 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.verapdf.pdfa.Foundries;
+import org.verapdf.pdfa.PDFAValidator;
+import org.verapdf.pdfa.VeraPDFFoundry;
+import org.verapdf.pdfa.results.ValidationResult;
+import org.verapdf.processor.ProcessorResult;
+import org.verapdf.processor.TaskResult;
+import org.verapdf.processor.reports.enums.JobEndStatus;
+
+/**
+ * Time limits of processing a document. Once installed the default foundry
+ * is wrapped so every parser it creates starts a job on the calling thread,
+ * the job ends when the parser is closed. A job running longer than the wall
+ * clock limit, or using more CPU time than the CPU limit, is timed out: its
+ * validation is cancelled and reports the assertions found so far with a
+ * timeout end status.
+ * <p>
+ * Jobs are timed per thread but the timeout is read from each document's
+ * result, see {@link #isTimedOut(ProcessorResult)}, so documents validated on
+ * threads of their own, such as archive entries, are reported too. A job
+ * timed out after its validation has finished has complete results and isn't
+ * reported as timed out.
+ * <p>
+ * Cancelling is cooperative, validation stops before its next object but
+ * parsing and feature extraction run to their end. Worker processes stuck
+ * there are killed by the process that started them.
+ */
+public final class DocumentWatchdog {
+	private static final Logger LOGGER = Logger.getLogger(DocumentWatchdog.class.getCanonicalName());
+
+	/** Message of the jobs failed while expiring */
+	public static final String TIMED_OUT_MESSAGE = "Processing of the document exceeded its time limit"; //$NON-NLS-1$
+	private static final long MIN_CHECK_INTERVAL = 10;
+	private static final long MAX_CHECK_INTERVAL = 1000;
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	private static volatile DocumentWatchdog installed;
+
+	private final long timeout;
+	private final long cpuTimeout;
+	private final Map<Thread, Job> jobs = new ConcurrentHashMap<>();
+	private volatile boolean isExpiring = false;
+
+	DocumentWatchdog(final long timeout, final long cpuTimeout) {
+		this.timeout = timeout;
+		this.cpuTimeout = cpuTimeout;
+	}
+
+	/**
+	 * Wraps the default foundry to time the jobs of this JVM, nothing is done
+	 * if the watchdog is installed already. Must be called before any document
+	 * is processed, processors keep the foundry they were first given.
+	 *
+	 * @param timeout the wall clock limit of a job in milliseconds, 0 for none
+	 * @param cpuTimeout the CPU time limit of a job in milliseconds, 0 for none;
+	 *            ignored if the JVM can't measure the CPU time of threads
+	 * @return true if a watchdog is installed
+	 */
+	public static synchronized boolean install(final long timeout, final long cpuTimeout) {
+		if (installed != null) {
+			return true;
+		}
+		long cpuLimit = cpuTimeout;
+		if (cpuLimit > 0 && !isCpuTimeMeasured()) {
+			LOGGER.log(Level.WARNING, "The CPU time of threads can't be measured, the CPU time limit is ignored");
+			cpuLimit = 0;
+		}
+		if (timeout <= 0 && cpuLimit <= 0) {
+			return false;
+		}
+		DocumentWatchdog watchdog = new DocumentWatchdog(Math.max(timeout, 0), cpuLimit);
+		VeraPDFFoundry foundry = new WatchedFoundry(Foundries.defaultInstance(), watchdog);
+		Foundries.registerDefaultProvider(() -> foundry);
+		Thread thread = new Thread(watchdog::watch, "veraPDF document watchdog"); //$NON-NLS-1$
+		thread.setDaemon(true);
+		thread.start();
+		installed = watchdog;
+		return true;
+	}
+
+	/**
+	 * Tells whether the processing of a document was timed out: its validation
+	 * was cancelled for the time limit or it failed while jobs were expiring.
+	 *
+	 * @param result the result of processing the document
+	 * @return true if the document's results are partial for a timeout
+	 */
+	public static boolean isTimedOut(final ProcessorResult result) {
+		for (ValidationResult validationResult : result.getValidationResults()) {
+			if (validationResult.getJobEndStatus() == JobEndStatus.TIMEOUT) {
+				return true;
+			}
+		}
+		for (TaskResult taskResult : result.getResultSet()) {
+			for (Throwable cause = taskResult.getException(); cause != null; cause = cause.getCause()) {
+				if (TIMED_OUT_MESSAGE.equals(cause.getMessage())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * While expiring jobs fail as timed out as soon as they start. A worker
+	 * process replacing one killed for going over the time limit reports the
+	 * document it was stuck on this way, without processing it again.
+	 *
+	 * @param isExpiring whether jobs started from now on fail
+	 */
+	public static void setExpiring(final boolean isExpiring) {
+		DocumentWatchdog watchdog = installed;
+		if (watchdog != null) {
+			watchdog.expire(isExpiring);
+		}
+	}
+
+	void expire(final boolean isExpiring) {
+		this.isExpiring = isExpiring;
+	}
+
+	void startJob(final String name) {
+		if (this.isExpiring) {
+			throw new IllegalStateException(TIMED_OUT_MESSAGE);
+		}
+		this.jobs.put(Thread.currentThread(), new Job(name, this.cpuTimeout > 0 ? THREADS.getCurrentThreadCpuTime() : -1));
+	}
+
+	/**
+	 * Attaches a validator to the job of the current thread, it's cancelled
+	 * straight away if the job has timed out while parsing.
+	 */
+	PDFAValidator watch(final PDFAValidator validator) {
+		Job job = this.jobs.get(Thread.currentThread());
+		if (job != null) {
+			job.validator = validator;
+			if (job.isTimedOut) {
+				validator.cancelValidation(JobEndStatus.TIMEOUT);
+			}
+		}
+		return validator;
+	}
+
+	void endJob() {
+		this.jobs.remove(Thread.currentThread());
+	}
+
+	/**
+	 * Times out the jobs over a limit.
+	 *
+	 * @param now the current {@link System#nanoTime()}
+	 */
+	void check(final long now) {
+		for (Map.Entry<Thread, Job> entry : this.jobs.entrySet()) {
+			Job job = entry.getValue();
+			if (!job.isTimedOut && isOverLimit(entry.getKey(), job, now)) {
+				job.isTimedOut = true;
+				LOGGER.log(Level.WARNING, "Processing of " + (job.name == null ? "a document" : job.name)
+						+ " exceeded its time limit and is stopped");
+				PDFAValidator validator = job.validator;
+				if (validator != null) {
+					validator.cancelValidation(JobEndStatus.TIMEOUT);
+				}
+			}
+		}
+	}
+
+	private boolean isOverLimit(final Thread thread, final Job job, final long now) {
+		if (this.timeout > 0 && TimeUnit.NANOSECONDS.toMillis(now - job.start) > this.timeout) {
+			return true;
+		}
+		if (this.cpuTimeout > 0 && job.cpuStart >= 0) {
+			long cpuTime = THREADS.getThreadCpuTime(thread.getId());
+			return cpuTime >= 0 && TimeUnit.NANOSECONDS.toMillis(cpuTime - job.cpuStart) > this.cpuTimeout;
+		}
+		return false;
+	}
+
+	private void watch() {
+		long limit = this.timeout <= 0 ? this.cpuTimeout
+				: this.cpuTimeout <= 0 ? this.timeout : Math.min(this.timeout, this.cpuTimeout);
+		long interval = Math.max(MIN_CHECK_INTERVAL, Math.min(MAX_CHECK_INTERVAL, limit / 10));
+		try {
+			while (true) {
+				Thread.sleep(interval);
+				check(System.nanoTime());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static boolean isCpuTimeMeasured() {
+		if (!THREADS.isThreadCpuTimeSupported()) {
+			return false;
+		}
+		if (!THREADS.isThreadCpuTimeEnabled()) {
+			try {
+				THREADS.setThreadCpuTimeEnabled(true);
+			} catch (UnsupportedOperationException | SecurityException e) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static final class Job {
+		private final String name;
+		private final long start = System.nanoTime();
+		private final long cpuStart;
+		private volatile PDFAValidator validator;
+		private volatile boolean isTimedOut = false;
+
+		Job(final String name, final long cpuStart) {
+			this.name = name;
+			this.cpuStart = cpuStart;
+		}
+	}
+}
@@ -0,0 +1,137 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Admits jobs one at a time in the order they arrived, each once the state
+ * guarded by the admission lets it in. A job that can't be admitted yet holds
+ * up the jobs behind it, so small jobs don't starve a large one. A job
+ * interrupted while waiting gives up its turn.
+ * <p>
+ * The state of the users is guarded by the admission: it's read and changed
+ * only in the callbacks passed here, which run holding the lock. Waiting uses
+ * a {@link ReentrantLock} rather than a monitor, jobs may run on virtual
+ * threads and a virtual thread waiting in a monitor pins its carrier thread on
+ * Java 21.
+ */
+public final class FairAdmission {
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition changed = this.lock.newCondition();
+	private long nextTicket = 0;
+	private long servedTicket = 0;
+	private final Set<Long> abandonedTickets = new HashSet<>();
+
+	/**
+	 * Waits for the turn of the calling job and until it can be admitted, then
+	 * admits it.
+	 *
+	 * @param canAdmit tells whether the job can be admitted
+	 * @param admit records the admission of the job
+	 * @throws InterruptedException when interrupted while waiting, the job
+	 *             isn't admitted then
+	 */
+	public void admit(final BooleanSupplier canAdmit, final Runnable admit) throws InterruptedException {
+		this.lock.lock();
+		try {
+			long ticket = this.nextTicket++;
+			try {
+				while (ticket != this.servedTicket || !canAdmit.getAsBoolean()) {
+					this.changed.await();
+				}
+				admit.run();
+			} finally {
+				if (ticket == this.servedTicket) {
+					// admitted or interrupted while first in line, either way it's the next job's turn
+					nextTurn();
+				} else {
+					// interrupted while waiting behind other jobs
+					this.abandonedTickets.add(ticket);
+				}
+				this.changed.signalAll();
+			}
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Admits a job if no job is waiting and it can be admitted straight away.
+	 *
+	 * @param canAdmit tells whether the job can be admitted
+	 * @param admit records the admission of the job
+	 * @return true if the job was admitted
+	 */
+	public boolean tryAdmit(final BooleanSupplier canAdmit, final Runnable admit) {
+		this.lock.lock();
+		try {
+			if (this.nextTicket != this.servedTicket || !canAdmit.getAsBoolean()) {
+				return false;
+			}
+			admit.run();
+			return true;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Changes the guarded state, waiting jobs check again whether they can be
+	 * admitted.
+	 *
+	 * @param change the change of the state
+	 */
+	public void update(final Runnable change) {
+		this.lock.lock();
+		try {
+			change.run();
+			this.changed.signalAll();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @param value reads the guarded state
+	 * @return the value read
+	 */
+	public <T> T read(final Supplier<T> value) {
+		this.lock.lock();
+		try {
+			return value.get();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	private void nextTurn() {
+		this.servedTicket++;
+		while (this.abandonedTickets.remove(this.servedTicket)) {
+			this.servedTicket++;
+		}
+	}
+}
@@ -0,0 +1,155 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sidecar index of file content digests keyed by path. Every entry records the
+ * size, modification time and file key (the inode on Unix) the digest was
+ * calculated for, so a file is only read in full again when one of them
+ * changes.
+ * <p>
+ * Each path has its own small entry file written to a temp file and moved into
+ * place, so processes can share an index without loading or locking all of it.
+ */
+public final class FileStatIndex {
+	private static final Logger LOGGER = Logger.getLogger(FileStatIndex.class.getCanonicalName());
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	/**
+	 * Files modified this recently may still change without their modification
+	 * time changing, their digests aren't recorded.
+	 */
+	private static final long RACY_INTERVAL_MILLIS = 2000;
+
+	private final Path directory;
+
+	private FileStatIndex(final Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * @param directory the index directory, created if missing
+	 * @return the index kept in the directory
+	 * @throws IOException when the directory can't be created
+	 */
+	public static FileStatIndex open(final Path directory) throws IOException {
+		Files.createDirectories(directory);
+		return new FileStatIndex(directory);
+	}
+
+	/**
+	 * Returns the digest of the file content, reading the file only if its size,
+	 * modification time or file key changed since the digest was recorded.
+	 *
+	 * @param file the file to digest
+	 * @return the SHA-256 digest of the file content
+	 * @throws IOException when the file can't be read
+	 */
+	public byte[] digest(final File file) throws IOException {
+		BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+		long size = attributes.size();
+		long modified = attributes.lastModifiedTime().to(TimeUnit.MILLISECONDS);
+		String fileKey = attributes.fileKey() == null ? "" : attributes.fileKey().toString(); //$NON-NLS-1$
+		Path entry = entryPath(file);
+		byte[] digest = readEntry(entry, size, modified, fileKey);
+		if (digest != null) {
+			return digest;
+		}
+		digest = contentDigest(file);
+		if (modified < System.currentTimeMillis() - RACY_INTERVAL_MILLIS) {
+			writeEntry(entry, size, modified, fileKey, digest);
+		}
+		return digest;
+	}
+
+	/**
+	 * @param file the file to digest
+	 * @return the SHA-256 digest of the file content
+	 * @throws IOException when the file can't be read
+	 */
+	public static byte[] contentDigest(final File file) throws IOException {
+		MessageDigest digest = CacheFiles.newDigest();
+		byte[] buffer = new byte[BUFFER_SIZE];
+		try (InputStream is = new FileInputStream(file)) {
+			int read;
+			while ((read = is.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		}
+		return digest.digest();
+	}
+
+	private static byte[] readEntry(final Path entry, final long size, final long modified, final String fileKey) {
+		try (DataInputStream is = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+			if (is.readLong() != size || is.readLong() != modified || !is.readUTF().equals(fileKey)) {
+				return null;
+			}
+			int length = is.readInt();
+			if (length != CacheFiles.DIGEST_LENGTH) {
+				// a damaged entry is a miss, its length mustn't be trusted
+				LOGGER.log(Level.FINE, "Damaged file stat entry " + entry);
+				return null;
+			}
+			byte[] digest = new byte[length];
+			is.readFully(digest);
+			return digest;
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			LOGGER.log(Level.FINE, "Can't read file stat entry " + entry, e);
+			return null;
+		}
+	}
+
+	private static void writeEntry(final Path entry, final long size, final long modified, final String fileKey,
+			final byte[] digest) {
+		try {
+			CacheFiles.writeAtomically(entry, entryStream -> {
+				DataOutputStream os = new DataOutputStream(entryStream);
+				os.writeLong(size);
+				os.writeLong(modified);
+				os.writeUTF(fileKey);
+				os.writeInt(digest.length);
+				os.write(digest);
+				os.flush();
+			});
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Can't write file stat entry " + entry, e);
+		}
+	}
+
+	private Path entryPath(final File file) {
+		byte[] path = file.getAbsolutePath().getBytes(StandardCharsets.UTF_8);
+		String name = CacheFiles.toHex(CacheFiles.newDigest().digest(path));
+		return this.directory.resolve(name.substring(0, 2)).resolve(name);
+	}
+}
@@ -0,0 +1,91 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how far heap use peaks above its level at the start of a job, from
+ * the peak usage the JVM records for each heap memory pool.
+ * <p>
+ * Peaks are recorded for the whole JVM, so a probe can only tell the peak of
+ * a job that runs alone. When jobs run side by side in the JVM, as in-process
+ * workers or archive entries validated on several threads, each probe would
+ * reset the peaks of the others and mix their allocations into its own, so
+ * probes measure nothing once {@link #setShared(boolean)} says so.
+ */
+public final class HeapProbe {
+	private static volatile boolean isShared = false;
+
+	private final List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+	private long startUsage = 0;
+
+	public HeapProbe() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				this.heapPools.add(pool);
+			}
+		}
+	}
+
+	/**
+	 * @param isSharedHeap true if jobs run side by side in this JVM, their heap
+	 *            deltas are then unknown
+	 */
+	public static void setShared(final boolean isSharedHeap) {
+		isShared = isSharedHeap;
+	}
+
+	/**
+	 * Resets the recorded peaks and takes the current heap use as the start
+	 * level, unless jobs share the heap.
+	 */
+	public void start() {
+		if (isShared) {
+			return;
+		}
+		long usage = 0;
+		for (MemoryPoolMXBean pool : this.heapPools) {
+			pool.resetPeakUsage();
+			usage += pool.getUsage().getUsed();
+		}
+		this.startUsage = usage;
+	}
+
+	/**
+	 * @return the peak heap use since {@link #start()} above the start level in
+	 *         bytes, or -1 if jobs share the heap
+	 */
+	public long peakDelta() {
+		if (isShared) {
+			return -1;
+		}
+		long peak = 0;
+		for (MemoryPoolMXBean pool : this.heapPools) {
+			peak += pool.getPeakUsage().getUsed();
+		}
+		return Math.max(peak - this.startUsage, 0);
+	}
+}
@@ -0,0 +1,458 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import org.verapdf.ReleaseDetails;
+import org.verapdf.component.AuditDurationImpl;
+import org.verapdf.pdfa.Foundries;
+import org.verapdf.report.HTMLReport;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.TransformerException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the HTML summary report of a batch one job report at a time. Table
+ * rows are spooled to temp files as jobs arrive and only the batch counters
+ * are kept in memory, the page is assembled once the batch ends. The markup
+ * follows the library summary report stylesheet, whose page head is reused
+ * as is.
+ */
+final class HtmlReportWriter {
+	private static final String APPS = "apps"; //$NON-NLS-1$
+	private static final String VERAPDF_REST = "verapdf-rest"; //$NON-NLS-1$
+	private static final String ENCRYPTED_MESSAGE = "encrypted PDF with unknown or wrong password"; //$NON-NLS-1$
+	private static final String BODY_END = "</body>"; //$NON-NLS-1$
+	private static final String JOB_PATH = "report/jobs/job"; //$NON-NLS-1$
+	private static final String VALIDATION_REPORT_PATH = JOB_PATH + "/validationReport"; //$NON-NLS-1$
+	private static final String SUMMARY_PATH = "report/batchSummary"; //$NON-NLS-1$
+
+	private final OutputStream destination;
+	private final String wikiPath;
+	private final long startTime = System.currentTimeMillis();
+	private final SAXParser parser;
+	private final File jobsSpool;
+	private final File validationSpool;
+	private final DataOutputStream jobs;
+	private final Writer validationRows;
+
+	private final Map<String, String[]> releases = new HashMap<>();
+	private final Map<String, Integer> summary = new HashMap<>();
+	private boolean isPolicy = false;
+	private boolean hasLogs = false;
+	private int policyCompliant = 0;
+	private int policyNonCompliant = 0;
+
+	HtmlReportWriter(final OutputStream destination, final String wikiPath) throws IOException {
+		this.destination = destination;
+		this.wikiPath = wikiPath;
+		try {
+			this.parser = SAXParserFactory.newInstance().newSAXParser();
+		} catch (ParserConfigurationException | SAXException e) {
+			throw new IOException("Can't create job report parser", e);
+		}
+		this.jobsSpool = File.createTempFile("veraPDF", "jobs.html"); //$NON-NLS-1$ //$NON-NLS-2$
+		this.validationSpool = File.createTempFile("veraPDF", "validation.html"); //$NON-NLS-1$ //$NON-NLS-2$
+		this.jobs = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.jobsSpool)));
+		this.validationRows = new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(this.validationSpool), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Adds the jobs of an XML report to the batch report.
+	 *
+	 * @param report the XML report to add
+	 * @throws IOException when the report can't be read or spooled
+	 */
+	void write(final InputStream report) throws IOException {
+		try {
+			this.parser.parse(report, new JobRowCollector());
+		} catch (SAXException e) {
+			throw new IOException("Can't parse job report", e);
+		}
+	}
+
+	/**
+	 * Writes the HTML page and deletes the spooled rows.
+	 *
+	 * @throws IOException when the report can't be written
+	 */
+	void endReport() throws IOException {
+		try {
+			this.jobs.close();
+			this.validationRows.close();
+			PrintWriter html = new PrintWriter(
+					new BufferedWriter(new OutputStreamWriter(this.destination, StandardCharsets.UTF_8)));
+			String page = pageHead();
+			// split at the start of the line closing the body to keep the stylesheet indentation
+			int bodyEnd = page.lastIndexOf('\n', page.lastIndexOf(BODY_END)) + 1;
+			html.print(page.substring(0, bodyEnd));
+			writeBuildInformation(html);
+			writeBatchSummary(html);
+			writeJobSummary(html);
+			writeValidationSummary(html);
+			html.print(page.substring(bodyEnd));
+			html.flush();
+			if (html.checkError()) {
+				throw new IOException("Can't write HTML report");
+			}
+		} finally {
+			deleteSpool(this.jobsSpool);
+			deleteSpool(this.validationSpool);
+		}
+	}
+
+	/**
+	 * The library stylesheet output for a report without content, the page up to
+	 * and including the closing body tag.
+	 */
+	private String pageHead() throws IOException {
+		ByteArrayOutputStream head = new ByteArrayOutputStream();
+		try {
+			HTMLReport.writeHTMLReport(new ByteArrayInputStream("<report/>".getBytes(StandardCharsets.UTF_8)), //$NON-NLS-1$
+					head, true, this.wikiPath, true);
+		} catch (TransformerException e) {
+			throw new IOException("Can't write HTML report head", e);
+		}
+		return new String(head.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private void writeBuildInformation(final PrintWriter html) {
+		String[] release = this.releases.get(appName());
+		String parserType = Foundries.defaultInstance().getParserId();
+		html.println("      <h2>Build Information</h2>");
+		html.println("      <table border=\"0\" id=\"table1\">");
+		buildInformationRow(html, "Version:", release == null ? "" : release[0]);
+		if (parserType != null && !parserType.isEmpty()) {
+			buildInformationRow(html, "Parser:", parserType);
+		}
+		buildInformationRow(html, "Build Date:", release == null ? "" : release[1]);
+		html.println("      </table>");
+	}
+
+	private static void buildInformationRow(final PrintWriter html, final String name, final String value) {
+		html.println("         <tr>");
+		html.println("            <td class=\"lefted\" width=\"250\"><b>" + name + "</b></td>");
+		html.println("            <td class=\"lefted\">" + escape(value) + "</td>");
+		html.println("         </tr>");
+	}
+
+	private void writeBatchSummary(final PrintWriter html) {
+		html.println("      <h2>Batch Summary</h2>");
+		html.println("      <table border=\"0\" id=\"table2\">");
+		html.println("         <tr>");
+		headers(html, "Processing time", "Total Jobs", "Failed to Parse", "Encrypted", "Compliant", "Not Compliant");
+		if (this.isPolicy) {
+			headers(html, "Policy Compliant", "Not Policy Compliant");
+		}
+		html.println("         </tr>");
+		html.println("         <tr>");
+		cell(html, null, AuditDurationImpl.getStringDuration(System.currentTimeMillis() - this.startTime));
+		cell(html, null, count("batchSummary@totalJobs"));
+		cell(html, null, count("batchSummary@outOfMemory") + count("batchSummary@veraExceptions")
+				+ count("batchSummary@failedToParse"));
+		cell(html, null, count("batchSummary@encrypted"));
+		cell(html, null, count("validationReports@compliant"));
+		cell(html, null, count("validationReports@nonCompliant"));
+		if (this.isPolicy) {
+			cell(html, null, this.policyCompliant);
+			cell(html, null, this.policyNonCompliant);
+		}
+		html.println("         </tr>");
+		html.println("      </table>");
+	}
+
+	private void writeJobSummary(final PrintWriter html) throws IOException {
+		html.println("      <h2>Job Summary</h2>");
+		html.println("      <table>");
+		html.println("         <tr>");
+		headers(html, "File Name");
+		if (this.isPolicy) {
+			headers(html, "Policy Check");
+		}
+		if (this.hasLogs) {
+			headers(html, "Logs");
+		}
+		headers(html, "Duration");
+		html.println("         </tr>");
+		try (DataInputStream jobRecords = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(this.jobsSpool)))) {
+			while (jobRecords.available() > 0) {
+				String name = jobRecords.readUTF();
+				int policyFailedChecks = jobRecords.readInt();
+				int logsCount = jobRecords.readInt();
+				String duration = jobRecords.readUTF();
+				html.println("         <tr>");
+				cell(html, "lefted", name);
+				if (policyFailedChecks >= 0) {
+					boolean isFailed = policyFailedChecks > 0;
+					cell(html, isFailed ? "invalid" : "valid", isFailed ? "Failed" : "Passed");
+				}
+				if (this.hasLogs) {
+					cell(html, null, Math.max(logsCount, 0));
+				}
+				cell(html, null, duration);
+				html.println("         </tr>");
+			}
+		}
+		html.println("      </table>");
+	}
+
+	private void writeValidationSummary(final PrintWriter html) throws IOException {
+		html.println("      <h2>Validation Summary</h2>");
+		html.println("      <table>");
+		html.println("         <tr>");
+		headers(html, "File Name", "Validation Profile", "Compliance", "Passed Rules", "Failed Rules",
+				"Passed Checks", "Failed Checks");
+		html.println("         </tr>");
+		try (Reader rows = new InputStreamReader(new FileInputStream(this.validationSpool), StandardCharsets.UTF_8)) {
+			char[] buffer = new char[8192];
+			int read;
+			while ((read = rows.read(buffer)) != -1) {
+				html.write(buffer, 0, read);
+			}
+		}
+		html.println("      </table>");
+	}
+
+	private void writeValidationRow(final String name, final Attributes validationReport,
+			final Map<String, String> details, final String exceptionMessage) throws IOException {
+		String isCompliant = validationReport.getValue("isCompliant");
+		String result;
+		if ("true".equals(isCompliant)) { //$NON-NLS-1$
+			result = "Passed";
+		} else if ("false".equals(isCompliant)) { //$NON-NLS-1$
+			result = "Failed";
+		} else if (exceptionMessage != null && exceptionMessage.contains(ENCRYPTED_MESSAGE)) {
+			result = "Encrypted";
+		} else {
+			result = "Failed to Parse";
+		}
+		PrintWriter row = new PrintWriter(this.validationRows);
+		row.println("         <tr>");
+		cell(row, "lefted", name);
+		cell(row, null, validationReport.getValue("profileName"));
+		cell(row, "true".equals(isCompliant) ? "valid" : "invalid", result); //$NON-NLS-1$
+		cell(row, null, details.get("passedRules"));
+		cell(row, null, details.get("failedRules"));
+		cell(row, null, details.get("passedChecks"));
+		cell(row, null, details.get("failedChecks"));
+		row.println("         </tr>");
+		row.flush();
+		if (row.checkError()) {
+			throw new IOException("Can't spool validation summary row");
+		}
+	}
+
+	private int count(final String attribute) {
+		return this.summary.getOrDefault(attribute, Integer.valueOf(0)).intValue();
+	}
+
+	private static void headers(final PrintWriter html, final String... headers) {
+		for (String header : headers) {
+			html.println("            <th>" + header + "</th>");
+		}
+	}
+
+	private static void cell(final PrintWriter html, final String cssClass, final Object value) {
+		String content = value == null ? "" : escape(value.toString());
+		if (cssClass == null) {
+			html.println("            <td>" + content + "</td>");
+		} else {
+			html.println("            <td class=\"" + cssClass + "\">" + content + "</td>");
+		}
+	}
+
+	/**
+	 * Escapes text as the HTML output of the stylesheet does.
+	 */
+	private static String escape(final String text) {
+		StringBuilder escaped = new StringBuilder(text.length());
+		for (char c : text.toCharArray()) {
+			switch (c) {
+				case '&':
+					escaped.append("&amp;");
+					break;
+				case '<':
+					escaped.append("&lt;");
+					break;
+				case '>':
+					escaped.append("&gt;");
+					break;
+				case '\u007F':
+					// dropped by the HTML serializer
+					break;
+				case '\u00A0':
+					escaped.append("&nbsp;");
+					break;
+				default:
+					if (c >= '\u0080' && c <= '\u009F') {
+						escaped.append("&#x").append(Integer.toHexString(c)).append(';');
+					} else {
+						escaped.append(c);
+					}
+			}
+		}
+		return escaped.toString();
+	}
+
+
+	private static String appName() {
+		for (ReleaseDetails details : ReleaseDetails.getDetails()) {
+			if (VERAPDF_REST.equals(details.getId())) {
+				return VERAPDF_REST;
+			}
+		}
+		return APPS;
+	}
+
+	private static void deleteSpool(final File spool) {
+		if (!spool.delete()) {
+			spool.deleteOnExit();
+		}
+	}
+
+	/**
+	 * Collects what the summary report shows of the jobs of a report, spooling
+	 * each job once its element ends.
+	 */
+	private final class JobRowCollector extends DefaultHandler {
+		private final Deque<String> path = new ArrayDeque<>();
+		private final StringBuilder text = new StringBuilder();
+		private String name;
+		private String duration;
+		private int policyFailedChecks;
+		private int logsCount;
+		private final List<Attributes> validationReports = new ArrayList<>();
+		private final List<Map<String, String>> validationDetails = new ArrayList<>();
+		private final List<String> exceptionMessages = new ArrayList<>();
+
+		@Override
+		public void startElement(final String uri, final String localName, final String qName,
+				final Attributes attributes) {
+			this.path.addLast(qName);
+			this.text.setLength(0);
+			String current = String.join("/", this.path); //$NON-NLS-1$
+			if (JOB_PATH.equals(current)) {
+				this.name = "";
+				this.duration = "";
+				this.policyFailedChecks = -1;
+				this.logsCount = -1;
+				this.validationReports.clear();
+				this.validationDetails.clear();
+				this.exceptionMessages.clear();
+			} else if ("report/buildInformation/releaseDetails".equals(current)) { //$NON-NLS-1$
+				HtmlReportWriter.this.releases.putIfAbsent(attributes.getValue("id"),
+						new String[] { attributes.getValue("version"), attributes.getValue("buildDate") });
+			} else if (SUMMARY_PATH.equals(current) || (SUMMARY_PATH + "/validationReports").equals(current)) {
+				for (int i = 0; i < attributes.getLength(); i++) {
+					try {
+						HtmlReportWriter.this.summary.merge(qName + '@' + attributes.getQName(i),
+								Integer.valueOf(attributes.getValue(i)), Integer::sum);
+					} catch (NumberFormatException e) {
+						// only counts are summed
+					}
+				}
+			} else if ((JOB_PATH + "/policyReport").equals(current)) { //$NON-NLS-1$
+				this.policyFailedChecks = intValue(attributes.getValue("failedChecks"));
+			} else if ((JOB_PATH + "/logs").equals(current)) { //$NON-NLS-1$
+				this.logsCount = Math.max(intValue(attributes.getValue("logsCount")), 0);
+			} else if (VALIDATION_REPORT_PATH.equals(current)) {
+				this.validationReports.add(new org.xml.sax.helpers.AttributesImpl(attributes));
+				this.validationDetails.add(new HashMap<>());
+				this.exceptionMessages.add(null);
+			} else if ((VALIDATION_REPORT_PATH + "/details").equals(current)) { //$NON-NLS-1$
+				Map<String, String> details = this.validationDetails.get(this.validationDetails.size() - 1);
+				for (int i = 0; i < attributes.getLength(); i++) {
+					details.put(attributes.getQName(i), attributes.getValue(i));
+				}
+			}
+		}
+
+		@Override
+		public void characters(final char[] ch, final int start, final int length) {
+			this.text.append(ch, start, length);
+		}
+
+		@Override
+		public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+			String current = String.join("/", this.path); //$NON-NLS-1$
+			if ((JOB_PATH + "/item/name").equals(current)) { //$NON-NLS-1$
+				this.name = this.text.toString();
+			} else if ((JOB_PATH + "/duration").equals(current)) { //$NON-NLS-1$
+				this.duration = this.text.toString();
+			} else if ((VALIDATION_REPORT_PATH + "/taskException/exceptionMessage").equals(current)) { //$NON-NLS-1$
+				this.exceptionMessages.set(this.exceptionMessages.size() - 1, this.text.toString());
+			} else if (JOB_PATH.equals(current)) {
+				try {
+					endJob();
+				} catch (IOException e) {
+					throw new SAXException(e);
+				}
+			}
+			this.path.removeLast();
+			this.text.setLength(0);
+		}
+
+		private void endJob() throws IOException {
+			if (this.policyFailedChecks >= 0) {
+				HtmlReportWriter.this.isPolicy = true;
+				if (this.policyFailedChecks > 0) {
+					HtmlReportWriter.this.policyNonCompliant++;
+				} else {
+					HtmlReportWriter.this.policyCompliant++;
+				}
+			}
+			if (this.logsCount >= 0) {
+				HtmlReportWriter.this.hasLogs = true;
+			}
+			DataOutputStream jobRecords = HtmlReportWriter.this.jobs;
+			jobRecords.writeUTF(this.name);
+			jobRecords.writeInt(this.policyFailedChecks);
+			jobRecords.writeInt(this.logsCount);
+			jobRecords.writeUTF(this.duration);
+			for (int i = 0; i < this.validationReports.size(); i++) {
+				writeValidationRow(this.name, this.validationReports.get(i), this.validationDetails.get(i),
+						this.exceptionMessages.get(i));
+			}
+		}
+
+		private int intValue(final String value) {
+			try {
+				return value == null ? 0 : Integer.parseInt(value);
+			} catch (NumberFormatException e) {
+				return 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,134 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Threads of the I/O bound stages: file discovery, the plumbing of worker
+ * processes and client connections. On Java 21 and later they are virtual
+ * threads, blocking on pipes, sockets or slow network storage then costs
+ * a few carrier threads instead of a platform thread each. Earlier JVMs get
+ * daemon platform threads.
+ * <p>
+ * Validation is CPU bound and keeps its bounded pools of platform threads.
+ * The application is built for Java 8 so virtual threads are reached by
+ * reflection.
+ */
+public final class IoThreads {
+	private static final Logger LOGGER = Logger.getLogger(IoThreads.class.getCanonicalName());
+
+	private static final boolean IS_VIRTUAL_SUPPORTED = virtualFactory("veraPDF probe") != null; //$NON-NLS-1$
+	private static volatile boolean isVirtualDisabled = false;
+
+	private IoThreads() {
+		throw new AssertionError("Should never happen"); //$NON-NLS-1$
+	}
+
+	/**
+	 * @return true if I/O bound stages run on virtual threads
+	 */
+	public static boolean isVirtual() {
+		return IS_VIRTUAL_SUPPORTED && !isVirtualDisabled;
+	}
+
+	/**
+	 * Runs the I/O bound stages started from now on on platform threads, even
+	 * if the JVM supports virtual threads.
+	 */
+	public static void disableVirtualThreads() {
+		isVirtualDisabled = true;
+	}
+
+	/**
+	 * @param name the name of the threads, numbered as they're created
+	 * @return a factory of virtual threads if they're used, of daemon platform
+	 *         threads otherwise
+	 */
+	public static ThreadFactory factory(final String name) {
+		if (isVirtual()) {
+			ThreadFactory factory = virtualFactory(name);
+			if (factory != null) {
+				return factory;
+			}
+		}
+		AtomicInteger count = new AtomicInteger();
+		return task -> {
+			Thread thread = new Thread(task, name + ' ' + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * Starts a single I/O bound task.
+	 *
+	 * @param name the name of the thread
+	 * @param task the task to run
+	 * @return the started thread
+	 */
+	public static Thread start(final String name, final Runnable task) {
+		Thread thread = factory(name).newThread(task);
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * @param name the name of the threads
+	 * @return an executor running every task on a thread of its own when
+	 *         threads are virtual, reusing idle platform threads otherwise
+	 */
+	public static ExecutorService newExecutor(final String name) {
+		ThreadFactory factory = factory(name);
+		if (isVirtual()) {
+			try {
+				return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class) //$NON-NLS-1$
+						.invoke(null, factory);
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				LOGGER.log(Level.FINE, "Can't create a thread per task executor", e);
+			}
+		}
+		return Executors.newCachedThreadPool(factory);
+	}
+
+	/**
+	 * @return a factory of virtual threads, or null if this JVM has none
+	 */
+	private static ThreadFactory virtualFactory(final String name) {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null); //$NON-NLS-1$
+			Class<?> builderType = Class.forName("java.lang.Thread$Builder"); //$NON-NLS-1$
+			builder = builderType.getMethod("name", String.class, long.class).invoke(builder, name + ' ', 1L); //$NON-NLS-1$
+			return (ThreadFactory) builderType.getMethod("factory").invoke(builder); //$NON-NLS-1$
+		} catch (NoSuchMethodException | ClassNotFoundException e) {
+			return null;
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// Java 19 and 20 have virtual threads as a preview feature, disabled by default
+			LOGGER.log(Level.FINE, "Virtual threads aren't available", e);
+			return null;
+		}
+	}
+}
@@ -0,0 +1,272 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import org.verapdf.processor.ProcessorResult;
+import org.verapdf.processor.TaskResult;
+import org.verapdf.processor.TaskType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Timings and resource use of the processing of a single document. Durations
+ * are in milliseconds, stages that didn't run have a zero duration. The
+ * library only times parsing when it fails, otherwise the parse duration is
+ * the part of the job total not spent in the other stages. The heap
+ * delta is the peak JVM heap use during the job above the use at its start, so
+ * with several in-process workers it includes the other workers' allocations.
+ * Documents read from a stream also record the spill threshold, the number of
+ * bytes buffered in memory, and whether the stream was spilled to a temp file.
+ */
+public final class JobMetrics {
+	private static final byte[] JOB_END = "</job>".getBytes(StandardCharsets.US_ASCII); //$NON-NLS-1$
+
+	/**
+	 * The stages of a job.
+	 */
+	public enum Stage {
+		/** Opening and parsing the document */
+		PARSE("parse"),
+		/** PDF/A or PDF/UA validation */
+		VALIDATE("validate"),
+		/** Feature extraction */
+		FEATURES("features"),
+		/** Metadata fixing */
+		METADATA("metadata"),
+		/** Checking the job report against a policy */
+		POLICY("policy"),
+		/** Writing the job report */
+		REPORT("report");
+
+		private final String name;
+
+		Stage(final String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		static Stage fromTask(final TaskType task) {
+			switch (task) {
+				case PARSE:
+					return PARSE;
+				case VALIDATE:
+					return VALIDATE;
+				case EXTRACT_FEATURES:
+					return FEATURES;
+				case FIX_METADATA:
+					return METADATA;
+				default:
+					return null;
+			}
+		}
+	}
+
+	private final String name;
+	private final long bytes;
+	private final Map<Stage, Long> durations = new EnumMap<>(Stage.class);
+	private long heapDelta = 0;
+	private long total = 0;
+	private boolean isParseTimed = false;
+	private long spillThreshold = -1;
+	private boolean isSpilled = false;
+
+	public JobMetrics(final String name, final long bytes) {
+		this.name = name;
+		this.bytes = bytes;
+		for (Stage stage : Stage.values()) {
+			this.durations.put(stage, Long.valueOf(0));
+		}
+	}
+
+	/**
+	 * @param result the processing result of the job
+	 * @return metrics of the job holding the durations of the executed tasks
+	 */
+	public static JobMetrics fromResult(final ProcessorResult result) {
+		JobMetrics metrics = new JobMetrics(result.getProcessedItem().getName(), result.getProcessedItem().getSize());
+		for (TaskResult taskResult : result.getResultSet()) {
+			Stage stage = Stage.fromTask(taskResult.getType());
+			if (stage != null && taskResult.isExecuted() && taskResult.getDuration() != null) {
+				metrics.setDuration(stage, taskResult.getDuration().getDifference());
+			}
+		}
+		return metrics;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * @return the size of the document in bytes
+	 */
+	public long getBytes() {
+		return this.bytes;
+	}
+
+	public long getDuration(final Stage stage) {
+		if (stage == Stage.PARSE && !this.isParseTimed) {
+			long otherStages = 0;
+			for (Map.Entry<Stage, Long> duration : this.durations.entrySet()) {
+				if (duration.getKey() != Stage.PARSE) {
+					otherStages += duration.getValue().longValue();
+				}
+			}
+			return Math.max(this.total - otherStages, 0);
+		}
+		return this.durations.get(stage).longValue();
+	}
+
+	public void setDuration(final Stage stage, final long millis) {
+		this.durations.put(stage, Long.valueOf(millis));
+		if (stage == Stage.PARSE) {
+			this.isParseTimed = true;
+		}
+	}
+
+	/**
+	 * @return the peak heap use of the job in bytes, negative if it's unknown
+	 *         and left out of the metrics
+	 */
+	public long getHeapDelta() {
+		return this.heapDelta;
+	}
+
+	public void setHeapDelta(final long heapDelta) {
+		this.heapDelta = heapDelta;
+	}
+
+	/**
+	 * @return the wall clock time of the whole job in milliseconds
+	 */
+	public long getTotal() {
+		return this.total;
+	}
+
+	public void setTotal(final long total) {
+		this.total = total;
+	}
+
+	/**
+	 * @return the spill threshold of a document read from a stream in bytes, -1
+	 *         for documents read from files
+	 */
+	public long getSpillThreshold() {
+		return this.spillThreshold;
+	}
+
+	public boolean isSpilled() {
+		return this.isSpilled;
+	}
+
+	/**
+	 * @param threshold the number of bytes of the stream buffered in memory
+	 * @param isSpilled whether the stream was longer and spilled to a temp file
+	 */
+	public void setSpill(final long threshold, final boolean isSpilled) {
+		this.spillThreshold = threshold;
+		this.isSpilled = isSpilled;
+	}
+
+	/**
+	 * @return the metrics as a single line JSON object
+	 */
+	public String toJson() {
+		StringBuilder json = new StringBuilder("{\"name\":\""); //$NON-NLS-1$
+		for (char c : this.name.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				json.append('\\').append(c);
+			} else if (c < 0x20) {
+				json.append(String.format("\\u%04x", Integer.valueOf(c))); //$NON-NLS-1$
+			} else {
+				json.append(c);
+			}
+		}
+		json.append("\",\"bytes\":").append(this.bytes); //$NON-NLS-1$
+		for (Stage stage : Stage.values()) {
+			json.append(",\"").append(stage.getName()).append("\":").append(getDuration(stage)); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		if (this.spillThreshold >= 0) {
+			json.append(",\"spillThreshold\":").append(this.spillThreshold) //$NON-NLS-1$
+					.append(",\"spilled\":").append(this.isSpilled); //$NON-NLS-1$
+		}
+		if (this.heapDelta >= 0) {
+			json.append(",\"heapDelta\":").append(this.heapDelta); //$NON-NLS-1$
+		}
+		return json.append(",\"total\":").append(this.total).append('}').toString(); //$NON-NLS-1$
+	}
+
+	/**
+	 * @return the metrics as a {@code metrics} element of an XML job report
+	 */
+	public String toXml() {
+		StringBuilder xml = new StringBuilder("<metrics bytes=\"").append(this.bytes).append('"'); //$NON-NLS-1$
+		for (Stage stage : Stage.values()) {
+			xml.append(' ').append(stage.getName()).append("=\"").append(getDuration(stage)).append('"'); //$NON-NLS-1$
+		}
+		if (this.spillThreshold >= 0) {
+			xml.append(" spillThreshold=\"").append(this.spillThreshold) //$NON-NLS-1$
+					.append("\" spilled=\"").append(this.isSpilled).append('"'); //$NON-NLS-1$
+		}
+		if (this.heapDelta >= 0) {
+			xml.append(" heapDelta=\"").append(this.heapDelta).append('"'); //$NON-NLS-1$
+		}
+		return xml.append(" total=\"").append(this.total).append("\"/>").toString(); //$NON-NLS-1$
+	}
+
+	/**
+	 * Adds the metrics element as the last child of the job of an XML job report.
+	 *
+	 * @param jobReport the XML report of the job
+	 * @return the report with the metrics element, or the passed report if it
+	 *         has no job element
+	 */
+	public byte[] addTo(final byte[] jobReport) {
+		int jobEnd = lastIndexOf(jobReport, JOB_END);
+		if (jobEnd < 0) {
+			return jobReport;
+		}
+		byte[] element = toXml().getBytes(StandardCharsets.UTF_8);
+		byte[] retVal = new byte[jobReport.length + element.length];
+		System.arraycopy(jobReport, 0, retVal, 0, jobEnd);
+		System.arraycopy(element, 0, retVal, jobEnd, element.length);
+		System.arraycopy(jobReport, jobEnd, retVal, jobEnd + element.length, jobReport.length - jobEnd);
+		return retVal;
+	}
+
+	private static int lastIndexOf(final byte[] data, final byte[] part) {
+		for (int i = data.length - part.length; i >= 0; i--) {
+			int j = 0;
+			while (j < part.length && data[i + j] == part[j]) {
+				j++;
+			}
+			if (j == part.length) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
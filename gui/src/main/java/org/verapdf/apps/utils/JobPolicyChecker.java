@@ -0,0 +1,341 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import org.verapdf.ReleaseDetails;
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.core.utils.FileUtils;
+import org.verapdf.policy.PolicyChecker;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.URIResolver;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Applies a policy to single job machine readable reports. The policy and the
+ * stylesheet merging its results into the report are compiled once, compiled
+ * policies are reused while neither the policy nor the files it includes
+ * change, and both are
+ * applied in memory, so a batch report can be written job by job instead
+ * of being staged in temp files until the batch ends.
+ * <p>
+ * Instances are thread safe, every call gets its own transformers.
+ */
+public final class JobPolicyChecker {
+	private static final Logger LOGGER = Logger.getLogger(JobPolicyChecker.class.getCanonicalName());
+
+	private static final String SCHEMA_EXT = "sch"; //$NON-NLS-1$
+	private static final String MERGE_XSL = "org/verapdf/policy/MergeMrrPolicy.xsl"; //$NON-NLS-1$
+	private static final String POLICY_RESULT_PARAM = "policyResultPath"; //$NON-NLS-1$
+	private static final String POLICY_RESULT_URI = "veraPDF-policyResult.xml"; //$NON-NLS-1$
+	private static final String SAXON_FACTORY = "net.sf.saxon.TransformerFactoryImpl"; //$NON-NLS-1$
+	private static final String PIPELINE_PATH = "org/verapdf/policy/schematron/pipeline/"; //$NON-NLS-1$
+	/** Changed when compiled policies kept by earlier versions can't be reused */
+	private static final byte KEY_VERSION = 2;
+	/** Directory of the compiled policies in the configuration directory */
+	public static final String CACHE_DIR_NAME = "policies"; //$NON-NLS-1$
+	private static final String XSL_EXT = ".xsl"; //$NON-NLS-1$
+	private static final int MAX_COMPILED = 16;
+	private static final String[] PIPELINE_XSLS = { "iso_dsdl_include.xsl", "iso_abstract_expand.xsl", //$NON-NLS-1$ //$NON-NLS-2$
+			"iso_svrl_for_xslt1.xsl" }; //$NON-NLS-1$
+
+	/** Checkers of the most recently compiled policies, by policy key */
+	private static final Map<String, JobPolicyChecker> COMPILED = new LinkedHashMap<String, JobPolicyChecker>(
+			MAX_COMPILED, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, JobPolicyChecker> eldest) {
+			return size() > MAX_COMPILED;
+		}
+	};
+	private static Templates mergeTemplates;
+
+	private final Templates policy;
+	private final Templates merge;
+	/** Modification times of the files included by the policy when it was compiled */
+	private final Map<File, Long> includes;
+
+	private JobPolicyChecker(final Templates policy, final Templates merge, final Map<File, Long> includes) {
+		this.policy = policy;
+		this.merge = merge;
+		this.includes = includes;
+	}
+
+	/**
+	 * Compiles a policy file, or returns the checker compiled earlier for the
+	 * same policy, see {@link #compile(File, File)}.
+	 *
+	 * @param policy a Schematron, XSL or XSLT policy file
+	 * @return the checker applying the compiled policy
+	 * @throws VeraPDFException when the policy can't be read or compiled
+	 */
+	public static JobPolicyChecker compile(final File policy) throws VeraPDFException {
+		return compile(policy, null);
+	}
+
+	/**
+	 * Compiles a policy file, or returns the checker compiled earlier for the
+	 * same policy. Schematron policies are the same if their content is, their
+	 * includes are resolved against the working directory. XSL policies also
+	 * have to be at the same location, their includes and imports are resolved
+	 * against it. Either way the files included when the policy was compiled
+	 * must not have been modified since.
+	 * <p>
+	 * Schematron policies without includes compiled to XSL are also kept in
+	 * the configuration directory, so other processes skip the Schematron
+	 * pipeline.
+	 *
+	 * @param policy a Schematron, XSL or XSLT policy file
+	 * @param configDir the application configuration directory, null to only
+	 *        keep compiled policies in memory
+	 * @return the checker applying the compiled policy
+	 * @throws VeraPDFException when the policy can't be read or compiled
+	 */
+	public static JobPolicyChecker compile(final File policy, final File configDir) throws VeraPDFException {
+		String ext = FileUtils.extFromFileName(policy.getName());
+		if (!PolicyChecker.isAllowedExtension(ext)) {
+			throw new VeraPDFException("Policy file extension must be one of sch, xsl, or xslt");
+		}
+		try {
+			byte[] policyContent = Files.readAllBytes(policy.toPath());
+			boolean isSchematron = ext.equalsIgnoreCase(SCHEMA_EXT);
+			String key = policyKey(policyContent, isSchematron);
+			String compiledKey = isSchematron ? key : key + ':' + policy.getCanonicalPath();
+			synchronized (COMPILED) {
+				JobPolicyChecker checker = COMPILED.get(compiledKey);
+				if (checker != null && checker.isCurrent()) {
+					return checker;
+				}
+			}
+			Map<File, Long> includes = new HashMap<>();
+			TransformerFactory factory = newTransformerFactory();
+			Source policyXsl;
+			if (isSchematron) {
+				policyXsl = new StreamSource(
+						new ByteArrayInputStream(schematronXsl(policyContent, key, configDir, includes)));
+			} else {
+				factory.setURIResolver(includeResolver(includes));
+				policyXsl = new StreamSource(new ByteArrayInputStream(policyContent), policy.toURI().toString());
+			}
+			JobPolicyChecker checker = new JobPolicyChecker(factory.newTemplates(policyXsl), mergeTemplates(),
+					includes);
+			synchronized (COMPILED) {
+				COMPILED.put(compiledKey, checker);
+			}
+			return checker;
+		} catch (IOException | TransformerException excep) {
+			throw new VeraPDFException("Exception compiling policy file " + policy.getAbsolutePath(), excep);
+		}
+	}
+
+	/**
+	 * Applies the policy to a single job report and inserts the policy report
+	 * into its job.
+	 *
+	 * @param jobReport the machine readable report of a single job
+	 * @return the job report with its policy report
+	 * @throws VeraPDFException when the policy can't be applied
+	 */
+	public byte[] apply(final byte[] jobReport) throws VeraPDFException {
+		try {
+			ByteArrayOutputStream policyResult = new ByteArrayOutputStream();
+			this.policy.newTransformer().transform(new StreamSource(new ByteArrayInputStream(jobReport)),
+					new StreamResult(policyResult));
+			ByteArrayOutputStream merged = new ByteArrayOutputStream(jobReport.length + policyResult.size());
+			Transformer transformer = this.merge.newTransformer();
+			transformer.setParameter(POLICY_RESULT_PARAM, POLICY_RESULT_URI);
+			transformer.setURIResolver((href, base) -> POLICY_RESULT_URI.equals(href)
+					? new StreamSource(new ByteArrayInputStream(policyResult.toByteArray()))
+					: null);
+			transformer.transform(new StreamSource(new ByteArrayInputStream(jobReport)), new StreamResult(merged));
+			return merged.toByteArray();
+		} catch (TransformerException excep) {
+			throw new VeraPDFException("Exception when applying policy file.", excep);
+		}
+	}
+
+	private boolean isCurrent() {
+		for (Map.Entry<File, Long> include : this.includes.entrySet()) {
+			if (include.getKey().lastModified() != include.getValue().longValue()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Resolves the includes and imports of an XSL policy against its location,
+	 * recording the included files.
+	 */
+	private static URIResolver includeResolver(final Map<File, Long> includes) {
+		return (href, base) -> {
+			try {
+				URI uri = base == null ? new URI(href) : new URI(base).resolve(href);
+				if ("file".equals(uri.getScheme())) { //$NON-NLS-1$
+					File file = new File(uri);
+					includes.put(file, Long.valueOf(file.lastModified()));
+					return new StreamSource(file);
+				}
+			} catch (URISyntaxException | IllegalArgumentException e) {
+				LOGGER.log(Level.FINE, "Policy include " + href + " left to the default resolver", e);
+			}
+			return null;
+		};
+	}
+
+	/**
+	 * Resolves the pipeline stylesheet imports, and includes of the policy,
+	 * the way the library pipeline does, recording the included files.
+	 */
+	private static URIResolver pipelineResolver(final Map<File, Long> includes) {
+		return (href, base) -> {
+			File file = new File(href);
+			if (file.exists()) {
+				includes.put(file.getAbsoluteFile(), Long.valueOf(file.lastModified()));
+				try {
+					return new StreamSource(new FileInputStream(file));
+				} catch (FileNotFoundException e) {
+					throw new TransformerException(e);
+				}
+			}
+			return new StreamSource(PolicyChecker.class.getClassLoader().getResourceAsStream(PIPELINE_PATH + href));
+		};
+	}
+
+	private static synchronized Templates mergeTemplates() throws TransformerException, IOException {
+		if (mergeTemplates == null) {
+			try (InputStream mergeStream = classpathResource(MERGE_XSL)) {
+				mergeTemplates = newTransformerFactory().newTemplates(new StreamSource(mergeStream));
+			}
+		}
+		return mergeTemplates;
+	}
+
+	private static byte[] schematronXsl(final byte[] schematron, final String key, final File configDir,
+			final Map<File, Long> includes) throws TransformerException, IOException {
+		Path cached = configDir == null ? null : configDir.toPath().resolve(CACHE_DIR_NAME).resolve(key + XSL_EXT);
+		if (cached != null && Files.isRegularFile(cached)) {
+			try {
+				return Files.readAllBytes(cached);
+			} catch (IOException e) {
+				LOGGER.log(Level.FINE, "Can't read compiled policy " + cached, e);
+			}
+		}
+		byte[] xsl = schematronToXsl(new ByteArrayInputStream(schematron), includes);
+		// the key doesn't cover included files, so only policies without any are kept
+		if (cached != null && includes.isEmpty()) {
+			writeCompiled(cached, xsl);
+		}
+		return xsl;
+	}
+
+	private static void writeCompiled(final Path cached, final byte[] xsl) {
+		try {
+			CacheFiles.writeAtomically(cached, os -> os.write(xsl));
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Can't write compiled policy " + cached, e);
+		}
+	}
+
+	/**
+	 * The key of a compiled policy, the digest of the policy content and of the
+	 * library releases providing the Schematron pipeline.
+	 */
+	private static String policyKey(final byte[] policyContent, final boolean isSchematron) {
+		MessageDigest digest = CacheFiles.newDigest();
+		digest.update(KEY_VERSION);
+		digest.update(isSchematron ? (byte) 1 : (byte) 0);
+		digest.update(policyContent);
+		for (ReleaseDetails details : ReleaseDetails.getDetails()) {
+			String release = details.getId() + ':' + details.getVersion();
+			digest.update(release.getBytes(StandardCharsets.UTF_8));
+		}
+		return CacheFiles.toHex(digest.digest());
+	}
+
+	/**
+	 * Runs the ISO Schematron pipeline the library uses for policies in memory.
+	 */
+	private static byte[] schematronToXsl(final InputStream schematron, final Map<File, Long> includes)
+			throws TransformerException, IOException {
+		TransformerFactory factory = newTransformerFactory();
+		factory.setURIResolver(pipelineResolver(includes));
+		byte[] result = null;
+		for (String xsl : PIPELINE_XSLS) {
+			Transformer transformer;
+			try (InputStream xslStream = classpathResource(PIPELINE_PATH + xsl)) {
+				transformer = factory.newTransformer(new StreamSource(xslStream));
+			}
+			transformer.setOutputProperty(OutputKeys.INDENT, "no"); //$NON-NLS-1$
+			ByteArrayOutputStream stage = new ByteArrayOutputStream();
+			transformer.transform(new StreamSource(result == null ? schematron : new ByteArrayInputStream(result)),
+					new StreamResult(stage));
+			result = stage.toByteArray();
+		}
+		return result;
+	}
+
+	private static InputStream classpathResource(final String path) throws IOException {
+		InputStream stream = PolicyChecker.class.getClassLoader().getResourceAsStream(path);
+		if (stream == null) {
+			throw new IOException("Policy resource " + path + " not found.");
+		}
+		return stream;
+	}
+
+	private static TransformerFactory newTransformerFactory() {
+		TransformerFactory factory = TransformerFactory.newInstance(SAXON_FACTORY, null);
+		try {
+			factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+			factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "file"); //$NON-NLS-1$
+		} catch (TransformerConfigurationException e) {
+			LOGGER.log(Level.WARNING, "Unable to secure xsl transformer");
+		}
+		return factory;
+	}
+}
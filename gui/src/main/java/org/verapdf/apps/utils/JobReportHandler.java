@@ -0,0 +1,135 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.processor.BatchProcessingHandler;
+import org.verapdf.processor.FormatOption;
+import org.verapdf.processor.ProcessorConfig;
+import org.verapdf.processor.ProcessorFactory;
+import org.verapdf.processor.ProcessorResult;
+import org.verapdf.processor.reports.BatchSummary;
+
+import java.io.ByteArrayOutputStream;
+import java.util.function.Consumer;
+
+/**
+ * Writes a machine readable batch report job by job. Every result is written
+ * to its own single job report, checked against the policy if there is one,
+ * given its metrics element if asked for, and merged into the batch report
+ * straight away.
+ */
+public final class JobReportHandler implements BatchProcessingHandler {
+	private final JobPolicyChecker policyChecker;
+	private final ReportMerger reportMerger;
+	private final boolean isVerbose;
+	private final String wikiPath;
+	private final boolean isReportMetrics;
+	private final Consumer<JobMetrics> metricsSink;
+	private final HeapProbe heapProbe = new HeapProbe();
+	private ProcessorConfig config;
+	private long jobStart;
+
+	/**
+	 * @param policyChecker the policy to check the jobs against, null for no policy
+	 * @param reportMerger the merger of the XML batch report, ended with the batch
+	 * @param isVerbose whether job reports are verbose
+	 * @param wikiPath the profiles wiki path used in job reports
+	 */
+	public JobReportHandler(final JobPolicyChecker policyChecker, final ReportMerger reportMerger,
+			final boolean isVerbose, final String wikiPath) {
+		this(policyChecker, reportMerger, isVerbose, wikiPath, false, null);
+	}
+
+	/**
+	 * @param policyChecker the policy to check the jobs against, null for no policy
+	 * @param reportMerger the merger of the XML batch report, ended with the batch
+	 * @param isVerbose whether job reports are verbose
+	 * @param wikiPath the profiles wiki path used in job reports
+	 * @param isReportMetrics whether job reports get a metrics element
+	 * @param metricsSink receives the metrics of each job before they're added to
+	 *        its report, null if not needed
+	 */
+	public JobReportHandler(final JobPolicyChecker policyChecker, final ReportMerger reportMerger,
+			final boolean isVerbose, final String wikiPath, final boolean isReportMetrics,
+			final Consumer<JobMetrics> metricsSink) {
+		this.policyChecker = policyChecker;
+		this.reportMerger = reportMerger;
+		this.isVerbose = isVerbose;
+		this.wikiPath = wikiPath;
+		this.isReportMetrics = isReportMetrics;
+		this.metricsSink = metricsSink;
+	}
+
+	@Override
+	public void handleBatchStart(final ProcessorConfig processorConfig) {
+		this.config = processorConfig;
+		startJob();
+	}
+
+	@Override
+	public void handleResult(final ProcessorResult result, final Boolean isLogsEnabled) throws VeraPDFException {
+		long start = System.currentTimeMillis();
+		ByteArrayOutputStream jobReport = new ByteArrayOutputStream();
+		BatchProcessingHandler handler = ProcessorFactory.getHandler(FormatOption.XML, this.isVerbose, jobReport,
+				this.config.getValidatorConfig().isRecordPasses(), this.wikiPath);
+		ProcessorFactory.BatchSummariser summariser = new ProcessorFactory.BatchSummariser(this.config);
+		summariser.addProcessingResult(result);
+		BatchSummary summary = summariser.summarise();
+		handler.handleBatchStart(this.config);
+		handler.handleResult(result, isLogsEnabled);
+		handler.handleBatchEnd(summary);
+		JobMetrics metrics = JobMetrics.fromResult(result);
+		long policyStart = System.currentTimeMillis();
+		metrics.setDuration(JobMetrics.Stage.REPORT, policyStart - start);
+		byte[] report = jobReport.toByteArray();
+		if (this.policyChecker != null) {
+			report = this.policyChecker.apply(report);
+			metrics.setDuration(JobMetrics.Stage.POLICY, System.currentTimeMillis() - policyStart);
+		}
+		long end = System.currentTimeMillis();
+		metrics.setHeapDelta(this.heapProbe.peakDelta());
+		metrics.setTotal(end - this.jobStart);
+		if (this.metricsSink != null) {
+			this.metricsSink.accept(metrics);
+		}
+		if (this.isReportMetrics) {
+			report = metrics.addTo(report);
+		}
+		this.reportMerger.write(report);
+		startJob();
+	}
+
+	@Override
+	public void handleBatchEnd(final BatchSummary summary) {
+		this.reportMerger.endReport();
+	}
+
+	@Override
+	public void close() {
+		// the report is ended with the batch
+	}
+
+	private void startJob() {
+		this.jobStart = System.currentTimeMillis();
+		this.heapProbe.start();
+	}
+}
@@ -0,0 +1,170 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.verapdf.component.Components;
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.processor.BatchProcessingHandler;
+import org.verapdf.processor.FormatOption;
+import org.verapdf.processor.ProcessorFactory;
+import org.verapdf.processor.reports.BatchSummary;
+import org.verapdf.processor.reports.FeaturesBatchSummary;
+import org.verapdf.processor.reports.MetadataRepairBatchSummary;
+import org.verapdf.processor.reports.Reports;
+import org.verapdf.processor.reports.ResultStructure;
+import org.verapdf.processor.reports.Summarisers;
+import org.verapdf.processor.reports.multithread.writer.ReportWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Merges JSON document reports into one JSON batch report, the report a single
+ * process writes for the whole batch. The library's JSON handler writes the
+ * build information and the batch summary, the jobs are read from the
+ * document reports with Jackson, as the library writes them, and written back
+ * one at a time; the batch summaries of the document reports are added up.
+ */
+final class JsonBatchReportWriter extends ReportWriter implements MemoryReportWriter {
+	private static final Logger LOGGER = Logger.getLogger(JsonBatchReportWriter.class.getCanonicalName());
+
+	private static final String JOBS = "jobs"; //$NON-NLS-1$
+	private static final String BATCH_SUMMARY = "batchSummary"; //$NON-NLS-1$
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final BatchProcessingHandler batchHandler;
+	private Components.Timer timer;
+	private boolean isFirstJob = true;
+
+	private int totalJobs = 0;
+	private int failedToParse = 0;
+	private int encrypted = 0;
+	private int outOfMemory = 0;
+	private int veraExceptions = 0;
+	private int compliant = 0;
+	private int nonCompliant = 0;
+	private int failedValidations = 0;
+	private int features = 0;
+	private int failedFeatures = 0;
+	private int repairs = 0;
+	private int failedRepairs = 0;
+
+	JsonBatchReportWriter(final OutputStream os, final PrintWriter errorStreamWriter) throws VeraPDFException {
+		super(new PrintWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8)), errorStreamWriter);
+		this.batchHandler = ProcessorFactory.getHandler(FormatOption.JSON, false, os, false);
+	}
+
+	@Override
+	public void startDocument() {
+		this.timer = Components.Timer.start();
+		try {
+			this.batchHandler.handleBatchStart(ProcessorFactory.defaultConfig());
+		} catch (VeraPDFException e) {
+			LOGGER.log(Level.SEVERE, "Can't write start document", e);
+		}
+	}
+
+	/**
+	 * Document reports are merged from memory only, see {@link #write(byte[])}.
+	 */
+	@Override
+	public void write(final ResultStructure result) {
+		throw new UnsupportedOperationException("Document reports are merged from memory"); //$NON-NLS-1$
+	}
+
+	@Override
+	public void write(final byte[] report) {
+		JsonNode jobs;
+		JsonNode summary;
+		try {
+			JsonNode root = MAPPER.readTree(report);
+			jobs = root == null ? null : root.get(JOBS);
+			summary = root == null ? null : root.get(BATCH_SUMMARY);
+			if (jobs == null || !jobs.isArray() || summary == null || !summary.isObject()) {
+				throw new IOException("Document report isn't a JSON batch report");
+			}
+			for (JsonNode job : jobs) {
+				if (!this.isFirstJob) {
+					this.outputStreamWriter.write(',');
+				}
+				this.outputStreamWriter.write(MAPPER.writeValueAsString(job));
+				this.isFirstJob = false;
+			}
+			this.outputStreamWriter.flush();
+		} catch (IOException e) {
+			// the document is still counted, the batch summary then says it failed
+			LOGGER.log(Level.SEVERE, "Can't merge document report", e);
+			this.totalJobs++;
+			this.veraExceptions++;
+			return;
+		}
+		addSummary(summary);
+	}
+
+	private void addSummary(final JsonNode summary) {
+		this.totalJobs += count(summary, null, "totalJobs"); //$NON-NLS-1$
+		this.failedToParse += count(summary, null, "failedParsingJobs"); //$NON-NLS-1$
+		this.encrypted += count(summary, null, "failedEncryptedJobs"); //$NON-NLS-1$
+		this.outOfMemory += count(summary, null, "outOfMemory"); //$NON-NLS-1$
+		this.veraExceptions += count(summary, null, "veraExceptions"); //$NON-NLS-1$
+		this.compliant += count(summary, "validationSummary", "compliantPdfaCount"); //$NON-NLS-1$ //$NON-NLS-2$
+		this.nonCompliant += count(summary, "validationSummary", "nonCompliantPdfaCount"); //$NON-NLS-1$ //$NON-NLS-2$
+		this.failedValidations += count(summary, "validationSummary", "failedJobCount"); //$NON-NLS-1$ //$NON-NLS-2$
+		this.features += count(summary, "featuresSummary", "totalJobCount"); //$NON-NLS-1$ //$NON-NLS-2$
+		this.failedFeatures += count(summary, "featuresSummary", "failedJobCount"); //$NON-NLS-1$ //$NON-NLS-2$
+		this.repairs += count(summary, "repairSummary", "totalJobCount"); //$NON-NLS-1$ //$NON-NLS-2$
+		this.failedRepairs += count(summary, "repairSummary", "failedJobCount"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * @return the count named {@code name} in the {@code section} object of the
+	 *         batch summary, or in the summary itself if {@code section} is null,
+	 *         0 if there is no such count
+	 */
+	static int count(final JsonNode summary, final String section, final String name) {
+		JsonNode counts = section == null ? summary : summary.path(section);
+		return counts.path(name).asInt(0);
+	}
+
+	@Override
+	public void endDocument() {
+		try {
+			this.batchHandler.handleBatchEnd(summarise());
+		} catch (VeraPDFException e) {
+			LOGGER.log(Level.SEVERE, "Can't write end document", e);
+		}
+	}
+
+	private BatchSummary summarise() {
+		return Reports.createBatchSummary(this.timer,
+				Summarisers.validationSummaryFromValues(this.compliant, this.nonCompliant, this.failedValidations),
+				FeaturesBatchSummary.fromValues(this.features, this.failedFeatures),
+				MetadataRepairBatchSummary.fromValues(this.repairs, this.failedRepairs), this.totalJobs,
+				this.failedToParse, this.encrypted, this.outOfMemory, this.veraExceptions);
+	}
+}
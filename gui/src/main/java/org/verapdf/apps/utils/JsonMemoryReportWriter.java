@@ -0,0 +1,48 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import org.verapdf.processor.reports.multithread.writer.JsonReportWriter;
+
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the JSON batch report, document reports in memory are copied to it
+ * the way the library copies report files.
+ */
+final class JsonMemoryReportWriter extends JsonReportWriter implements MemoryReportWriter {
+
+	JsonMemoryReportWriter(final PrintWriter outputStreamWriter, final PrintWriter errorStreamWriter) {
+		super(outputStreamWriter, errorStreamWriter);
+	}
+
+	@Override
+	public void write(final byte[] report) {
+		if (this.isFirstReport) {
+			this.isFirstReport = false;
+		} else {
+			this.outputStreamWriter.write(',');
+		}
+		this.outputStreamWriter.write(new String(report, StandardCharsets.UTF_8));
+		this.outputStreamWriter.flush();
+	}
+}
@@ -0,0 +1,127 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import org.verapdf.ReleaseDetails;
+import org.verapdf.component.ComponentDetails;
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.processor.ItemProcessor;
+import org.verapdf.processor.ProcessorConfig;
+import org.verapdf.processor.ProcessorFactory;
+import org.verapdf.processor.ProcessorResult;
+import org.verapdf.processor.reports.ItemDetails;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Item processor that hands regular files to the wrapped processor as memory
+ * mapped, random access sources, so the parser seeks in the mapping instead of
+ * copying the file through heap buffers. Streams, such as STDIN and zip
+ * entries, are passed through unchanged.
+ * <p>
+ * Mapped sources are specific to the PDF parser, see {@link SeekableSources}.
+ * Without a registered provider files are processed as usual.
+ */
+public final class MappedItemProcessor implements ItemProcessor {
+	private static final Logger LOGGER = Logger.getLogger(MappedItemProcessor.class.getCanonicalName());
+
+	private static final AtomicBoolean isUnsupportedLogged = new AtomicBoolean();
+
+	private final ItemProcessor processor;
+
+	private MappedItemProcessor(final ItemProcessor processor) {
+		this.processor = processor;
+	}
+
+	/**
+	 * @param config the processor configuration
+	 * @param isMapped whether files should be memory mapped
+	 * @return a processor mapping files if requested and supported by the PDF
+	 *         parser, the default processor otherwise
+	 */
+	public static ItemProcessor createProcessor(final ProcessorConfig config, final boolean isMapped) {
+		ItemProcessor processor = ProcessorFactory.createProcessor(config);
+		if (!isMapped) {
+			return processor;
+		}
+		if (!SeekableSources.isSupported()) {
+			if (isUnsupportedLogged.compareAndSet(false, true)) {
+				LOGGER.log(Level.WARNING, "The PDF parser doesn't support memory mapped files, files are read as usual");
+			}
+			return processor;
+		}
+		return new MappedItemProcessor(processor);
+	}
+
+	@Override
+	public ProcessorResult process(final ItemDetails fileDetails, final InputStream pdfFileStream) {
+		return this.processor.process(fileDetails, pdfFileStream);
+	}
+
+	@Override
+	public ProcessorResult process(final File toProcess) throws VeraPDFException {
+		if (toProcess == null || !toProcess.isFile()) {
+			return this.processor.process(toProcess);
+		}
+		InputStream source;
+		try {
+			source = SeekableSources.map(toProcess);
+		} catch (IOException e) {
+			LOGGER.log(Level.FINE, "Can't map " + toProcess.getAbsolutePath() + ", reading it as usual", e);
+			return this.processor.process(toProcess);
+		}
+		try {
+			return this.processor.process(ItemDetails.fromFile(toProcess), source);
+		} finally {
+			try {
+				source.close();
+			} catch (IOException e) {
+				LOGGER.log(Level.FINER, "Can't close mapped source of " + toProcess.getAbsolutePath(), e);
+			}
+		}
+	}
+
+	@Override
+	public ProcessorConfig getConfig() {
+		return this.processor.getConfig();
+	}
+
+	@Override
+	public Collection<ReleaseDetails> getDependencies() {
+		return this.processor.getDependencies();
+	}
+
+	@Override
+	public ComponentDetails getDetails() {
+		return this.processor.getDetails();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.processor.close();
+	}
+}
@@ -0,0 +1,221 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Memory shared by the documents validated at the same time. Every job
+ * reserves the memory it's estimated to need before it starts and waits,
+ * in the order jobs arrived, until the reservation fits the budget. A job
+ * estimated above the whole budget reserves all of it, so it runs alone
+ * instead of next to other large documents.
+ * <p>
+ * Estimates are rough, they grow with the file size and with the page count
+ * when a linearized PDF declares it in its first bytes. Other PDFs can't tell
+ * their page count without being parsed.
+ */
+public final class MemoryBudget {
+	private static final Logger LOGGER = Logger.getLogger(MemoryBudget.class.getCanonicalName());
+
+	/** Share of the maximal heap budgeted by default for the documents validated in this JVM */
+	private static final double DEFAULT_HEAP_SHARE = 0.75;
+	/** Memory taken by a job whatever its document */
+	private static final long JOB_COST = 8L * 1024 * 1024;
+	/** Memory taken per byte of document, parsed objects and validation state included */
+	private static final int BYTE_COST = 4;
+	/** Memory taken per page, for the page resources and content stream operators */
+	private static final long PAGE_COST = 256L * 1024;
+	/** Bytes at the start of a PDF searched for the linearization dictionary */
+	private static final int HEADER_LENGTH = 1024;
+	private static final Pattern PAGE_COUNT = Pattern.compile("/N\\s+(\\d+)"); //$NON-NLS-1$
+
+	private final long total;
+	/** Guards the reserved memory */
+	private final FairAdmission admission = new FairAdmission();
+	private long reserved = 0;
+
+	private MemoryBudget(final long total) {
+		this.total = total;
+	}
+
+	/**
+	 * Creates a budget.
+	 *
+	 * @param budget the budget in bytes, 0 for none or negative for the default
+	 * @param isSharedHeap true if the jobs run in this JVM and share its heap,
+	 *            false if they run in processes of their own
+	 * @return the budget, or null if jobs aren't budgeted; by default jobs in
+	 *         this JVM share three quarters of its maximal heap and jobs in
+	 *         processes of their own aren't budgeted
+	 */
+	public static MemoryBudget create(final long budget, final boolean isSharedHeap) {
+		if (budget == 0 || (budget < 0 && !isSharedHeap)) {
+			return null;
+		}
+		long total = budget > 0 ? budget : (long) (Runtime.getRuntime().maxMemory() * DEFAULT_HEAP_SHARE);
+		LOGGER.log(Level.FINE, "Memory budget of " + total + " bytes");
+		return new MemoryBudget(total);
+	}
+
+	/**
+	 * @return the budget in bytes
+	 */
+	public long getTotal() {
+		return this.total;
+	}
+
+	/**
+	 * Estimates the memory needed to validate a PDF file.
+	 *
+	 * @param file the file to validate
+	 * @return the estimated memory in bytes
+	 */
+	public static long estimate(final File file) {
+		return estimate(file.length(), pageCount(file));
+	}
+
+	/**
+	 * Estimates the memory needed to validate a document.
+	 *
+	 * @param size the size of the document in bytes, negative if it's unknown
+	 * @param pages the number of pages of the document, 0 if it's unknown
+	 * @return the estimated memory in bytes
+	 */
+	public static long estimate(final long size, final int pages) {
+		return JOB_COST + Math.max(size, 0) * BYTE_COST + Math.max(pages, 0) * PAGE_COST;
+	}
+
+	/**
+	 * Waits until the estimated memory of a job fits the budget and reserves it.
+	 *
+	 * @param cost the estimated memory of the job
+	 * @return the memory reserved, to be passed to {@link #release(long)} when
+	 *         the job has finished
+	 * @throws InterruptedException when interrupted while waiting
+	 */
+	public long reserve(final long cost) throws InterruptedException {
+		long toReserve = Math.min(cost, this.total);
+		this.admission.admit(() -> fits(toReserve), () -> this.reserved += toReserve);
+		return toReserve;
+	}
+
+	/**
+	 * Reserves the estimated memory of a job if it fits the budget and no job
+	 * is waiting.
+	 *
+	 * @param cost the estimated memory of the job
+	 * @return the memory reserved, or -1 if nothing was reserved
+	 */
+	public long tryReserve(final long cost) {
+		long toReserve = Math.min(cost, this.total);
+		return this.admission.tryAdmit(() -> fits(toReserve), () -> this.reserved += toReserve) ? toReserve : -1;
+	}
+
+	/**
+	 * Gives back memory reserved by a job that has finished.
+	 *
+	 * @param reservation the value returned when the memory was reserved
+	 */
+	public void release(final long reservation) {
+		if (reservation <= 0) {
+			return;
+		}
+		this.admission.update(() -> this.reserved -= reservation);
+	}
+
+	private boolean fits(final long toReserve) {
+		return this.reserved + toReserve <= this.total;
+	}
+
+	/**
+	 * @return the page count declared by the linearization dictionary of a
+	 *         PDF, or 0 if the file isn't linearized
+	 */
+	static int pageCount(final File file) {
+		byte[] header = new byte[HEADER_LENGTH];
+		int length = 0;
+		try (InputStream in = new FileInputStream(file)) {
+			int read;
+			while (length < header.length && (read = in.read(header, length, header.length - length)) > 0) {
+				length += read;
+			}
+		} catch (IOException e) {
+			LOGGER.log(Level.FINE, "Can't read the header of " + file, e);
+			return 0;
+		}
+		return pageCount(new String(header, 0, length, StandardCharsets.ISO_8859_1));
+	}
+
+	/**
+	 * @param header the first bytes of a PDF
+	 * @return the page count of the dictionary holding the linearization
+	 *         key, wherever the keys are in it, or 0 if there is none
+	 */
+	static int pageCount(final String header) {
+		int linearized = header.indexOf("/Linearized"); //$NON-NLS-1$
+		if (linearized < 0) {
+			return 0;
+		}
+		int start = header.lastIndexOf("<<", linearized); //$NON-NLS-1$
+		if (start < 0) {
+			return 0;
+		}
+		Matcher matcher = PAGE_COUNT.matcher(header).region(start, dictionaryEnd(header, start));
+		if (!matcher.find()) {
+			return 0;
+		}
+		try {
+			return Integer.parseInt(matcher.group(1));
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * @return the index following the end of the dictionary starting at the
+	 *         passed index, or the header length if it's cut off
+	 */
+	private static int dictionaryEnd(final String header, final int start) {
+		int depth = 0;
+		for (int i = start; i < header.length() - 1; i++) {
+			if (header.startsWith("<<", i)) { //$NON-NLS-1$
+				depth++;
+				i++;
+			} else if (header.startsWith(">>", i)) { //$NON-NLS-1$
+				depth--;
+				i++;
+				if (depth == 0) {
+					return i + 1;
+				}
+			}
+		}
+		return header.length();
+	}
+}
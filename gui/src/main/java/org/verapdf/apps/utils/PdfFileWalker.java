@@ -0,0 +1,158 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import org.verapdf.apps.Applications;
+import org.verapdf.core.utils.FileUtils;
+import org.verapdf.gui.utils.GUIConstants;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Streaming counterpart of {@link ApplicationUtils#filterPdfFiles(List, boolean, boolean)}.
+ * Files are passed to a consumer as soon as they are found instead of being
+ * collected into a list, and directories are listed in parallel on a fork-join
+ * pool. The same files are selected, but in no particular order.
+ */
+public final class PdfFileWalker {
+	private static final Logger LOGGER = Logger.getLogger(PdfFileWalker.class.getCanonicalName());
+
+	private final boolean isRecursive;
+	private final boolean nonPdfExt;
+	private final Consumer<File> consumer;
+
+	private PdfFileWalker(final boolean isRecursive, final boolean nonPdfExt, final Consumer<File> consumer) {
+		this.isRecursive = isRecursive;
+		this.nonPdfExt = nonPdfExt;
+		this.consumer = consumer;
+	}
+
+	/**
+	 * Walks the passed files and directories, passing every file to process to
+	 * the consumer. Returns once the walk is complete.
+	 *
+	 * @param toWalk
+	 *            the files and directories to walk, can not be null
+	 * @param isRecursive
+	 *            true to descend into sub-directories
+	 * @param nonPdfExt
+	 *            true to accept files without a .pdf extension
+	 * @param consumer
+	 *            receives the files found, called concurrently from the
+	 *            walking threads
+	 * @throws IllegalArgumentException
+	 *             when toWalk or consumer is null
+	 */
+	public static void walk(final List<File> toWalk, final boolean isRecursive, final boolean nonPdfExt,
+			final Consumer<File> consumer) {
+		Applications.checkArgNotNull(toWalk, "toWalk"); //$NON-NLS-1$
+		Applications.checkArgNotNull(consumer, "consumer"); //$NON-NLS-1$
+		new PdfFileWalker(isRecursive, nonPdfExt, consumer).walk(toWalk);
+	}
+
+	private void walk(final List<File> toWalk) {
+		List<DirectoryTask> directories = new ArrayList<>();
+		for (File file : toWalk) {
+			if (!file.exists()) {
+				LOGGER.log(Level.SEVERE, "File " + file.getAbsolutePath() + " doesn't exist.");
+				continue;
+			}
+			if (file.isFile()) {
+				if (this.nonPdfExt || FileUtils.hasExtNoCase(file.getName(), GUIConstants.PDF) ||
+						ApplicationUtils.isArchive(file.getName())) {
+					this.consumer.accept(file);
+				} else {
+					LOGGER.log(Level.SEVERE, "File " + file.getAbsolutePath() + " doesn't have a .pdf extension. Try using --nonpdfext flag");
+				}
+			} else if (file.isDirectory()) {
+				directories.add(new DirectoryTask(file.toPath()));
+			}
+		}
+		if (directories.isEmpty()) {
+			return;
+		}
+		ForkJoinPool pool = new ForkJoinPool();
+		try {
+			List<ForkJoinTask<Void>> submitted = new ArrayList<>(directories.size());
+			for (DirectoryTask directory : directories) {
+				submitted.add(pool.submit(directory));
+			}
+			for (ForkJoinTask<Void> task : submitted) {
+				task.join();
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private final class DirectoryTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Path directory;
+
+		DirectoryTask(final Path directory) {
+			this.directory = directory;
+		}
+
+		@Override
+		protected void compute() {
+			List<DirectoryTask> subDirectories = new ArrayList<>();
+			try (DirectoryStream<Path> entries = Files.newDirectoryStream(this.directory)) {
+				for (Path entry : entries) {
+					BasicFileAttributes attributes;
+					try {
+						attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+					} catch (IOException e) {
+						LOGGER.log(Level.WARNING, "Can't read attributes of " + entry, e);
+						continue;
+					}
+					if (attributes.isRegularFile()) {
+						if (nonPdfExt || FileUtils.hasExtNoCase(entry.getFileName().toString(), GUIConstants.PDF)) {
+							consumer.accept(entry.toFile());
+						}
+					} else if (attributes.isDirectory() && isRecursive) {
+						DirectoryTask subDirectory = new DirectoryTask(entry);
+						subDirectory.fork();
+						subDirectories.add(subDirectory);
+					}
+				}
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, "Can't list directory " + this.directory, e);
+			}
+			for (DirectoryTask subDirectory : subDirectories) {
+				subDirectory.join();
+			}
+		}
+	}
+}
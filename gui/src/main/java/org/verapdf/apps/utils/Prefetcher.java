@@ -0,0 +1,178 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads the next files of a batch ahead of processing, so they're in the
+ * operating system's file cache when a worker opens them. On network file
+ * systems this overlaps the transfer of upcoming files with the validation of
+ * the current ones.
+ * <p>
+ * Files are offered in the order they're processed and read in full into a
+ * small buffer that is thrown away, the file cache is shared by worker
+ * processes, so files prefetched by this JVM are cached for them too. At most
+ * depth files beyond those taken for processing are read, files taken before
+ * their turn came aren't read at all.
+ */
+public final class Prefetcher implements Closeable {
+	private static final Logger LOGGER = Logger.getLogger(Prefetcher.class.getCanonicalName());
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final int depth;
+	private final ExecutorService readers = IoThreads.newExecutor("veraPDF prefetch"); //$NON-NLS-1$
+	/** Offered files that aren't read yet, in order */
+	private final Deque<File> pending = new ArrayDeque<>();
+	/** Number of files offered before the first pending one */
+	private long dispatched = 0;
+	/** Number of offered files taken for processing */
+	private long taken = 0;
+	private boolean isClosed = false;
+
+	private Prefetcher(final int depth) {
+		this.depth = depth;
+	}
+
+	/**
+	 * Creates a prefetcher.
+	 *
+	 * @param depth the number of files read ahead of processing
+	 * @return the prefetcher, or null if depth isn't positive
+	 */
+	public static Prefetcher create(final int depth) {
+		return depth > 0 ? new Prefetcher(depth) : null;
+	}
+
+	/**
+	 * Adds a file to the end of the files to process.
+	 *
+	 * @param file the file, read once fewer than depth files are ahead of it
+	 */
+	public synchronized void offer(final File file) {
+		if (!this.isClosed) {
+			this.pending.add(file);
+			dispatch();
+		}
+	}
+
+	/**
+	 * Marks the first offered file that wasn't taken yet as taken for
+	 * processing.
+	 */
+	public synchronized void taken() {
+		consumed(this.taken + 1);
+	}
+
+	/**
+	 * Offers all files of a list and returns a view of it that marks them
+	 * taken as they're got, iterating the view consumes the files in order.
+	 *
+	 * @param files the files to process
+	 * @return an unmodifiable view of files
+	 */
+	public List<File> offerAll(final List<File> files) {
+		long first;
+		synchronized (this) {
+			first = this.dispatched + this.pending.size();
+			for (File file : files) {
+				offer(file);
+			}
+		}
+		return new AbstractList<File>() {
+			@Override
+			public File get(final int index) {
+				File file = files.get(index);
+				consumed(first + index + 1);
+				return file;
+			}
+
+			@Override
+			public int size() {
+				return files.size();
+			}
+		};
+	}
+
+	/**
+	 * Stops reading ahead, reads in progress are abandoned.
+	 */
+	@Override
+	public synchronized void close() {
+		this.isClosed = true;
+		this.pending.clear();
+		this.readers.shutdownNow();
+	}
+
+	/**
+	 * @return the number of offered files read or skipped so far
+	 */
+	synchronized long getDispatched() {
+		return this.dispatched;
+	}
+
+	private synchronized void consumed(final long count) {
+		if (count > this.taken) {
+			this.taken = count;
+			dispatch();
+		}
+	}
+
+	private void dispatch() {
+		while (!this.pending.isEmpty() && this.dispatched < this.taken + this.depth) {
+			File file = this.pending.poll();
+			// a file taken already is being read by its worker
+			if (this.dispatched++ >= this.taken) {
+				try {
+					this.readers.execute(() -> read(file));
+				} catch (RejectedExecutionException e) {
+					LOGGER.log(Level.FINE, "Prefetcher is closed", e);
+					return;
+				}
+			}
+		}
+	}
+
+	private static void read(final File file) {
+		byte[] buffer = new byte[BUFFER_SIZE];
+		try (InputStream stream = new FileInputStream(file)) {
+			while (stream.read(buffer) >= 0 && !Thread.currentThread().isInterrupted()) {
+				// only the file cache keeps the content
+			}
+		} catch (IOException e) {
+			// the worker reports the file
+			LOGGER.log(Level.FINE, "Can't prefetch " + file.getAbsolutePath(), e);
+		}
+	}
+}
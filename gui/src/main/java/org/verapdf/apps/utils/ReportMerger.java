@@ -0,0 +1,201 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.processor.FormatOption;
+import org.verapdf.processor.reports.multithread.MultiThreadProcessingHandler;
+import org.verapdf.processor.reports.multithread.MultiThreadProcessingHandlerImpl;
+import org.verapdf.processor.reports.multithread.writer.ReportWriter;
+
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Merges single document reports into one batch report. HTML reports are
+ * written by {@link HtmlReportWriter}, which spools each document report's rows
+ * as it arrives rather than converting a merged XML report of the whole batch.
+ * XML, raw and JSON reports are merged from memory by the writers of this
+ * package, so document reports are never staged in temp files.
+ */
+public final class ReportMerger {
+	private static final Logger LOGGER = Logger.getLogger(ReportMerger.class.getCanonicalName());
+
+	private static final int DEFAULT_BUFFER_SIZE = 512;
+	private static final int COEFFICIENT_BUFFER_SIZE = 1024;
+
+	private final FormatOption outputFormat;
+	private final OutputStream os;
+	private final MultiThreadProcessingHandler processingHandler;
+	private final MemoryReportWriter memoryWriter;
+	private final HtmlReportWriter htmlWriter;
+
+	private boolean isFirstReport = true;
+
+	/**
+	 * @param destination the stream to write the batch report to, closed when the report ends
+	 * @param format the format of the batch report, document reports must use the same format or XML for HTML
+	 * @param wikiPath the profiles wiki path used by HTML reports
+	 */
+	public ReportMerger(final OutputStream destination, final FormatOption format, final String wikiPath) {
+		this(destination, format, wikiPath, false);
+	}
+
+	/**
+	 * @param destination the stream to write the batch report to, closed when the report ends
+	 * @param format the format of the batch report, document reports must use the same format or XML for HTML
+	 * @param wikiPath the profiles wiki path used by HTML reports
+	 * @param isOneReport whether JSON document reports are merged into the one report a single process writes
+	 *        for the batch, rather than listed as the multiprocessing mode lists them
+	 */
+	public ReportMerger(final OutputStream destination, final FormatOption format, final String wikiPath,
+			final boolean isOneReport) {
+		HtmlReportWriter html = null;
+		if (format == FormatOption.HTML) {
+			try {
+				// the writer buffers the page itself
+				html = new HtmlReportWriter(destination, wikiPath);
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, "Problem with generating html report", e);
+			}
+		}
+		this.htmlWriter = html;
+		this.outputFormat = documentFormat(format);
+		if (this.htmlWriter == null) {
+			this.os = new BufferedOutputStream(destination, DEFAULT_BUFFER_SIZE * COEFFICIENT_BUFFER_SIZE);
+			OutputStream err = new BufferedOutputStream(System.err, DEFAULT_BUFFER_SIZE);
+			ReportWriter reportWriter = newWriter(this.os, this.outputFormat, err, isOneReport);
+			this.memoryWriter = reportWriter instanceof MemoryReportWriter ? (MemoryReportWriter) reportWriter : null;
+			this.processingHandler = new MultiThreadProcessingHandlerImpl(reportWriter);
+		} else {
+			this.os = null;
+			this.memoryWriter = null;
+			this.processingHandler = null;
+		}
+	}
+
+	private static ReportWriter newWriter(final OutputStream os, final FormatOption format, final OutputStream err,
+			final boolean isOneReport) {
+		PrintWriter out = new PrintWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+		PrintWriter errors = new PrintWriter(new OutputStreamWriter(err, StandardCharsets.UTF_8));
+		try {
+			switch (format) {
+				case XML:
+				case MRR:
+					return XmlMemoryReportWriter.mrr(out, errors);
+				case RAW:
+					return XmlMemoryReportWriter.raw(out, errors);
+				case JSON:
+					return isOneReport ? new JsonBatchReportWriter(os, errors) : new JsonMemoryReportWriter(out, errors);
+				default:
+					// text reports are copied straight to the output, the writer only starts and ends the report
+					return ReportWriter.newInstance(os, format, err);
+			}
+		} catch (XMLStreamException | ParserConfigurationException | SAXException | VeraPDFException e) {
+			throw new IllegalStateException("Can't create report writer", e);
+		}
+	}
+
+	/**
+	 * @param format the format of the batch report
+	 * @return the format the document reports of the batch must use
+	 */
+	public static FormatOption documentFormat(final FormatOption format) {
+		if (format == FormatOption.HTML) {
+			return FormatOption.XML;
+		}
+		return format;
+	}
+
+	/**
+	 * Adds a document report held in memory. Text reports are copied straight to
+	 * the output, the reports of the other formats are parsed from memory.
+	 *
+	 * @param documentReport the document report
+	 */
+	public void write(final byte[] documentReport) {
+		if (this.outputFormat == FormatOption.TEXT) {
+			writeText(documentReport);
+			return;
+		}
+		if (this.htmlWriter != null) {
+			writeHtml(documentReport);
+			return;
+		}
+		writeMemory(documentReport);
+	}
+
+	private synchronized void writeMemory(final byte[] report) {
+		startReport();
+		this.memoryWriter.write(report);
+	}
+
+	private synchronized void writeText(final byte[] report) {
+		startReport();
+		try {
+			this.os.write(report);
+		} catch (IOException e) {
+			LOGGER.log(Level.SEVERE, "Can't write report", e);
+		}
+	}
+
+	private synchronized void writeHtml(final byte[] report) {
+		startReport();
+		try {
+			this.htmlWriter.write(new ByteArrayInputStream(report));
+		} catch (IOException e) {
+			LOGGER.log(Level.SEVERE, "Can't write report", e);
+		}
+	}
+
+	private void startReport() {
+		if (this.isFirstReport) {
+			if (this.processingHandler != null) {
+				this.processingHandler.startReport();
+			}
+			this.isFirstReport = false;
+		}
+	}
+
+	/**
+	 * Ends the batch report. Nothing is written if no document report was added.
+	 */
+	public synchronized void endReport() {
+		if (this.isFirstReport) {
+			return;
+		}
+		if (this.htmlWriter == null) {
+			this.processingHandler.endReport();
+			return;
+		}
+		try {
+			this.htmlWriter.endReport();
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Problem with generating html report", e);
+		}
+	}
+}
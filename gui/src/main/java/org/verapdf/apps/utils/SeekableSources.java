@@ -0,0 +1,97 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Random access sources the PDF parser reads without copying them, memory
+ * mapped files and in-memory buffers. The sources are specific to the PDF
+ * parser, the PDF model implementation registers a {@link Provider} as it
+ * registers its foundry. Without a provider plain streams are returned, which
+ * the parser copies before parsing.
+ */
+public final class SeekableSources {
+	private static volatile Provider provider;
+
+	private SeekableSources() {
+		// static access only
+	}
+
+	/**
+	 * Creates the random access sources of a PDF parser.
+	 */
+	public interface Provider {
+		/**
+		 * @param file the regular file to map
+		 * @return a source reading the memory mapped file, closed by the caller
+		 * @throws IOException when the file can't be mapped
+		 */
+		InputStream map(File file) throws IOException;
+
+		/**
+		 * @param buffer the bytes of the source, not copied
+		 * @param length the number of bytes of the buffer in use
+		 * @return a source reading the buffer
+		 */
+		InputStream wrap(byte[] buffer, int length);
+	}
+
+	/**
+	 * @param sourceProvider the provider of the PDF parser in use
+	 */
+	public static void setProvider(final Provider sourceProvider) {
+		provider = sourceProvider;
+	}
+
+	/**
+	 * @return true if a PDF parser registered its sources
+	 */
+	public static boolean isSupported() {
+		return provider != null;
+	}
+
+	/**
+	 * @param file the regular file to open
+	 * @return a memory mapped source of the file, or a plain file stream if no
+	 *         provider is registered
+	 * @throws IOException when the file can't be opened
+	 */
+	public static InputStream map(final File file) throws IOException {
+		Provider current = provider;
+		return current == null ? new FileInputStream(file) : current.map(file);
+	}
+
+	/**
+	 * @param buffer the bytes of the source, not copied
+	 * @param length the number of bytes of the buffer in use
+	 * @return a random access source of the buffer, or a plain stream if no
+	 *         provider is registered
+	 */
+	public static InputStream wrap(final byte[] buffer, final int length) {
+		Provider current = provider;
+		return current == null ? new ByteArrayInputStream(buffer, 0, length) : current.wrap(buffer, length);
+	}
+}
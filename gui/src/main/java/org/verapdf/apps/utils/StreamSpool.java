@@ -0,0 +1,166 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A stream of unknown length read in full, so the PDF parser can seek in it.
+ * The stream is buffered in memory up to a threshold, a longer stream is
+ * spilled to a temp file that is memory mapped for parsing. Either way the
+ * parser reads the spool in place, see {@link SeekableSources}, and the heap
+ * use is bounded by the threshold.
+ */
+public final class StreamSpool implements Closeable {
+	private static final Logger LOGGER = Logger.getLogger(StreamSpool.class.getCanonicalName());
+
+	private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+	private static final int COPY_BUFFER_SIZE = 64 * 1024;
+	/** The largest array size the JVMs support */
+	private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+	private final long threshold;
+	private byte[] buffer;
+	private long size;
+	private File spillFile;
+
+	private StreamSpool(final long threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Reads the stream to its end.
+	 *
+	 * @param stream the stream to read, not closed
+	 * @param threshold the number of bytes kept in memory, longer streams are
+	 *        spilled to a temp file
+	 * @return the spooled stream
+	 * @throws IOException when the stream can't be read or spilled
+	 */
+	public static StreamSpool read(final InputStream stream, final long threshold) throws IOException {
+		StreamSpool spool = new StreamSpool(Math.max(0, Math.min(threshold, MAX_BUFFER_SIZE)));
+		try {
+			spool.fill(stream);
+		} catch (IOException | RuntimeException e) {
+			spool.close();
+			throw e;
+		}
+		return spool;
+	}
+
+	private void fill(final InputStream stream) throws IOException {
+		this.buffer = new byte[(int) Math.min(INITIAL_BUFFER_SIZE, this.threshold)];
+		int length = 0;
+		while (true) {
+			if (length == this.buffer.length) {
+				if (length >= this.threshold) {
+					int probed = stream.read();
+					if (probed < 0) {
+						break;
+					}
+					spill(stream, length, probed);
+					return;
+				}
+				this.buffer = Arrays.copyOf(this.buffer, (int) Math.min(2L * length, this.threshold));
+			}
+			int read = stream.read(this.buffer, length, this.buffer.length - length);
+			if (read < 0) {
+				break;
+			}
+			length += read;
+		}
+		this.size = length;
+	}
+
+	/**
+	 * Writes the buffered bytes, the byte read past the threshold and the rest
+	 * of the stream to the spill file.
+	 */
+	private void spill(final InputStream stream, final int length, final int probed) throws IOException {
+		this.spillFile = Files.createTempFile("veraPDF-spool", ".pdf").toFile(); //$NON-NLS-1$ //$NON-NLS-2$
+		try (OutputStream os = Files.newOutputStream(this.spillFile.toPath())) {
+			os.write(this.buffer, 0, length);
+			this.size = length;
+			this.buffer = null;
+			os.write(probed);
+			this.size++;
+			byte[] copyBuffer = new byte[COPY_BUFFER_SIZE];
+			int read;
+			while ((read = stream.read(copyBuffer)) >= 0) {
+				os.write(copyBuffer, 0, read);
+				this.size += read;
+			}
+		}
+	}
+
+	/**
+	 * @return true if the stream was longer than the threshold and spilled to a temp file
+	 */
+	public boolean isSpilled() {
+		return this.spillFile != null;
+	}
+
+	/**
+	 * @return the number of bytes kept in memory before spilling
+	 */
+	public long getThreshold() {
+		return this.threshold;
+	}
+
+	/**
+	 * @return the length of the stream in bytes
+	 */
+	public long getSize() {
+		return this.size;
+	}
+
+	/**
+	 * @return a source reading the spooled stream from its start, closed by the caller
+	 * @throws IOException when the spill file can't be opened
+	 */
+	public InputStream open() throws IOException {
+		if (this.spillFile != null) {
+			return SeekableSources.map(this.spillFile);
+		}
+		return SeekableSources.wrap(this.buffer, (int) this.size);
+	}
+
+	/**
+	 * Deletes the spill file, sources opened before keep reading a mapped spill
+	 * file where the platform allows deleting it.
+	 */
+	@Override
+	public void close() {
+		this.buffer = null;
+		if (this.spillFile != null && !this.spillFile.delete() && this.spillFile.exists()) {
+			LOGGER.log(Level.FINE, "Can't delete spool file " + this.spillFile.getAbsolutePath());
+			this.spillFile.deleteOnExit();
+		}
+	}
+}
@@ -0,0 +1,319 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sequential reader of tar archives, the entries are read in a single pass
+ * over the archive stream without seeking. Reads POSIX ustar archives, GNU
+ * long names and sizes, and the path and size records of pax extended
+ * headers.
+ */
+final class TarInputStream {
+	private static final int BLOCK_SIZE = 512;
+	private static final int NAME_OFFSET = 0;
+	private static final int NAME_LENGTH = 100;
+	private static final int SIZE_OFFSET = 124;
+	private static final int SIZE_LENGTH = 12;
+	private static final int CHECKSUM_OFFSET = 148;
+	private static final int CHECKSUM_LENGTH = 8;
+	private static final int TYPE_OFFSET = 156;
+	private static final int MAGIC_OFFSET = 257;
+	private static final int PREFIX_OFFSET = 345;
+	private static final int PREFIX_LENGTH = 155;
+	/** Largest GNU long name or pax header read into memory */
+	private static final int MAX_HEADER_CONTENT = 1024 * 1024;
+
+	private final InputStream stream;
+	private final byte[] header = new byte[BLOCK_SIZE];
+	private BoundedInputStream content;
+
+	TarInputStream(final InputStream stream) {
+		this.stream = stream;
+	}
+
+	/**
+	 * An entry of the archive.
+	 */
+	static final class Entry {
+		private final String name;
+		private final long size;
+		private final boolean isFile;
+		private final InputStream content;
+
+		Entry(final String name, final long size, final boolean isFile, final InputStream content) {
+			this.name = name;
+			this.size = size;
+			this.isFile = isFile;
+			this.content = content;
+		}
+
+		String getName() {
+			return this.name;
+		}
+
+		long getSize() {
+			return this.size;
+		}
+
+		/**
+		 * @return true for regular files, false for directories, links and
+		 *         special files
+		 */
+		boolean isFile() {
+			return this.isFile;
+		}
+
+		/**
+		 * @return the content of the entry, valid until the next entry is read
+		 */
+		InputStream getContent() {
+			return this.content;
+		}
+	}
+
+	/**
+	 * Skips whatever is left of the current entry and reads the next one.
+	 *
+	 * @return the next entry, or null at the end of the archive
+	 * @throws IOException when the archive is malformed or can't be read
+	 */
+	Entry next() throws IOException {
+		skipContent();
+		String longName = null;
+		long paxSize = -1;
+		while (readHeader()) {
+			char type = (char) this.header[TYPE_OFFSET];
+			long size = parseSize();
+			switch (type) {
+				case 'L':
+					longName = trimName(readHeaderContent(size));
+					break;
+				case 'x':
+					String[] pax = parsePax(readHeaderContent(size));
+					if (pax[0] != null) {
+						longName = pax[0];
+					}
+					if (pax[1] != null) {
+						paxSize = parseDecimal(pax[1]);
+					}
+					break;
+				case 'g':
+				case 'K':
+					readHeaderContent(size);
+					break;
+				default:
+					String name = longName != null ? longName : headerName();
+					if (paxSize >= 0) {
+						size = paxSize;
+					}
+					boolean isFile = type == '0' || type == '\0' || type == '7';
+					// links and special files carry no content, whatever their size field says
+					boolean hasContent = type < '1' || type > '6' || type == '5';
+					this.content = new BoundedInputStream(this.stream, hasContent ? size : 0, "Tar archive", name);
+					return new Entry(name, size, isFile && !name.endsWith("/"), this.content); //$NON-NLS-1$
+			}
+		}
+		return null;
+	}
+
+	private boolean readHeader() throws IOException {
+		int read = readFully(this.header);
+		if (read == 0) {
+			return false;
+		}
+		if (read < BLOCK_SIZE) {
+			throw new EOFException("Tar archive ends within an entry header");
+		}
+		if (isZeroBlock()) {
+			// the archive ends with two zero blocks, the second one isn't needed
+			return false;
+		}
+		long checksum = parseOctal(CHECKSUM_OFFSET, CHECKSUM_LENGTH);
+		long sum = 0;
+		for (int i = 0; i < BLOCK_SIZE; i++) {
+			boolean isChecksumField = i >= CHECKSUM_OFFSET && i < CHECKSUM_OFFSET + CHECKSUM_LENGTH;
+			sum += isChecksumField ? ' ' : this.header[i] & 0xFF;
+		}
+		if (sum != checksum) {
+			throw new IOException("Not a tar archive or corrupt entry header");
+		}
+		return true;
+	}
+
+	private byte[] readHeaderContent(final long size) throws IOException {
+		if (size > MAX_HEADER_CONTENT) {
+			throw new IOException("Tar extended header of " + size + " bytes is too large");
+		}
+		byte[] content = new byte[(int) size];
+		if (readFully(content) < size) {
+			throw new EOFException("Tar archive ends within an extended header");
+		}
+		skipFully(padding(size));
+		return content;
+	}
+
+	private void skipContent() throws IOException {
+		if (this.content != null) {
+			skipFully(this.content.getRemaining() + padding(this.content.getLength()));
+			this.content.end();
+			this.content = null;
+		}
+	}
+
+	private String headerName() {
+		String name = headerString(NAME_OFFSET, NAME_LENGTH);
+		boolean isUstar = new String(this.header, MAGIC_OFFSET, 5, StandardCharsets.US_ASCII).equals("ustar"); //$NON-NLS-1$
+		if (isUstar) {
+			String prefix = headerString(PREFIX_OFFSET, PREFIX_LENGTH);
+			if (!prefix.isEmpty()) {
+				return prefix + '/' + name;
+			}
+		}
+		return name;
+	}
+
+	private String headerString(final int offset, final int length) {
+		int end = offset;
+		while (end < offset + length && this.header[end] != 0) {
+			end++;
+		}
+		return new String(this.header, offset, end - offset, StandardCharsets.UTF_8);
+	}
+
+	private long parseSize() throws IOException {
+		if ((this.header[SIZE_OFFSET] & 0x80) != 0) {
+			// GNU base-256 encoding of sizes from 8GB
+			long size = 0;
+			for (int i = SIZE_OFFSET + 1; i < SIZE_OFFSET + SIZE_LENGTH; i++) {
+				if ((size >>> 55) != 0) {
+					throw new IOException("Tar entry size is too large");
+				}
+				size = (size << 8) | (this.header[i] & 0xFF);
+			}
+			return size;
+		}
+		return parseOctal(SIZE_OFFSET, SIZE_LENGTH);
+	}
+
+	private long parseOctal(final int offset, final int length) throws IOException {
+		long value = 0;
+		int end = offset + length;
+		int i = offset;
+		while (i < end && this.header[i] == ' ') {
+			i++;
+		}
+		for (; i < end && this.header[i] != 0 && this.header[i] != ' '; i++) {
+			int digit = this.header[i] - '0';
+			if (digit < 0 || digit > 7) {
+				throw new IOException("Not a tar archive or corrupt entry header");
+			}
+			value = (value << 3) + digit;
+		}
+		return value;
+	}
+
+	private static long parseDecimal(final String value) throws IOException {
+		try {
+			return Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			throw new IOException("Malformed size in tar extended header: " + value, e);
+		}
+	}
+
+	/**
+	 * @return the path and the size of a pax extended header, null if absent
+	 */
+	private static String[] parsePax(final byte[] content) throws IOException {
+		String[] values = new String[2];
+		int offset = 0;
+		while (offset < content.length) {
+			int space = offset;
+			while (space < content.length && content[space] != ' ') {
+				space++;
+			}
+			int length = (int) parseDecimal(new String(content, offset, space - offset, StandardCharsets.US_ASCII));
+			if (length <= space - offset || offset + length > content.length) {
+				throw new IOException("Malformed tar extended header");
+			}
+			// records are "<length> <key>=<value>\n", the length includes itself
+			String record = new String(content, space + 1, offset + length - space - 2, StandardCharsets.UTF_8);
+			if (record.startsWith("path=")) { //$NON-NLS-1$
+				values[0] = record.substring(5);
+			} else if (record.startsWith("size=")) { //$NON-NLS-1$
+				values[1] = record.substring(5);
+			}
+			offset += length;
+		}
+		return values;
+	}
+
+	private static String trimName(final byte[] name) {
+		int end = name.length;
+		while (end > 0 && name[end - 1] == 0) {
+			end--;
+		}
+		return new String(name, 0, end, StandardCharsets.UTF_8);
+	}
+
+	private boolean isZeroBlock() {
+		for (byte b : this.header) {
+			if (b != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static long padding(final long size) {
+		return (BLOCK_SIZE - size % BLOCK_SIZE) % BLOCK_SIZE;
+	}
+
+	private int readFully(final byte[] buffer) throws IOException {
+		int read = 0;
+		while (read < buffer.length) {
+			int count = this.stream.read(buffer, read, buffer.length - read);
+			if (count < 0) {
+				break;
+			}
+			read += count;
+		}
+		return read;
+	}
+
+	private void skipFully(final long toSkip) throws IOException {
+		long left = toSkip;
+		while (left > 0) {
+			long skipped = this.stream.skip(left);
+			if (skipped <= 0) {
+				if (this.stream.read() < 0) {
+					throw new EOFException("Tar archive ends within an entry");
+				}
+				skipped = 1;
+			}
+			left -= skipped;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.processor.BatchProcessingHandler;
+import org.verapdf.processor.ProcessorConfig;
+import org.verapdf.processor.ProcessorResult;
+import org.verapdf.processor.reports.BatchSummary;
+
+import java.io.IOException;
+
+/**
+ * Notes whether any result of a batch was timed out by the
+ * {@link DocumentWatchdog}, around the handler writing its report.
+ */
+public final class TimeoutHandler implements BatchProcessingHandler {
+	private final BatchProcessingHandler handler;
+	private volatile boolean isTimedOut = false;
+
+	/**
+	 * @param handler the handler writing the batch report
+	 */
+	public TimeoutHandler(final BatchProcessingHandler handler) {
+		this.handler = handler;
+	}
+
+	/**
+	 * @return true if the batch had a timed out result
+	 */
+	public boolean isTimedOut() {
+		return this.isTimedOut;
+	}
+
+	@Override
+	public void handleBatchStart(final ProcessorConfig processorConfig) throws VeraPDFException {
+		this.handler.handleBatchStart(processorConfig);
+	}
+
+	@Override
+	public void handleResult(final ProcessorResult result, final Boolean isLogsEnabled) throws VeraPDFException {
+		if (DocumentWatchdog.isTimedOut(result)) {
+			this.isTimedOut = true;
+		}
+		this.handler.handleResult(result, isLogsEnabled);
+	}
+
+	@Override
+	public void handleBatchEnd(final BatchSummary summary) throws VeraPDFException {
+		this.handler.handleBatchEnd(summary);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.handler.close();
+	}
+}
@@ -0,0 +1,298 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.verapdf.component.ComponentDetails;
+import org.verapdf.core.EncryptedPdfException;
+import org.verapdf.core.ModelParsingException;
+import org.verapdf.features.AbstractFeaturesExtractor;
+import org.verapdf.features.FeatureExtractionResult;
+import org.verapdf.features.FeatureExtractorConfig;
+import org.verapdf.metadata.fixer.entity.PDFDocument;
+import org.verapdf.pdfa.MetadataFixer;
+import org.verapdf.pdfa.PDFAParser;
+import org.verapdf.pdfa.PDFAValidator;
+import org.verapdf.pdfa.VeraPDFFoundry;
+import org.verapdf.pdfa.flavours.PDFAFlavour;
+import org.verapdf.pdfa.validation.profiles.ValidationProfile;
+import org.verapdf.pdfa.validation.validators.ValidatorConfig;
+
+/**
+ * Foundry reporting the parsers and validators it creates to a
+ * {@link DocumentWatchdog}, everything else is left to the wrapped foundry.
+ */
+final class WatchedFoundry implements VeraPDFFoundry {
+	private final VeraPDFFoundry foundry;
+	private final DocumentWatchdog watchdog;
+
+	WatchedFoundry(final VeraPDFFoundry foundry, final DocumentWatchdog watchdog) {
+		this.foundry = foundry;
+		this.watchdog = watchdog;
+	}
+
+	@Override
+	public PDFAParser createParser(final InputStream pdfStream) throws ModelParsingException, EncryptedPdfException {
+		return watch(null, () -> this.foundry.createParser(pdfStream));
+	}
+
+	@Override
+	public PDFAParser createParser(final InputStream pdfStream, final PDFAFlavour flavour)
+			throws ModelParsingException, EncryptedPdfException {
+		return watch(null, () -> this.foundry.createParser(pdfStream, flavour));
+	}
+
+	@Override
+	public PDFAParser createParser(final InputStream pdfStream, final PDFAFlavour flavour,
+			final PDFAFlavour defaultFlavour) throws ModelParsingException, EncryptedPdfException {
+		return watch(null, () -> this.foundry.createParser(pdfStream, flavour, defaultFlavour));
+	}
+
+	@Override
+	public PDFAParser createParser(final InputStream pdfStream, final PDFAFlavour flavour, final String password)
+			throws ModelParsingException, EncryptedPdfException {
+		return watch(null, () -> this.foundry.createParser(pdfStream, flavour, password));
+	}
+
+	@Override
+	public PDFAParser createParser(final InputStream pdfStream, final PDFAFlavour flavour,
+			final PDFAFlavour defaultFlavour, final String password) throws ModelParsingException, EncryptedPdfException {
+		return watch(null, () -> this.foundry.createParser(pdfStream, flavour, defaultFlavour, password));
+	}
+
+	@Override
+	public PDFAParser createParser(final File pdfFile, final PDFAFlavour flavour)
+			throws ModelParsingException, EncryptedPdfException {
+		return watch(pdfFile.getName(), () -> this.foundry.createParser(pdfFile, flavour));
+	}
+
+	@Override
+	public PDFAParser createParser(final File pdfFile, final PDFAFlavour flavour, final PDFAFlavour defaultFlavour)
+			throws ModelParsingException, EncryptedPdfException {
+		return watch(pdfFile.getName(), () -> this.foundry.createParser(pdfFile, flavour, defaultFlavour));
+	}
+
+	@Override
+	public PDFAParser createParser(final File pdfFile, final PDFAFlavour flavour, final String password)
+			throws ModelParsingException, EncryptedPdfException {
+		return watch(pdfFile.getName(), () -> this.foundry.createParser(pdfFile, flavour, password));
+	}
+
+	@Override
+	public PDFAParser createParser(final File pdfFile, final PDFAFlavour flavour, final PDFAFlavour defaultFlavour,
+			final String password) throws ModelParsingException, EncryptedPdfException {
+		return watch(pdfFile.getName(), () -> this.foundry.createParser(pdfFile, flavour, defaultFlavour, password));
+	}
+
+	@Override
+	public PDFAParser createParser(final File pdfFile) throws ModelParsingException, EncryptedPdfException {
+		return watch(pdfFile.getName(), () -> this.foundry.createParser(pdfFile));
+	}
+
+	@Override
+	public PDFAValidator createValidator(final ValidatorConfig config) {
+		return this.watchdog.watch(this.foundry.createValidator(config));
+	}
+
+	@Override
+	public PDFAValidator createValidator(final ValidatorConfig config, final ValidationProfile profile) {
+		return this.watchdog.watch(this.foundry.createValidator(config, profile));
+	}
+
+	@Override
+	public PDFAValidator createValidator(final ValidatorConfig config, final PDFAFlavour flavour) {
+		return this.watchdog.watch(this.foundry.createValidator(config, flavour));
+	}
+
+	@Override
+	public PDFAValidator createValidator(final ValidatorConfig config, final List<PDFAFlavour> flavours) {
+		return this.watchdog.watch(this.foundry.createValidator(config, flavours));
+	}
+
+	@Override
+	public PDFAValidator createValidator(final PDFAFlavour flavour, final boolean logSuccess) {
+		return this.watchdog.watch(this.foundry.createValidator(flavour, logSuccess));
+	}
+
+	@Override
+	public PDFAValidator createValidator(final List<PDFAFlavour> flavours) {
+		return this.watchdog.watch(this.foundry.createValidator(flavours));
+	}
+
+	@Override
+	public PDFAValidator createValidator(final ValidationProfile profile, final boolean logSuccess) {
+		return this.watchdog.watch(this.foundry.createValidator(profile, logSuccess));
+	}
+
+	@Override
+	public PDFAValidator createValidator(final PDFAFlavour flavour, final int maxNumberOfDisplayedFailedChecks,
+			final boolean logSuccess, final boolean showErrorMessages, final boolean showProgress) {
+		return this.watchdog.watch(this.foundry.createValidator(flavour, maxNumberOfDisplayedFailedChecks, logSuccess,
+				showErrorMessages, showProgress));
+	}
+
+	@Override
+	public PDFAValidator createValidator(final List<PDFAFlavour> flavours, final int maxNumberOfDisplayedFailedChecks,
+			final boolean logSuccess, final boolean showErrorMessages, final boolean showProgress) {
+		return this.watchdog.watch(this.foundry.createValidator(flavours, maxNumberOfDisplayedFailedChecks, logSuccess,
+				showErrorMessages, showProgress));
+	}
+
+	@Override
+	public PDFAValidator createValidator(final ValidationProfile profile, final int maxNumberOfDisplayedFailedChecks,
+			final boolean logSuccess, final boolean showErrorMessages, final boolean showProgress) {
+		return this.watchdog.watch(this.foundry.createValidator(profile, maxNumberOfDisplayedFailedChecks, logSuccess,
+				showErrorMessages, showProgress));
+	}
+
+	@Override
+	public PDFAValidator createFailFastValidator(final PDFAFlavour flavour, final int maxFailures,
+			final int maxNumberOfDisplayedFailedChecks, final boolean logSuccess, final boolean showErrorMessages,
+			final boolean showProgress) {
+		return this.watchdog.watch(this.foundry.createFailFastValidator(flavour, maxFailures,
+				maxNumberOfDisplayedFailedChecks, logSuccess, showErrorMessages, showProgress));
+	}
+
+	@Override
+	public PDFAValidator createFailFastValidator(final List<PDFAFlavour> flavours, final int maxFailures,
+			final int maxNumberOfDisplayedFailedChecks, final boolean logSuccess, final boolean showErrorMessages,
+			final boolean showProgress) {
+		return this.watchdog.watch(this.foundry.createFailFastValidator(flavours, maxFailures,
+				maxNumberOfDisplayedFailedChecks, logSuccess, showErrorMessages, showProgress));
+	}
+
+	@Override
+	public PDFAValidator createFailFastValidator(final ValidationProfile profile, final int maxFailures,
+			final int maxNumberOfDisplayedFailedChecks, final boolean logSuccess, final boolean showErrorMessages,
+			final boolean showProgress) {
+		return this.watchdog.watch(this.foundry.createFailFastValidator(profile, maxFailures,
+				maxNumberOfDisplayedFailedChecks, logSuccess, showErrorMessages, showProgress));
+	}
+
+	@Override
+	public MetadataFixer createMetadataFixer() {
+		return this.foundry.createMetadataFixer();
+	}
+
+	@Override
+	public PDFAFlavour defaultFlavour() {
+		return this.foundry.defaultFlavour();
+	}
+
+	@Override
+	public String getParserId() {
+		return this.foundry.getParserId();
+	}
+
+	@Override
+	public ComponentDetails getDetails() {
+		return this.foundry.getDetails();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.foundry.close();
+	}
+
+	private PDFAParser watch(final String name, final ParserSource source)
+			throws ModelParsingException, EncryptedPdfException {
+		this.watchdog.startJob(name);
+		boolean isCreated = false;
+		try {
+			PDFAParser parser = new WatchedParser(source.create());
+			isCreated = true;
+			return parser;
+		} finally {
+			if (!isCreated) {
+				this.watchdog.endJob();
+			}
+		}
+	}
+
+	private interface ParserSource {
+		PDFAParser create() throws ModelParsingException, EncryptedPdfException;
+	}
+
+	/**
+	 * Parser ending its job when it's closed.
+	 */
+	private final class WatchedParser implements PDFAParser {
+		private final PDFAParser parser;
+
+		WatchedParser(final PDFAParser parser) {
+			this.parser = parser;
+		}
+
+		@Override
+		public org.verapdf.model.baselayer.Object getRoot() throws ModelParsingException {
+			return this.parser.getRoot();
+		}
+
+		@Override
+		public PDFAFlavour getFlavour() {
+			return this.parser.getFlavour();
+		}
+
+		@Override
+		public List<PDFAFlavour> getFlavours() {
+			return this.parser.getFlavours();
+		}
+
+		@Override
+		public void setFlavours(final List<PDFAFlavour> flavours) {
+			this.parser.setFlavours(flavours);
+		}
+
+		@Override
+		public PDFDocument getPDFDocument() {
+			return this.parser.getPDFDocument();
+		}
+
+		@Override
+		public FeatureExtractionResult getFeatures(final FeatureExtractorConfig config) {
+			return this.parser.getFeatures(config);
+		}
+
+		@Override
+		public FeatureExtractionResult getFeatures(final FeatureExtractorConfig config,
+				final List<AbstractFeaturesExtractor> extractors) {
+			return this.parser.getFeatures(config, extractors);
+		}
+
+		@Override
+		public ComponentDetails getDetails() {
+			return this.parser.getDetails();
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				this.parser.close();
+			} finally {
+				WatchedFoundry.this.watchdog.endJob();
+			}
+		}
+	}
+}
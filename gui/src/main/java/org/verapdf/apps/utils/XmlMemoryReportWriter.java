@@ -0,0 +1,167 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import org.verapdf.processor.reports.ResultStructure;
+import org.verapdf.processor.reports.multithread.writer.AbstractXmlReportWriter;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes the XML or raw batch report. Like the writers of the library it
+ * copies elements of each document report into the batch report and sums the
+ * batch summary up, but it parses reports held in memory rather than report
+ * files.
+ */
+final class XmlMemoryReportWriter extends AbstractXmlReportWriter implements MemoryReportWriter {
+	private static final Logger LOGGER = Logger.getLogger(XmlMemoryReportWriter.class.getCanonicalName());
+
+	private final String rootTag;
+	private final String headerTag;
+	private final String jobsTag;
+	private final String[] jobTags;
+	private final boolean[] isSummarised;
+
+	private XmlMemoryReportWriter(final PrintWriter outputStreamWriter, final PrintWriter errorStreamWriter,
+			final String rootTag, final String headerTag, final String jobsTag, final String[] jobTags,
+			final boolean[] isSummarised) throws XMLStreamException, ParserConfigurationException, SAXException {
+		super(outputStreamWriter, errorStreamWriter);
+		this.rootTag = rootTag;
+		this.headerTag = headerTag;
+		this.jobsTag = jobsTag;
+		this.jobTags = jobTags;
+		this.isSummarised = isSummarised;
+	}
+
+	/**
+	 * @return a writer of the machine readable report, a {@code report} holding
+	 *         the build information, the {@code job} of every document and the
+	 *         batch summary
+	 */
+	static XmlMemoryReportWriter mrr(final PrintWriter outputStreamWriter, final PrintWriter errorStreamWriter)
+			throws XMLStreamException, ParserConfigurationException, SAXException {
+		return new XmlMemoryReportWriter(outputStreamWriter, errorStreamWriter, "report", "buildInformation", //$NON-NLS-1$ //$NON-NLS-2$
+				"jobs", new String[] { "job" }, new boolean[] { true }); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * @return a writer of the raw report, {@code rawResults} holding the
+	 *         processor configuration, the results of every document and the
+	 *         batch summary
+	 */
+	static XmlMemoryReportWriter raw(final PrintWriter outputStreamWriter, final PrintWriter errorStreamWriter)
+			throws XMLStreamException, ParserConfigurationException, SAXException {
+		return new XmlMemoryReportWriter(outputStreamWriter, errorStreamWriter, "rawResults", "processorConfig", //$NON-NLS-1$ //$NON-NLS-2$
+				null, new String[] { "item", "validationResult", "featuresReport", "fixerResult" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				new boolean[] { false, true, false, false });
+	}
+
+	/**
+	 * Declares the encoding as the report handlers of a single process do.
+	 */
+	@Override
+	public void startDocument() {
+		this.isFirstReport = true;
+		try {
+			this.writer.writeStartDocument("utf-8", "1.0"); //$NON-NLS-1$ //$NON-NLS-2$
+		} catch (XMLStreamException e) {
+			LOGGER.log(Level.SEVERE, "Can't write start document", e);
+		}
+	}
+
+	@Override
+	public void write(final byte[] report) {
+		write(() -> new ByteArrayInputStream(report));
+	}
+
+	/**
+	 * Document reports are merged from memory only, see {@link #write(byte[])}.
+	 */
+	@Override
+	public void write(final ResultStructure result) {
+		throw new UnsupportedOperationException("Document reports are merged from memory"); //$NON-NLS-1$
+	}
+
+	private void write(final ReportSource report) {
+		try {
+			if (this.isFirstReport) {
+				this.writer.writeStartElement(this.rootTag);
+				printHeader(report);
+				this.isFirstReport = false;
+			}
+			for (int i = 0; i < this.jobTags.length; i++) {
+				print(report, this.jobTags[i], this.isSummarised[i]);
+			}
+		} catch (IOException | SAXException | XMLStreamException e) {
+			LOGGER.log(Level.SEVERE, "Can't write element", e);
+		}
+	}
+
+	@Override
+	protected void printFirstReport(final File report) throws SAXException, IOException, XMLStreamException {
+		printHeader(() -> new FileInputStream(report));
+	}
+
+	private void printHeader(final ReportSource report) throws SAXException, IOException, XMLStreamException {
+		print(report, this.headerTag, false);
+		if (this.jobsTag != null) {
+			this.writer.writeStartElement(this.jobsTag);
+		}
+	}
+
+	private void print(final ReportSource report, final String tag, final boolean isAddedToSummary)
+			throws SAXException, IOException {
+		this.reportHandler.setElement(tag);
+		this.reportHandler.setIsAddReportToSummary(isAddedToSummary);
+		try (InputStream in = report.open()) {
+			this.saxParser.parse(in, this.reportHandler);
+		}
+	}
+
+	@Override
+	public void endDocument() {
+		if (this.jobsTag != null && !this.isFirstReport) {
+			try {
+				this.writer.writeEndElement();
+			} catch (XMLStreamException e) {
+				LOGGER.log(Level.SEVERE, "Can't write end element", e);
+			}
+		}
+		super.endDocument();
+	}
+
+	/**
+	 * A document report that can be read more than once.
+	 */
+	private interface ReportSource {
+		InputStream open() throws IOException;
+	}
+}
@@ -23,6 +23,7 @@
  */
 package org.verapdf.cli;
 
+import org.verapdf.processor.reports.BatchSummary;
 
 /**
  * @author  <a href="mailto:carl@openpreservation.org">Carl Wilson</a>
@@ -84,7 +85,9 @@ public final class CliConstants {
 		/** Failed to start multiprocess */
 		FAILED_MULTIPROCESS_START(11, "Failed to start multiprocess"),
 		/** Interrupted exception */
-		INTERRUPTED_EXCEPTION(12, "Interrupted exception while processing");
+		INTERRUPTED_EXCEPTION(12, "Interrupted exception while processing"),
+		/** Processing of one or more files exceeded its time limit */
+		TIMEOUT(13, "Processing of one or more files timed out.");
 
 		/** The numeric exit code for return to OS. */
 		public final int value;
@@ -104,6 +107,31 @@ public final class CliConstants {
 			}
 			return null;
 		}
+
+		/**
+		 * Maps a batch summary to the most severe exit code it warrants.
+		 *
+		 * @param summary the summary of a processed batch
+		 * @return the exit code for the batch
+		 */
+		public static ExitCodes fromSummary(final BatchSummary summary) {
+			if (summary.getOutOfMemory() > 0) {
+				return OOM;
+			}
+			if (summary.getVeraExceptions() > 0) {
+				return VERAPDF_EXCEPTION;
+			}
+			if (summary.getFailedEncryptedJobs() > 0) {
+				return ENCRYPTED_FILES;
+			}
+			if (summary.getFailedParsingJobs() > 0) {
+				return FAILED_PARSING;
+			}
+			if (summary.getValidationSummary().getNonCompliantPdfaCount() > 0) {
+				return INVALID;
+			}
+			return VALID;
+		}
 	}
 
 	public static final String NAME_STDIN = "STDIN";
@@ -0,0 +1,144 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli;
+
+import org.verapdf.apps.utils.BoundedInputStream;
+import org.verapdf.cli.CliConstants.ExitCodes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Framing of the documents read from STDIN with {@code --framedinput} and of
+ * the report records written for them. Every document is preceded by a header
+ * line holding its length in bytes and its name, {@code <length> <name>}, and
+ * every report by a header line holding its length, the exit code of the
+ * document and its name, {@code <length> <exit code> <name>}. Header lines are
+ * UTF-8 and end with a line feed.
+ */
+final class DocumentStream {
+	/** Header lines longer than this aren't headers of a framed stream */
+	private static final int MAX_HEADER_LENGTH = 64 * 1024;
+
+	private final InputStream stream;
+
+	DocumentStream(final InputStream stream) {
+		this.stream = stream;
+	}
+
+	/**
+	 * A document of the stream.
+	 */
+	static final class Document {
+		private final String name;
+		private final long length;
+		private final InputStream content;
+
+		Document(final String name, final long length, final InputStream content) {
+			this.name = name;
+			this.length = length;
+			this.content = content;
+		}
+
+		String getName() {
+			return this.name;
+		}
+
+		long getLength() {
+			return this.length;
+		}
+
+		/**
+		 * @return the content of the document, ending with the document; it must
+		 *         be read to its end before the next document is read
+		 */
+		InputStream getContent() {
+			return this.content;
+		}
+	}
+
+	/**
+	 * @return the next document, or null at the end of the stream
+	 * @throws IOException when the header is malformed or the stream can't be read
+	 */
+	Document next() throws IOException {
+		String header = readHeader();
+		if (header == null) {
+			return null;
+		}
+		int separator = header.indexOf(' ');
+		if (separator <= 0 || separator == header.length() - 1) {
+			throw new IOException("Malformed document header: " + header);
+		}
+		long length;
+		try {
+			length = Long.parseLong(header.substring(0, separator));
+		} catch (NumberFormatException e) {
+			throw new IOException("Malformed document length: " + header, e);
+		}
+		if (length < 0) {
+			throw new IOException("Negative document length: " + header);
+		}
+		String name = header.substring(separator + 1);
+		return new Document(name, length, new BoundedInputStream(this.stream, length, "Stream", name));
+	}
+
+	private String readHeader() throws IOException {
+		ByteArrayOutputStream header = new ByteArrayOutputStream();
+		int read = this.stream.read();
+		if (read < 0) {
+			return null;
+		}
+		while (read != '\n') {
+			if (read < 0) {
+				throw new EOFException("Stream ends within a document header");
+			}
+			if (header.size() == MAX_HEADER_LENGTH) {
+				throw new IOException("Document header exceeds " + MAX_HEADER_LENGTH + " bytes");
+			}
+			header.write(read);
+			read = this.stream.read();
+		}
+		String line = new String(header.toByteArray(), StandardCharsets.UTF_8);
+		return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line; //$NON-NLS-1$
+	}
+
+	/**
+	 * Writes the report record of a document.
+	 *
+	 * @param os the stream to write to, flushed once the record is written
+	 * @param name the name of the document
+	 * @param exitCode the exit code of the document
+	 * @param report the report of the document
+	 * @throws IOException when the record can't be written
+	 */
+	static void writeRecord(final OutputStream os, final String name, final ExitCodes exitCode, final byte[] report)
+			throws IOException {
+		String header = report.length + " " + exitCode.value + " " + name + '\n'; //$NON-NLS-1$ //$NON-NLS-2$
+		os.write(header.getBytes(StandardCharsets.UTF_8));
+		os.write(report);
+		os.flush();
+	}
+}
@@ -23,7 +23,11 @@
  */
 package org.verapdf.cli;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
@@ -35,9 +39,16 @@ import java.util.logging.Logger;
 import org.verapdf.ReleaseDetails;
 import org.verapdf.apps.Applications;
 import org.verapdf.apps.SoftwareUpdater;
+import org.verapdf.apps.utils.DocumentWatchdog;
+import org.verapdf.apps.utils.HeapProbe;
+import org.verapdf.apps.utils.IoThreads;
 import org.verapdf.cli.CliConstants.ExitCodes;
 import org.verapdf.cli.commands.VeraCliArgParser;
 import org.verapdf.cli.multithread.MultiThreadProcessor;
+import org.verapdf.cli.multithread.ReportFrame;
+import org.verapdf.cli.multithread.ResidentMemory;
+import org.verapdf.cli.server.MetricsEndpoint;
+import org.verapdf.cli.server.ValidationServer;
 import org.verapdf.core.VeraPDFException;
 import org.verapdf.core.utils.LogsFileHandler;
 import org.verapdf.pdfa.flavours.PDFAFlavour;
@@ -61,6 +72,8 @@ public final class VeraPdfCli {
 	private static final ProfileDirectory PROFILES = Profiles.getVeraProfileDirectory();
 
 	public static final String EXIT = "q";
+	/** Prefixes the path of a document to report as timed out without processing it */
+	public static final String TIMED_OUT = "t ";
 
 	private VeraPdfCli() {
 		// disable default constructor
@@ -99,6 +112,14 @@ public final class VeraPdfCli {
 		LogsFileHandler.setLoggingLevel(cliArgParser.getLoggerLevel());
 		messagesFromParser(cliArgParser);
 		cliArgParser.checkParametersCompatibility();
+		// processors keep the foundry they're first given, it has to be watched before any of them is created
+		DocumentWatchdog.install(cliArgParser.getTimeout(), cliArgParser.getCpuTimeout());
+		// heap peaks are JVM wide, jobs running side by side have no heap delta of their own
+		HeapProbe.setShared(cliArgParser.getZipThreads() > 1
+				|| (cliArgParser.isMultiprocessing() && cliArgParser.isInProcess()));
+		if (cliArgParser.isPlatformThreads()) {
+			IoThreads.disableVirtualThreads();
+		}
 		if (isProcess(cliArgParser)) {
 			try {
 				if (args.length == 0 && System.in.available() == 0) {
@@ -108,10 +129,13 @@ public final class VeraPdfCli {
 				logger.log(Level.SEVERE,"STDIN is not available", e);
 			}
 			try {
+				if (cliArgParser.isDaemon()) {
+					System.exit(daemonProcess(cliArgParser).value);
+				}
 				if (!cliArgParser.isMultiprocessing()) {
 					System.exit(singleThreadProcess(cliArgParser).value);
 				}
-				System.exit(MultiThreadProcessor.process(cliArgParser).value);
+				System.exit(MultiThreadProcessor.process(cliArgParser, configManager).value);
 			} catch (InterruptedException e) {
 				logger.log(Level.WARNING, "Interrupted", e);
 				System.exit(ExitCodes.INTERRUPTED_EXCEPTION.value);
@@ -137,6 +161,9 @@ public final class VeraPdfCli {
 	}
 
 	private static ExitCodes singleThreadProcess(VeraCliArgParser cliArgParser) throws VeraPDFException {
+		if (cliArgParser.isFramedOutput()) {
+			return framedServerProcess(cliArgParser);
+		}
 		try (VeraPdfCliProcessor processor = VeraPdfCliProcessor.createProcessorFromArgs(cliArgParser,
 				configManager)) {
 			// FIXME: trap policy IO Exception (deliberately left un-caught for development)
@@ -168,6 +195,95 @@ public final class VeraPdfCli {
 		}
 	}
 
+	private static ExitCodes daemonProcess(VeraCliArgParser cliArgParser) throws VeraPDFException {
+		try (ValidationServer server = new ValidationServer(cliArgParser, configManager,
+				cliArgParser.getServerPort());
+		     MetricsEndpoint metricsEndpoint = startMetricsEndpoint(server, cliArgParser.getMetricsPort())) {
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				server.close();
+				if (metricsEndpoint != null) {
+					metricsEndpoint.close();
+				}
+			}));
+			// the listening port tells the launcher the daemon is ready to accept jobs
+			System.out.println(server.getPort());
+			server.serve();
+			return ExitCodes.VALID;
+		} catch (IOException e) {
+			logger.log(Level.SEVERE, "Can't start validation server", e);
+			return ExitCodes.IO_EXCEPTION;
+		}
+	}
+
+	private static MetricsEndpoint startMetricsEndpoint(ValidationServer server, int port) {
+		if (port <= 0) {
+			return null;
+		}
+		try {
+			return MetricsEndpoint.start(server.getMetrics(), port);
+		} catch (IOException e) {
+			// metrics are optional, the daemon keeps validating without them
+			logger.log(Level.WARNING, "Can't start metrics endpoint on port " + port, e);
+			return null;
+		}
+	}
+
+	private static ExitCodes framedServerProcess(VeraCliArgParser cliArgParser) throws VeraPDFException {
+		// stdout carries the binary frames, anything else printed there would corrupt them
+		DataOutputStream frameStream = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+		System.setOut(System.err);
+		try (VeraPdfCliProcessor processor = VeraPdfCliProcessor.createProcessorFromArgs(cliArgParser,
+				configManager)) {
+			ExitCodes retVal = ExitCodes.VALID;
+			if (cliArgParser.getPdfPaths().isEmpty()) {
+				// a replacement for a recycled process, an empty frame tells the parent it's ready for work
+				new ReportFrame(new byte[0], ExitCodes.VALID, 0, null, ResidentMemory.current()).writeTo(frameStream);
+			} else {
+				retVal = processFramed(processor, cliArgParser.getPdfPaths(), cliArgParser.nonPdfExt(), frameStream);
+			}
+			try (Scanner scanner = new Scanner(System.in)) {
+				while (scanner.hasNextLine()) {
+					String path = scanner.nextLine();
+					if (path.equals(EXIT)) {
+						break;
+					}
+					ExitCodes exitCode;
+					if (path.startsWith(TIMED_OUT)) {
+						// the process this one replaces was killed while processing the document
+						DocumentWatchdog.setExpiring(true);
+						try {
+							exitCode = processFramed(processor,
+									Collections.singletonList(path.substring(TIMED_OUT.length())),
+									cliArgParser.nonPdfExt(), frameStream);
+						} finally {
+							DocumentWatchdog.setExpiring(false);
+						}
+					} else {
+						exitCode = processFramed(processor, Collections.singletonList(path),
+								cliArgParser.nonPdfExt(), frameStream);
+					}
+					if (exitCode.value > retVal.value) {
+						retVal = exitCode;
+					}
+				}
+			}
+			return retVal;
+		} catch (IOException e) {
+			logger.log(Level.SEVERE, "Can't write report frame", e);
+			return ExitCodes.IO_EXCEPTION;
+		}
+	}
+
+	private static ExitCodes processFramed(VeraPdfCliProcessor processor, List<String> paths, boolean nonPdfExt,
+			DataOutputStream frameStream) throws VeraPDFException, IOException {
+		long start = System.currentTimeMillis();
+		ExitCodes exitCode = processor.processPaths(paths, nonPdfExt);
+		new ReportFrame(processor.getReport(), exitCode, System.currentTimeMillis() - start, processor.getMetrics(),
+				ResidentMemory.current()).writeTo(frameStream);
+		return exitCode;
+	}
+
 	public static void displayHelpAndExit(VeraCliArgParser cliArgParser, JCommander jCommander, ExitCodes exitCode) {
 		showVersionInfo(cliArgParser.isVerbose());
 		jCommander.usage();
@@ -24,11 +24,25 @@
 package org.verapdf.cli;
 
 import org.verapdf.apps.utils.ApplicationUtils;
+import org.verapdf.apps.utils.ArchiveBatchProcessor;
+import org.verapdf.apps.utils.DocumentWatchdog;
+import org.verapdf.apps.utils.JobMetrics;
+import org.verapdf.apps.utils.JobPolicyChecker;
+import org.verapdf.apps.utils.JobReportHandler;
+import org.verapdf.apps.utils.MemoryBudget;
+import org.verapdf.apps.utils.Prefetcher;
+import org.verapdf.apps.utils.ReportMerger;
+import org.verapdf.apps.utils.StreamSpool;
+import org.verapdf.apps.utils.TimeoutHandler;
+import org.verapdf.cli.cache.ResultCache;
+import org.verapdf.cli.checkpoint.CheckpointJournal;
+import org.verapdf.cli.metrics.MetricsHandler;
+import org.verapdf.cli.metrics.MetricsWriter;
+import org.verapdf.cli.multithread.ReportFrame;
 import org.verapdf.cli.CliConstants.ExitCodes;
 import org.verapdf.cli.commands.VeraCliArgParser;
 import org.verapdf.core.VeraPDFException;
 import org.verapdf.pdfa.results.ValidationResult;
-import org.verapdf.policy.PolicyChecker;
 import org.verapdf.processor.*;
 import org.verapdf.processor.app.ConfigManager;
 import org.verapdf.processor.app.VeraAppConfig;
@@ -38,7 +52,9 @@ import org.verapdf.processor.reports.ItemDetails;
 import java.io.*;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -52,29 +68,52 @@ final class VeraPdfCliProcessor implements Closeable {
 	private final ProcessorConfig processorConfig;
 	private final VeraAppConfig appConfig;
 	private final boolean isPolicy;
+	private final File policyFile;
 	private final boolean isRecursive;
 	private final boolean isServerMode;
-	private final File tempMrrFile;
-	private final File policyFile;
-	private boolean isStdOut = true;
+	private final boolean isFramedOutput;
+	private final JobPolicyChecker policyChecker;
+	private final ResultCache resultCache;
+	private final MetricsWriter metricsWriter;
+	private final boolean isReportMetrics;
+	private final boolean isMemoryMapped;
+	private final long spillThreshold;
+	private final boolean isFramedInput;
+	private final int zipThreads;
+	private final MemoryBudget memoryBudget;
+	private final File checkpointFile;
+	private final boolean isResume;
+	private final int prefetch;
+	private JobMetrics jobMetrics;
 	private OutputStream os;
 	private File tempFile;
+	private final ByteArrayOutputStream reportBuffer = new ByteArrayOutputStream();
 
 	private VeraPdfCliProcessor(final VeraCliArgParser args, ConfigManager configManager) throws VeraPDFException {
 		this.configManager = configManager;
 		this.isPolicy = args.isPolicy();
+		this.policyFile = this.isPolicy ? args.getPolicyFile() : null;
 		this.isRecursive = args.isRecurse();
 		this.isServerMode = args.isServerMode();
+		this.isFramedOutput = args.isFramedOutput();
+		this.isReportMetrics = args.isReportMetrics();
+		this.isMemoryMapped = args.isMemoryMapped();
+		this.spillThreshold = args.getSpillThreshold();
+		this.isFramedInput = args.isFramedInput();
+		this.zipThreads = args.getZipThreads();
+		this.memoryBudget = MemoryBudget.create(args.getMemoryBudget(), true);
+		this.checkpointFile = args.getCheckpointFile();
+		this.isResume = args.isResume();
+		this.prefetch = args.getPrefetch();
 
-		try {
-			this.tempMrrFile = (this.isPolicy) ? File.createTempFile("mrr", "veraPDF") : null; //$NON-NLS-1$//$NON-NLS-2$
-		} catch (IOException excep) {
-			throw new VeraPDFException(CliConstants.EXCEP_TEMP_MRR_CREATE, excep);
-		}
-		this.policyFile = args.getPolicyFile();
+		this.policyChecker = (this.isPolicy) ? JobPolicyChecker.compile(this.policyFile,
+				configManager.getConfigDir()) : null;
 		this.appConfig = args.appConfig(configManager.getApplicationConfig());
 		this.processorConfig = args.processorConfig(this.appConfig.getProcessType(),
 		                                            this.configManager.getPluginsCollectionConfig());
+		this.resultCache = ResultCache.open(args.getResultCacheDir(), this.processorConfig,
+		                                    this.appConfig.isVerbose(), this.appConfig.getWikiPath());
+		this.metricsWriter = MetricsWriter.open(args.getMetricsFile());
 	}
 
 	VeraAppConfig getConfig() {
@@ -86,7 +125,11 @@ final class VeraPdfCliProcessor implements Closeable {
 	}
 
 	ExitCodes processPaths(final List<String> pdfPaths, boolean nonPdfExt) throws VeraPDFException {
-		if (isServerMode) {
+		this.jobMetrics = null;
+		if (isFramedOutput) {
+			this.reportBuffer.reset();
+			this.os = this.reportBuffer;
+		} else if (isServerMode) {
 			try {
 				this.tempFile = Files.createTempFile("tempReport", ".xml").toFile();
 				this.os = new FileOutputStream(tempFile);
@@ -99,14 +142,10 @@ final class VeraPdfCliProcessor implements Closeable {
 		// If the path list is empty then process the STDIN stream
 		ExitCodes retStatus = ExitCodes.VALID;
 		if (pdfPaths.isEmpty() && !isServerMode) {
-			retStatus = processStdIn();
+			retStatus = this.isFramedInput ? processFramedStdIn() : processStdIn();
 		} else {
 			retStatus = processFilePaths(pdfPaths, nonPdfExt);
 		}
-
-		if (this.isPolicy) {
-			applyPolicy();
-		}
 		return retStatus;
 	}
 
@@ -123,9 +162,54 @@ final class VeraPdfCliProcessor implements Closeable {
 		} catch (IOException e) {
 			logger.log(Level.SEVERE,"STDIN is not available", e);
 		}
-		ItemDetails item = ItemDetails.fromValues(CliConstants.NAME_STDIN);
-		return processStream(item, System.in);
+		ExitCodes retVal = ExitCodes.VALID;
+		try (ItemProcessor processor = ProcessorFactory.createProcessor(this.processorConfig)) {
+			try (StreamSpool spool = StreamSpool.read(System.in, this.spillThreshold);
+					InputStream toProcess = spool.open()) {
+				retVal = processStream(processor, ItemDetails.fromValues(CliConstants.NAME_STDIN, spool.getSize()),
+						toProcess, spool, this.os);
+			} catch (IOException e) {
+				logger.log(Level.SEVERE, "STDIN is not available", e);
+				return ExitCodes.IO_EXCEPTION;
+			}
+		} catch (IOException excep) {
+			logger.log(Level.FINER, CliConstants.EXCEP_PROCESSOR_CLOSE, excep);
+		}
+		return retVal;
+	}
 
+	/**
+	 * Validates the documents of a framed STDIN stream one by one, writing the
+	 * report record of each document as soon as it's validated.
+	 */
+	private ExitCodes processFramedStdIn() {
+		ExitCodes retVal = ExitCodes.VALID;
+		DocumentStream documents = new DocumentStream(new BufferedInputStream(System.in));
+		try (ItemProcessor processor = ProcessorFactory.createProcessor(this.processorConfig)) {
+			try {
+				DocumentStream.Document document = documents.next();
+				while (document != null) {
+					ByteArrayOutputStream report = new ByteArrayOutputStream();
+					ExitCodes exitCode;
+					try (StreamSpool spool = StreamSpool.read(document.getContent(), this.spillThreshold);
+							InputStream toProcess = spool.open()) {
+						exitCode = processStream(processor,
+								ItemDetails.fromValues(document.getName(), spool.getSize()), toProcess, spool, report);
+					}
+					DocumentStream.writeRecord(this.os, document.getName(), exitCode, report.toByteArray());
+					if (exitCode.value > retVal.value) {
+						retVal = exitCode;
+					}
+					document = documents.next();
+				}
+			} catch (IOException e) {
+				logger.log(Level.SEVERE, "Can't read documents from STDIN", e);
+				return ExitCodes.IO_EXCEPTION;
+			}
+		} catch (IOException excep) {
+			logger.log(Level.FINER, CliConstants.EXCEP_PROCESSOR_CLOSE, excep);
+		}
+		return retVal;
 	}
 
 	private ExitCodes processFilePaths(final List<String> paths, boolean nonPdfExt) {
@@ -133,18 +217,25 @@ final class VeraPdfCliProcessor implements Closeable {
 		for (String path : paths) {
 			toFilter.add(new File(path));
 		}
-		List<File> toProcess = ApplicationUtils.filterPdfFiles(toFilter, this.isRecursive, nonPdfExt);
-		if (toProcess.isEmpty()) {
+		List<File> filtered = ApplicationUtils.filterPdfFiles(toFilter, this.isRecursive, nonPdfExt);
+		if (filtered.isEmpty()) {
 			logger.log(Level.SEVERE, "There are no files to process.");
 			return ExitCodes.NO_FILES;
 		}
-		try (BatchProcessor processor = ProcessorFactory.fileBatchProcessor(this.processorConfig);
-				OutputStream reportStream = this.getReportStream()) {
-			BatchSummary summary = processor.process(toProcess,
-					ProcessorFactory.getHandler(this.appConfig.getFormat(), this.appConfig.isVerbose(), reportStream,
-							this.processorConfig.getValidatorConfig().isRecordPasses(), this.appConfig.getWikiPath()));
+		try (Prefetcher prefetcher = filtered.size() > 1 ? Prefetcher.create(this.prefetch) : null;
+				BatchProcessor processor = ArchiveBatchProcessor.create(this.processorConfig, this.isMemoryMapped,
+				this.zipThreads, this.memoryBudget);
+				OutputStream reportStream = this.os;
+				CheckpointJournal journal = openJournal()) {
+			// files are read ahead as the batch iterates them
+			List<File> toProcess = prefetcher != null ? prefetcher.offerAll(filtered) : filtered;
+			if (this.resultCache != null || journal != null) {
+				return processDocuments(processor, toProcess, reportStream, journal);
+			}
+			TimeoutHandler timeouts = new TimeoutHandler(getHandler(reportStream));
+			BatchSummary summary = processor.process(toProcess, timeouts);
 			reportStream.flush();
-			return exitStatusFromSummary(summary);
+			return withTimeout(timeouts.isTimedOut(), ExitCodes.fromSummary(summary));
 		} catch (VeraPDFException excep) {
 			String message = CliConstants.EXCEP_VERA_BATCH;
 			System.err.println(message);
@@ -156,118 +247,215 @@ final class VeraPdfCliProcessor implements Closeable {
 		}
 	}
 
-	private static ExitCodes exitStatusFromSummary(final BatchSummary summary) {
-		if (summary.getOutOfMemory() > 0) {
-			return ExitCodes.OOM;
-		}
-		if (summary.getVeraExceptions() > 0) {
-			return ExitCodes.VERAPDF_EXCEPTION;
+	private ExitCodes processDocuments(final BatchProcessor processor, final List<File> toProcess,
+			final OutputStream reportStream, final CheckpointJournal journal) throws VeraPDFException, IOException {
+		FormatOption format = this.appConfig.getFormat();
+		if (journal == null && toProcess.size() == 1 && !this.isPolicy && !this.isReportMetrics) {
+			ExitCodes exitCode = processDocument(processor, toProcess.get(0), format, reportStream);
+			if (this.jobMetrics != null) {
+				publishMetrics(this.jobMetrics);
+			}
+			return exitCode;
 		}
-		if (summary.getFailedEncryptedJobs() > 0) {
-			return ExitCodes.ENCRYPTED_FILES;
+		// journaled, cached and fresh reports are single document reports, merged into the report the batch would have
+		ReportMerger merger = new ReportMerger(reportStream, format, this.appConfig.getWikiPath(), true);
+		FormatOption documentFormat = ReportMerger.documentFormat(format);
+		ExitCodes retVal = ExitCodes.VALID;
+		for (File file : toProcess) {
+			ReportFrame completed = journal != null ? completedReport(journal, file) : null;
+			if (completed != null) {
+				merger.write(completed.getReport());
+				if (completed.getExitCode().value > retVal.value) {
+					retVal = completed.getExitCode();
+				}
+				continue;
+			}
+			long start = System.currentTimeMillis();
+			ByteArrayOutputStream report = new ByteArrayOutputStream();
+			this.jobMetrics = null;
+			ExitCodes exitCode = processDocument(processor, file, documentFormat, report);
+			// cached reports have no metrics, their documents aren't processed
+			JobMetrics metrics = this.jobMetrics;
+			byte[] jobReport = report.toByteArray();
+			if (this.isPolicy) {
+				long policyStart = System.currentTimeMillis();
+				jobReport = this.policyChecker.apply(jobReport);
+				if (metrics != null) {
+					metrics.setDuration(JobMetrics.Stage.POLICY, System.currentTimeMillis() - policyStart);
+				}
+			}
+			if (metrics != null) {
+				metrics.setTotal(System.currentTimeMillis() - start);
+				if (this.isReportMetrics && documentFormat == FormatOption.XML) {
+					jobReport = metrics.addTo(jobReport);
+				}
+				publishMetrics(metrics);
+			}
+			ReportFrame frame = new ReportFrame(jobReport, exitCode, System.currentTimeMillis() - start);
+			merger.write(frame.getReport());
+			if (journal != null) {
+				journal.append(file, frame);
+			}
+			if (exitCode.value > retVal.value) {
+				retVal = exitCode;
+			}
 		}
-		if (summary.getFailedParsingJobs() > 0) {
-			return ExitCodes.FAILED_PARSING;
+		merger.endReport();
+		return retVal;
+	}
+
+	private static ReportFrame completedReport(final CheckpointJournal journal, final File file) {
+		try {
+			return journal.completedReport(file);
+		} catch (IOException e) {
+			logger.log(Level.WARNING, "Can't read checkpoint of " + file.getAbsolutePath() + ", processing it again", e);
+			return null;
 		}
-		if (summary.getValidationSummary().getNonCompliantPdfaCount() > 0) {
-			return ExitCodes.INVALID;
+	}
+
+	private ExitCodes processDocument(final BatchProcessor processor, final File file, final FormatOption format,
+			final OutputStream reportStream) throws VeraPDFException, IOException {
+		ResultCache.DocumentReport report = os -> {
+			BatchProcessingHandler handler = ProcessorFactory.getHandler(format, this.appConfig.isVerbose(), os,
+					this.processorConfig.getValidatorConfig().isRecordPasses(), this.appConfig.getWikiPath());
+			if (isCollectingMetrics()) {
+				// metrics are published with the report, once a policy has been applied
+				handler = new MetricsHandler(handler, metrics -> this.jobMetrics = metrics);
+			}
+			TimeoutHandler timeouts = new TimeoutHandler(handler);
+			BatchSummary summary = processor.process(Collections.singletonList(file), timeouts);
+			os.flush();
+			return withTimeout(timeouts.isTimedOut(), ExitCodes.fromSummary(summary));
+		};
+		if (this.resultCache == null) {
+			return report.write(reportStream);
 		}
-		return ExitCodes.VALID;
+		return this.resultCache.writeReport(file, format, reportStream, report);
 	}
 
-	private ExitCodes processStream(final ItemDetails item, final InputStream toProcess) {
+	private ExitCodes processStream(final ItemProcessor processor, final ItemDetails item,
+			final InputStream toProcess, final StreamSpool spool, final OutputStream outputReportStream) {
 		ExitCodes retVal = ExitCodes.VALID;
-		try (ItemProcessor processor = ProcessorFactory.createProcessor(this.processorConfig)) {
+		long start = System.currentTimeMillis();
+		ProcessorResult result = processor.process(item, toProcess);
 
-			ProcessorResult result = processor.process(item, toProcess);
-			OutputStream outputReportStream = this.getReportStream();
-
-			try {
-
-				BatchProcessingHandler handler = ProcessorFactory.getHandler(this.appConfig.getFormat(),
-						this.appConfig.isVerbose(), outputReportStream,
-						this.processorConfig.getValidatorConfig().isRecordPasses());
+		try {
+			BatchProcessingHandler handler = getHandler(outputReportStream, metrics -> {
+				// the handler times the job from the batch start, which follows the processing here
+				metrics.setTotal(System.currentTimeMillis() - start);
+				metrics.setSpill(spool.getThreshold(), spool.isSpilled());
+				publishMetrics(metrics);
+			});
 
-				if (result.isPdf() && !result.isEncryptedPdf()) {
-					ProcessorFactory.writeSingleResultReport(result, handler, processorConfig);
-					for (ValidationResult validationResult : result.getValidationResults()) {
-						if (!validationResult.isCompliant()) {
-							retVal = ExitCodes.INVALID;
-							break;
-						}
+			if (result.isPdf() && !result.isEncryptedPdf()) {
+				ProcessorFactory.writeSingleResultReport(result, handler, processorConfig);
+				for (ValidationResult validationResult : result.getValidationResults()) {
+					if (!validationResult.isCompliant()) {
+						retVal = ExitCodes.INVALID;
+						break;
 					}
-				} else {
-					String message = String.format(
-							(result.isPdf()) ? CliConstants.MESS_PDF_ENCRYPTED : CliConstants.MESS_PDF_NOT_VALID,
-							item.getName());
-					outputReportStream.write(message.getBytes());
-					retVal = (result.isPdf()) ? ExitCodes.ENCRYPTED_FILES : ExitCodes.FAILED_PARSING; 
 				}
-
-			} catch (IOException excep) {
-				// TODO Auto-generated catch block
-				logger.log(Level.SEVERE, CliConstants.EXCEP_REPORT_MARSHAL, excep);
-				retVal = ExitCodes.JAXB_EXCEPTION;
-			} catch (VeraPDFException e) {
-				logger.log(Level.SEVERE, "STDIN is not available", e);
+			} else {
+				String message = String.format(
+						(result.isPdf()) ? CliConstants.MESS_PDF_ENCRYPTED : CliConstants.MESS_PDF_NOT_VALID,
+						item.getName());
+				outputReportStream.write(message.getBytes());
+				retVal = (result.isPdf()) ? ExitCodes.ENCRYPTED_FILES : ExitCodes.FAILED_PARSING; 
 			}
 
-			if (!this.isStdOut) {
-				try {
-					outputReportStream.close();
-				} catch (IOException ex) {
-					logger.log(Level.WARNING, CliConstants.EXCEP_REPORT_CLOSE, ex);
-				}
-			}
 		} catch (IOException excep) {
-			logger.log(Level.FINER, CliConstants.EXCEP_PROCESSOR_CLOSE, excep);
+			logger.log(Level.SEVERE, CliConstants.EXCEP_REPORT_MARSHAL, excep);
+			retVal = ExitCodes.JAXB_EXCEPTION;
+		} catch (VeraPDFException e) {
+			logger.log(Level.SEVERE, "Exception writing the report of " + item.getName(), e);
+			retVal = ExitCodes.VERAPDF_EXCEPTION;
 		}
-		return retVal;
+		return withTimeout(DocumentWatchdog.isTimedOut(result), retVal);
 	}
 
-	private OutputStream getReportStream() {
-		if (this.isPolicy) {
-			if (this.tempMrrFile == null)
-				throw new IllegalStateException("Policy enabled BUT no temp destination");
-			try {
-				this.isStdOut = false;
-				return new FileOutputStream(this.tempMrrFile);
-			} catch (FileNotFoundException excep) {
-				throw new IllegalStateException("Policy enabled BUT no temp destination", excep);
-			}
+	private CheckpointJournal openJournal() {
+		if (this.checkpointFile == null) {
+			return null;
 		}
-		return this.os;
-	}
-
-	private void applyPolicy() throws VeraPDFException {
-		File tempPolicyResult;
+		byte[] fingerprint;
 		try {
-			tempPolicyResult = File.createTempFile("policyResult", "veraPDF");
-		} catch (IOException excep) {
-			throw new VeraPDFException("Could not create temporary policy result file.", excep);
+			fingerprint = CheckpointJournal.fingerprint(this.processorConfig, this.appConfig, this.policyFile,
+					this.isReportMetrics);
+		} catch (IOException e) {
+			logger.log(Level.WARNING, "Can't fingerprint the run settings, checkpoints are disabled", e);
+			return null;
 		}
-		try (InputStream mrrIs = new FileInputStream(this.tempMrrFile);
-				OutputStream policyResultOs = new FileOutputStream(tempPolicyResult)) {
-			PolicyChecker.applyPolicy(this.policyFile, mrrIs, policyResultOs);
-			PolicyChecker.insertPolicyReport(tempPolicyResult, this.tempMrrFile, os);
-		} catch (FileNotFoundException excep) {
-			throw new VeraPDFException("Could not find temporary policy result file.", excep);
-		} catch (IOException excep) {
-			logger.log(Level.FINE, "Exception raised closing temporary policy file.", excep);
+		return CheckpointJournal.open(this.checkpointFile, this.isResume, this.appConfig.getFormat(), fingerprint);
+	}
+
+	/**
+	 * Documents timed out by the {@link DocumentWatchdog} have partial results,
+	 * their exit code says so whatever the results are.
+	 */
+	private static ExitCodes withTimeout(final boolean isTimedOut, final ExitCodes exitCode) {
+		return isTimedOut ? ExitCodes.TIMEOUT : exitCode;
+	}
+
+	/**
+	 * Policy reports and XML reports with metrics are written job by job, each
+	 * job report checked against the policy and given its metrics as soon as
+	 * it's produced.
+	 */
+	private BatchProcessingHandler getHandler(final OutputStream reportStream) throws VeraPDFException {
+		return getHandler(reportStream, this::publishMetrics);
+	}
+
+	private BatchProcessingHandler getHandler(final OutputStream reportStream, final Consumer<JobMetrics> metricsSink)
+			throws VeraPDFException {
+		if (this.isPolicy || (this.isReportMetrics && this.appConfig.getFormat() == FormatOption.XML)) {
+			return new JobReportHandler(this.policyChecker,
+					new ReportMerger(reportStream, FormatOption.XML, this.appConfig.getWikiPath()),
+					this.appConfig.isVerbose(), this.appConfig.getWikiPath(), this.isReportMetrics,
+					isCollectingMetrics() ? metricsSink : null);
 		}
-		if (!tempPolicyResult.delete()) {
-			tempPolicyResult.deleteOnExit();
+		BatchProcessingHandler handler = ProcessorFactory.getHandler(this.appConfig.getFormat(),
+				this.appConfig.isVerbose(), reportStream, this.processorConfig.getValidatorConfig().isRecordPasses(),
+				this.appConfig.getWikiPath());
+		return isCollectingMetrics() ? new MetricsHandler(handler, metricsSink) : handler;
+	}
+
+	/**
+	 * Framed output always collects metrics, the parent process decides whether
+	 * to write them.
+	 */
+	private boolean isCollectingMetrics() {
+		return this.isFramedOutput || this.isReportMetrics || this.metricsWriter != null;
+	}
+
+	private void publishMetrics(final JobMetrics metrics) {
+		this.jobMetrics = metrics;
+		if (this.metricsWriter != null) {
+			this.metricsWriter.write(metrics);
 		}
 	}
 
 	@Override
 	public void close() {
-		if (this.tempMrrFile != null && !this.tempMrrFile.delete()) {
-			this.tempMrrFile.deleteOnExit();
+		if (this.metricsWriter != null) {
+			this.metricsWriter.close();
 		}
 	}
 
 	public File getTempFile() {
 		return tempFile;
 	}
+
+	/**
+	 * @return the report of the last processed paths when framed output is used
+	 */
+	public byte[] getReport() {
+		return this.reportBuffer.toByteArray();
+	}
+
+	/**
+	 * @return the JSON metrics of the last processed document, null if there are none
+	 */
+	public String getMetrics() {
+		return this.jobMetrics == null ? null : this.jobMetrics.toJson();
+	}
 }
@@ -0,0 +1,232 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.cache;
+
+import org.verapdf.ReleaseDetails;
+import org.verapdf.apps.utils.CacheFiles;
+import org.verapdf.apps.utils.FileStatIndex;
+import org.verapdf.cli.CliConstants.ExitCodes;
+import org.verapdf.cli.multithread.ReportFrame;
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.processor.FormatOption;
+import org.verapdf.processor.ProcessorConfig;
+import org.verapdf.processor.ProcessorFactory;
+import org.verapdf.processor.TaskType;
+
+import javax.xml.bind.JAXBException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * On disk cache of single document reports and their exit codes. A report is
+ * stored under a key made of the file path, the report format, the digest of
+ * the file content and a fingerprint of the processor configuration, report
+ * options and library versions, so a cached report is only reused while
+ * neither the file nor the effective configuration change.
+ * <p>
+ * Entries are written to a temp file and moved into place, so processes
+ * sharing a cache directory never see a partly written entry. Content digests
+ * are kept in a {@link FileStatIndex} next to the entries, so unchanged files
+ * are only read when they have to be processed.
+ */
+public final class ResultCache {
+	private static final Logger LOGGER = Logger.getLogger(ResultCache.class.getCanonicalName());
+
+	private static final String ENTRY_EXT = ".report"; //$NON-NLS-1$
+	private static final String STAT_INDEX_DIR = "stat"; //$NON-NLS-1$
+
+	private final Path directory;
+	private final byte[] fingerprint;
+	private final FileStatIndex statIndex;
+
+	private ResultCache(final Path directory, final byte[] fingerprint, final FileStatIndex statIndex) {
+		this.directory = directory;
+		this.fingerprint = fingerprint;
+		this.statIndex = statIndex;
+	}
+
+	/**
+	 * A single document report that can be cached.
+	 */
+	@FunctionalInterface
+	public interface DocumentReport {
+		/**
+		 * Processes the document and writes its report.
+		 *
+		 * @param reportStream the stream to write the report to
+		 * @return the exit code of the document processing
+		 * @throws VeraPDFException when the document can't be processed
+		 * @throws IOException when the report can't be written
+		 */
+		ExitCodes write(OutputStream reportStream) throws VeraPDFException, IOException;
+	}
+
+	/**
+	 * Opens the cache in the passed directory for reports produced with the
+	 * passed configuration.
+	 *
+	 * @param directory the cache directory, created if missing, null to disable caching
+	 * @param config the processor configuration the reports are produced with
+	 * @param isVerbose whether reports are verbose
+	 * @param wikiPath the profiles wiki path used in reports
+	 * @return the cache, or null if directory is null, the configuration fixes
+	 *         metadata or the cache can't be opened
+	 */
+	public static ResultCache open(final File directory, final ProcessorConfig config, final boolean isVerbose,
+			final String wikiPath) {
+		if (directory == null) {
+			return null;
+		}
+		if (config.hasTask(TaskType.FIX_METADATA)) {
+			LOGGER.log(Level.WARNING, "Result cache is ignored when fixing metadata");
+			return null;
+		}
+		try {
+			Files.createDirectories(directory.toPath());
+			return new ResultCache(directory.toPath(), fingerprint(config, isVerbose, wikiPath),
+					FileStatIndex.open(directory.toPath().resolve(STAT_INDEX_DIR)));
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Can't open result cache " + directory.getAbsolutePath(), e);
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the cached report of a file if there is one, otherwise produces the
+	 * report, writes it and caches it. Only reports of completed processing are
+	 * cached, reports of documents that hit an exception or ran out of memory
+	 * are produced again next time.
+	 *
+	 * @param file the processed file
+	 * @param format the report format
+	 * @param reportStream the stream to write the report to
+	 * @param report produces the report when it isn't cached
+	 * @return the exit code of the document processing
+	 * @throws VeraPDFException when the document can't be processed
+	 * @throws IOException when the report can't be written
+	 */
+	public ExitCodes writeReport(final File file, final FormatOption format, final OutputStream reportStream,
+			final DocumentReport report) throws VeraPDFException, IOException {
+		String key;
+		try {
+			key = keyOf(file, format, this.statIndex.digest(file));
+		} catch (IOException e) {
+			LOGGER.log(Level.FINE, "Can't calculate cache key of " + file.getAbsolutePath(), e);
+			return report.write(reportStream);
+		}
+		ReportFrame cached = get(key);
+		if (cached != null) {
+			reportStream.write(cached.getReport());
+			return cached.getExitCode();
+		}
+		long start = System.currentTimeMillis();
+		ByteArrayOutputStream reportBytes = new ByteArrayOutputStream();
+		ExitCodes exitCode = report.write(reportBytes);
+		reportBytes.writeTo(reportStream);
+		if (isCacheable(exitCode)) {
+			put(key, new ReportFrame(reportBytes.toByteArray(), exitCode, System.currentTimeMillis() - start));
+		}
+		return exitCode;
+	}
+
+	/**
+	 * Calculates the cache key of a file report.
+	 *
+	 * @param file the file to calculate the key of
+	 * @param format the report format
+	 * @param contentDigest the digest of the file content, see {@link FileStatIndex#digest(File)}
+	 * @return the hex encoded cache key
+	 */
+	public String keyOf(final File file, final FormatOption format, final byte[] contentDigest) {
+		MessageDigest digest = CacheFiles.newDigest();
+		digest.update(this.fingerprint);
+		digest.update(format.getOption().getBytes(StandardCharsets.UTF_8));
+		digest.update(file.getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+		digest.update(contentDigest);
+		return CacheFiles.toHex(digest.digest());
+	}
+
+	private ReportFrame get(final String key) {
+		try (DataInputStream is = new DataInputStream(new BufferedInputStream(Files.newInputStream(entryPath(key))))) {
+			ReportFrame frame = ReportFrame.readFrom(is);
+			if (frame == null || frame.getExitCode() == null) {
+				throw new IOException("Truncated result cache entry");
+			}
+			return frame;
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Can't read result cache entry " + key, e);
+			return null;
+		}
+	}
+
+	private void put(final String key, final ReportFrame frame) {
+		try {
+			CacheFiles.writeAtomically(entryPath(key), os -> frame.writeTo(new DataOutputStream(os)));
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Can't write result cache entry " + key, e);
+		}
+	}
+
+	private static boolean isCacheable(final ExitCodes exitCode) {
+		return exitCode == ExitCodes.VALID || exitCode == ExitCodes.INVALID || exitCode == ExitCodes.FAILED_PARSING
+				|| exitCode == ExitCodes.ENCRYPTED_FILES;
+	}
+
+	private Path entryPath(final String key) {
+		return this.directory.resolve(key.substring(0, 2)).resolve(key + ENTRY_EXT);
+	}
+
+	/**
+	 * The fingerprint of the processor configuration, report options and
+	 * library versions reports are produced with.
+	 *
+	 * @param config the processor configuration
+	 * @param isVerbose whether reports are verbose
+	 * @param wikiPath the profiles wiki path used in reports
+	 * @return the fingerprint of the configuration
+	 * @throws IOException when the configuration can't be serialised
+	 */
+	public static byte[] fingerprint(final ProcessorConfig config, final boolean isVerbose, final String wikiPath)
+			throws IOException {
+		MessageDigest digest = CacheFiles.newDigest();
+		ByteArrayOutputStream configXml = new ByteArrayOutputStream();
+		try {
+			ProcessorFactory.configToXml(config, configXml, false);
+		} catch (JAXBException e) {
+			throw new IOException("Can't serialise processor configuration", e);
+		}
+		digest.update(configXml.toByteArray());
+		digest.update((isVerbose + ":" + wikiPath).getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+		for (ReleaseDetails details : ReleaseDetails.getDetails()) {
+			String release = details.getId() + ':' + details.getVersion();
+			digest.update(release.getBytes(StandardCharsets.UTF_8));
+		}
+		return digest.digest();
+	}
+}
@@ -0,0 +1,408 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.checkpoint;
+
+import org.verapdf.apps.utils.CacheFiles;
+import org.verapdf.cli.CliConstants.ExitCodes;
+import org.verapdf.cli.cache.ResultCache;
+import org.verapdf.cli.multithread.ReportFrame;
+import org.verapdf.processor.FormatOption;
+import org.verapdf.processor.ProcessorConfig;
+import org.verapdf.processor.app.VeraAppConfig;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append only journal of the documents completed by a batch run, so a run that
+ * died can be resumed without processing them again. Every record holds the
+ * path, size and modification time of a file, its exit code and its report;
+ * the journal keeps the offsets of the reports, which are read back one at a
+ * time as the resumed run comes across their files.
+ * <p>
+ * Journaled reports are final job reports, checked against the policy and
+ * with their metrics, so the journal header holds a fingerprint of the
+ * settings producing them. A journal of a run with other settings is started
+ * afresh rather than resumed.
+ * <p>
+ * Records are synced to disk in batches, so a crash loses at most the last
+ * batch, whose documents are processed again. A record torn by a crash fails
+ * its checksum and is dropped, along with anything after it, when the journal
+ * is resumed.
+ */
+public final class CheckpointJournal implements Closeable {
+	private static final Logger LOGGER = Logger.getLogger(CheckpointJournal.class.getCanonicalName());
+
+	private static final int MAGIC = 0x5650434A; // "VPCJ"
+	private static final int VERSION = 2;
+	private static final int MAX_FINGERPRINT_LENGTH = 1024;
+	private static final int SYNC_RECORDS = 64;
+	private static final long SYNC_INTERVAL_MILLIS = 1000;
+
+	private final Path path;
+	private final FileChannel channel;
+	private final DataOutputStream out;
+	private final Map<String, Completed> completed;
+	private int unsynced = 0;
+	private long lastSync = System.currentTimeMillis();
+
+	private CheckpointJournal(final Path path, final FileChannel channel, final Map<String, Completed> completed) {
+		this.path = path;
+		this.channel = channel;
+		this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+		this.completed = completed;
+	}
+
+	/**
+	 * A document recorded in the journal.
+	 */
+	private static final class Completed {
+		private final long size;
+		private final long modified;
+		private final ExitCodes exitCode;
+		private final long processingTime;
+		private final long reportOffset;
+		private final int reportLength;
+
+		Completed(final long size, final long modified, final ExitCodes exitCode, final long processingTime,
+				final long reportOffset, final int reportLength) {
+			this.size = size;
+			this.modified = modified;
+			this.exitCode = exitCode;
+			this.processingTime = processingTime;
+			this.reportOffset = reportOffset;
+			this.reportLength = reportLength;
+		}
+	}
+
+	/**
+	 * Opens the journal of a run.
+	 *
+	 * @param file the journal file, null to disable checkpoints
+	 * @param isResume whether documents completed by a previous run are kept,
+	 *            otherwise the journal is started afresh
+	 * @param format the report format, a journal of another format is started afresh
+	 * @param fingerprint the fingerprint of the run settings, see
+	 *            {@link #fingerprint(ProcessorConfig, VeraAppConfig, File, boolean)};
+	 *            a journal of other settings is started afresh
+	 * @return the journal, or null if file is null or the journal can't be opened
+	 */
+	public static CheckpointJournal open(final File file, final boolean isResume, final FormatOption format,
+			final byte[] fingerprint) {
+		if (file == null) {
+			return null;
+		}
+		Path path = file.toPath();
+		try {
+			Map<String, Completed> completed = new HashMap<>();
+			long validEnd = -1;
+			if (Files.isRegularFile(path) && Files.size(path) > 0 && !isJournal(path)) {
+				throw new IOException("Not a checkpoint journal, refusing to overwrite it");
+			}
+			if (isResume && Files.isRegularFile(path)) {
+				validEnd = load(path, format, fingerprint, completed);
+			} else if (isResume) {
+				LOGGER.log(Level.WARNING, "Checkpoint journal " + file.getAbsolutePath() + " doesn't exist, nothing to resume");
+			}
+			FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.READ);
+			CheckpointJournal journal = new CheckpointJournal(path, channel, completed);
+			if (validEnd < 0) {
+				completed.clear();
+				channel.truncate(0);
+				journal.out.writeInt(MAGIC);
+				journal.out.writeInt(VERSION);
+				journal.out.writeUTF(format.getOption());
+				journal.out.writeInt(fingerprint.length);
+				journal.out.write(fingerprint);
+				journal.sync();
+			} else {
+				// drop a record torn by the crash of the previous run
+				channel.truncate(validEnd);
+				channel.position(validEnd);
+			}
+			if (!completed.isEmpty()) {
+				LOGGER.log(Level.INFO, "Resuming run, " + completed.size() + " documents are already completed");
+			}
+			return journal;
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Can't open checkpoint journal " + file.getAbsolutePath(), e);
+			return null;
+		}
+	}
+
+	/**
+	 * @return the end of the last intact record, or -1 if the journal can't be resumed
+	 */
+	private static long load(final Path path, final FormatOption format, final byte[] fingerprint,
+			final Map<String, Completed> completed) throws IOException {
+		try (CountingInputStream counter = new CountingInputStream(
+				new BufferedInputStream(Files.newInputStream(path), 64 * 1024));
+				DataInputStream in = new DataInputStream(counter)) {
+			try {
+				in.readInt();
+				if (in.readInt() != VERSION) {
+					LOGGER.log(Level.WARNING, "Checkpoint journal of another version, starting afresh: " + path);
+					return -1;
+				}
+				String journalFormat = in.readUTF();
+				if (!journalFormat.equals(format.getOption())) {
+					LOGGER.log(Level.WARNING, "Checkpoint journal holds " + journalFormat
+							+ " reports, starting afresh: " + path);
+					return -1;
+				}
+				int fingerprintLength = in.readInt();
+				if (fingerprintLength < 0 || fingerprintLength > MAX_FINGERPRINT_LENGTH) {
+					return -1;
+				}
+				byte[] journalFingerprint = new byte[fingerprintLength];
+				in.readFully(journalFingerprint);
+				if (!MessageDigest.isEqual(journalFingerprint, fingerprint)) {
+					LOGGER.log(Level.WARNING, "Checkpoint journal of a run with other settings, starting afresh: "
+							+ path);
+					return -1;
+				}
+			} catch (EOFException e) {
+				return -1;
+			}
+			long fileSize = Files.size(path);
+			long validEnd = counter.count;
+			CRC32 crc = new CRC32();
+			while (true) {
+				byte[] body;
+				long bodyOffset;
+				try {
+					int length = in.readInt();
+					bodyOffset = counter.count;
+					// a corrupt length is caught before it's allocated
+					if (length < 0 || length > fileSize - bodyOffset) {
+						break;
+					}
+					body = new byte[length];
+					in.readFully(body);
+					crc.reset();
+					crc.update(body, 0, body.length);
+					if (in.readInt() != (int) crc.getValue()) {
+						break;
+					}
+				} catch (EOFException e) {
+					break;
+				}
+				DataInputStream record = new DataInputStream(new ByteArrayInputStream(body));
+				String filePath = record.readUTF();
+				long size = record.readLong();
+				long modified = record.readLong();
+				ExitCodes exitCode = ExitCodes.fromValue(record.readInt());
+				long processingTime = record.readLong();
+				int reportLength = record.readInt();
+				if (reportLength < 0 || reportLength > record.available()) {
+					break;
+				}
+				completed.put(filePath, new Completed(size, modified, exitCode, processingTime,
+						bodyOffset + body.length - reportLength, reportLength));
+				validEnd = counter.count;
+			}
+			if (validEnd < fileSize) {
+				LOGGER.log(Level.WARNING, "Checkpoint journal ends with a torn record, it's dropped");
+			}
+			return validEnd;
+		}
+	}
+
+	/**
+	 * The fingerprint of the settings a run's reports are produced with: the
+	 * processor configuration, report options and library versions, as for
+	 * the {@link ResultCache}, the content of the policy file and whether
+	 * metrics are added to reports.
+	 *
+	 * @param config the processor configuration of the run
+	 * @param appConfig the application configuration of the run
+	 * @param policyFile the policy file applied to reports, null for none
+	 * @param isReportMetrics whether metrics are added to reports
+	 * @return the fingerprint of the settings
+	 * @throws IOException when the configuration can't be serialised or the
+	 *             policy file can't be read
+	 */
+	public static byte[] fingerprint(final ProcessorConfig config, final VeraAppConfig appConfig,
+			final File policyFile, final boolean isReportMetrics) throws IOException {
+		MessageDigest digest = CacheFiles.newDigest();
+		digest.update(ResultCache.fingerprint(config, appConfig.isVerbose(), appConfig.getWikiPath()));
+		digest.update(isReportMetrics ? (byte) 1 : (byte) 0);
+		digest.update(policyFile != null ? (byte) 1 : (byte) 0);
+		if (policyFile != null) {
+			digest.update(Files.readAllBytes(policyFile.toPath()));
+		}
+		return digest.digest();
+	}
+
+	private static boolean isJournal(final Path path) throws IOException {
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+			return in.readInt() == MAGIC;
+		} catch (EOFException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @param file a file to process
+	 * @return true if the file was completed by the resumed run and hasn't
+	 *         changed since
+	 */
+	public boolean isCompleted(final File file) {
+		Completed entry = this.completed.get(file.getAbsolutePath());
+		return entry != null && entry.size == file.length() && entry.modified == file.lastModified();
+	}
+
+	/**
+	 * Reads back the report of a document completed by the resumed run.
+	 *
+	 * @param file a file to process
+	 * @return the report frame of the file, or null if the file wasn't
+	 *         completed or has changed since, see {@link #isCompleted(File)}
+	 * @throws IOException when the journal can't be read
+	 */
+	public ReportFrame completedReport(final File file) throws IOException {
+		if (!isCompleted(file)) {
+			return null;
+		}
+		Completed entry = this.completed.get(file.getAbsolutePath());
+		ByteBuffer report = ByteBuffer.allocate(entry.reportLength);
+		// positional reads leave the end the records are appended at alone
+		while (report.hasRemaining()) {
+			if (this.channel.read(report, entry.reportOffset + report.position()) < 0) {
+				throw new EOFException("Checkpoint journal is truncated");
+			}
+		}
+		return new ReportFrame(report.array(), entry.exitCode, entry.processingTime);
+	}
+
+	/**
+	 * Records a completed document. Documents that hit an exception or ran out
+	 * of memory aren't recorded, a resumed run processes them again.
+	 *
+	 * @param file the processed file
+	 * @param frame the report of the file
+	 */
+	public synchronized void append(final File file, final ReportFrame frame) {
+		if (!isComplete(frame.getExitCode())) {
+			return;
+		}
+		try {
+			ByteArrayOutputStream body = new ByteArrayOutputStream(frame.getReport().length + 256);
+			DataOutputStream record = new DataOutputStream(body);
+			record.writeUTF(file.getAbsolutePath());
+			record.writeLong(file.length());
+			record.writeLong(file.lastModified());
+			record.writeInt(frame.getExitCode().value);
+			record.writeLong(frame.getProcessingTime());
+			record.writeInt(frame.getReport().length);
+			record.write(frame.getReport());
+			CRC32 crc = new CRC32();
+			crc.update(body.toByteArray(), 0, body.size());
+			this.out.writeInt(body.size());
+			body.writeTo(this.out);
+			this.out.writeInt((int) crc.getValue());
+			this.unsynced++;
+			if (this.unsynced >= SYNC_RECORDS || System.currentTimeMillis() - this.lastSync >= SYNC_INTERVAL_MILLIS) {
+				sync();
+			}
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Can't write checkpoint of " + file.getAbsolutePath(), e);
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			sync();
+		} finally {
+			this.channel.close();
+		}
+	}
+
+	private void sync() throws IOException {
+		this.out.flush();
+		this.channel.force(false);
+		this.unsynced = 0;
+		this.lastSync = System.currentTimeMillis();
+	}
+
+	private static boolean isComplete(final ExitCodes exitCode) {
+		return exitCode == ExitCodes.VALID || exitCode == ExitCodes.INVALID || exitCode == ExitCodes.FAILED_PARSING
+				|| exitCode == ExitCodes.ENCRYPTED_FILES;
+	}
+
+	private static final class CountingInputStream extends FilterInputStream {
+		private long count = 0;
+
+		CountingInputStream(final InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int read = super.read();
+			if (read >= 0) {
+				this.count++;
+			}
+			return read;
+		}
+
+		@Override
+		public int read(final byte[] buffer, final int off, final int len) throws IOException {
+			int read = super.read(buffer, off, len);
+			if (read > 0) {
+				this.count += read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(final long n) throws IOException {
+			long skipped = super.skip(n);
+			this.count += skipped;
+			return skipped;
+		}
+	}
+}
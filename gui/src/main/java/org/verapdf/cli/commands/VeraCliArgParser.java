@@ -23,12 +23,12 @@ package org.verapdf.cli.commands;
 import com.beust.jcommander.*;
 import org.verapdf.apps.Applications;
 import org.verapdf.apps.utils.ApplicationUtils;
+import org.verapdf.cli.multithread.ProcessingOrder;
+import org.verapdf.cli.multithread.RecyclePolicy;
 import org.verapdf.core.VeraPDFException;
-import org.verapdf.core.utils.FileUtils;
 import org.verapdf.features.FeatureExtractorConfig;
 import org.verapdf.features.FeatureFactory;
 import org.verapdf.features.FeatureObjectType;
-import org.verapdf.gui.utils.GUIConstants;
 import org.verapdf.metadata.fixer.FixerFactory;
 import org.verapdf.metadata.fixer.MetadataFixerConfig;
 import org.verapdf.pdfa.flavours.PDFAFlavour;
@@ -90,6 +90,10 @@ public class VeraCliArgParser {
 	public static final String RECURSE_FLAG = FLAG_SEP + 'r'; //$NON-NLS-1$
 	public static final String RECURSE = OPTION_SEP + "recurse"; //$NON-NLS-1$
 	public static final String SERVER_MODE = OPTION_SEP + "servermode"; //$NON-NLS-1$
+	public static final String FRAMED_OUTPUT = OPTION_SEP + "framedoutput"; //$NON-NLS-1$
+	public static final String SERVER_PORT = OPTION_SEP + "serverport"; //$NON-NLS-1$
+	public static final String METRICS_PORT = OPTION_SEP + "metricsport"; //$NON-NLS-1$
+	public static final String MAX_DOCUMENT_SIZE = OPTION_SEP + "maxdocumentsize"; //$NON-NLS-1$
 	public static final String VERBOSE_FLAG = FLAG_SEP + 'v'; //$NON-NLS-1$
 	public static final String VERBOSE = OPTION_SEP + "verbose"; //$NON-NLS-1$
 	public static final String DEBUG_FLAG = FLAG_SEP + 'd'; //$NON-NLS-1$
@@ -101,6 +105,16 @@ public class VeraCliArgParser {
 	public static final String FIX_METADATA_FOLDER = OPTION_SEP + "savefolder"; //$NON-NLS-1$
 	public static final String NON_PDF_EXTENSION = OPTION_SEP + "nonpdfext";
 	public static final String POLICY_FILE = OPTION_SEP + "policyfile"; //$NON-NLS-1$
+	public static final String RESULT_CACHE = OPTION_SEP + "resultcache"; //$NON-NLS-1$
+	public static final String CHECKPOINT = OPTION_SEP + "checkpoint"; //$NON-NLS-1$
+	public static final String RESUME = OPTION_SEP + "resume"; //$NON-NLS-1$
+	public static final String METRICS = OPTION_SEP + "metrics"; //$NON-NLS-1$
+	public static final String REPORT_METRICS = OPTION_SEP + "reportmetrics"; //$NON-NLS-1$
+	public static final String MEMORY_MAP = OPTION_SEP + "mmap"; //$NON-NLS-1$
+	public static final String SPILL_THRESHOLD = OPTION_SEP + "spillthreshold"; //$NON-NLS-1$
+	public static final String FRAMED_INPUT = OPTION_SEP + "framedinput"; //$NON-NLS-1$
+	public static final String ZIP_THREADS = OPTION_SEP + "zipthreads"; //$NON-NLS-1$
+	public static final String MEMORY_BUDGET = OPTION_SEP + "memorybudget"; //$NON-NLS-1$
 	public static final String ADD_LOGS = OPTION_SEP + "addlogs"; //$NON-NLS-1$
 	public static final String DISABLE_ERROR_MESSAGES = OPTION_SEP + "disableerrormessages"; //$NON-NLS-1$
 	public static final String PASSWORD = OPTION_SEP + "password"; //$NON-NLS-1$
@@ -112,6 +126,16 @@ public class VeraCliArgParser {
 	public static final String VALID_OFF = OPTION_SEP + "off"; //$NON-NLS-1$
 	public static final String NUMBER_OF_PROCESSES_FLAG = OPTION_SEP + "processes"; //$NON-NLS-1$
 	public static final String VERA_PATH_FLAG = OPTION_SEP + "verapath";
+	public static final String IN_PROCESS = OPTION_SEP + "inprocess"; //$NON-NLS-1$
+	public static final String PROCESSING_ORDER = OPTION_SEP + "order"; //$NON-NLS-1$
+	public static final String ADAPTIVE = OPTION_SEP + "adaptive"; //$NON-NLS-1$
+	public static final String RECYCLE_DOCUMENTS = OPTION_SEP + "recycledocs"; //$NON-NLS-1$
+	public static final String RECYCLE_MEGABYTES = OPTION_SEP + "recyclemb"; //$NON-NLS-1$
+	public static final String RECYCLE_RSS = OPTION_SEP + "recyclerss"; //$NON-NLS-1$
+	public static final String TIMEOUT = OPTION_SEP + "timeout"; //$NON-NLS-1$
+	public static final String CPU_TIMEOUT = OPTION_SEP + "cputimeout"; //$NON-NLS-1$
+	public static final String PLATFORM_THREADS = OPTION_SEP + "platformthreads"; //$NON-NLS-1$
+	public static final String PREFETCH = OPTION_SEP + "prefetch"; //$NON-NLS-1$
 	public static final String USE_CONFIG = OPTION_SEP + "config";
 
 	@Parameter(names = { HELP_FLAG, HELP }, description = "Shows this message and exits.", help = true)
@@ -152,6 +176,18 @@ public class VeraCliArgParser {
 	@Parameter(names = {SERVER_MODE}, description = "Run veraPDF in server mode. Changes output and ignore " + NUMBER_OF_PROCESSES_FLAG + "argument.", hidden = true)
 	private boolean isServerMode = false;
 
+	@Parameter(names = {FRAMED_OUTPUT}, description = "In server mode, writes reports to stdout as length prefixed binary frames instead of temp file paths.", hidden = true)
+	private boolean isFramedOutput = false;
+
+	@Parameter(names = {SERVER_PORT}, description = "In server mode, listens on this loopback port for validation requests instead of reading paths from stdin.", hidden = true)
+	private int serverPort = 0;
+
+	@Parameter(names = {METRICS_PORT}, description = "With " + SERVER_PORT + ", serves OpenMetrics counters of the validation daemon on this loopback port at /metrics.", hidden = true)
+	private int metricsPort = 0;
+
+	@Parameter(names = {MAX_DOCUMENT_SIZE}, description = "With " + SERVER_PORT + ", rejects documents sent with a request that are larger than this many megabytes.", hidden = true)
+	private int maxDocumentSize = 256;
+
 	@Parameter(names = { VERBOSE_FLAG, VERBOSE }, description = "Adds failed test information to text output.")
 	private boolean isVerbose = false;
 
@@ -196,6 +232,36 @@ public class VeraCliArgParser {
 			POLICY_FILE }, description = "Select a policy schematron or XSL file.", validateWith = FileValidator.class)
 	private File policyFile;
 
+	@Parameter(names = {RESULT_CACHE}, description = "Directory of a result cache. Files that haven't changed since they were cached with the same settings aren't processed again.")
+	private File resultCacheDir;
+
+	@Parameter(names = {CHECKPOINT}, description = "Journal file recording the files completed by the run and their reports, so the run can be resumed with " + RESUME + " if it dies.")
+	private File checkpointFile;
+
+	@Parameter(names = {RESUME}, description = "Resumes the run recorded in the " + CHECKPOINT + " journal: completed files that haven't changed aren't processed again and their reports are written from the journal.")
+	private boolean isResume = false;
+
+	@Parameter(names = {METRICS}, description = "Writes the timings of the processing stages, document size and heap use of every processed file to this file as JSON lines. Heap use is left out when " + ZIP_THREADS + " or in-process workers validate several files at once.")
+	private File metricsFile;
+
+	@Parameter(names = {REPORT_METRICS}, description = "Adds the timings of the processing stages, document size and heap use of every processed file to xml reports.")
+	private boolean isReportMetrics = false;
+
+	@Parameter(names = {MEMORY_MAP}, description = "Memory maps input files so the parser reads them without copying them through heap buffers. STDIN and zip entries are still read as streams.")
+	private boolean isMemoryMapped = false;
+
+	@Parameter(names = {SPILL_THRESHOLD}, description = "Size in MB up to which a PDF read from STDIN is buffered in memory. Larger PDFs are spilled to a memory mapped temp file.")
+	private int spillThreshold = 64;
+
+	@Parameter(names = {FRAMED_INPUT}, description = "Reads a stream of PDFs from STDIN, each preceded by a \"<length> <name>\" line, and writes the report of each PDF as soon as it's validated, preceded by a \"<length> <exit code> <name>\" line.")
+	private boolean isFramedInput = false;
+
+	@Parameter(names = {ZIP_THREADS}, description = "The number of threads validating the PDF entries of zip and tar archives concurrently. Entries are decompressed while they are validated, the archive is never unpacked as a whole.")
+	private int zipThreads = 1;
+
+	@Parameter(names = {MEMORY_BUDGET}, description = "Memory in megabytes shared by the documents validated at once by " + ZIP_THREADS + " or " + NUMBER_OF_PROCESSES_FLAG + " workers. Each document reserves an estimate based on its size and page count before it's validated and waits until the estimate fits. 0 disables the budget, by default documents validated in this JVM share 3/4 of its maximal heap.")
+	private int memoryBudget = -1;
+
 	 @Parameter(names = { PROFILES_WIKI_FLAG,
 	                      PROFILES_WIKI }, description = "Sets location of the Validation Profiles wiki.")
 	 private String profilesWikiPath = Applications.defaultConfig().getWikiPath();
@@ -206,6 +272,36 @@ public class VeraCliArgParser {
 	@Parameter(names = {NUMBER_OF_PROCESSES_FLAG}, description = "The number of processes which will be used.")
 	private int numberOfProcesses = 1;
 
+	@Parameter(names = {IN_PROCESS}, description = "Runs the " + NUMBER_OF_PROCESSES_FLAG + " workers as threads inside this JVM instead of starting separate veraPDF processes.")
+	private boolean isInProcess = false;
+
+	@Parameter(names = {PROCESSING_ORDER}, description = "Chooses the order in which files are handed to the " + NUMBER_OF_PROCESSES_FLAG + " workers. 'size' processes the largest files first.", converter = ProcessingOrderConverter.class)
+	private ProcessingOrder processingOrder = ProcessingOrder.DISCOVERY;
+
+	@Parameter(names = {ADAPTIVE}, description = "Adapts the number of documents processed at once, up to the " + NUMBER_OF_PROCESSES_FLAG + " count, to the CPU load, the free memory and the sizes of the documents being processed.")
+	private boolean isAdaptive = false;
+
+	@Parameter(names = {RECYCLE_DOCUMENTS}, description = "Replaces each " + NUMBER_OF_PROCESSES_FLAG + " worker process by a fresh one after it has processed this many documents. 0 never replaces it.")
+	private int recycleDocuments = 0;
+
+	@Parameter(names = {RECYCLE_MEGABYTES}, description = "Replaces each " + NUMBER_OF_PROCESSES_FLAG + " worker process by a fresh one after it has processed this many megabytes of documents. 0 never replaces it.")
+	private int recycleMegabytes = 0;
+
+	@Parameter(names = {RECYCLE_RSS}, description = "Replaces each " + NUMBER_OF_PROCESSES_FLAG + " worker process by a fresh one once its resident memory exceeds this many megabytes, Linux only. 0 never replaces it.")
+	private int recycleResidentMegabytes = 0;
+
+	@Parameter(names = {TIMEOUT}, description = "Stops processing a document after this many seconds and reports it as timed out with the results found so far. " + NUMBER_OF_PROCESSES_FLAG + " worker processes that don't stop are killed and replaced. Stopping is cooperative otherwise, with " + IN_PROCESS + " too: validation stops but parsing runs to its end. 0 never stops it.")
+	private int timeout = 0;
+
+	@Parameter(names = {CPU_TIMEOUT}, description = "Stops processing a document once it has used this many seconds of CPU time and reports it as timed out with the results found so far. " + NUMBER_OF_PROCESSES_FLAG + " worker processes that don't stop within twice that time are killed and replaced. Stopping is cooperative otherwise, with " + IN_PROCESS + " too: validation stops but parsing runs to its end. 0 never stops it.")
+	private int cpuTimeout = 0;
+
+	@Parameter(names = {PLATFORM_THREADS}, description = "Runs file discovery, worker process plumbing and server connections on platform threads. By default they run on virtual threads when Java 21 or later is used.")
+	private boolean isPlatformThreads = false;
+
+	@Parameter(names = {PREFETCH}, description = "Reads this many files ahead of processing into the operating system's file cache, hiding the latency of network file systems. 0 doesn't read ahead.")
+	private int prefetch = 0;
+
 	@Parameter(names = {USE_CONFIG},
 	           description = "Sets settings from the config files, if no cli parameters are specified.")
 	private boolean useConfig = false;
@@ -353,6 +449,42 @@ public class VeraCliArgParser {
 		return this.isServerMode;
 	}
 
+	/**
+	 * @return true if server mode reports are written to stdout as binary frames
+	 */
+	public boolean isFramedOutput() {
+		return this.isServerMode && this.isFramedOutput;
+	}
+
+	/**
+	 * @return true if veraPDF should run as a validation daemon on {@link #getServerPort()}
+	 */
+	public boolean isDaemon() {
+		return this.isServerMode && this.serverPort > 0;
+	}
+
+	/**
+	 * @return the loopback port the validation daemon listens on
+	 */
+	public int getServerPort() {
+		return this.serverPort;
+	}
+
+	/**
+	 * @return the loopback port the validation daemon serves its metrics on, 0 if
+	 *         metrics aren't served
+	 */
+	public int getMetricsPort() {
+		return this.metricsPort;
+	}
+
+	/**
+	 * @return the largest document in bytes the validation daemon accepts with a request
+	 */
+	public int getMaxDocumentSize() {
+		return (int) Math.min(Math.max(this.maxDocumentSize, 0) * 1024L * 1024L, Integer.MAX_VALUE);
+	}
+
 	/**
 	 * @return true if help requested
 	 */
@@ -411,6 +543,68 @@ public class VeraCliArgParser {
 		return this.policyFile != null;
 	}
 
+	/**
+	 * @return the result cache directory, or null if results aren't cached
+	 */
+	public File getResultCacheDir() {
+		return this.resultCacheDir;
+	}
+
+	/**
+	 * @return the checkpoint journal file, or null if the run isn't journaled
+	 */
+	public File getCheckpointFile() {
+		return this.checkpointFile;
+	}
+
+	/**
+	 * @return true if the run recorded in the checkpoint journal is resumed
+	 */
+	public boolean isResume() {
+		return this.isResume && this.checkpointFile != null;
+	}
+
+	public File getMetricsFile() {
+		return this.metricsFile;
+	}
+
+	public boolean isReportMetrics() {
+		return this.isReportMetrics;
+	}
+
+	public boolean isMemoryMapped() {
+		return this.isMemoryMapped;
+	}
+
+	/**
+	 * @return true if STDIN carries a stream of framed PDFs rather than a single PDF
+	 */
+	public boolean isFramedInput() {
+		return this.isFramedInput && getPdfPaths().isEmpty() && !this.isServerMode;
+	}
+
+	/**
+	 * @return the number of threads validating the entries of zip archives
+	 */
+	public int getZipThreads() {
+		return Math.max(this.zipThreads, 1);
+	}
+
+	/**
+	 * @return the memory budget in bytes of the documents validated at once, 0
+	 *         for none or negative for the default budget
+	 */
+	public long getMemoryBudget() {
+		return this.memoryBudget < 0 ? -1 : this.memoryBudget * 1024L * 1024L;
+	}
+
+	/**
+	 * @return the number of bytes of a STDIN PDF buffered in memory before it's spilled to a temp file
+	 */
+	public long getSpillThreshold() {
+		return Math.max(this.spillThreshold, 0) * 1024L * 1024L;
+	}
+
 	public String getPolicyFileName() {
 		if (isPolicy()) {
 			return getPolicyFile().getAbsolutePath();
@@ -426,6 +620,63 @@ public class VeraCliArgParser {
 		return numberOfProcesses;
 	}
 
+	/**
+	 * @return true if multiprocessing workers should run inside this JVM
+	 */
+	public boolean isInProcess() {
+		return isInProcess;
+	}
+
+	/**
+	 * @return the order in which files are handed to multiprocessing workers
+	 */
+	public ProcessingOrder getProcessingOrder() {
+		return processingOrder;
+	}
+
+	/**
+	 * @return true if the number of documents multiprocessing workers process at once adapts to the system load
+	 */
+	public boolean isAdaptive() {
+		return this.isAdaptive;
+	}
+
+	/**
+	 * @return when multiprocessing worker processes are replaced by fresh ones
+	 */
+	public RecyclePolicy getRecyclePolicy() {
+		return new RecyclePolicy(this.recycleDocuments, this.recycleMegabytes * 1024L * 1024L,
+				this.recycleResidentMegabytes * 1024L * 1024L);
+	}
+
+	/**
+	 * @return the wall clock time limit in milliseconds of processing a document, 0 for none
+	 */
+	public long getTimeout() {
+		return Math.max(this.timeout, 0) * 1000L;
+	}
+
+	/**
+	 * @return the CPU time limit in milliseconds of processing a document, 0 for none
+	 */
+	public long getCpuTimeout() {
+		return Math.max(this.cpuTimeout, 0) * 1000L;
+	}
+
+	/**
+	 * @return true if I/O bound stages run on platform threads even when virtual threads are available
+	 */
+	public boolean isPlatformThreads() {
+		return this.isPlatformThreads;
+	}
+
+	/**
+	 * @return the number of files read ahead of processing, 0 for none
+	 */
+	public int getPrefetch() {
+		return Math.max(this.prefetch, 0);
+	}
+
 	public boolean useConfig() {
 		return useConfig;
 	}
@@ -489,7 +740,7 @@ public class VeraCliArgParser {
 	}
 
 	public boolean isMultiprocessing() {
-	 	return this.numberOfProcesses > 1 && !this.isServerMode;
+	 	return this.numberOfProcesses > 1 && !this.isServerMode && !isFramedInput();
 	}
 
 	/**
@@ -535,6 +786,25 @@ public class VeraCliArgParser {
 
 	}
 
+	/**
+	 * JCommander parameter converter for {@link ProcessingOrder}, see
+	 * {@link IStringConverter} and {@link ProcessingOrder#fromOption(String)}.
+	 */
+	public static final class ProcessingOrderConverter implements IStringConverter<ProcessingOrder> {
+		/**
+		 * { @inheritDoc }
+		 */
+		@Override
+		public ProcessingOrder convert(final String value) {
+			try {
+				return ProcessingOrder.fromOption(value);
+			} catch (NoSuchElementException e) {
+				throw new ParameterException("Illegal --order argument: " + value, e);
+			}
+		}
+
+	}
+
 	public static final class FeatureConverter implements IStringConverter<FeatureObjectType> {
 
 		@Override
@@ -570,7 +840,18 @@ public class VeraCliArgParser {
 	}
 
 	public ValidatorConfig validatorConfig() {
-		return ValidatorFactory.createConfig(this.flavour, this.defaultFlavour, this.logPassed(), this.maxFailures,
+		return validatorConfig(this.flavour);
+	}
+
+	/**
+	 * Creates a validator configuration from the arguments with the flavour
+	 * replaced by the passed one.
+	 *
+	 * @param validationFlavour the flavour to validate against
+	 * @return the validator configuration
+	 */
+	public ValidatorConfig validatorConfig(final PDFAFlavour validationFlavour) {
+		return ValidatorFactory.createConfig(validationFlavour, this.defaultFlavour, this.logPassed(), this.maxFailures,
 				this.debug, this.addLogs(), getLoggerLevel(), this.maxFailuresDisplayed, !isDisableErrorMessages(),
 				                             this.getPassword(), this.getShowProgress(), this.nonPdfExt());
 	}
@@ -597,6 +878,21 @@ public class VeraCliArgParser {
 
 	public ProcessorConfig processorConfig(final ProcessType procType, PluginsCollectionConfig plugConfig)
 			throws VeraPDFException {
+		return processorConfig(procType, plugConfig, this.flavour);
+	}
+
+	/**
+	 * Creates a processor configuration from the arguments with the validation
+	 * flavour replaced by the passed one.
+	 *
+	 * @param procType the processing tasks to configure
+	 * @param plugConfig the plugins configuration
+	 * @param validationFlavour the flavour to validate against
+	 * @return the processor configuration
+	 * @throws VeraPDFException when the policy or custom profile can't be read
+	 */
+	public ProcessorConfig processorConfig(final ProcessType procType, PluginsCollectionConfig plugConfig,
+			final PDFAFlavour validationFlavour) throws VeraPDFException {
 		FeatureExtractorConfig featuresConfig = this.featureExtractorConfig();
 		if (isPolicy()) {
 			try (InputStream policyStream = new FileInputStream(this.policyFile)) {
@@ -606,12 +902,12 @@ public class VeraCliArgParser {
 			}
 		}
 		if (this.profileFile == null) {
-			return ProcessorFactory.fromValues(this.validatorConfig(), featuresConfig, plugConfig, this.fixerConfig(),
+			return ProcessorFactory.fromValues(this.validatorConfig(validationFlavour), featuresConfig, plugConfig, this.fixerConfig(),
 					procType.getTasks(), this.saveFolder);
 		}
 		try (InputStream fis = new FileInputStream(this.profileFile)) {
 			ValidationProfile customProfile = Profiles.profileFromXml(fis);
-			return ProcessorFactory.fromValues(this.validatorConfig(), featuresConfig, plugConfig, this.fixerConfig(),
+			return ProcessorFactory.fromValues(this.validatorConfig(validationFlavour), featuresConfig, plugConfig, this.fixerConfig(),
 					procType.getTasks(), customProfile, this.saveFolder);
 		} catch (IOException | JAXBException excep) {
 			throw new VeraPDFException("Problem loading custom profile", excep);
@@ -632,6 +928,7 @@ public class VeraCliArgParser {
 		List<String> veraPDFParameters = new ArrayList<>();
 
 		veraPDFParameters.add(SERVER_MODE);
+		veraPDFParameters.add(FRAMED_OUTPUT);
 		if (cliArgParser.extractFeatures()) {
 			veraPDFParameters.add(EXTRACT_FLAG);
 			veraPDFParameters.add(cliArgParser.features.stream().map(FeatureObjectType::toString).collect(Collectors.joining(",")));
@@ -678,6 +975,25 @@ public class VeraCliArgParser {
 			veraPDFParameters.add(POLICY_FILE);
 			veraPDFParameters.add(policyFile.getAbsolutePath());
 		}
+		File resultCacheDir = cliArgParser.getResultCacheDir();
+		if (resultCacheDir != null) {
+			veraPDFParameters.add(RESULT_CACHE);
+			veraPDFParameters.add(resultCacheDir.getAbsolutePath());
+		}
+		if (cliArgParser.isReportMetrics()) {
+			veraPDFParameters.add(REPORT_METRICS);
+		}
+		if (cliArgParser.isMemoryMapped()) {
+			veraPDFParameters.add(MEMORY_MAP);
+		}
+		if (cliArgParser.getTimeout() > 0) {
+			veraPDFParameters.add(TIMEOUT);
+			veraPDFParameters.add(String.valueOf(cliArgParser.timeout));
+		}
+		if (cliArgParser.getCpuTimeout() > 0) {
+			veraPDFParameters.add(CPU_TIMEOUT);
+			veraPDFParameters.add(String.valueOf(cliArgParser.cpuTimeout));
+		}
 		veraPDFParameters.add(FIX_METADATA_PREFIX);
 		veraPDFParameters.add(cliArgParser.prefix());
 		File profileFile = cliArgParser.getProfileFile();
@@ -725,21 +1041,45 @@ public class VeraCliArgParser {
 			LOGGER.log(Level.WARNING, "Password handling for encrypted files is not supported for batch processing.");
 			this.password = null;
 		}
-		if (!getPdfPaths().isEmpty() && FileUtils.hasExtNoCase(getPdfPaths().get(0), GUIConstants.ZIP) && this.password != null) {
-			LOGGER.log(Level.WARNING, "Password handling for encrypted files is not supported for zip processing.");
+		if (!getPdfPaths().isEmpty() && ApplicationUtils.isArchive(getPdfPaths().get(0)) && this.password != null) {
+			LOGGER.log(Level.WARNING, "Password handling for encrypted files is not supported for archive processing.");
 			this.password = null;
 		}
+		if (this.isInProcess && !isMultiprocessing()) {
+			LOGGER.log(Level.WARNING, "Option " + IN_PROCESS + " is ignored unless " + NUMBER_OF_PROCESSES_FLAG + " is greater than 1");
+		}
+		if (this.isInProcess && isMultiprocessing() && (this.timeout > 0 || this.cpuTimeout > 0)) {
+			LOGGER.log(Level.WARNING, "Timeouts stop documents cooperatively with " + IN_PROCESS + ", a document hanging while it's parsed isn't stopped");
+		}
+		if (this.isAdaptive && !isMultiprocessing()) {
+			LOGGER.log(Level.WARNING, "Option " + ADAPTIVE + " is ignored unless " + NUMBER_OF_PROCESSES_FLAG + " is greater than 1");
+		}
+		if (!getRecyclePolicy().isNever() && (!isMultiprocessing() || this.isInProcess)) {
+			LOGGER.log(Level.WARNING, "Worker recycling options are ignored unless " + NUMBER_OF_PROCESSES_FLAG + " starts separate processes");
+		}
+		if (this.isResume && this.checkpointFile == null) {
+			LOGGER.log(Level.WARNING, "Option " + RESUME + " is ignored unless " + CHECKPOINT + " is passed");
+		}
+		if (this.checkpointFile != null && (getPdfPaths().isEmpty() || this.isServerMode)) {
+			LOGGER.log(Level.WARNING, "Option " + CHECKPOINT + " is ignored unless files to process are passed");
+		}
+		if (this.isFramedInput && !getPdfPaths().isEmpty()) {
+			LOGGER.log(Level.WARNING, "Option " + FRAMED_INPUT + " is ignored when files to process are passed");
+		}
+		if (isFramedInput() && this.numberOfProcesses > 1) {
+			LOGGER.log(Level.WARNING, "Option " + FRAMED_INPUT + " validates documents one by one, " + NUMBER_OF_PROCESSES_FLAG + " is ignored");
+		}
 		if (isMultiprocessing() && this.showProgress) {
 			LOGGER.log(Level.WARNING, "Validation progress output is not supported for multiprocessing.");
 		}
 		for (String pdfPath : getPdfPaths()) {
-			if (FileUtils.hasExtNoCase(pdfPath, GUIConstants.ZIP)) {
+			if (ApplicationUtils.isArchive(pdfPath)) {
 				if (this.fixMetadata && saveFolder().isEmpty()) {
-					LOGGER.log(Level.WARNING, "Fixing metadata is not supported for zip processing, if save folder isn't defined");
+					LOGGER.log(Level.WARNING, "Fixing metadata is not supported for archive processing, if save folder isn't defined");
 					this.fixMetadata = false;
 				}
 				if (isMultiprocessing()) {
-					LOGGER.log(Level.WARNING, "Multiprocessing is not supported for zip processing");
+					LOGGER.log(Level.WARNING, "Multiprocessing is not supported for archive processing, use " + ZIP_THREADS + " instead");
 				}
 				break;
 			}
@@ -0,0 +1,88 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.metrics;
+
+import org.verapdf.apps.utils.HeapProbe;
+import org.verapdf.apps.utils.JobMetrics;
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.processor.BatchProcessingHandler;
+import org.verapdf.processor.ProcessorConfig;
+import org.verapdf.processor.ProcessorResult;
+import org.verapdf.processor.reports.BatchSummary;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Collects the metrics of every job of a batch around the handler writing its
+ * report. Batch processors process one job at a time, so a job is timed from
+ * the end of the previous one.
+ */
+public final class MetricsHandler implements BatchProcessingHandler {
+	private final BatchProcessingHandler handler;
+	private final Consumer<JobMetrics> metricsSink;
+	private final HeapProbe heapProbe = new HeapProbe();
+	private long jobStart;
+
+	/**
+	 * @param handler the handler writing the batch report
+	 * @param metricsSink receives the metrics of each job once its report is written
+	 */
+	public MetricsHandler(final BatchProcessingHandler handler, final Consumer<JobMetrics> metricsSink) {
+		this.handler = handler;
+		this.metricsSink = metricsSink;
+		startJob();
+	}
+
+	@Override
+	public void handleBatchStart(final ProcessorConfig processorConfig) throws VeraPDFException {
+		this.handler.handleBatchStart(processorConfig);
+		startJob();
+	}
+
+	@Override
+	public void handleResult(final ProcessorResult result, final Boolean isLogsEnabled) throws VeraPDFException {
+		long reportStart = System.currentTimeMillis();
+		this.handler.handleResult(result, isLogsEnabled);
+		long end = System.currentTimeMillis();
+		JobMetrics metrics = JobMetrics.fromResult(result);
+		metrics.setDuration(JobMetrics.Stage.REPORT, end - reportStart);
+		metrics.setHeapDelta(this.heapProbe.peakDelta());
+		metrics.setTotal(end - this.jobStart);
+		this.metricsSink.accept(metrics);
+		startJob();
+	}
+
+	@Override
+	public void handleBatchEnd(final BatchSummary summary) throws VeraPDFException {
+		this.handler.handleBatchEnd(summary);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.handler.close();
+	}
+
+	private void startJob() {
+		this.jobStart = System.currentTimeMillis();
+		this.heapProbe.start();
+	}
+}
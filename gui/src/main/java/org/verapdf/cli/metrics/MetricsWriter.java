@@ -0,0 +1,89 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.metrics;
+
+import org.verapdf.apps.utils.JobMetrics;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes job metrics to a JSON lines sidecar file, one object per job. Lines
+ * are flushed as they're written, so the metrics of the finished jobs survive
+ * an interrupted batch.
+ */
+public final class MetricsWriter implements Closeable {
+	private static final Logger LOGGER = Logger.getLogger(MetricsWriter.class.getCanonicalName());
+
+	private final Writer writer;
+
+	private MetricsWriter(final Writer writer) {
+		this.writer = writer;
+	}
+
+	/**
+	 * @param file the metrics file, replaced if it exists, null to disable metrics
+	 * @return the writer, or null if file is null or can't be created
+	 */
+	public static MetricsWriter open(final File file) {
+		if (file == null) {
+			return null;
+		}
+		try {
+			return new MetricsWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Can't create metrics file " + file.getAbsolutePath(), e);
+			return null;
+		}
+	}
+
+	public void write(final JobMetrics metrics) {
+		write(metrics.toJson());
+	}
+
+	/**
+	 * @param jsonLine the JSON metrics of a job, as produced by {@link JobMetrics#toJson()}
+	 */
+	public synchronized void write(final String jsonLine) {
+		try {
+			this.writer.write(jsonLine);
+			this.writer.write('\n');
+			this.writer.flush();
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Can't write job metrics", e);
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		try {
+			this.writer.close();
+		} catch (IOException e) {
+			LOGGER.log(Level.FINER, "Can't close metrics file", e);
+		}
+	}
+}
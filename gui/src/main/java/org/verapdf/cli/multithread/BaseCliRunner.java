@@ -20,17 +20,18 @@
  */
 package org.verapdf.cli.multithread;
 
-import org.verapdf.cli.CliConstants;
+import org.verapdf.cli.CliConstants.ExitCodes;
 import org.verapdf.cli.VeraPdfCli;
-import org.verapdf.processor.reports.ResultStructure;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
-import java.util.Scanner;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -39,33 +40,255 @@ import static java.util.stream.Collectors.toList;
 public class BaseCliRunner implements Runnable {
     private static final Logger LOGGER = Logger.getLogger(BaseCliRunner.class.getCanonicalName());
 
+    private static final AtomicBoolean RESIDENT_SIZE_WARNED = new AtomicBoolean();
+
     private final String veraPDFStarterPath;
 
-    private final Queue<File> filesToProcess;
+    private final FileQueue filesToProcess;
     private final List<String> veraPDFParameters;
 
-    private Process process;
+    private final RecyclePolicy recyclePolicy;
+
+    private Child child;
+
+    /**
+     * The replacement of an exhausted child, it starts up while the exhausted
+     * child processes its last document.
+     */
+    private Child replacement;
+
+    private boolean isRecycling;
+
+    private int documents = 0;
+
+    private long bytes = 0;
+
+    private long residentSize = -1;
 
-    private OutputStream out;
+    private ExitCodes framesExitCode = ExitCodes.VALID;
 
-    private Scanner reportScanner;
+    private File currentFile;
+
+    /** The kill of the child if it doesn't report the current file in time */
+    private ScheduledFuture<?> deadline;
+
+    /** Counts the files given deadlines, a kill scheduled for an earlier file is stale */
+    private long deadlineCount = 0;
+
+    private boolean isKilled = false;
+
+    private boolean isClosed = false;
+
+    /** The admission of the file processed and not released yet */
+    private MultiThreadProcessor.Admission admission;
 
     private final MultiThreadProcessor multiThreadProcessor;
 
-    BaseCliRunner(MultiThreadProcessor multiThreadProcessor, String veraPDFStarterPath, List<String> veraPDFParameters, Queue<File> filesToProcess) {
+    BaseCliRunner(MultiThreadProcessor multiThreadProcessor, String veraPDFStarterPath, List<String> veraPDFParameters,
+                  FileQueue filesToProcess, RecyclePolicy recyclePolicy) {
         this.multiThreadProcessor = multiThreadProcessor;
         this.filesToProcess = filesToProcess;
         this.veraPDFStarterPath = veraPDFStarterPath;
         this.veraPDFParameters = veraPDFParameters;
+        this.recyclePolicy = recyclePolicy;
+        this.isRecycling = !recyclePolicy.isNever();
     }
 
     @Override
     public void run() {
+        File firstFile = nextFile();
+        if (firstFile == null) {
+            this.multiThreadProcessor.countDown(framesExitCode);
+            return;
+        }
+        this.child = startChild(firstFile);
+        if (this.child == null) {
+            releaseFile();
+            this.multiThreadProcessor.countDown(ExitCodes.FAILED_MULTIPROCESS_START);
+            return;
+        }
+        this.currentFile = firstFile;
+        armDeadline(firstFile);
+        recycleIfExhausted(firstFile);
+        ReportFrame frame = readFrame();
+        while (frame != null) {
+            multiThreadProcessor.write(this.currentFile, frame);
+            releaseFile();
+            if (frame.getExitCode() != null && frame.getExitCode().value > framesExitCode.value) {
+                framesExitCode = frame.getExitCode();
+            }
+            LOGGER.log(Level.FINE, "Document processed in " + frame.getProcessingTime() + " ms");
+            if (frame.getMetrics() != null) {
+                LOGGER.log(Level.FINER, "Document metrics: " + frame.getMetrics());
+            }
+            this.documents++;
+            this.bytes += this.currentFile.length();
+            this.residentSize = frame.getResidentSize();
+            if (this.residentSize < 0 && this.recyclePolicy.isResidentSizeLimited()
+                    && !RESIDENT_SIZE_WARNED.getAndSet(true)) {
+                LOGGER.log(Level.WARNING, "Worker processes can't report their resident memory on this system, they aren't recycled by it");
+            }
+
+            File file = nextFile();
+
+            if (file != null) {
+                if (this.replacement != null) {
+                    // the exhausted child has finished its last document
+                    switchToReplacement();
+                }
+                validateFile(file);
+                recycleIfExhausted(file);
+            } else {
+                closeProcess();
+            }
+            frame = readFrame();
+        }
+        if (this.isClosed) {
+            return;
+        }
+        // the child died while processing a file
+        LOGGER.log(Level.SEVERE, "Worker process stopped while processing " + this.currentFile);
+        releaseFile();
+        if (this.replacement != null) {
+            this.replacement.process.destroy();
+        }
+        if (framesExitCode.value < ExitCodes.VERAPDF_EXCEPTION.value) {
+            framesExitCode = ExitCodes.VERAPDF_EXCEPTION;
+        }
+        this.multiThreadProcessor.countDown(framesExitCode);
+    }
+
+    /**
+     * Reads the frame of the current file. A child killed for going over the
+     * time limit is replaced by a fresh one, which reports the file as timed
+     * out without processing it.
+     */
+    private ReportFrame readFrame() {
+        ReportFrame frame = this.child.readFrame();
+        if (!disarmDeadline()) {
+            return frame;
+        }
+        if (!replaceKilledChild() || frame != null) {
+            // a child killed right after it reported the file needs no timed out report
+            return frame;
+        }
+        send(VeraPdfCli.TIMED_OUT + this.currentFile.getAbsolutePath());
+        armDeadline(this.currentFile);
+        frame = this.child.readFrame();
+        disarmDeadline();
+        return frame;
+    }
+
+    private boolean replaceKilledChild() {
+        try {
+            this.child.process.waitFor();
+        } catch (InterruptedException e) {
+            LOGGER.log(Level.WARNING, "Interrupted", e);
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        Child fresh = this.replacement != null ? this.replacement : startChild(null);
+        this.replacement = null;
+        ReportFrame readyFrame = fresh == null ? null : fresh.readFrame();
+        if (readyFrame == null) {
+            LOGGER.log(Level.SEVERE, "Can't start a worker process replacing the killed one");
+            if (fresh != null) {
+                fresh.process.destroy();
+            }
+            return false;
+        }
+        this.child = fresh;
+        this.documents = 0;
+        this.bytes = 0;
+        this.residentSize = readyFrame.getResidentSize();
+        return true;
+    }
+
+    /**
+     * Schedules the kill of the child if it doesn't report the file before the
+     * time limit of documents and the grace time to stop on its own are over.
+     */
+    private synchronized void armDeadline(File file) {
+        long count = ++this.deadlineCount;
+        Child watched = this.child;
+        this.deadline = this.multiThreadProcessor.scheduleKill(() -> kill(count, watched, file));
+    }
+
+    /**
+     * @return true if the child was killed before the deadline was disarmed
+     */
+    private synchronized boolean disarmDeadline() {
+        this.deadlineCount++;
+        if (this.deadline != null) {
+            this.deadline.cancel(false);
+            this.deadline = null;
+        }
+        boolean wasKilled = this.isKilled;
+        this.isKilled = false;
+        return wasKilled;
+    }
+
+    private synchronized void kill(long count, Child watched, File file) {
+        if (count != this.deadlineCount) {
+            return;
+        }
+        LOGGER.log(Level.WARNING, "Worker process didn't stop processing " + file + " in time and is killed");
+        this.isKilled = true;
+        watched.process.destroyForcibly();
+    }
+
+    /**
+     * Starts the replacement of the child if the file just passed to it
+     * exhausts it. The replacement starts up while the child processes its
+     * last file.
+     */
+    private void recycleIfExhausted(File passed) {
+        if (!this.isRecycling || this.replacement != null) {
+            return;
+        }
+        if (this.recyclePolicy.isExhausted(this.documents + 1, this.bytes + passed.length(), this.residentSize)) {
+            this.replacement = startChild(null);
+            if (this.replacement == null) {
+                this.isRecycling = false;
+            }
+        }
+    }
+
+    /**
+     * Waits for the replacement to be ready for work, then retires the
+     * exhausted child. The exhausted child keeps working if its replacement
+     * didn't start.
+     */
+    private void switchToReplacement() {
+        Child ready = this.replacement;
+        this.replacement = null;
+        ReportFrame readyFrame = ready.readFrame();
+        if (readyFrame == null) {
+            LOGGER.log(Level.SEVERE, "Replacement process didn't start, the worker process isn't recycled");
+            ready.process.destroy();
+            this.isRecycling = false;
+            return;
+        }
+        LOGGER.log(Level.FINE, "Recycling worker process after " + this.documents + " documents of " + this.bytes
+                + " bytes");
+        ExitCodes exitCode = this.child.close();
+        if (exitCode != null && exitCode.value > framesExitCode.value) {
+            framesExitCode = exitCode;
+        }
+        this.child = ready;
+        this.documents = 0;
+        this.bytes = 0;
+        this.residentSize = readyFrame.getResidentSize();
+    }
+
+    private Child startChild(File firstFile) {
         List<String> command = new LinkedList<>();
 
         command.add(veraPDFStarterPath);
         command.addAll(veraPDFParameters);
-        command.add(filesToProcess.poll().getAbsolutePath());
+        if (firstFile != null) {
+            command.add(firstFile.getAbsolutePath());
+        }
 
         command = command.stream().map(parameter -> {
             if (parameter.isEmpty()) {
@@ -79,58 +302,113 @@ public class BaseCliRunner implements Runnable {
             pb.command(command);
             pb.redirectError(ProcessBuilder.Redirect.INHERIT);
 
-            this.process = pb.start();
-
-            this.out = process.getOutputStream();
-            reportScanner = new Scanner(process.getInputStream());
-
+            return new Child(pb.start());
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Exception in process", e);
-        }
-        while (reportScanner.hasNextLine()) {
-            multiThreadProcessor.write(getData());
-
-            File file = filesToProcess.poll();
-
-            if (file != null) {
-                validateFile(file);
-            } else {
-                closeProcess();
-            }
+            return null;
         }
     }
 
     private boolean closeProcess() {
-        boolean isClosed = false;
-        try {
-            this.out.write(VeraPdfCli.EXIT.getBytes());
-            this.out.write("\n".getBytes());
-            this.out.flush();
-
-            process.waitFor();
-
-            isClosed = true;
-
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Can't close process", e);
-        } catch (InterruptedException e) {
-            LOGGER.log(Level.SEVERE, "Process interrupted exception", e);
+        if (this.replacement != null) {
+            this.replacement.close();
+            this.replacement = null;
         }
-        this.multiThreadProcessor.countDown(CliConstants.ExitCodes.fromValue(process.exitValue()));
+        ExitCodes exitCode = this.child.close();
+        this.isClosed = true;
+        boolean isClosed = exitCode != null;
+        if (exitCode == null || exitCode.value < framesExitCode.value) {
+            exitCode = framesExitCode;
+        }
+        this.multiThreadProcessor.countDown(exitCode);
         return isClosed;
     }
 
     private void validateFile(File file) {
+        this.currentFile = file;
+        send(file.getAbsolutePath());
+        armDeadline(file);
+    }
+
+    private void send(String line) {
         try {
-            this.out.write(file.getAbsolutePath().getBytes());
-            this.out.write("\n".getBytes());
-            this.out.flush();
+            this.child.out.write(line.getBytes());
+            this.child.out.write("\n".getBytes());
+            this.child.out.flush();
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "Can't pass new file to validate", e);
         }
     }
 
-    private ResultStructure getData() {
-        return new ResultStructure(new File(reportScanner.nextLine()));
+    /**
+     * Takes the next file and waits until the concurrency controller and the
+     * memory budget admit it.
+     */
+    private File nextFile() {
+        try {
+            File file = filesToProcess.take();
+            if (file != null) {
+                this.admission = this.multiThreadProcessor.admit(file);
+            }
+            return file;
+        } catch (InterruptedException e) {
+            LOGGER.log(Level.WARNING, "Interrupted", e);
+            framesExitCode = ExitCodes.INTERRUPTED_EXCEPTION;
+            return null;
+        }
+    }
+
+    private void releaseFile() {
+        if (this.admission != null) {
+            this.multiThreadProcessor.release(this.admission);
+            this.admission = null;
+        }
+    }
+
+    /**
+     * A veraPDF process in server mode, fed file paths on its input and
+     * answering with report frames on its output.
+     */
+    private static final class Child {
+        private final Process process;
+
+        private final OutputStream out;
+
+        private final DataInputStream reportStream;
+
+        Child(Process process) {
+            this.process = process;
+            this.out = process.getOutputStream();
+            this.reportStream = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        }
+
+        ReportFrame readFrame() {
+            try {
+                return ReportFrame.readFrom(reportStream);
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Can't read report frame", e);
+                return null;
+            }
+        }
+
+        /**
+         * Asks the process to exit and waits for it.
+         *
+         * @return the exit code of the process, or null if it can't be closed
+         */
+        ExitCodes close() {
+            try {
+                this.out.write(VeraPdfCli.EXIT.getBytes());
+                this.out.write("\n".getBytes());
+                this.out.flush();
+
+                return ExitCodes.fromValue(process.waitFor());
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Can't close process", e);
+            } catch (InterruptedException e) {
+                LOGGER.log(Level.SEVERE, "Process interrupted exception", e);
+            }
+            return null;
+        }
     }
 }
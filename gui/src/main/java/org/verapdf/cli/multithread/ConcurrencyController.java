@@ -0,0 +1,254 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.multithread;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.verapdf.apps.utils.FairAdmission;
+
+/**
+ * Adapts the number of documents processed at once by the workers of a
+ * multiprocess run. Every worker is started, but a worker waits for admission
+ * before it processes a file. The limit on busy workers grows while the CPU
+ * has headroom and every admitted worker is busy, shrinks when the CPU is
+ * oversubscribed and halves when memory runs low. The files admitted at once
+ * must also fit a byte budget derived from the free memory, a file larger than
+ * the budget is processed alone.
+ * <p>
+ * Workers running in this JVM are measured against the heap left after the
+ * last garbage collection, worker processes against the memory available to
+ * the system.
+ */
+final class ConcurrencyController {
+	private static final Logger LOGGER = Logger.getLogger(ConcurrencyController.class.getCanonicalName());
+
+	private static final long SAMPLE_INTERVAL_MILLIS = 1000;
+	/** Memory assumed to be taken by processing each byte of a document */
+	private static final int MEMORY_PER_BYTE = 8;
+	/** Free memory fraction below which the limit halves */
+	private static final double LOW_MEMORY = 0.1;
+	/** CPU load below which the limit grows */
+	private static final double GROW_LOAD = 0.75;
+	/** CPU load above which the limit shrinks, if it exceeds the number of processors */
+	private static final double SHRINK_LOAD = 0.95;
+	private static final Path MEMINFO = Paths.get("/proc/meminfo"); //$NON-NLS-1$
+
+	private final int maxWorkers;
+	private final int processors;
+	private final boolean isInProcess;
+	private final OperatingSystemMXBean system = ManagementFactory.getOperatingSystemMXBean();
+	/** Guards the limit, the admitted files and the byte budget */
+	private final FairAdmission admission = new FairAdmission();
+
+	private int limit;
+	private int active = 0;
+	private long bytesInFlight = 0;
+	private long byteBudget = Long.MAX_VALUE;
+	private volatile boolean isStopped = false;
+
+	/**
+	 * @param maxWorkers the number of workers, the limit never exceeds it
+	 * @param processors the number of processors of the system
+	 * @param isInProcess true if workers process files in this JVM
+	 */
+	ConcurrencyController(final int maxWorkers, final int processors, final boolean isInProcess) {
+		this.maxWorkers = maxWorkers;
+		this.processors = processors;
+		this.isInProcess = isInProcess;
+		this.limit = Math.max(1, Math.min(maxWorkers, processors));
+	}
+
+	/**
+	 * Starts sampling the CPU load and free memory in a daemon thread.
+	 */
+	void start() {
+		Thread sampler = new Thread(() -> {
+			while (!this.isStopped) {
+				sample();
+				try {
+					Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		}, "veraPDF concurrency controller");
+		sampler.setDaemon(true);
+		sampler.start();
+	}
+
+	void stop() {
+		this.isStopped = true;
+	}
+
+	/**
+	 * Waits until a worker may process the passed file. Files are admitted in
+	 * the order they were passed.
+	 *
+	 * @param file the file the worker is about to process
+	 * @return the size the file was admitted with, to be passed to
+	 *         {@link #release(long)} when the worker has finished it
+	 * @throws InterruptedException when interrupted while waiting
+	 */
+	long admit(final File file) throws InterruptedException {
+		long size = file.length();
+		this.admission.admit(() -> canAdmit(size), () -> {
+			this.active++;
+			this.bytesInFlight += size;
+		});
+		return size;
+	}
+
+	/**
+	 * Tells that a worker has finished an admitted file. The size it was
+	 * admitted with is released, the file may have changed size since.
+	 *
+	 * @param size the size returned by {@link #admit(File)}
+	 */
+	void release(final long size) {
+		this.admission.update(() -> {
+			this.active--;
+			this.bytesInFlight -= size;
+		});
+	}
+
+	int getLimit() {
+		return this.admission.read(() -> this.limit).intValue();
+	}
+
+	private boolean canAdmit(final long size) {
+		if (this.active == 0) {
+			return true;
+		}
+		return this.active < this.limit && this.bytesInFlight + size <= this.byteBudget;
+	}
+
+	/**
+	 * Adjusts the limit to a new sample.
+	 *
+	 * @param load the CPU load between 0 and 1, negative if it's unknown
+	 * @param availableMemory the memory left for processing in bytes, negative if it's unknown
+	 * @param totalMemory the memory processing can use at most in bytes
+	 */
+	void adjust(final double load, final long availableMemory, final long totalMemory) {
+		this.admission.update(() -> adjustLocked(load, availableMemory, totalMemory));
+	}
+
+	private void adjustLocked(final double load, final long availableMemory, final long totalMemory) {
+		int previous = this.limit;
+		boolean isMemoryKnown = availableMemory >= 0 && totalMemory > 0;
+		this.byteBudget = isMemoryKnown ? availableMemory / MEMORY_PER_BYTE : Long.MAX_VALUE;
+		if (isMemoryKnown && availableMemory < totalMemory * LOW_MEMORY) {
+			this.limit = Math.max(1, this.limit / 2);
+		} else if (load > SHRINK_LOAD && this.limit > this.processors) {
+			this.limit--;
+		} else if (load < GROW_LOAD && this.active >= this.limit && this.limit < this.maxWorkers) {
+			// an unknown load doesn't stop the limit growing while memory allows it
+			this.limit++;
+		}
+		if (this.limit != previous) {
+			LOGGER.log(Level.FINE, "Concurrency limit changed from " + previous + " to " + this.limit
+					+ ", CPU load " + load + ", available memory " + availableMemory);
+		}
+	}
+
+	private void sample() {
+		long[] memory = this.isInProcess ? heapMemory() : systemMemory();
+		adjust(cpuLoad(), memory[0], memory[1]);
+	}
+
+	private double cpuLoad() {
+		if (this.system instanceof com.sun.management.OperatingSystemMXBean) {
+			double load = ((com.sun.management.OperatingSystemMXBean) this.system).getSystemCpuLoad();
+			if (load >= 0) {
+				return load;
+			}
+		}
+		double loadAverage = this.system.getSystemLoadAverage();
+		return loadAverage < 0 ? -1 : Math.min(loadAverage / this.processors, 1.0);
+	}
+
+	/**
+	 * @return the heap left free after the last garbage collection and the maximal heap size
+	 */
+	private static long[] heapMemory() {
+		long used = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				MemoryUsage usage = pool.getCollectionUsage();
+				used += (usage != null ? usage : pool.getUsage()).getUsed();
+			}
+		}
+		long max = Runtime.getRuntime().maxMemory();
+		return new long[] { Math.max(max - used, 0), max };
+	}
+
+	/**
+	 * @return the memory available to new processes and the physical memory
+	 *         size, -1 if unknown
+	 */
+	private long[] systemMemory() {
+		// MemAvailable counts reclaimable caches as available, unlike the free memory of the MXBean
+		if (Files.isReadable(MEMINFO)) {
+			try {
+				long available = -1;
+				long total = -1;
+				for (String line : Files.readAllLines(MEMINFO, StandardCharsets.US_ASCII)) {
+					if (line.startsWith("MemAvailable:")) { //$NON-NLS-1$
+						available = meminfoBytes(line);
+					} else if (line.startsWith("MemTotal:")) { //$NON-NLS-1$
+						total = meminfoBytes(line);
+					}
+				}
+				if (available >= 0 && total > 0) {
+					return new long[] { available, total };
+				}
+			} catch (IOException | NumberFormatException e) {
+				LOGGER.log(Level.FINE, "Can't read " + MEMINFO, e);
+			}
+		}
+		if (this.system instanceof com.sun.management.OperatingSystemMXBean) {
+			com.sun.management.OperatingSystemMXBean bean = (com.sun.management.OperatingSystemMXBean) this.system;
+			return new long[] { bean.getFreePhysicalMemorySize(), bean.getTotalPhysicalMemorySize() };
+		}
+		return new long[] { -1, -1 };
+	}
+
+	/**
+	 * @param line a line such as "MemTotal:  16314920 kB"
+	 * @return the size in the line in bytes
+	 */
+	private static long meminfoBytes(final String line) {
+		String[] parts = line.substring(line.indexOf(':') + 1).trim().split("\\s+"); //$NON-NLS-1$
+		return Long.parseLong(parts[0]) * 1024;
+	}
+}
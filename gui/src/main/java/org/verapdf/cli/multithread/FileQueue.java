@@ -0,0 +1,100 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.multithread;
+
+import org.verapdf.apps.utils.Prefetcher;
+
+import java.io.File;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Bounded queue of files shared by the multiprocessing workers. Files are
+ * added while discovery is still running, so a worker waits for the next file
+ * until discovery is {@link #complete() complete}. Files may be read ahead of
+ * the workers by a {@link Prefetcher}.
+ */
+final class FileQueue {
+	private static final int CAPACITY = 10_000;
+	private static final File END_OF_FILES = new File("");
+
+	private final BlockingQueue<File> files = new LinkedBlockingQueue<>(CAPACITY);
+	private final Prefetcher prefetcher;
+
+	/**
+	 * @param prefetcher reads the queued files ahead of the workers, null not
+	 *            to read ahead
+	 */
+	FileQueue(final Prefetcher prefetcher) {
+		this.prefetcher = prefetcher;
+	}
+
+	/**
+	 * Adds a file, waiting for space if the queue is full. Interrupts are
+	 * deferred until the file has been added.
+	 *
+	 * @param file the file to process
+	 */
+	void add(final File file) {
+		if (this.prefetcher != null && file != END_OF_FILES) {
+			// offered first, the file may be taken as soon as it's queued
+			this.prefetcher.offer(file);
+		}
+		boolean isInterrupted = false;
+		while (true) {
+			try {
+				this.files.put(file);
+				break;
+			} catch (InterruptedException e) {
+				isInterrupted = true;
+			}
+		}
+		if (isInterrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Marks the end of discovery, no files can be added afterwards.
+	 */
+	void complete() {
+		add(END_OF_FILES);
+	}
+
+	/**
+	 * Takes the next file, waiting until one is added or discovery completes.
+	 *
+	 * @return the next file to process, or null if all files have been taken
+	 * @throws InterruptedException when interrupted while waiting
+	 */
+	File take() throws InterruptedException {
+		File file = this.files.take();
+		if (file == END_OF_FILES) {
+			// leave the marker for the other workers
+			this.files.put(END_OF_FILES);
+			return null;
+		}
+		if (this.prefetcher != null) {
+			this.prefetcher.taken();
+		}
+		return file;
+	}
+}
@@ -0,0 +1,178 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.multithread;
+
+import org.verapdf.apps.utils.ArchiveBatchProcessor;
+import org.verapdf.apps.utils.JobMetrics;
+import org.verapdf.apps.utils.JobPolicyChecker;
+import org.verapdf.apps.utils.TimeoutHandler;
+import org.verapdf.cli.CliConstants;
+import org.verapdf.cli.CliConstants.ExitCodes;
+import org.verapdf.cli.cache.ResultCache;
+import org.verapdf.cli.metrics.MetricsHandler;
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.processor.BatchProcessingHandler;
+import org.verapdf.processor.BatchProcessor;
+import org.verapdf.processor.FormatOption;
+import org.verapdf.processor.ProcessorConfig;
+import org.verapdf.processor.ProcessorFactory;
+import org.verapdf.processor.reports.BatchSummary;
+
+import java.io.*;
+import java.util.Collections;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Validates files from the shared queue inside the current JVM, producing the
+ * same per document reports as a server mode veraPDF process would.
+ */
+public class InProcessRunner implements Runnable {
+    private static final Logger LOGGER = Logger.getLogger(InProcessRunner.class.getCanonicalName());
+
+    private final MultiThreadProcessor multiThreadProcessor;
+    private final ProcessorConfig processorConfig;
+    private final FormatOption format;
+    private final boolean isVerbose;
+    private final String wikiPath;
+    private final JobPolicyChecker policyChecker;
+    private final ResultCache resultCache;
+    private final FileQueue filesToProcess;
+    private final boolean isReportMetrics;
+    private final boolean isCollectingMetrics;
+    private final boolean isMemoryMapped;
+    private JobMetrics jobMetrics;
+
+    InProcessRunner(MultiThreadProcessor multiThreadProcessor, ProcessorConfig processorConfig, FormatOption format,
+                    boolean isVerbose, String wikiPath, JobPolicyChecker policyChecker, ResultCache resultCache,
+                    FileQueue filesToProcess, boolean isReportMetrics, boolean isMemoryMapped) {
+        this.multiThreadProcessor = multiThreadProcessor;
+        this.processorConfig = processorConfig;
+        this.format = format;
+        this.isVerbose = isVerbose;
+        this.wikiPath = wikiPath;
+        this.policyChecker = policyChecker;
+        this.resultCache = resultCache;
+        this.filesToProcess = filesToProcess;
+        this.isReportMetrics = isReportMetrics;
+        this.isCollectingMetrics = isReportMetrics || multiThreadProcessor.isCollectingMetrics();
+        this.isMemoryMapped = isMemoryMapped;
+    }
+
+    @Override
+    public void run() {
+        ExitCodes retVal = ExitCodes.VALID;
+        try (BatchProcessor processor = ArchiveBatchProcessor.create(this.processorConfig, this.isMemoryMapped, 1)) {
+            File file = filesToProcess.take();
+            while (file != null) {
+                MultiThreadProcessor.Admission admission = this.multiThreadProcessor.admit(file);
+                ExitCodes exitCode;
+                try {
+                    exitCode = validateFile(processor, file);
+                } finally {
+                    this.multiThreadProcessor.release(admission);
+                }
+                if (exitCode.value > retVal.value) {
+                    retVal = exitCode;
+                }
+                file = filesToProcess.take();
+            }
+        } catch (InterruptedException e) {
+            LOGGER.log(Level.WARNING, "Interrupted", e);
+            retVal = ExitCodes.INTERRUPTED_EXCEPTION;
+        } catch (IOException e) {
+            LOGGER.log(Level.FINER, CliConstants.EXCEP_PROCESSOR_CLOSE, e);
+        } catch (OutOfMemoryError e) {
+            LOGGER.log(Level.SEVERE, "The JVM appears to have run out of memory", e);
+            retVal = ExitCodes.OOM;
+        } finally {
+            this.multiThreadProcessor.countDown(retVal);
+        }
+    }
+
+    private ExitCodes validateFile(BatchProcessor processor, File file) {
+        long start = System.currentTimeMillis();
+        ByteArrayOutputStream reportStream = new ByteArrayOutputStream();
+        ExitCodes exitCode;
+        this.jobMetrics = null;
+        try {
+            if (this.policyChecker != null) {
+                exitCode = validateWithPolicy(processor, file, reportStream);
+            } else {
+                exitCode = validate(processor, file, reportStream);
+            }
+        } catch (VeraPDFException e) {
+            LOGGER.log(Level.SEVERE, CliConstants.EXCEP_VERA_BATCH, e);
+            exitCode = ExitCodes.VERAPDF_EXCEPTION;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, CliConstants.EXCEP_REPORT_CLOSE, e);
+            exitCode = ExitCodes.IO_EXCEPTION;
+        }
+        byte[] report = reportStream.toByteArray();
+        String metrics = null;
+        // documents with cached reports aren't processed and have no metrics
+        if (this.jobMetrics != null) {
+            this.jobMetrics.setTotal(System.currentTimeMillis() - start);
+            if (this.isReportMetrics && this.format == FormatOption.XML) {
+                report = this.jobMetrics.addTo(report);
+            }
+            metrics = this.jobMetrics.toJson();
+        }
+        this.multiThreadProcessor.write(file, new ReportFrame(report, exitCode, System.currentTimeMillis() - start,
+                                                              metrics));
+        return exitCode;
+    }
+
+    private ExitCodes validate(BatchProcessor processor, File file, OutputStream reportStream)
+            throws VeraPDFException, IOException {
+        if (this.resultCache == null) {
+            return validateUncached(processor, file, reportStream);
+        }
+        return this.resultCache.writeReport(file, this.format, reportStream,
+                os -> validateUncached(processor, file, os));
+    }
+
+    private ExitCodes validateUncached(BatchProcessor processor, File file, OutputStream reportStream)
+            throws VeraPDFException, IOException {
+        BatchProcessingHandler handler = ProcessorFactory.getHandler(this.format, this.isVerbose, reportStream,
+                this.processorConfig.getValidatorConfig().isRecordPasses(), this.wikiPath);
+        if (this.isCollectingMetrics) {
+            handler = new MetricsHandler(handler, metrics -> this.jobMetrics = metrics);
+        }
+        TimeoutHandler timeouts = new TimeoutHandler(handler);
+        BatchSummary summary = processor.process(Collections.singletonList(file), timeouts);
+        reportStream.flush();
+        // timed out documents have partial results
+        return timeouts.isTimedOut() ? ExitCodes.TIMEOUT : ExitCodes.fromSummary(summary);
+    }
+
+    private ExitCodes validateWithPolicy(BatchProcessor processor, File file, OutputStream reportStream)
+            throws VeraPDFException, IOException {
+        ByteArrayOutputStream mrrReport = new ByteArrayOutputStream();
+        ExitCodes exitCode = validate(processor, file, mrrReport);
+        long policyStart = System.currentTimeMillis();
+        reportStream.write(this.policyChecker.apply(mrrReport.toByteArray()));
+        if (this.jobMetrics != null) {
+            this.jobMetrics.setDuration(JobMetrics.Stage.POLICY, System.currentTimeMillis() - policyStart);
+        }
+        return exitCode;
+    }
+}
@@ -21,21 +21,27 @@
 package org.verapdf.cli.multithread;
 
 import org.verapdf.apps.Applications;
-import org.verapdf.apps.utils.ApplicationUtils;
+import org.verapdf.apps.utils.IoThreads;
+import org.verapdf.apps.utils.JobPolicyChecker;
+import org.verapdf.apps.utils.MemoryBudget;
+import org.verapdf.apps.utils.PdfFileWalker;
+import org.verapdf.apps.utils.Prefetcher;
+import org.verapdf.apps.utils.ReportMerger;
 import org.verapdf.cli.CliConstants.ExitCodes;
+import org.verapdf.cli.cache.ResultCache;
+import org.verapdf.cli.checkpoint.CheckpointJournal;
 import org.verapdf.cli.commands.VeraCliArgParser;
-import org.verapdf.processor.FormatOption;
-import org.verapdf.processor.reports.ResultStructure;
-import org.verapdf.processor.reports.multithread.MultiThreadProcessingHandler;
-import org.verapdf.processor.reports.multithread.MultiThreadProcessingHandlerImpl;
-import org.verapdf.processor.reports.multithread.writer.ReportWriter;
-import org.verapdf.report.HTMLReport;
-
-import javax.xml.transform.TransformerException;
-import java.io.*;
+import org.verapdf.cli.metrics.MetricsWriter;
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.processor.ProcessorConfig;
+import org.verapdf.processor.app.ConfigManager;
+import org.verapdf.processor.app.VeraAppConfig;
+
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Queue;
 import java.util.concurrent.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -43,60 +49,113 @@ import java.util.logging.Logger;
 public class MultiThreadProcessor {
 	private static final Logger LOGGER = Logger.getLogger(MultiThreadProcessor.class.getCanonicalName());
 
-	private static final int DEFAULT_BUFFER_SIZE = 512;
-	private static final int COEFFICIENT_BUFFER_SIZE = 1024;
-
-	private final Queue<File> filesToProcess;
+	/** Least time a worker process is given to stop a timed out document on its own before it's killed */
+	private static final long MIN_KILL_GRACE = 5000;
 
-	private int filesQuantity;
+	private final Prefetcher prefetcher;
+	private final FileQueue filesToProcess;
+	private final List<File> pathsToProcess;
+	private final boolean isRecurse;
+	private final boolean nonPdfExt;
+	private final ProcessingOrder processingOrder;
 
 	private final File veraPDFStarterPath;
 	private final List<String> veraPDFParameters;
-	private OutputStream os;
-	private final OutputStream errorStream;
-
-	private final ReportWriter reportWriter;
-	private final MultiThreadProcessingHandler processingHandler;
+	private final boolean isInProcess;
+	private ProcessorConfig processorConfig;
+	private VeraAppConfig appConfig;
+	private final File policyFile;
+	private JobPolicyChecker policyChecker;
+	private ResultCache resultCache;
+	private final MetricsWriter metricsWriter;
+	private final boolean isReportMetrics;
+	private final boolean isMemoryMapped;
+	private final CheckpointJournal journal;
+	private final RecyclePolicy recyclePolicy;
+	private final boolean isAdaptive;
+	private ConcurrencyController controller;
+	private final MemoryBudget memoryBudget;
+	private final long killDelay;
+	private ScheduledExecutorService killTimer;
 
-	private boolean isFirstReport = true;
-	private boolean isHTMLReport;
-	private File xmlReport;
-	private final String wikiPath;
+	private final ReportMerger reportMerger;
 
 	private ExitCodes currentExitCode = ExitCodes.VALID;
 	private CountDownLatch latch;
 
-	private MultiThreadProcessor(VeraCliArgParser cliArgParser) {
-		this.isHTMLReport = cliArgParser.getFormat() == FormatOption.HTML;
-		if (isHTMLReport) {
-			try {
-				this.xmlReport = File.createTempFile("veraPDF", "report.xml");
-				this.os = new BufferedOutputStream(new FileOutputStream(xmlReport), DEFAULT_BUFFER_SIZE * COEFFICIENT_BUFFER_SIZE);
-			} catch (IOException e) {
-				isHTMLReport = false;
-				LOGGER.log(Level.WARNING, "Problem with generating html report");
-			}
-		}
-		if (!isHTMLReport) {
-			this.os = new BufferedOutputStream(System.out, DEFAULT_BUFFER_SIZE * COEFFICIENT_BUFFER_SIZE);
-		}
+	private MultiThreadProcessor(VeraCliArgParser cliArgParser, ConfigManager configManager) {
+		this.reportMerger = new ReportMerger(System.out, cliArgParser.getFormat(), cliArgParser.getProfilesWikiPath());
+		this.prefetcher = Prefetcher.create(cliArgParser.getPrefetch());
+		this.filesToProcess = new FileQueue(this.prefetcher);
 
-		this.wikiPath = cliArgParser.getProfilesWikiPath();
-		this.errorStream = new BufferedOutputStream(System.err, DEFAULT_BUFFER_SIZE);
+		this.isInProcess = cliArgParser.isInProcess();
+		this.policyFile = cliArgParser.getPolicyFile();
+		if (this.isInProcess) {
+			this.veraPDFStarterPath = null;
+			this.veraPDFParameters = null;
+			createProcessorConfig(cliArgParser, configManager);
+		} else {
+			this.veraPDFStarterPath = getVeraPdfStarterFile(cliArgParser);
+			this.veraPDFParameters = VeraCliArgParser.getBaseVeraPDFParameters(cliArgParser);
+		}
+		this.pathsToProcess = new ArrayList<>(cliArgParser.getPdfPaths().size());
+		cliArgParser.getPdfPaths().forEach(path -> this.pathsToProcess.add(new File(path)));
+		this.isRecurse = cliArgParser.isRecurse();
+		this.nonPdfExt = cliArgParser.nonPdfExt();
+		this.processingOrder = cliArgParser.getProcessingOrder();
+		this.isReportMetrics = cliArgParser.isReportMetrics();
+		this.isMemoryMapped = cliArgParser.isMemoryMapped();
+		this.recyclePolicy = cliArgParser.getRecyclePolicy();
+		this.isAdaptive = cliArgParser.isAdaptive();
+		this.memoryBudget = MemoryBudget.create(cliArgParser.getMemoryBudget(), this.isInProcess);
+		this.killDelay = this.isInProcess ? 0 : killDelay(cliArgParser.getTimeout(), cliArgParser.getCpuTimeout());
+		this.metricsWriter = MetricsWriter.open(cliArgParser.getMetricsFile());
+		this.journal = openJournal(cliArgParser, configManager);
+	}
 
-		this.veraPDFStarterPath = getVeraPdfStarterFile(cliArgParser);
-		this.veraPDFParameters = VeraCliArgParser.getBaseVeraPDFParameters(cliArgParser);
-		this.filesToProcess = new ConcurrentLinkedQueue<>();
-		this.filesToProcess.addAll(getFiles(cliArgParser.getPdfPaths(), cliArgParser.isRecurse(), cliArgParser.nonPdfExt()));
-		this.filesQuantity = filesToProcess.size();
+	/**
+	 * Opens the checkpoint journal of the run. Worker processes are started
+	 * with the same arguments, so the settings their reports are produced with
+	 * are read from them when no in-process configuration was created.
+	 */
+	private CheckpointJournal openJournal(VeraCliArgParser cliArgParser, ConfigManager configManager) {
+		if (cliArgParser.getCheckpointFile() == null || this.currentExitCode != ExitCodes.VALID) {
+			return null;
+		}
+		byte[] fingerprint;
+		try {
+			VeraAppConfig runConfig = this.appConfig != null ? this.appConfig
+					: cliArgParser.appConfig(configManager.getApplicationConfig());
+			ProcessorConfig runProcessorConfig = this.processorConfig != null ? this.processorConfig
+					: cliArgParser.processorConfig(runConfig.getProcessType(),
+					                               configManager.getPluginsCollectionConfig());
+			fingerprint = CheckpointJournal.fingerprint(runProcessorConfig, runConfig, this.policyFile,
+			                                            this.isReportMetrics);
+		} catch (VeraPDFException | IOException e) {
+			LOGGER.log(Level.WARNING, "Can't fingerprint the run settings, checkpoints are disabled", e);
+			return null;
+		}
+		return CheckpointJournal.open(cliArgParser.getCheckpointFile(), cliArgParser.isResume(),
+		                              cliArgParser.getFormat(), fingerprint);
+	}
 
-		FormatOption outputFormat = getOutputFormat(cliArgParser.getFormat().getOption());
-		this.reportWriter = ReportWriter.newInstance(os, outputFormat, errorStream);
-		this.processingHandler = new MultiThreadProcessingHandlerImpl(reportWriter);
+	/**
+	 * The time after which a worker process still on a document is killed. A
+	 * document that hasn't used up its CPU time limit in twice that wall clock
+	 * time is waiting rather than computing, so it's killed then when only the
+	 * CPU time is limited.
+	 *
+	 * @return the kill delay in milliseconds, 0 if documents have no time limit
+	 */
+	static long killDelay(long timeout, long cpuTimeout) {
+		long cpuDeadline = cpuTimeout > 0 ? 2 * cpuTimeout : 0;
+		long deadline = timeout <= 0 ? cpuDeadline : cpuDeadline <= 0 ? timeout : Math.min(timeout, cpuDeadline);
+		return deadline > 0 ? deadline + Math.max(MIN_KILL_GRACE, deadline / 2) : 0;
 	}
 
-	public static ExitCodes process(VeraCliArgParser cliArgParser) throws InterruptedException {
-		MultiThreadProcessor processor = new MultiThreadProcessor(cliArgParser);
+	public static ExitCodes process(VeraCliArgParser cliArgParser, ConfigManager configManager)
+			throws InterruptedException {
+		MultiThreadProcessor processor = new MultiThreadProcessor(cliArgParser, configManager);
 		if (processor.currentExitCode != ExitCodes.VALID) {
 			return processor.currentExitCode;
 		}
@@ -119,63 +178,209 @@ public class MultiThreadProcessor {
 		return veraPDFPath;
 	}
 
-	private FormatOption getOutputFormat(String outputFormat) {
-		FormatOption formatOption = FormatOption.fromOption(outputFormat);
-		if (formatOption == FormatOption.HTML) {
-			return FormatOption.XML;
+	private void createProcessorConfig(VeraCliArgParser cliArgParser, ConfigManager configManager) {
+		try {
+			this.appConfig = cliArgParser.appConfig(configManager.getApplicationConfig());
+			this.processorConfig = cliArgParser.processorConfig(this.appConfig.getProcessType(),
+			                                                    configManager.getPluginsCollectionConfig());
+			this.resultCache = ResultCache.open(cliArgParser.getResultCacheDir(), this.processorConfig,
+			                                    this.appConfig.isVerbose(), this.appConfig.getWikiPath());
+		} catch (VeraPDFException e) {
+			LOGGER.log(Level.SEVERE, "Can't create processor configuration", e);
+			this.currentExitCode = ExitCodes.VERAPDF_EXCEPTION;
+			return;
+		}
+		if (this.policyFile != null) {
+			try {
+				this.policyChecker = JobPolicyChecker.compile(this.policyFile, configManager.getConfigDir());
+			} catch (VeraPDFException e) {
+				LOGGER.log(Level.SEVERE, "Can't compile policy file", e);
+				this.currentExitCode = ExitCodes.VERAPDF_EXCEPTION;
+			}
 		}
-		return formatOption;
 	}
 
-	public synchronized void write(ResultStructure result) {
-		if (isFirstReport) {
-			processingHandler.startReport();
-			processingHandler.fillReport(result);
-			isFirstReport = false;
-		} else {
-			processingHandler.fillReport(result);
+	public void write(File file, ReportFrame frame) {
+		this.reportMerger.write(frame.getReport());
+		if (this.metricsWriter != null && frame.getMetrics() != null) {
+			this.metricsWriter.write(frame.getMetrics());
 		}
+		if (this.journal != null) {
+			this.journal.append(file, frame);
+		}
+	}
 
-		this.filesQuantity--;
-
-		if (filesQuantity == 0) {
-			processingHandler.endReport();
-			if (isHTMLReport) {
-				this.os = new BufferedOutputStream(System.out, DEFAULT_BUFFER_SIZE * COEFFICIENT_BUFFER_SIZE);
-				try (InputStream inputStream = new FileInputStream(xmlReport)) {
-					HTMLReport.writeHTMLReport(inputStream, os, true, wikiPath, true);
-				} catch (IOException | TransformerException e) {
-					LOGGER.log(Level.WARNING, "Problem with generating html report");
-				}
+	/**
+	 * Waits until the adaptive concurrency limit lets a worker process the
+	 * passed file and its estimated memory fits the memory budget, every file
+	 * admitted must be {@link #release(Admission) released}.
+	 *
+	 * @return the admission of the file
+	 */
+	Admission admit(File file) throws InterruptedException {
+		long size = this.controller != null ? this.controller.admit(file) : 0;
+		if (this.memoryBudget == null) {
+			return new Admission(size, 0);
+		}
+		try {
+			return new Admission(size, this.memoryBudget.reserve(MemoryBudget.estimate(file)));
+		} catch (InterruptedException e) {
+			if (this.controller != null) {
+				this.controller.release(size);
 			}
+			throw e;
+		}
+	}
+
+	void release(Admission admission) {
+		if (this.memoryBudget != null) {
+			this.memoryBudget.release(admission.reservation);
+		}
+		if (this.controller != null) {
+			this.controller.release(admission.size);
+		}
+	}
+
+	/**
+	 * What a file was admitted with, released as is when the file is finished
+	 * whatever happened to the file in between.
+	 */
+	static final class Admission {
+		/** The size the concurrency controller admitted the file with */
+		private final long size;
+		/** The memory reserved for the file */
+		private final long reservation;
+
+		Admission(long size, long reservation) {
+			this.size = size;
+			this.reservation = reservation;
 		}
 	}
 
-	private List<File> getFiles(List<String> pdfPaths, boolean isRecurse, boolean nonPdfExt) {
-		List<File> toFilter = new ArrayList<>(pdfPaths.size());
-		pdfPaths.forEach(path -> toFilter.add(new File(path)));
+	/**
+	 * Schedules the kill of a worker process that doesn't report its document
+	 * in time.
+	 *
+	 * @return the scheduled kill, or null if documents have no time limit
+	 */
+	ScheduledFuture<?> scheduleKill(Runnable kill) {
+		if (this.killTimer == null) {
+			return null;
+		}
+		return this.killTimer.schedule(kill, this.killDelay, TimeUnit.MILLISECONDS);
+	}
 
-		return ApplicationUtils.filterPdfFiles(toFilter, isRecurse, nonPdfExt);
+	boolean isCollectingMetrics() {
+		return this.metricsWriter != null;
+	}
+
+	private void discoverFiles() {
+		try {
+			if (this.processingOrder == ProcessingOrder.DISCOVERY) {
+				PdfFileWalker.walk(this.pathsToProcess, this.isRecurse, this.nonPdfExt, this::queue);
+			} else {
+				// ordering needs every file, so collect them all before handing any out
+				List<File> files = Collections.synchronizedList(new ArrayList<>());
+				PdfFileWalker.walk(this.pathsToProcess, this.isRecurse, this.nonPdfExt, files::add);
+				this.processingOrder.order(files).forEach(this::queue);
+			}
+		} finally {
+			this.filesToProcess.complete();
+		}
+	}
+
+	/**
+	 * Queues a file, or writes its report if the resumed run completed it.
+	 */
+	private void queue(File file) {
+		if (this.journal != null) {
+			try {
+				ReportFrame frame = this.journal.completedReport(file);
+				if (frame != null) {
+					this.reportMerger.write(frame.getReport());
+					raiseExitCode(frame.getExitCode());
+					return;
+				}
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, "Can't read checkpoint of " + file.getAbsolutePath() + ", processing it again", e);
+			}
+		}
+		this.filesToProcess.add(file);
 	}
 
 	private ExitCodes startProcesses(int numberOfProcesses) throws InterruptedException {
-		int processesQuantity = Math.min(numberOfProcesses, filesToProcess.size());
-		latch = new CountDownLatch(processesQuantity);
-		ExecutorService executor = Executors.newFixedThreadPool(processesQuantity);
-		for (int i = 0; i < processesQuantity; i++) {
-			BaseCliRunner veraPDFRunner = new BaseCliRunner(this, veraPDFStarterPath.getAbsolutePath(), veraPDFParameters, filesToProcess);
-			executor.submit(veraPDFRunner);
+		if (this.isAdaptive) {
+			this.controller = new ConcurrencyController(numberOfProcesses, Runtime.getRuntime().availableProcessors(),
+			                                            this.isInProcess);
+			this.controller.start();
+		}
+		if (this.killDelay > 0) {
+			ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+				Thread thread = new Thread(runnable, "veraPDF worker watchdog");
+				thread.setDaemon(true);
+				return thread;
+			});
+			// deadlines are cancelled as documents are reported, don't keep them until they're due
+			timer.setRemoveOnCancelPolicy(true);
+			this.killTimer = timer;
+		}
+		latch = new CountDownLatch(numberOfProcesses);
+		IoThreads.start("veraPDF file discovery", this::discoverFiles);
+		// runners of worker processes only wait on pipes, validation runs in the processes
+		ExecutorService executor = this.isInProcess ? Executors.newFixedThreadPool(numberOfProcesses)
+				: Executors.newFixedThreadPool(numberOfProcesses, IoThreads.factory("veraPDF worker process"));
+		for (int i = 0; i < numberOfProcesses; i++) {
+			executor.submit(createRunner());
 		}
 		latch.await();
+		executor.shutdown();
+		if (this.killTimer != null) {
+			this.killTimer.shutdownNow();
+		}
+		if (this.controller != null) {
+			this.controller.stop();
+		}
+		if (this.prefetcher != null) {
+			this.prefetcher.close();
+		}
+		this.reportMerger.endReport();
+		if (this.metricsWriter != null) {
+			this.metricsWriter.close();
+		}
+		closeJournal();
 		return this.currentExitCode;
 	}
 
-	public void countDown(ExitCodes exitCode) {
-		if (exitCode != null && exitCode.value > this.currentExitCode.value) {
-			this.currentExitCode = exitCode;
+	private void closeJournal() {
+		if (this.journal != null) {
+			try {
+				this.journal.close();
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, "Can't close checkpoint journal", e);
+			}
+		}
+	}
+
+	private Runnable createRunner() {
+		if (this.isInProcess) {
+			return new InProcessRunner(this, this.processorConfig, ReportMerger.documentFormat(this.appConfig.getFormat()),
+			                           this.appConfig.isVerbose(), this.appConfig.getWikiPath(), this.policyChecker,
+			                           this.resultCache, filesToProcess, this.isReportMetrics, this.isMemoryMapped);
 		}
+		return new BaseCliRunner(this, veraPDFStarterPath.getAbsolutePath(), veraPDFParameters, filesToProcess,
+		                         this.recyclePolicy);
+	}
+
+	public synchronized void countDown(ExitCodes exitCode) {
+		raiseExitCode(exitCode);
 		if (this.latch != null) {
 			this.latch.countDown();
 		}
 	}
+
+	private synchronized void raiseExitCode(ExitCodes exitCode) {
+		if (exitCode != null && exitCode.value > this.currentExitCode.value) {
+			this.currentExitCode = exitCode;
+		}
+	}
 }
@@ -0,0 +1,87 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.multithread;
+
+import java.io.File;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The order in which files are handed out to the workers of a multiprocess run.
+ * Workers always take the next file from a shared queue when they become idle,
+ * so ordering the queue is what balances the work between them.
+ */
+public enum ProcessingOrder {
+	/** Files are processed in the order they are found on disk */
+	DISCOVERY("discovery"),
+	/** Largest files are processed first so that no big file is left for the end of the batch */
+	SIZE("size");
+
+	private final String option;
+
+	ProcessingOrder(final String option) {
+		this.option = option;
+	}
+
+	public String getOption() {
+		return this.option;
+	}
+
+	/**
+	 * Orders the passed files for processing.
+	 *
+	 * @param files the files to order, in discovery order
+	 * @return the files in the order they should be processed
+	 */
+	public List<File> order(final List<File> files) {
+		if (this != SIZE) {
+			return files;
+		}
+		// File.length() hits the file system, so read every size once before sorting
+		List<Map.Entry<File, Long>> sizedFiles = new ArrayList<>(files.size());
+		for (File file : files) {
+			sizedFiles.add(new AbstractMap.SimpleImmutableEntry<>(file, file.length()));
+		}
+		sizedFiles.sort(Map.Entry.<File, Long>comparingByValue().reversed());
+		List<File> retVal = new ArrayList<>(sizedFiles.size());
+		for (Map.Entry<File, Long> sizedFile : sizedFiles) {
+			retVal.add(sizedFile.getKey());
+		}
+		return retVal;
+	}
+
+	public static ProcessingOrder fromOption(final String option) {
+		for (ProcessingOrder order : values()) {
+			if (order.getOption().equalsIgnoreCase(option)) {
+				return order;
+			}
+		}
+		throw new NoSuchElementException("No ProcessingOrder with option: " + option);
+	}
+
+	@Override
+	public String toString() {
+		return this.option;
+	}
+}
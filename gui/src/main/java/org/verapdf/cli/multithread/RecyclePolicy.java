@@ -0,0 +1,78 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.multithread;
+
+/**
+ * Decides when a veraPDF child process of a multiprocess run is replaced by a
+ * fresh one. Heap fragmentation and caches left behind by documents build up
+ * over a long batch, restarting the child gives them back to the system.
+ * <p>
+ * A limit of 0 or less is disabled, a policy with every limit disabled never
+ * recycles.
+ */
+public final class RecyclePolicy {
+	/** The policy of runs that never recycle their child processes */
+	public static final RecyclePolicy NEVER = new RecyclePolicy(0, 0, 0);
+
+	private final int maxDocuments;
+	private final long maxBytes;
+	private final long maxResidentSize;
+
+	/**
+	 * @param maxDocuments the number of documents after which a child is replaced
+	 * @param maxBytes the number of bytes of documents after which a child is replaced
+	 * @param maxResidentSize the resident set size in bytes above which a child is replaced
+	 */
+	public RecyclePolicy(final int maxDocuments, final long maxBytes, final long maxResidentSize) {
+		this.maxDocuments = maxDocuments;
+		this.maxBytes = maxBytes;
+		this.maxResidentSize = maxResidentSize;
+	}
+
+	/**
+	 * @return true if child processes are never recycled
+	 */
+	public boolean isNever() {
+		return this.maxDocuments <= 0 && this.maxBytes <= 0 && this.maxResidentSize <= 0;
+	}
+
+	/**
+	 * @return true if the policy needs the resident set size children report
+	 */
+	public boolean isResidentSizeLimited() {
+		return this.maxResidentSize > 0;
+	}
+
+	/**
+	 * Checks whether a child has done enough work to be replaced.
+	 *
+	 * @param documents the number of documents the child has processed
+	 * @param bytes the size of the documents the child has processed
+	 * @param residentSize the resident set size the child reported with its
+	 *            last report, negative if unknown
+	 * @return true if the child should be replaced
+	 */
+	public boolean isExhausted(final int documents, final long bytes, final long residentSize) {
+		return (this.maxDocuments > 0 && documents >= this.maxDocuments)
+				|| (this.maxBytes > 0 && bytes >= this.maxBytes)
+				|| (this.maxResidentSize > 0 && residentSize >= this.maxResidentSize);
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.multithread;
+
+import org.verapdf.cli.CliConstants.ExitCodes;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * A single document report passed from a server mode veraPDF process to its
+ * parent. On the wire a frame is the report length as an int, the report
+ * bytes, the exit code as an int, the processing time in milliseconds as a
+ * long, the JSON metrics of the job as a modified UTF-8 string, empty when
+ * there are none, and the resident set size of the process in bytes as a long,
+ * negative when it's unknown.
+ */
+public final class ReportFrame {
+	private final byte[] report;
+	private final ExitCodes exitCode;
+	private final long processingTime;
+	private final String metrics;
+	private final long residentSize;
+
+	public ReportFrame(final byte[] report, final ExitCodes exitCode, final long processingTime) {
+		this(report, exitCode, processingTime, null);
+	}
+
+	public ReportFrame(final byte[] report, final ExitCodes exitCode, final long processingTime,
+			final String metrics) {
+		this(report, exitCode, processingTime, metrics, -1);
+	}
+
+	public ReportFrame(final byte[] report, final ExitCodes exitCode, final long processingTime,
+			final String metrics, final long residentSize) {
+		this.report = report;
+		this.exitCode = exitCode;
+		this.processingTime = processingTime;
+		this.metrics = metrics;
+		this.residentSize = residentSize;
+	}
+
+	/**
+	 * @return the bytes of the document report
+	 */
+	public byte[] getReport() {
+		return this.report;
+	}
+
+	/**
+	 * @return the exit code of the document processing
+	 */
+	public ExitCodes getExitCode() {
+		return this.exitCode;
+	}
+
+	/**
+	 * @return the time taken to process the document in milliseconds
+	 */
+	public long getProcessingTime() {
+		return this.processingTime;
+	}
+
+	/**
+	 * @return the job metrics as a JSON line, null if they weren't collected
+	 */
+	public String getMetrics() {
+		return this.metrics;
+	}
+
+	/**
+	 * @return the resident set size of the process that wrote the frame in
+	 *         bytes, negative if it's unknown
+	 */
+	public long getResidentSize() {
+		return this.residentSize;
+	}
+
+	/**
+	 * Writes the frame to the passed stream and flushes it.
+	 *
+	 * @param out the stream to write the frame to
+	 * @throws IOException when the frame can't be written
+	 */
+	public void writeTo(final DataOutputStream out) throws IOException {
+		out.writeInt(this.report.length);
+		out.write(this.report);
+		out.writeInt(this.exitCode.value);
+		out.writeLong(this.processingTime);
+		out.writeUTF(this.metrics == null ? "" : this.metrics);
+		out.writeLong(this.residentSize);
+		out.flush();
+	}
+
+	/**
+	 * Reads the next frame from the passed stream.
+	 *
+	 * @param in the stream to read the frame from
+	 * @return the frame read, or null if the stream ended before a new frame
+	 * @throws IOException when the stream ends in the middle of a frame or can't
+	 *                     be read
+	 */
+	public static ReportFrame readFrom(final DataInputStream in) throws IOException {
+		int length;
+		try {
+			length = in.readInt();
+		} catch (EOFException e) {
+			return null;
+		}
+		if (length < 0) {
+			throw new IOException("Illegal report frame length: " + length);
+		}
+		byte[] report = new byte[length];
+		in.readFully(report);
+		ExitCodes exitCode = ExitCodes.fromValue(in.readInt());
+		long processingTime = in.readLong();
+		String metrics = in.readUTF();
+		long residentSize = in.readLong();
+		return new ReportFrame(report, exitCode, processingTime, metrics.isEmpty() ? null : metrics, residentSize);
+	}
+}
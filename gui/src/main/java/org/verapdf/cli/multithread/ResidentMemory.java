@@ -0,0 +1,62 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.multithread;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Reads the resident set size of this process, which child processes report
+ * with every document so their parent can recycle them. Only Linux exposes it
+ * without native code, elsewhere it's unknown.
+ */
+public final class ResidentMemory {
+	private static final Path STATUS = Paths.get("/proc/self/status"); //$NON-NLS-1$
+	private static final String RSS_FIELD = "VmRSS:"; //$NON-NLS-1$
+
+	private ResidentMemory() {
+		throw new AssertionError("Should never happen"); //$NON-NLS-1$
+	}
+
+	/**
+	 * @return the resident set size of this process in bytes, or -1 if it's unknown
+	 */
+	public static long current() {
+		if (!Files.isReadable(STATUS)) {
+			return -1;
+		}
+		try {
+			for (String line : Files.readAllLines(STATUS, StandardCharsets.US_ASCII)) {
+				if (line.startsWith(RSS_FIELD)) {
+					// "VmRSS:     123456 kB"
+					String[] parts = line.substring(RSS_FIELD.length()).trim().split("\\s+"); //$NON-NLS-1$
+					return Long.parseLong(parts[0]) * 1024;
+				}
+			}
+		} catch (IOException | NumberFormatException e) {
+			return -1;
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,118 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loopback HTTP endpoint serving {@link ServerMetrics} at {@code /metrics} for
+ * Prometheus or any other OpenMetrics scraper.
+ */
+public final class MetricsEndpoint implements Closeable {
+	private static final Logger LOGGER = Logger.getLogger(MetricsEndpoint.class.getCanonicalName());
+
+	private static final String PATH = "/metrics"; //$NON-NLS-1$
+	private static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8"; //$NON-NLS-1$
+
+	private final HttpServer httpServer;
+	private final ExecutorService executor;
+	private final ServerMetrics metrics;
+
+	private MetricsEndpoint(final HttpServer httpServer, final ServerMetrics metrics) {
+		this.httpServer = httpServer;
+		this.metrics = metrics;
+		this.executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "veraPDF metrics endpoint"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.httpServer.setExecutor(this.executor);
+		this.httpServer.createContext(PATH, this::handle);
+	}
+
+	/**
+	 * Starts serving the passed metrics.
+	 *
+	 * @param metrics the metrics to serve
+	 * @param port the loopback port to listen on, 0 for any free port
+	 * @return the started endpoint
+	 * @throws IOException when the port can't be bound
+	 */
+	public static MetricsEndpoint start(final ServerMetrics metrics, final int port) throws IOException {
+		MetricsEndpoint endpoint = new MetricsEndpoint(
+				HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0), metrics);
+		endpoint.httpServer.start();
+		return endpoint;
+	}
+
+	/**
+	 * @return the port the endpoint listens on
+	 */
+	public int getPort() {
+		return this.httpServer.getAddress().getPort();
+	}
+
+	private void handle(final HttpExchange exchange) throws IOException {
+		try {
+			if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) { //$NON-NLS-1$ //$NON-NLS-2$
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			if (!PATH.equals(exchange.getRequestURI().getPath())) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			byte[] body = this.metrics.scrape().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE); //$NON-NLS-1$
+			if ("HEAD".equals(exchange.getRequestMethod())) { //$NON-NLS-1$
+				exchange.sendResponseHeaders(200, -1);
+				return;
+			}
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream os = exchange.getResponseBody()) {
+				os.write(body);
+			}
+		} catch (RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Can't serve metrics", e);
+			exchange.sendResponseHeaders(500, -1);
+		} finally {
+			exchange.close();
+		}
+	}
+
+	@Override
+	public void close() {
+		this.httpServer.stop(0);
+		this.executor.shutdownNow();
+	}
+}
@@ -0,0 +1,180 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.server;
+
+import org.verapdf.cli.CliConstants.ExitCodes;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Live counters of a {@link ValidationServer}, written in the OpenMetrics text
+ * format. Rates and latency percentiles are left to the scraping side, e.g.
+ * {@code rate(verapdf_jobs_total[1m])} and
+ * {@code histogram_quantile(0.99, rate(verapdf_validation_duration_seconds_bucket[5m]))}.
+ */
+public final class ServerMetrics {
+	/** Upper bounds of the validation latency histogram buckets in seconds */
+	private static final double[] LATENCY_BUCKETS = { 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 120 };
+
+	private final IntSupplier queueDepth;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicLongArray exitCodes = new AtomicLongArray(ExitCodes.values().length);
+	private final AtomicLongArray latencyBuckets = new AtomicLongArray(LATENCY_BUCKETS.length);
+	private final LongAdder latencyCount = new LongAdder();
+	private final LongAdder latencyMillis = new LongAdder();
+
+	/**
+	 * @param queueDepth supplies the number of jobs waiting for a validation slot
+	 */
+	public ServerMetrics(final IntSupplier queueDepth) {
+		this.queueDepth = queueDepth;
+	}
+
+	/**
+	 * Records a job that is waiting for or being validated.
+	 */
+	public void jobStarted() {
+		this.inFlight.incrementAndGet();
+	}
+
+	/**
+	 * Records a finished job.
+	 *
+	 * @param exitCode the exit code of the job
+	 */
+	public void jobFinished(final ExitCodes exitCode) {
+		this.inFlight.decrementAndGet();
+		this.exitCodes.incrementAndGet(exitCode.ordinal());
+	}
+
+	/**
+	 * Records the time taken by a validation, not counting the wait for a
+	 * validation slot.
+	 *
+	 * @param millis the validation time in milliseconds
+	 */
+	public void validated(final long millis) {
+		double seconds = millis / 1000.0;
+		for (int i = 0; i < LATENCY_BUCKETS.length; i++) {
+			if (seconds <= LATENCY_BUCKETS[i]) {
+				this.latencyBuckets.incrementAndGet(i);
+				break;
+			}
+		}
+		this.latencyCount.increment();
+		this.latencyMillis.add(millis);
+	}
+
+	/**
+	 * @return the current values in the OpenMetrics text format
+	 */
+	public String scrape() {
+		StringBuilder metrics = new StringBuilder();
+		long jobs = 0;
+		for (int i = 0; i < this.exitCodes.length(); i++) {
+			jobs += this.exitCodes.get(i);
+		}
+		family(metrics, "verapdf_jobs", "counter", null, "Validation jobs finished.");
+		sample(metrics, "verapdf_jobs_total", null, jobs);
+		family(metrics, "verapdf_job_results", "counter", null, "Validation jobs finished by exit code.");
+		for (ExitCodes exitCode : ExitCodes.values()) {
+			sample(metrics, "verapdf_job_results_total", "exit_code=\"" + exitCode.name() + "\"",
+					this.exitCodes.get(exitCode.ordinal()));
+		}
+		family(metrics, "verapdf_parse_failures", "counter", null, "Validation jobs whose document couldn't be parsed.");
+		sample(metrics, "verapdf_parse_failures_total", null, this.exitCodes.get(ExitCodes.FAILED_PARSING.ordinal()));
+		family(metrics, "verapdf_out_of_memory_errors", "counter", null, "Validation jobs that ran out of memory.");
+		sample(metrics, "verapdf_out_of_memory_errors_total", null, this.exitCodes.get(ExitCodes.OOM.ordinal()));
+		family(metrics, "verapdf_jobs_in_flight", "gauge", null, "Validation jobs waiting for or being validated.");
+		sample(metrics, "verapdf_jobs_in_flight", null, this.inFlight.get());
+		family(metrics, "verapdf_queue_depth", "gauge", null, "Validation jobs waiting for a validation slot.");
+		sample(metrics, "verapdf_queue_depth", null, this.queueDepth.getAsInt());
+		writeLatency(metrics);
+		writeJvm(metrics);
+		return metrics.append("# EOF\n").toString();
+	}
+
+	private void writeLatency(final StringBuilder metrics) {
+		String name = "verapdf_validation_duration_seconds";
+		family(metrics, name, "histogram", "seconds", "Time taken by validations.");
+		long cumulative = 0;
+		for (int i = 0; i < LATENCY_BUCKETS.length; i++) {
+			cumulative += this.latencyBuckets.get(i);
+			sample(metrics, name + "_bucket", "le=\"" + format(LATENCY_BUCKETS[i]) + "\"", cumulative);
+		}
+		// the count is read last, so a validation recorded during the scrape can't make +Inf lower than a bucket
+		long count = Math.max(this.latencyCount.sum(), cumulative);
+		sample(metrics, name + "_bucket", "le=\"+Inf\"", count);
+		sample(metrics, name + "_count", null, count);
+		metrics.append(name).append("_sum ").append(format(this.latencyMillis.sum() / 1000.0)).append('\n');
+	}
+
+	private static void writeJvm(final StringBuilder metrics) {
+		MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+		family(metrics, "verapdf_jvm_heap_bytes", "gauge", "bytes", "JVM heap memory.");
+		sample(metrics, "verapdf_jvm_heap_bytes", "area=\"used\"", heap.getUsed());
+		sample(metrics, "verapdf_jvm_heap_bytes", "area=\"committed\"", heap.getCommitted());
+		sample(metrics, "verapdf_jvm_heap_bytes", "area=\"max\"", heap.getMax());
+		family(metrics, "verapdf_jvm_gc_collections", "counter", null, "JVM garbage collections.");
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			sample(metrics, "verapdf_jvm_gc_collections_total", gcLabel(gc), Math.max(gc.getCollectionCount(), 0));
+		}
+		family(metrics, "verapdf_jvm_gc_pause_seconds", "counter", "seconds",
+				"Approximate time spent in JVM garbage collections.");
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			metrics.append("verapdf_jvm_gc_pause_seconds_total{").append(gcLabel(gc)).append("} ")
+					.append(format(Math.max(gc.getCollectionTime(), 0) / 1000.0)).append('\n');
+		}
+	}
+
+	private static String gcLabel(final GarbageCollectorMXBean gc) {
+		return "gc=\"" + gc.getName().replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+
+	private static void family(final StringBuilder metrics, final String name, final String type, final String unit,
+			final String help) {
+		metrics.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+		if (unit != null) {
+			metrics.append("# UNIT ").append(name).append(' ').append(unit).append('\n');
+		}
+		metrics.append("# HELP ").append(name).append(' ').append(help).append('\n');
+	}
+
+	private static void sample(final StringBuilder metrics, final String name, final String labels,
+			final long value) {
+		metrics.append(name);
+		if (labels != null) {
+			metrics.append('{').append(labels).append('}');
+		}
+		metrics.append(' ').append(value).append('\n');
+	}
+
+	private static String format(final double value) {
+		return String.format(Locale.ROOT, "%s", Double.valueOf(value));
+	}
+}
@@ -0,0 +1,64 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.server;
+
+import org.verapdf.cli.multithread.ReportFrame;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * Connection to a {@link ValidationServer} on the loopback address. Requests
+ * are answered in the order they are sent.
+ */
+public final class ValidationClient implements Closeable {
+	private final Socket socket;
+	private final DataInputStream in;
+	private final DataOutputStream out;
+
+	public ValidationClient(int port) throws IOException {
+		this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+		this.in = new DataInputStream(new BufferedInputStream(this.socket.getInputStream()));
+		this.out = new DataOutputStream(new BufferedOutputStream(this.socket.getOutputStream()));
+	}
+
+	/**
+	 * Sends the request and waits for its report.
+	 *
+	 * @param request the validation job
+	 * @return the report frame of the job
+	 * @throws IOException when the connection fails or is closed by the server
+	 */
+	public ReportFrame validate(ValidationRequest request) throws IOException {
+		request.writeTo(this.out);
+		ReportFrame frame = ReportFrame.readFrom(this.in);
+		if (frame == null) {
+			throw new EOFException("Connection closed by the validation server");
+		}
+		return frame;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.socket.close();
+	}
+}
@@ -0,0 +1,225 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.server;
+
+import org.verapdf.pdfa.flavours.PDFAFlavour;
+import org.verapdf.processor.FormatOption;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+/**
+ * A validation job sent to the {@link ValidationServer}. The document is either
+ * a path readable by the server or the document bytes sent inline.
+ * <p>
+ * On the wire a request is the flavour id and the format option as modified
+ * UTF-8 strings, a boolean that is true for inline documents, the path or
+ * document name as a modified UTF-8 string and, for inline documents only, the
+ * document length as an int followed by the document bytes.
+ * <p>
+ * A request that is well formed but can't be served, such as one with an
+ * unknown format or a document that is too large, is read to its end and
+ * rejected with a {@link RejectedException}, so the next request on the same
+ * stream can still be read.
+ */
+public final class ValidationRequest {
+	private final PDFAFlavour flavour;
+	private final FormatOption format;
+	private final String name;
+	private final byte[] document;
+
+	private ValidationRequest(final PDFAFlavour flavour, final FormatOption format, final String name,
+			final byte[] document) {
+		this.flavour = flavour;
+		this.format = format;
+		this.name = name;
+		this.document = document;
+	}
+
+	/**
+	 * @param flavour the flavour to validate against, {@link PDFAFlavour#NO_FLAVOUR} for auto detection
+	 * @param format the report format
+	 * @param path the path of the document on the server side
+	 * @return a request to validate the document at path
+	 */
+	public static ValidationRequest forPath(final PDFAFlavour flavour, final FormatOption format, final String path) {
+		return new ValidationRequest(flavour, format, path, null);
+	}
+
+	/**
+	 * @param flavour the flavour to validate against, {@link PDFAFlavour#NO_FLAVOUR} for auto detection
+	 * @param format the report format
+	 * @param name the document name used in the report
+	 * @param document the document bytes
+	 * @return a request to validate the passed document bytes
+	 */
+	public static ValidationRequest forBytes(final PDFAFlavour flavour, final FormatOption format, final String name,
+			final byte[] document) {
+		return new ValidationRequest(flavour, format, name, document);
+	}
+
+	public PDFAFlavour getFlavour() {
+		return this.flavour;
+	}
+
+	public FormatOption getFormat() {
+		return this.format;
+	}
+
+	/**
+	 * @return the path of the document, or its name for inline documents
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * @return true if the document bytes are sent with the request
+	 */
+	public boolean isInline() {
+		return this.document != null;
+	}
+
+	/**
+	 * @return the document bytes, or null if the request holds a path
+	 */
+	public byte[] getDocument() {
+		return this.document;
+	}
+
+	/**
+	 * Writes the request to the passed stream and flushes it.
+	 *
+	 * @param out the stream to write the request to
+	 * @throws IOException when the request can't be written
+	 */
+	public void writeTo(final DataOutputStream out) throws IOException {
+		out.writeUTF(this.flavour.getId());
+		out.writeUTF(this.format.getOption());
+		out.writeBoolean(isInline());
+		out.writeUTF(this.name);
+		if (isInline()) {
+			out.writeInt(this.document.length);
+			out.write(this.document);
+		}
+		out.flush();
+	}
+
+	/**
+	 * Reads the next request from the passed stream, without limiting the size
+	 * of inline documents.
+	 *
+	 * @param in the stream to read the request from
+	 * @return the request read, or null if the stream ended before a new request
+	 * @throws RejectedException when the request was read but can't be served
+	 * @throws IOException when the request is malformed, incomplete or can't be read
+	 */
+	public static ValidationRequest readFrom(final DataInputStream in) throws IOException {
+		return readFrom(in, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Reads the next request from the passed stream.
+	 *
+	 * @param in the stream to read the request from
+	 * @param maxDocumentLength the largest inline document accepted, larger
+	 *            documents are skipped and the request is rejected
+	 * @return the request read, or null if the stream ended before a new request
+	 * @throws RejectedException when the request was read but can't be served
+	 * @throws IOException when the request is malformed, incomplete or can't be read
+	 */
+	public static ValidationRequest readFrom(final DataInputStream in, final int maxDocumentLength)
+			throws IOException {
+		String flavourId;
+		try {
+			flavourId = in.readUTF();
+		} catch (EOFException e) {
+			return null;
+		}
+		PDFAFlavour flavour = PDFAFlavour.byFlavourId(flavourId);
+		String formatOption = in.readUTF();
+		boolean isInline = in.readBoolean();
+		String name = in.readUTF();
+		byte[] document = null;
+		if (isInline) {
+			int length = in.readInt();
+			if (length < 0) {
+				// the end of the request is unknown, nothing after it can be read
+				throw new IOException("Illegal document length: " + length);
+			}
+			if (length > maxDocumentLength) {
+				discard(in, length);
+				throw new RejectedException(name, "Document of " + length + " bytes exceeds the limit of "
+						+ maxDocumentLength + " bytes");
+			}
+			document = new byte[length];
+			in.readFully(document);
+		}
+		FormatOption format;
+		try {
+			format = FormatOption.fromOption(formatOption);
+		} catch (NoSuchElementException e) {
+			throw new RejectedException(name, "Illegal format option value: " + formatOption);
+		}
+		if (flavour == PDFAFlavour.NO_FLAVOUR && !PDFAFlavour.NO_FLAVOUR.getId().equals(flavourId)) {
+			// unknown ids fall back to auto-detection, which validates against a profile that wasn't asked for
+			throw new RejectedException(name, "Illegal flavour id: " + flavourId);
+		}
+		return isInline ? forBytes(flavour, format, name, document) : forPath(flavour, format, name);
+	}
+
+	private static void discard(final DataInputStream in, final int length) throws IOException {
+		int remaining = length;
+		while (remaining > 0) {
+			int skipped = in.skipBytes(remaining);
+			if (skipped <= 0) {
+				// skipBytes gives up without saying why, read to detect the end of stream
+				in.readByte();
+				skipped = 1;
+			}
+			remaining -= skipped;
+		}
+	}
+
+	/**
+	 * A request that was read to its end but can't be served.
+	 */
+	public static final class RejectedException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		private final String name;
+
+		RejectedException(final String name, final String message) {
+			super(message);
+			this.name = name;
+		}
+
+		/**
+		 * @return the path or document name of the rejected request
+		 */
+		public String getName() {
+			return this.name;
+		}
+	}
+}
@@ -0,0 +1,333 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.server;
+
+import org.verapdf.apps.utils.DocumentWatchdog;
+import org.verapdf.apps.utils.IoThreads;
+import org.verapdf.apps.utils.MappedItemProcessor;
+import org.verapdf.cli.CliConstants;
+import org.verapdf.cli.CliConstants.ExitCodes;
+import org.verapdf.cli.commands.VeraCliArgParser;
+import org.verapdf.cli.multithread.ReportFrame;
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.pdfa.flavours.PDFAFlavour;
+import org.verapdf.processor.BatchProcessingHandler;
+import org.verapdf.processor.ItemProcessor;
+import org.verapdf.processor.ProcessorConfig;
+import org.verapdf.processor.ProcessorFactory;
+import org.verapdf.processor.ProcessorResult;
+import org.verapdf.processor.app.ConfigManager;
+import org.verapdf.processor.app.VeraAppConfig;
+import org.verapdf.processor.reports.BatchSummary;
+import org.verapdf.processor.reports.ItemDetails;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Resident validation daemon listening on a loopback port. Each connection
+ * sends {@link ValidationRequest}s and receives a {@link ReportFrame} for every
+ * request, in order. Processor configurations and {@link ItemProcessor}s are
+ * kept per flavour between jobs so a request only pays for the validation
+ * itself.
+ * <p>
+ * Connections are served by I/O threads, virtual ones where the JVM has them,
+ * which hand every validation to a bounded pool of platform threads. CPU bound
+ * validations then never occupy the carrier threads the connections share.
+ */
+public final class ValidationServer implements Closeable {
+	private static final Logger LOGGER = Logger.getLogger(ValidationServer.class.getCanonicalName());
+	/** How long closing waits for running validations to finish */
+	private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+	private final VeraCliArgParser cliArgParser;
+	private final ConfigManager configManager;
+	private final VeraAppConfig appConfig;
+	private final Map<PDFAFlavour, ProcessorConfig> configs = new EnumMap<>(PDFAFlavour.class);
+	private final Map<PDFAFlavour, Deque<ItemProcessor>> idleProcessors = new EnumMap<>(PDFAFlavour.class);
+	/** Set once the server closes, processors returned from then on are closed */
+	private boolean isClosing = false;
+	private final ThreadPoolExecutor validationExecutor;
+	private final int maxDocumentLength;
+	/** Connections mostly wait on their sockets, the validations they run are bounded by the pool */
+	private final ExecutorService connectionExecutor = IoThreads.newExecutor("veraPDF connection");
+	private final ServerSocket serverSocket;
+	private final ServerMetrics metrics;
+
+	/**
+	 * Creates a server bound to the loopback address and prepares the processor
+	 * configuration for the flavour passed on the command line.
+	 *
+	 * @param cliArgParser the parsed command line arguments
+	 * @param configManager the application configuration
+	 * @param port the port to listen on, 0 for any free port
+	 * @throws VeraPDFException when the processor configuration can't be created
+	 * @throws IOException when the server socket can't be bound
+	 */
+	public ValidationServer(VeraCliArgParser cliArgParser, ConfigManager configManager, int port)
+			throws VeraPDFException, IOException {
+		this.cliArgParser = cliArgParser;
+		this.configManager = configManager;
+		this.appConfig = cliArgParser.appConfig(configManager.getApplicationConfig());
+		int validations = cliArgParser.getNumberOfProcesses() > 1 ? cliArgParser.getNumberOfProcesses()
+				: Runtime.getRuntime().availableProcessors();
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.validationExecutor = new ThreadPoolExecutor(validations, validations, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(), task -> {
+					Thread thread = new Thread(task, "veraPDF validation " + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.maxDocumentLength = cliArgParser.getMaxDocumentSize();
+		this.metrics = new ServerMetrics(() -> this.validationExecutor.getQueue().size());
+		getConfig(cliArgParser.getFlavour());
+		this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+	}
+
+	/**
+	 * @return the port the server listens on
+	 */
+	public int getPort() {
+		return this.serverSocket.getLocalPort();
+	}
+
+	/**
+	 * @return the live counters of the server
+	 */
+	public ServerMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	/**
+	 * Accepts connections until the server is closed.
+	 */
+	public void serve() {
+		while (!this.serverSocket.isClosed()) {
+			try {
+				Socket socket = this.serverSocket.accept();
+				this.connectionExecutor.submit(() -> handleConnection(socket));
+			} catch (IOException e) {
+				if (!this.serverSocket.isClosed()) {
+					LOGGER.log(Level.WARNING, "Can't accept connection", e);
+				}
+			}
+		}
+	}
+
+	private void handleConnection(Socket socket) {
+		try (Socket connection = socket;
+		     DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+		     DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()))) {
+			ReportFrame frame = next(in);
+			while (frame != null) {
+				frame.writeTo(out);
+				frame = next(in);
+			}
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Validation connection closed", e);
+		}
+	}
+
+	/**
+	 * Reads and serves the next request of a connection. A rejected request is
+	 * answered with an empty report so the client can carry on with the next one.
+	 */
+	private ReportFrame next(DataInputStream in) throws IOException {
+		ValidationRequest request;
+		try {
+			request = ValidationRequest.readFrom(in, this.maxDocumentLength);
+		} catch (ValidationRequest.RejectedException e) {
+			LOGGER.log(Level.WARNING, "Rejected request for " + e.getName() + ": " + e.getMessage());
+			this.metrics.jobStarted();
+			this.metrics.jobFinished(ExitCodes.BAD_PARAMS);
+			return new ReportFrame(new byte[0], ExitCodes.BAD_PARAMS, 0);
+		}
+		return request == null ? null : process(request);
+	}
+
+	private ReportFrame process(ValidationRequest request) {
+		long start = System.currentTimeMillis();
+		ByteArrayOutputStream report = new ByteArrayOutputStream();
+		// anything escaping the handlers below is reported as an exception
+		ExitCodes exitCode = ExitCodes.VERAPDF_EXCEPTION;
+		// a failed validation is answered with an empty report, not with what it wrote before failing
+		byte[] reportBytes = new byte[0];
+		this.metrics.jobStarted();
+		Future<ExitCodes> validation = null;
+		try {
+			validation = this.validationExecutor.submit(() -> {
+				long validationStart = System.currentTimeMillis();
+				try {
+					return validate(request, report);
+				} finally {
+					this.metrics.validated(System.currentTimeMillis() - validationStart);
+				}
+			});
+			exitCode = awaitValidation(validation);
+			reportBytes = report.toByteArray();
+		} catch (InterruptedException e) {
+			validation.cancel(true);
+			Thread.currentThread().interrupt();
+			exitCode = ExitCodes.INTERRUPTED_EXCEPTION;
+		} catch (RejectedExecutionException e) {
+			LOGGER.log(Level.WARNING, "Server closed before validating " + request.getName());
+			exitCode = ExitCodes.INTERRUPTED_EXCEPTION;
+		} catch (VeraPDFException e) {
+			LOGGER.log(Level.SEVERE, CliConstants.EXCEP_VERA_BATCH, e);
+			exitCode = ExitCodes.VERAPDF_EXCEPTION;
+		} catch (RuntimeException e) {
+			// a parser bug on one document mustn't end the connection
+			LOGGER.log(Level.SEVERE, "Exception validating " + request.getName(), e);
+			exitCode = ExitCodes.VERAPDF_EXCEPTION;
+		} catch (OutOfMemoryError e) {
+			LOGGER.log(Level.SEVERE, "The JVM appears to have run out of memory", e);
+			exitCode = ExitCodes.OOM;
+		} finally {
+			this.metrics.jobFinished(exitCode);
+		}
+		return new ReportFrame(reportBytes, exitCode, System.currentTimeMillis() - start);
+	}
+
+	/**
+	 * Waits for a validation and rethrows what it failed with.
+	 */
+	private static ExitCodes awaitValidation(Future<ExitCodes> validation)
+			throws InterruptedException, VeraPDFException {
+		try {
+			return validation.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof VeraPDFException) {
+				throw (VeraPDFException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new VeraPDFException("Validation failed", cause);
+		}
+	}
+
+	private ExitCodes validate(ValidationRequest request, OutputStream report) throws VeraPDFException {
+		ProcessorConfig config = getConfig(request.getFlavour());
+		ItemProcessor processor = borrowProcessor(request.getFlavour(), config);
+		try {
+			ProcessorResult result;
+			if (request.isInline()) {
+				ItemDetails item = ItemDetails.fromValues(request.getName(), request.getDocument().length);
+				result = processor.process(item, new ByteArrayInputStream(request.getDocument()));
+			} else {
+				result = processor.process(new File(request.getName()));
+			}
+			BatchProcessingHandler handler = ProcessorFactory.getHandler(request.getFormat(),
+					this.appConfig.isVerbose(), report, config.getValidatorConfig().isRecordPasses(),
+					this.appConfig.getWikiPath());
+			ProcessorFactory.BatchSummariser summariser = new ProcessorFactory.BatchSummariser(config);
+			summariser.addProcessingResult(result);
+			BatchSummary summary = summariser.summarise();
+			handler.handleBatchStart(config);
+			handler.handleResult(result, config.getValidatorConfig().isLogsEnabled());
+			handler.handleBatchEnd(summary);
+			return DocumentWatchdog.isTimedOut(result) ? ExitCodes.TIMEOUT : ExitCodes.fromSummary(summary);
+		} finally {
+			returnProcessor(request.getFlavour(), processor);
+		}
+	}
+
+	private synchronized ProcessorConfig getConfig(PDFAFlavour flavour) throws VeraPDFException {
+		ProcessorConfig config = this.configs.get(flavour);
+		if (config == null) {
+			config = this.cliArgParser.processorConfig(this.appConfig.getProcessType(),
+					this.configManager.getPluginsCollectionConfig(), flavour);
+			this.configs.put(flavour, config);
+		}
+		return config;
+	}
+
+	private synchronized ItemProcessor borrowProcessor(PDFAFlavour flavour, ProcessorConfig config) {
+		ItemProcessor processor = this.idleProcessors.computeIfAbsent(flavour, key -> new ArrayDeque<>()).pollFirst();
+		if (processor == null) {
+			processor = MappedItemProcessor.createProcessor(config, this.cliArgParser.isMemoryMapped());
+		}
+		return processor;
+	}
+
+	private synchronized void returnProcessor(PDFAFlavour flavour, ItemProcessor processor) {
+		if (this.isClosing) {
+			closeProcessor(processor);
+		} else {
+			this.idleProcessors.get(flavour).offerFirst(processor);
+		}
+	}
+
+	private static void closeProcessor(ItemProcessor processor) {
+		try {
+			processor.close();
+		} catch (IOException e) {
+			LOGGER.log(Level.FINER, CliConstants.EXCEP_PROCESSOR_CLOSE, e);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			this.serverSocket.close();
+		} catch (IOException e) {
+			LOGGER.log(Level.FINE, "Can't close server socket", e);
+		}
+		this.connectionExecutor.shutdownNow();
+		this.validationExecutor.shutdownNow();
+		try {
+			// cancelling is cooperative, a validation may run on until its document is parsed
+			if (!this.validationExecutor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				LOGGER.log(Level.WARNING, "Validations still running, their processors are closed as they finish");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		synchronized (this) {
+			// processors still validating are closed when they're returned
+			this.isClosing = true;
+			for (Deque<ItemProcessor> idle : this.idleProcessors.values()) {
+				idle.forEach(ValidationServer::closeProcessor);
+			}
+			this.idleProcessors.clear();
+		}
+	}
+}
@@ -22,7 +22,6 @@ package org.verapdf.gui;
 
 import org.verapdf.apps.Applications;
 import org.verapdf.apps.utils.ApplicationUtils;
-import org.verapdf.core.utils.FileUtils;
 import org.verapdf.gui.utils.*;
 import org.verapdf.pdfa.flavours.PDFAFlavour;
 import org.verapdf.pdfa.flavours.PDFFlavours;
@@ -889,8 +888,8 @@ class CheckerPanel extends JPanel {
 		ProcessType selectedItem = (ProcessType) this.processTypes.getSelectedItem();
 		if (isFixMetadata() && config.getApplicationConfig().getFixesFolder().isEmpty() && this.pdfsToProcess != null) {
 			for (File pdf : pdfsToProcess) {
-				if (FileUtils.hasExtNoCase(pdf.getName(), GUIConstants.ZIP)) {
-					logger.log(Level.WARNING, "Fixing metadata are not supported for zip processing, if save folder isn't defined");
+				if (ApplicationUtils.isArchive(pdf.getName())) {
+					logger.log(Level.WARNING, "Fixing metadata are not supported for archive processing, if save folder isn't defined");
 					this.fixMetadata.setSelected(false);
 					break;
 				}
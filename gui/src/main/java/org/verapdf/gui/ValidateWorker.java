@@ -21,6 +21,10 @@
 package org.verapdf.gui;
 
 import org.verapdf.apps.utils.ApplicationUtils;
+import org.verapdf.apps.utils.ArchiveBatchProcessor;
+import org.verapdf.apps.utils.JobPolicyChecker;
+import org.verapdf.apps.utils.JobReportHandler;
+import org.verapdf.apps.utils.ReportMerger;
 import org.verapdf.core.VeraPDFException;
 import org.verapdf.core.utils.LogsFileHandler;
 import org.verapdf.features.FeatureExtractorConfig;
@@ -28,7 +32,7 @@ import org.verapdf.gui.utils.GUIConstants;
 import org.verapdf.pdfa.validation.profiles.Profiles;
 import org.verapdf.pdfa.validation.profiles.ValidationProfile;
 import org.verapdf.pdfa.validation.validators.ValidatorConfig;
-import org.verapdf.policy.PolicyChecker;
+import org.verapdf.processor.BatchProcessingHandler;
 import org.verapdf.processor.BatchProcessor;
 import org.verapdf.processor.FormatOption;
 import org.verapdf.processor.ProcessorConfig;
@@ -120,14 +124,22 @@ class ValidateWorker extends SwingWorker<ValidateWorker.ValidateWorkerSummary, I
 					this.configManager.getPluginsCollectionConfig(), this.configManager.getFixerConfig(), tasks, 
 					this.customProfile == null ? Profiles.defaultProfile() : this.customProfile, 
 					veraAppConfig.getFixesFolder());
-			try (BatchProcessor processor = ProcessorFactory.fileBatchProcessor(resultConfig)) {
+			try (BatchProcessor processor = ArchiveBatchProcessor.create(resultConfig, false, 1)) {
 				VeraAppConfig applicationConfig = this.configManager.getApplicationConfig();
-				BatchSummary batchSummary = processor.process(this.pdfs,
-						ProcessorFactory.getHandler(FormatOption.XML, applicationConfig.isVerbose(), mrrReport,
-								validatorConfig.isRecordPasses()));
+				BatchProcessingHandler handler;
+				if (isPolicy) {
+					// jobs are checked against the policy as they're processed, no temp report is re-read
+					handler = new JobReportHandler(
+							JobPolicyChecker.compile(this.policy, this.configManager.getConfigDir()),
+							new ReportMerger(mrrReport, FormatOption.XML, applicationConfig.getWikiPath()),
+							applicationConfig.isVerbose(), applicationConfig.getWikiPath());
+				} else {
+					handler = ProcessorFactory.getHandler(FormatOption.XML, applicationConfig.isVerbose(), mrrReport,
+							validatorConfig.isRecordPasses());
+				}
+				BatchSummary batchSummary = processor.process(this.pdfs, handler);
 				validateWorkerSummary = new ValidateWorkerSummary(batchSummary);
 				if (isPolicy) {
-					applyPolicy();
 					validateWorkerSummary.setPolicyNonCompliantJobCount(countFailedPolicyJobs(xmlReport));
 				}
 			}
@@ -145,22 +157,6 @@ class ValidateWorker extends SwingWorker<ValidateWorker.ValidateWorkerSummary, I
 		return validateWorkerSummary;
 	}
 
-	private void applyPolicy() throws IOException, VeraPDFException {
-		File tempMrrFile = this.xmlReport;
-		this.xmlReport = File.createTempFile("veraPDF-tempXMLReport", ".xml"); //$NON-NLS-1$ //$NON-NLS-2$
-		this.xmlReport.deleteOnExit();
-		File tempPolicyResult = File.createTempFile("policyResult", "veraPDF"); //$NON-NLS-1$ //$NON-NLS-2$
-		try (InputStream mrrIs = new FileInputStream(tempMrrFile);
-		     OutputStream policyResultOs = new FileOutputStream(tempPolicyResult);
-			 OutputStream mrrReport = new FileOutputStream(this.xmlReport)) {
-				PolicyChecker.applyPolicy(this.policy, mrrIs, policyResultOs);
-				PolicyChecker.insertPolicyReport(tempPolicyResult, tempMrrFile, mrrReport);
-		}
-		if (!tempPolicyResult.delete()) {
-			tempPolicyResult.deleteOnExit();
-		}
-	}
-
 	@Override
 	protected void done() {
 		this.parent.validationEnded(this.xmlReport, this.htmlReport);
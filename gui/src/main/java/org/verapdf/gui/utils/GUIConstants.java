@@ -48,6 +48,10 @@ public final class GUIConstants {
 	// File extensions
 	public static final String PDF = "pdf"; //$NON-NLS-1$
 	public static final String ZIP = "zip"; //$NON-NLS-1$
+	public static final String TAR = "tar"; //$NON-NLS-1$
+	public static final String TAR_GZ = "tar.gz"; //$NON-NLS-1$
+	public static final String TGZ = "tgz"; //$NON-NLS-1$
+	public static final String TAR_ZST = "tar.zst"; //$NON-NLS-1$
 	public static final String XML = "xml"; //$NON-NLS-1$
 	public static final String HTML = "html"; //$NON-NLS-1$
 	public static final String SCH = "sch"; //$NON-NLS-1$
@@ -0,0 +1,263 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.verapdf.component.AuditDuration;
+import org.verapdf.component.ComponentDetails;
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.pdfa.PDFAParser;
+import org.verapdf.pdfa.PDFAValidator;
+import org.verapdf.pdfa.results.MetadataFixerResult;
+import org.verapdf.pdfa.results.ValidationResult;
+import org.verapdf.pdfa.results.ValidationResults;
+import org.verapdf.pdfa.validation.profiles.Profiles;
+import org.verapdf.pdfa.validation.profiles.ValidationProfile;
+import org.verapdf.processor.ProcessorResult;
+import org.verapdf.processor.TaskResult;
+import org.verapdf.processor.TaskType;
+import org.verapdf.processor.reports.ItemDetails;
+import org.verapdf.processor.reports.enums.JobEndStatus;
+import org.verapdf.report.FeaturesReport;
+
+public class DocumentWatchdogTest {
+	private static final long LIMIT = 1000;
+
+	@Test
+	public void testJobOverTimeLimitIsCancelled() {
+		DocumentWatchdog watchdog = new DocumentWatchdog(LIMIT, 0);
+		watchdog.startJob("slow.pdf");
+		CancelledValidator validator = new CancelledValidator();
+		watchdog.watch(validator);
+		watchdog.check(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2 * LIMIT));
+		assertEquals(JobEndStatus.TIMEOUT, validator.endStatus);
+		watchdog.endJob();
+	}
+
+	@Test
+	public void testJobWithinTimeLimitRuns() {
+		DocumentWatchdog watchdog = new DocumentWatchdog(LIMIT, 0);
+		watchdog.startJob("quick.pdf");
+		CancelledValidator validator = new CancelledValidator();
+		watchdog.watch(validator);
+		watchdog.check(System.nanoTime());
+		watchdog.endJob();
+		assertNull(validator.endStatus);
+	}
+
+	@Test
+	public void testValidatorOfTimedOutJobIsCancelled() {
+		DocumentWatchdog watchdog = new DocumentWatchdog(LIMIT, 0);
+		watchdog.startJob("slowly-parsed.pdf");
+		watchdog.check(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2 * LIMIT));
+		CancelledValidator validator = new CancelledValidator();
+		watchdog.watch(validator);
+		assertEquals(JobEndStatus.TIMEOUT, validator.endStatus);
+		watchdog.endJob();
+	}
+
+	@Test
+	public void testEndedJobIsntTimedOut() {
+		DocumentWatchdog watchdog = new DocumentWatchdog(LIMIT, 0);
+		watchdog.startJob("done.pdf");
+		CancelledValidator validator = new CancelledValidator();
+		watchdog.watch(validator);
+		watchdog.endJob();
+		watchdog.check(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2 * LIMIT));
+		assertNull(validator.endStatus);
+	}
+
+	@Test
+	public void testExpiringJobsFail() {
+		DocumentWatchdog watchdog = new DocumentWatchdog(LIMIT, 0);
+		watchdog.expire(true);
+		try {
+			watchdog.startJob("hung.pdf");
+			fail("Expiring jobs should fail as they start");
+		} catch (IllegalStateException e) {
+			assertEquals(DocumentWatchdog.TIMED_OUT_MESSAGE, e.getMessage());
+		}
+		watchdog.expire(false);
+		watchdog.startJob("next.pdf");
+		watchdog.endJob();
+	}
+
+	@Test
+	public void testTimeoutReadFromResult() {
+		assertTrue(DocumentWatchdog.isTimedOut(new Result(JobEndStatus.TIMEOUT, null)));
+		assertFalse(DocumentWatchdog.isTimedOut(new Result(JobEndStatus.NORMAL, null)));
+		VeraPDFException expired = new VeraPDFException("Caught unexpected exception during parsing",
+				new IllegalStateException(DocumentWatchdog.TIMED_OUT_MESSAGE));
+		assertTrue(DocumentWatchdog.isTimedOut(new Result(null, expired)));
+		assertFalse(DocumentWatchdog.isTimedOut(new Result(null, new VeraPDFException("Not a PDF"))));
+	}
+
+	private static final class Result implements ProcessorResult {
+		private final List<ValidationResult> validationResults;
+		private final TaskResult parsing;
+
+		Result(final JobEndStatus endStatus, final VeraPDFException exception) {
+			this.validationResults = endStatus == null ? Collections.emptyList()
+					: Collections.singletonList(ValidationResults.resultFromValues(Profiles.defaultProfile(), Collections.emptyList(),
+							endStatus));
+			this.parsing = new TaskResult() {
+				@Override
+				public boolean isExecuted() {
+					return true;
+				}
+
+				@Override
+				public boolean isSuccess() {
+					return exception == null;
+				}
+
+				@Override
+				public TaskType getType() {
+					return TaskType.PARSE;
+				}
+
+				@Override
+				public VeraPDFException getException() {
+					return exception;
+				}
+
+				@Override
+				public AuditDuration getDuration() {
+					return null;
+				}
+			};
+		}
+
+		@Override
+		public ItemDetails getProcessedItem() {
+			return null;
+		}
+
+		@Override
+		public EnumMap<TaskType, TaskResult> getResults() {
+			EnumMap<TaskType, TaskResult> results = new EnumMap<>(TaskType.class);
+			results.put(TaskType.PARSE, this.parsing);
+			return results;
+		}
+
+		@Override
+		public EnumSet<TaskType> getTaskTypes() {
+			return EnumSet.of(TaskType.PARSE);
+		}
+
+		@Override
+		public Collection<TaskResult> getResultSet() {
+			return getResults().values();
+		}
+
+		@Override
+		public TaskResult getResultForTask(final TaskType taskType) {
+			return getResults().get(taskType);
+		}
+
+		@Override
+		public List<ValidationResult> getValidationResults() {
+			return this.validationResults;
+		}
+
+		@Override
+		public FeaturesReport getFeaturesReport() {
+			return null;
+		}
+
+		@Override
+		public MetadataFixerResult getFixerResult() {
+			return null;
+		}
+
+		@Override
+		public boolean isPdf() {
+			return true;
+		}
+
+		@Override
+		public boolean isEncryptedPdf() {
+			return false;
+		}
+
+		@Override
+		public boolean isOutOfMemory() {
+			return false;
+		}
+
+		@Override
+		public boolean hasException() {
+			return this.parsing.getException() != null;
+		}
+	}
+
+	private static final class CancelledValidator implements PDFAValidator {
+		private JobEndStatus endStatus;
+
+		@Override
+		public ValidationProfile getProfile() {
+			return null;
+		}
+
+		@Override
+		public ValidationResult validate(final PDFAParser parser) {
+			return null;
+		}
+
+		@Override
+		public List<ValidationResult> validateAll(final PDFAParser parser) {
+			return null;
+		}
+
+		@Override
+		public String getValidationProgressString() {
+			return null;
+		}
+
+		@Override
+		public void cancelValidation(final JobEndStatus status) {
+			this.endStatus = status;
+		}
+
+		@Override
+		public ComponentDetails getDetails() {
+			return null;
+		}
+
+		@Override
+		public void close() {
+			// nothing to release
+		}
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class FairAdmissionTest {
+
+	@Test
+	public void testTryAdmit() {
+		FairAdmission admission = new FairAdmission();
+		AtomicInteger admitted = new AtomicInteger();
+		assertTrue(admission.tryAdmit(() -> true, admitted::incrementAndGet));
+		assertFalse(admission.tryAdmit(() -> false, admitted::incrementAndGet));
+		assertEquals(1, admitted.get());
+	}
+
+	@Test
+	public void testInterruptedJobGivesUpItsTurn() throws Exception {
+		FairAdmission admission = new FairAdmission();
+		AtomicBoolean open = new AtomicBoolean(false);
+		CountDownLatch firstAdmitted = new CountDownLatch(1);
+		CountDownLatch secondInterrupted = new CountDownLatch(1);
+		Thread first = new Thread(() -> {
+			try {
+				admission.admit(open::get, firstAdmitted::countDown);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		Thread second = new Thread(() -> {
+			try {
+				admission.admit(() -> true, () -> {
+					// never admitted
+				});
+			} catch (InterruptedException e) {
+				secondInterrupted.countDown();
+			}
+		});
+		first.start();
+		Thread.sleep(100);
+		second.start();
+		Thread.sleep(100);
+		// both jobs wait for the first one, no job overtakes them
+		assertFalse(admission.tryAdmit(() -> true, () -> {
+			// never admitted
+		}));
+		second.interrupt();
+		assertTrue(secondInterrupted.await(5, TimeUnit.SECONDS));
+		admission.update(() -> open.set(true));
+		assertTrue(firstAdmitted.await(5, TimeUnit.SECONDS));
+		first.join();
+		second.join();
+		// the turn of the interrupted job is skipped
+		assertTrue(admission.tryAdmit(() -> true, () -> {
+			// nothing to record
+		}));
+	}
+}
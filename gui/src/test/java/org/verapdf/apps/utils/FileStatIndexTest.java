@@ -0,0 +1,110 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileStatIndexTest {
+	private static final long OLD_MODIFIED = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private FileStatIndex index;
+	private File pdf;
+
+	@Before
+	public void openIndex() throws IOException {
+		this.index = FileStatIndex.open(tempFolder.newFolder("stat").toPath());
+		this.pdf = tempFolder.newFile("test.pdf");
+		write("first", OLD_MODIFIED);
+	}
+
+	@Test
+	public void testContentDigest() throws IOException {
+		assertArrayEquals(FileStatIndex.contentDigest(this.pdf), this.index.digest(this.pdf));
+	}
+
+	@Test
+	public void testUnchangedStatNotRead() throws IOException {
+		byte[] first = this.index.digest(this.pdf);
+		// same size and modification time, the index can't tell the content changed
+		write("other", OLD_MODIFIED);
+		assertArrayEquals(first, this.index.digest(this.pdf));
+	}
+
+	@Test
+	public void testChangedModificationTimeRead() throws IOException {
+		this.index.digest(this.pdf);
+		write("other", OLD_MODIFIED + 1000);
+		assertArrayEquals(FileStatIndex.contentDigest(this.pdf), this.index.digest(this.pdf));
+	}
+
+	@Test
+	public void testChangedSizeRead() throws IOException {
+		this.index.digest(this.pdf);
+		write("second", OLD_MODIFIED);
+		assertArrayEquals(FileStatIndex.contentDigest(this.pdf), this.index.digest(this.pdf));
+	}
+
+	@Test
+	public void testRecentlyModifiedNotRecorded() throws IOException {
+		write("first", System.currentTimeMillis());
+		this.index.digest(this.pdf);
+		write("other", this.pdf.lastModified());
+		assertArrayEquals(FileStatIndex.contentDigest(this.pdf), this.index.digest(this.pdf));
+	}
+
+	@Test
+	public void testDamagedEntryIgnored() throws IOException {
+		this.index.digest(this.pdf);
+		Path entry;
+		try (Stream<Path> entries = Files.walk(tempFolder.getRoot().toPath().resolve("stat"))) {
+			entry = entries.filter(Files::isRegularFile).findFirst().get();
+		}
+		try (RandomAccessFile raf = new RandomAccessFile(entry.toFile(), "rw")) {
+			// the digest length, read as the size of the digest to allocate
+			raf.seek(raf.length() - CacheFiles.DIGEST_LENGTH - 4);
+			raf.writeInt(Integer.MAX_VALUE);
+		}
+		write("other", OLD_MODIFIED);
+		assertArrayEquals(FileStatIndex.contentDigest(this.pdf), this.index.digest(this.pdf));
+	}
+
+	private void write(String content, long modified) throws IOException {
+		Files.write(this.pdf.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		this.pdf.setLastModified(modified);
+	}
+}
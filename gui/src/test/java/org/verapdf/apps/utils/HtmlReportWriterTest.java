@@ -0,0 +1,184 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.transform.TransformerException;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.verapdf.pdfa.Foundries;
+import org.verapdf.pdfa.VeraPDFFoundry;
+import org.verapdf.report.HTMLReport;
+
+public class HtmlReportWriterTest {
+	private static final String PASSED_JOB = "<report><jobs><job><item><name>/pdfs/a &amp; b.pdf</name></item>"
+			+ "<validationReport profileName=\"PDF/A-1b validation profile\" isCompliant=\"true\">"
+			+ "<details passedRules=\"129\" failedRules=\"0\" passedChecks=\"439\" failedChecks=\"0\"/>"
+			+ "</validationReport><duration>00:00:00.100</duration>"
+			+ "<policyReport passedChecks=\"1\" failedChecks=\"0\"/></job></jobs>"
+			+ "<batchSummary totalJobs=\"1\" failedToParse=\"0\" encrypted=\"0\" outOfMemory=\"0\" veraExceptions=\"0\">"
+			+ "<validationReports compliant=\"1\" nonCompliant=\"0\" failedJobs=\"0\">1</validationReports>"
+			+ "</batchSummary></report>";
+	private static final String ENCRYPTED_JOB = "<report><jobs><job><item><name>/pdfs/secret.pdf</name></item>"
+			+ "<validationReport profileName=\"PDF/A-1b validation profile\">"
+			+ "<taskException><exceptionMessage>The PDF is an encrypted PDF with unknown or wrong password"
+			+ "</exceptionMessage></taskException></validationReport><duration>00:00:00.020</duration>"
+			+ "<policyReport passedChecks=\"0\" failedChecks=\"1\"/><logs logsCount=\"2\"/></job></jobs>"
+			+ "<batchSummary totalJobs=\"1\" failedToParse=\"0\" encrypted=\"1\" outOfMemory=\"0\" veraExceptions=\"0\">"
+			+ "<validationReports compliant=\"0\" nonCompliant=\"0\" failedJobs=\"1\">1</validationReports>"
+			+ "</batchSummary></report>";
+
+	private static final String BUILD_INFORMATION = "<buildInformation>"
+			+ "<releaseDetails id=\"core\" version=\"1.30.2\" buildDate=\"2026-06-03T10:42:00Z\"/>"
+			+ "<releaseDetails id=\"apps\" version=\"1.30.1\" buildDate=\"2026-06-04T08:00:00Z\"/>"
+			+ "</buildInformation>";
+	private static final String JOBS = "<jobs>";
+	private static final String JOBS_END = "</jobs>";
+	private static final String SUMMARY = "<batchSummary";
+
+	@BeforeClass
+	public static void registerFoundry() {
+		try {
+			Foundries.defaultInstance();
+		} catch (IllegalArgumentException e) {
+			// the page head names the parser of the default foundry, any will do here
+			VeraPDFFoundry foundry = (VeraPDFFoundry) Proxy.newProxyInstance(VeraPDFFoundry.class.getClassLoader(),
+					new Class<?>[] { VeraPDFFoundry.class },
+					(proxy, method, args) -> "getParserId".equals(method.getName()) ? "Test" : null);
+			Foundries.registerDefaultProvider(() -> foundry);
+		}
+	}
+
+	@Test
+	public void testBatchReport() throws IOException {
+		ByteArrayOutputStream html = new ByteArrayOutputStream();
+		HtmlReportWriter writer = new HtmlReportWriter(html, null);
+		writer.write(new ByteArrayInputStream(PASSED_JOB.getBytes(StandardCharsets.UTF_8)));
+		writer.write(new ByteArrayInputStream(ENCRYPTED_JOB.getBytes(StandardCharsets.UTF_8)));
+		writer.endReport();
+		String page = new String(html.toByteArray(), StandardCharsets.UTF_8);
+
+		assertTrue(page.contains("<th>Policy Compliant</th>"));
+		assertTrue(page.contains("<th>Logs</th>"));
+		assertTrue(page.contains("<td class=\"lefted\">/pdfs/a &amp; b.pdf</td>"));
+		assertTrue(page.contains("<td class=\"valid\">Passed</td>"));
+		assertTrue(page.contains("<td class=\"invalid\">Encrypted</td>"));
+		assertTrue(page.contains("<td>439</td>"));
+		assertTrue(page.contains("<td>00:00:00.020</td>"));
+		assertEquals(2, count(page, "<td class=\"lefted\">/pdfs/secret.pdf</td>"));
+		assertTrue(page.indexOf("Job Summary") < page.indexOf("Validation Summary"));
+		assertTrue(page.trim().endsWith("</html>"));
+	}
+
+	@Test
+	public void testNoPolicyColumns() throws IOException {
+		ByteArrayOutputStream html = new ByteArrayOutputStream();
+		HtmlReportWriter writer = new HtmlReportWriter(html, null);
+		writer.write(new ByteArrayInputStream(PASSED_JOB.replace("<policyReport passedChecks=\"1\" failedChecks=\"0\"/>", "")
+				.getBytes(StandardCharsets.UTF_8)));
+		writer.endReport();
+		String page = new String(html.toByteArray(), StandardCharsets.UTF_8);
+
+		assertFalse(page.contains("Policy"));
+		assertFalse(page.contains("<th>Logs</th>"));
+		assertEquals(2, count(page, "<td class=\"lefted\">/pdfs/a &amp; b.pdf</td>"));
+	}
+
+	@Test
+	public void testMatchesLibraryStylesheet() throws IOException, TransformerException {
+		assertMatchesLibrary(PASSED_JOB, ENCRYPTED_JOB);
+	}
+
+	@Test
+	public void testMatchesLibraryStylesheetWithoutPolicy() throws IOException, TransformerException {
+		String policyReport = "<policyReport passedChecks=\"1\" failedChecks=\"0\"/>";
+		assertMatchesLibrary(PASSED_JOB.replace(policyReport, ""), PASSED_JOB.replace(policyReport, "")
+				.replace("a &amp; b.pdf", "\"quoted\" &lt;c&gt; r\u00e9sum\u00e9\u00a0\u0085\u007f\u6587.pdf"));
+	}
+
+	/**
+	 * Compares the page written job by job with the library stylesheet output
+	 * for the merged report of the same jobs. Only the processing time of the
+	 * batch, measured by the writer, and whitespace between tags may differ.
+	 */
+	private static void assertMatchesLibrary(final String... jobReports) throws IOException, TransformerException {
+		ByteArrayOutputStream html = new ByteArrayOutputStream();
+		HtmlReportWriter writer = new HtmlReportWriter(html, null);
+		StringBuilder jobs = new StringBuilder();
+		for (String jobReport : jobReports) {
+			String report = jobReport.replace("<report>", "<report>" + BUILD_INFORMATION);
+			writer.write(new ByteArrayInputStream(report.getBytes(StandardCharsets.UTF_8)));
+			jobs.append(jobReport, jobReport.indexOf(JOBS) + JOBS.length(), jobReport.indexOf(JOBS_END));
+		}
+		writer.endReport();
+		String merged = "<report>" + BUILD_INFORMATION + JOBS + jobs + JOBS_END
+				+ mergedSummary(jobReports) + "</report>";
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		HTMLReport.writeHTMLReport(new ByteArrayInputStream(merged.getBytes(StandardCharsets.UTF_8)), expected, true,
+				null, true);
+
+		assertEquals(normalise(expected), normalise(html));
+	}
+
+	private static String mergedSummary(final String... jobReports) {
+		int[] counts = new int[7];
+		String[] names = { "totalJobs", "failedToParse", "encrypted", "outOfMemory", "veraExceptions", "compliant",
+				"nonCompliant" };
+		for (String jobReport : jobReports) {
+			String summary = jobReport.substring(jobReport.indexOf(SUMMARY));
+			for (int i = 0; i < names.length; i++) {
+				Matcher matcher = Pattern.compile(names[i] + "=\"(\\d+)\"").matcher(summary);
+				if (matcher.find()) {
+					counts[i] += Integer.parseInt(matcher.group(1));
+				}
+			}
+		}
+		return SUMMARY + " totalJobs=\"" + counts[0] + "\" failedToParse=\"" + counts[1] + "\" encrypted=\""
+				+ counts[2] + "\" outOfMemory=\"" + counts[3] + "\" veraExceptions=\"" + counts[4]
+				+ "\"><validationReports compliant=\"" + counts[5] + "\" nonCompliant=\"" + counts[6]
+				+ "\"/><duration>00:00:01.000</duration></batchSummary>";
+	}
+
+	private static String normalise(final ByteArrayOutputStream html) {
+		return new String(html.toByteArray(), StandardCharsets.UTF_8).replaceAll(">\\s+<", "><").trim()
+				.replaceFirst("(<th>Processing time</th>.*?</tr><tr><td>)[^<]*", "$1");
+	}
+
+	private static int count(final String text, final String part) {
+		int count = 0;
+		for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+			count++;
+		}
+		return count;
+	}
+}
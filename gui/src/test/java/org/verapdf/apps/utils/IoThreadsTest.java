@@ -0,0 +1,76 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class IoThreadsTest {
+
+	@Test
+	public void testStartedThreadRunsTask() throws InterruptedException {
+		AtomicReference<String> threadName = new AtomicReference<>();
+		Thread thread = IoThreads.start("test io", () -> threadName.set(Thread.currentThread().getName()));
+		thread.join(TimeUnit.SECONDS.toMillis(10));
+		assertTrue(thread.isDaemon());
+		assertTrue(threadName.get().startsWith("test io"));
+	}
+
+	@Test
+	public void testExecutorRunsTasksConcurrently() throws InterruptedException {
+		ExecutorService executor = IoThreads.newExecutor("test io");
+		int tasks = 16;
+		CountDownLatch started = new CountDownLatch(tasks);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			for (int i = 0; i < tasks; i++) {
+				executor.submit(() -> {
+					started.countDown();
+					release.await();
+					return null;
+				});
+			}
+			// every task blocks until all of them have started
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+		} finally {
+			release.countDown();
+			executor.shutdown();
+		}
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testFactoryNumbersThreads() {
+		ThreadFactory factory = IoThreads.factory("test io");
+		Thread first = factory.newThread(() -> {});
+		Thread second = factory.newThread(() -> {});
+		assertTrue(first.getName().startsWith("test io"));
+		assertNotEquals(first.getName(), second.getName());
+	}
+}
@@ -0,0 +1,91 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.verapdf.apps.utils.JobMetrics.Stage;
+
+public class JobMetricsTest {
+
+	@Test
+	public void testJson() {
+		JobMetrics metrics = new JobMetrics("/pdfs/\"quoted\"\\name.pdf", 1024L);
+		metrics.setDuration(Stage.PARSE, 5L);
+		metrics.setDuration(Stage.VALIDATE, 40L);
+		metrics.setDuration(Stage.REPORT, 3L);
+		metrics.setHeapDelta(2048L);
+		metrics.setTotal(50L);
+		assertEquals("{\"name\":\"/pdfs/\\\"quoted\\\"\\\\name.pdf\",\"bytes\":1024,\"parse\":5,\"validate\":40,"
+				+ "\"features\":0,\"metadata\":0,\"policy\":0,\"report\":3,\"heapDelta\":2048,\"total\":50}",
+				metrics.toJson());
+	}
+
+	@Test
+	public void testSpill() {
+		JobMetrics metrics = new JobMetrics("STDIN", 300L);
+		metrics.setSpill(256L, true);
+		metrics.setTotal(9L);
+		assertEquals("{\"name\":\"STDIN\",\"bytes\":300,\"parse\":9,\"validate\":0,\"features\":0,\"metadata\":0,"
+				+ "\"policy\":0,\"report\":0,\"spillThreshold\":256,\"spilled\":true,\"heapDelta\":0,\"total\":9}",
+				metrics.toJson());
+		assertEquals("<metrics bytes=\"300\" parse=\"9\" validate=\"0\" features=\"0\" metadata=\"0\" policy=\"0\" "
+				+ "report=\"0\" spillThreshold=\"256\" spilled=\"true\" heapDelta=\"0\" total=\"9\"/>", metrics.toXml());
+	}
+
+	@Test
+	public void testUnknownHeapDelta() {
+		JobMetrics metrics = new JobMetrics("a.pdf", 10L);
+		metrics.setHeapDelta(-1L);
+		metrics.setTotal(2L);
+		assertEquals("{\"name\":\"a.pdf\",\"bytes\":10,\"parse\":2,\"validate\":0,\"features\":0,\"metadata\":0,"
+				+ "\"policy\":0,\"report\":0,\"total\":2}", metrics.toJson());
+		assertEquals("<metrics bytes=\"10\" parse=\"2\" validate=\"0\" features=\"0\" metadata=\"0\" policy=\"0\" "
+				+ "report=\"0\" total=\"2\"/>", metrics.toXml());
+	}
+
+	@Test
+	public void testUntimedParse() {
+		JobMetrics metrics = new JobMetrics("a.pdf", 0L);
+		metrics.setDuration(Stage.VALIDATE, 40L);
+		metrics.setDuration(Stage.POLICY, 6L);
+		metrics.setTotal(50L);
+		assertEquals(4L, metrics.getDuration(Stage.PARSE));
+		metrics.setTotal(30L);
+		assertEquals(0L, metrics.getDuration(Stage.PARSE));
+	}
+
+	@Test
+	public void testAddToReport() {
+		JobMetrics metrics = new JobMetrics("a.pdf", 10L);
+		metrics.setTotal(7L);
+		String report = "<report><jobs><job><item/></job></jobs><batchSummary/></report>";
+		String expected = "<report><jobs><job><item/>" + metrics.toXml() + "</job></jobs><batchSummary/></report>";
+		assertEquals(expected, new String(metrics.addTo(report.getBytes(StandardCharsets.UTF_8)),
+				StandardCharsets.UTF_8));
+		byte[] text = "PASS a.pdf 1b\n".getBytes(StandardCharsets.UTF_8);
+		assertArrayEquals(text, metrics.addTo(text));
+	}
+}
@@ -0,0 +1,168 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.verapdf.core.VeraPDFException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+public class JobPolicyCheckerTest {
+	private static final String POLICY = "<?xml version=\"1.0\"?>"
+			+ "<sch:schema xmlns:sch=\"http://purl.oclc.org/dsdl/schematron\" queryBinding=\"xslt\">"
+			+ "<sch:pattern name=\"compliance\"><sch:rule context=\"/report/jobs/job/validationReport\">"
+			+ "<sch:assert test=\"@isCompliant = 'true'\">Document isn't compliant</sch:assert>"
+			+ "</sch:rule></sch:pattern></sch:schema>";
+
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	@Test
+	public void testCompliantJob() throws Exception {
+		Element policyReport = policyReport(compile().apply(jobReport(true)));
+		assertEquals("0", policyReport.getAttribute("failedChecks"));
+	}
+
+	@Test
+	public void testNonCompliantJob() throws Exception {
+		Element policyReport = policyReport(compile().apply(jobReport(false)));
+		assertEquals("1", policyReport.getAttribute("failedChecks"));
+	}
+
+	@Test
+	public void testCompiledPolicyReused() throws IOException, VeraPDFException {
+		JobPolicyChecker checker = compile();
+		File copy = this.tempFolder.newFile("copy.sch");
+		Files.write(copy.toPath(), POLICY.getBytes(StandardCharsets.UTF_8));
+		assertSame(checker, JobPolicyChecker.compile(copy));
+	}
+
+	@Test
+	public void testChangedPolicyCompiledAgain() throws IOException, VeraPDFException {
+		JobPolicyChecker checker = compile();
+		File changed = this.tempFolder.newFile("changed.sch");
+		Files.write(changed.toPath(), POLICY.replace("compliant", "valid").getBytes(StandardCharsets.UTF_8));
+		assertNotSame(checker, JobPolicyChecker.compile(changed));
+	}
+
+	@Test
+	public void testCompiledSchematronKept() throws IOException, VeraPDFException {
+		File configDir = this.tempFolder.newFolder("config");
+		File policy = this.tempFolder.newFile("kept.sch");
+		Files.write(policy.toPath(), POLICY.replace("compliance", "kept").getBytes(StandardCharsets.UTF_8));
+		JobPolicyChecker.compile(policy, configDir);
+		File[] compiled = new File(configDir, JobPolicyChecker.CACHE_DIR_NAME).listFiles();
+		assertNotNull(compiled);
+		assertEquals(1, compiled.length);
+	}
+
+	@Test
+	public void testXslPolicyCompiledPerLocation() throws IOException, VeraPDFException {
+		File first = xslPolicy(this.tempFolder.newFolder("first"), "first");
+		File second = xslPolicy(this.tempFolder.newFolder("second"), "second");
+		JobPolicyChecker checker = JobPolicyChecker.compile(first);
+		assertSame(checker, JobPolicyChecker.compile(first));
+		// the same policy content includes another file at another location
+		assertNotSame(checker, JobPolicyChecker.compile(second));
+	}
+
+	@Test
+	public void testChangedXslIncludeCompiledAgain() throws IOException, VeraPDFException {
+		File policy = xslPolicy(this.tempFolder.newFolder("xsl"), "included");
+		JobPolicyChecker checker = JobPolicyChecker.compile(policy);
+		File included = new File(policy.getParentFile(), "included.xsl");
+		assertTrue(included.setLastModified(included.lastModified() - 10_000));
+		assertNotSame(checker, JobPolicyChecker.compile(policy));
+	}
+
+	@Test
+	public void testChangedSchematronIncludeCompiledAgain() throws IOException, VeraPDFException {
+		File configDir = this.tempFolder.newFolder("config");
+		File pattern = this.tempFolder.newFile("pattern.sch");
+		Files.write(pattern.toPath(), ("<sch:pattern xmlns:sch=\"http://purl.oclc.org/dsdl/schematron\" name=\"included\">"
+				+ "<sch:rule context=\"/report\"><sch:assert test=\"jobs\">No jobs</sch:assert></sch:rule>"
+				+ "</sch:pattern>").getBytes(StandardCharsets.UTF_8));
+		File policy = this.tempFolder.newFile("including.sch");
+		Files.write(policy.toPath(), ("<sch:schema xmlns:sch=\"http://purl.oclc.org/dsdl/schematron\" queryBinding=\"xslt\">"
+				+ "<sch:include href=\"" + pattern.getAbsolutePath() + "\"/></sch:schema>").getBytes(StandardCharsets.UTF_8));
+		JobPolicyChecker checker = JobPolicyChecker.compile(policy, configDir);
+		assertTrue(pattern.setLastModified(pattern.lastModified() - 10_000));
+		assertNotSame(checker, JobPolicyChecker.compile(policy, configDir));
+		// the kept policy wouldn't see changes of the included file
+		assertFalse(new File(configDir, JobPolicyChecker.CACHE_DIR_NAME).exists());
+	}
+
+	@Test(expected = VeraPDFException.class)
+	public void testUnsupportedExtension() throws IOException, VeraPDFException {
+		JobPolicyChecker.compile(this.tempFolder.newFile("policy.txt"));
+	}
+
+	/**
+	 * Writes an XSL policy including a stylesheet next to it.
+	 */
+	private static File xslPolicy(final File dir, final String templateName) throws IOException {
+		File included = new File(dir, "included.xsl");
+		Files.write(included.toPath(), ("<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">"
+				+ "<xsl:template name=\"" + templateName + "\"/></xsl:stylesheet>").getBytes(StandardCharsets.UTF_8));
+		File policy = new File(dir, "policy.xsl");
+		Files.write(policy.toPath(), ("<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">"
+				+ "<xsl:include href=\"included.xsl\"/><xsl:template match=\"/\"><result/></xsl:template>"
+				+ "</xsl:stylesheet>").getBytes(StandardCharsets.UTF_8));
+		return policy;
+	}
+
+	private JobPolicyChecker compile() throws IOException, VeraPDFException {
+		File policy = this.tempFolder.newFile("policy.sch");
+		Files.write(policy.toPath(), POLICY.getBytes(StandardCharsets.UTF_8));
+		return JobPolicyChecker.compile(policy);
+	}
+
+	private static byte[] jobReport(boolean isCompliant) {
+		return ("<report><jobs><job><item><name>test.pdf</name></item><validationReport isCompliant=\""
+				+ isCompliant + "\"/></job></jobs><batchSummary/></report>").getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static Element policyReport(byte[] report)
+			throws ParserConfigurationException, SAXException, IOException {
+		Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+				.parse(new ByteArrayInputStream(report));
+		return (Element) document.getElementsByTagName("policyReport").item(0);
+	}
+}
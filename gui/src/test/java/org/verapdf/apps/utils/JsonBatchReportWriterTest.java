@@ -0,0 +1,91 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.verapdf.core.VeraPDFException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JsonBatchReportWriterTest {
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final String SUMMARY = "{\n  \"duration\" : {\n    \"start\" : 1,\n    \"finish\" : 5\n  },\n"
+			+ "  \"totalJobs\" : 3,\n  \"failedParsingJobs\" : 1,\n"
+			+ "  \"validationSummary\" : {\n    \"nonCompliantPdfaCount\" : 0,\n    \"compliantPdfaCount\" : 2,\n"
+			+ "    \"totalJobCount\" : 3\n  },\n"
+			+ "  \"featuresSummary\" : {\n    \"failedJobCount\" : 0,\n    \"totalJobCount\" : 2\n  },\n"
+			+ "  \"repairSummary\" : {\n    \"failedJobCount\" : 4,\n    \"totalJobCount\" : 0\n  }\n}";
+
+	@Test
+	public void testCount() throws IOException {
+		JsonNode summary = MAPPER.readTree(SUMMARY);
+		assertEquals(3, JsonBatchReportWriter.count(summary, null, "totalJobs"));
+		assertEquals(1, JsonBatchReportWriter.count(summary, null, "failedParsingJobs"));
+		assertEquals(2, JsonBatchReportWriter.count(summary, "validationSummary", "compliantPdfaCount"));
+		assertEquals(2, JsonBatchReportWriter.count(summary, "featuresSummary", "totalJobCount"));
+		assertEquals(4, JsonBatchReportWriter.count(summary, "repairSummary", "failedJobCount"));
+	}
+
+	@Test
+	public void testMissingCount() throws IOException {
+		JsonNode summary = MAPPER.readTree(SUMMARY);
+		assertEquals(0, JsonBatchReportWriter.count(summary, null, "veraExceptions"));
+		assertEquals(0, JsonBatchReportWriter.count(summary, "otherSummary", "failedJobCount"));
+		// not read from the sections after it
+		assertEquals(0, JsonBatchReportWriter.count(summary, "validationSummary", "failedJobCount"));
+	}
+
+	@Test
+	public void testReportsMergedWhateverTheirLayout() throws IOException, VeraPDFException {
+		ByteArrayOutputStream merged = new ByteArrayOutputStream();
+		JsonBatchReportWriter writer = new JsonBatchReportWriter(merged, new PrintWriter(new StringWriter()));
+		writer.startDocument();
+		writer.write(bytes("{\"jobs\":[{\"itemDetails\":{\"name\":\"first.pdf\"}}],"
+				+ "\"batchSummary\":{\"totalJobs\":1,\"validationSummary\":{\"compliantPdfaCount\":1}}}"));
+		writer.write(bytes("{\n  \"batchSummary\" : {\n    \"validationSummary\" : {\n"
+				+ "      \"nonCompliantPdfaCount\" : 1\n    },\n    \"totalJobs\" : 1\n  },\n"
+				+ "  \"jobs\" : [ {\n    \"itemDetails\" : {\n      \"name\" : \"second.pdf\"\n    }\n  } ]\n}"));
+		writer.write(bytes("not a report"));
+		writer.endDocument();
+
+		JsonNode report = MAPPER.readTree(merged.toByteArray());
+		JsonNode jobs = report.findValue("jobs");
+		assertEquals(2, jobs.size());
+		assertEquals("first.pdf", jobs.get(0).path("itemDetails").path("name").asText());
+		assertEquals("second.pdf", jobs.get(1).path("itemDetails").path("name").asText());
+		JsonNode summary = report.findValue("batchSummary");
+		assertEquals(3, summary.path("totalJobs").asInt());
+		assertEquals(1, summary.path("veraExceptions").asInt());
+	}
+
+	private static byte[] bytes(final String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+}
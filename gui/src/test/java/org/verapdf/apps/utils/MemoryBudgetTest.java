@@ -0,0 +1,113 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MemoryBudgetTest {
+	private static final long MB = 1024L * 1024L;
+
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	@Test
+	public void testCreate() {
+		assertNull(MemoryBudget.create(0, true));
+		assertNull(MemoryBudget.create(-1, false));
+		assertEquals(100 * MB, MemoryBudget.create(100 * MB, false).getTotal());
+		assertTrue(MemoryBudget.create(-1, true).getTotal() > 0);
+	}
+
+	@Test
+	public void testEstimateGrowsWithPages() {
+		assertTrue(MemoryBudget.estimate(MB, 10) > MemoryBudget.estimate(MB, 0));
+		assertTrue(MemoryBudget.estimate(2 * MB, 0) > MemoryBudget.estimate(MB, 0));
+		assertEquals(MemoryBudget.estimate(0, 0), MemoryBudget.estimate(-1, 0));
+	}
+
+	@Test
+	public void testLinearizedPageCount() throws IOException {
+		File linearized = this.tempFolder.newFile("linearized.pdf");
+		Files.write(linearized.toPath(), ("%PDF-1.7\n1 0 obj\n<</Linearized 1/L 12345/O 4/E 2000/N 42/T 12000/H [ 500 150]>>\nendobj\n")
+				.getBytes(StandardCharsets.ISO_8859_1));
+		assertEquals(42, MemoryBudget.pageCount(linearized));
+		assertEquals(17, MemoryBudget.pageCount("%PDF-1.7\n1 0 obj\n<</L 12345/N 17/O 4/Linearized 1/E 2000/T 12000>>\nendobj\n"));
+		assertEquals(0, MemoryBudget.pageCount("%PDF-1.7\n1 0 obj\n<</L 12345/Linearized 1>>\nendobj\n2 0 obj\n<</N 3>>\nendobj\n"));
+		assertEquals(8, MemoryBudget.pageCount("%PDF-1.7\n1 0 obj\n<</Linearized 1/L 12345/N 8"));
+		File plain = this.tempFolder.newFile("plain.pdf");
+		Files.write(plain.toPath(), "%PDF-1.4\n1 0 obj\n<</Type/Catalog/Pages 2 0 R>>\nendobj\n".getBytes(StandardCharsets.ISO_8859_1));
+		assertEquals(0, MemoryBudget.pageCount(plain));
+		assertEquals(0, MemoryBudget.pageCount(new File(this.tempFolder.getRoot(), "missing.pdf")));
+	}
+
+	@Test
+	public void testReservations() throws InterruptedException {
+		MemoryBudget budget = MemoryBudget.create(100, true);
+		long first = budget.reserve(60);
+		assertEquals(60, first);
+		assertEquals(-1, budget.tryReserve(50));
+		long second = budget.tryReserve(40);
+		assertEquals(40, second);
+		budget.release(first);
+		budget.release(second);
+		// a job above the budget reserves all of it and runs alone
+		long large = budget.reserve(1000);
+		assertEquals(100, large);
+		assertEquals(-1, budget.tryReserve(1));
+		budget.release(large);
+	}
+
+	@Test
+	public void testJobWaitsForBudget() throws Exception {
+		MemoryBudget budget = MemoryBudget.create(100, true);
+		long first = budget.reserve(80);
+		CountDownLatch reserved = new CountDownLatch(1);
+		Thread job = new Thread(() -> {
+			try {
+				budget.reserve(50);
+				reserved.countDown();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		job.start();
+		assertFalse(reserved.await(200, TimeUnit.MILLISECONDS));
+		// a waiting job keeps later jobs from overtaking it
+		assertEquals(-1, budget.tryReserve(10));
+		budget.release(first);
+		assertTrue(reserved.await(5, TimeUnit.SECONDS));
+		job.join();
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PdfFileWalkerTest {
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private List<File> roots;
+
+	@Before
+	public void createTree() throws IOException {
+		File top = tempFolder.newFolder("top");
+		File nested = tempFolder.newFolder("top", "nested");
+		File deeper = tempFolder.newFolder("top", "nested", "deeper");
+		new File(top, "test1.pdf").createNewFile();
+		new File(top, "test2.PDF").createNewFile();
+		new File(top, "test.zip").createNewFile();
+		new File(top, "test.xml").createNewFile();
+		new File(nested, "test3.pdf").createNewFile();
+		new File(deeper, "test4.pdf").createNewFile();
+		new File(deeper, "test5.txt").createNewFile();
+		File single = tempFolder.newFile("single.zip");
+		this.roots = Arrays.asList(top, single, new File(tempFolder.getRoot(), "missing.pdf"));
+	}
+
+	@Test
+	public void testWalkMatchesFilterPdfFiles() {
+		for (boolean isRecursive : new boolean[] { true, false }) {
+			for (boolean nonPdfExt : new boolean[] { true, false }) {
+				Set<File> walked = ConcurrentHashMap.newKeySet();
+				PdfFileWalker.walk(this.roots, isRecursive, nonPdfExt, walked::add);
+				assertEquals(new HashSet<>(ApplicationUtils.filterPdfFiles(this.roots, isRecursive, nonPdfExt)),
+						walked);
+			}
+		}
+	}
+
+	@Test
+	public void testRecursiveWalk() {
+		Set<File> walked = ConcurrentHashMap.newKeySet();
+		PdfFileWalker.walk(this.roots, true, false, walked::add);
+		assertEquals(5, walked.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullFiles() {
+		PdfFileWalker.walk(null, true, false, file -> { });
+	}
+}
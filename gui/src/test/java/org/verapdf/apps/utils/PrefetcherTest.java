@@ -0,0 +1,93 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PrefetcherTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testNoDepthCreatesNoPrefetcher() {
+		assertNull(Prefetcher.create(0));
+	}
+
+	@Test
+	public void testReadsAtMostDepthFilesAhead() throws IOException {
+		try (Prefetcher prefetcher = Prefetcher.create(2)) {
+			for (File file : files(5)) {
+				prefetcher.offer(file);
+			}
+			assertEquals(2, prefetcher.getDispatched());
+			prefetcher.taken();
+			assertEquals(3, prefetcher.getDispatched());
+			prefetcher.taken();
+			prefetcher.taken();
+			prefetcher.taken();
+			assertEquals(5, prefetcher.getDispatched());
+		}
+	}
+
+	@Test
+	public void testViewConsumesFilesInOrder() throws IOException {
+		List<File> files = files(10);
+		try (Prefetcher prefetcher = Prefetcher.create(3)) {
+			List<File> view = prefetcher.offerAll(files);
+			assertEquals(3, prefetcher.getDispatched());
+			List<File> iterated = new ArrayList<>();
+			for (File file : view) {
+				iterated.add(file);
+				assertEquals(Math.min(iterated.size() + 3, files.size()), prefetcher.getDispatched());
+			}
+			assertEquals(files, iterated);
+		}
+	}
+
+	@Test
+	public void testClosedPrefetcherIgnoresFiles() throws IOException {
+		Prefetcher prefetcher = Prefetcher.create(2);
+		prefetcher.close();
+		prefetcher.offer(files(1).get(0));
+		assertEquals(0, prefetcher.getDispatched());
+	}
+
+	private List<File> files(final int count) throws IOException {
+		List<File> files = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			File file = this.folder.newFile("file" + i + ".pdf");
+			Files.write(file.toPath(), new byte[100 * 1024]);
+			files.add(file);
+		}
+		return files;
+	}
+}
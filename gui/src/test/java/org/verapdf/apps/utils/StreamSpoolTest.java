@@ -0,0 +1,90 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+public class StreamSpoolTest {
+
+	@Test
+	public void testInMemory() throws IOException {
+		byte[] content = content(256);
+		try (StreamSpool spool = StreamSpool.read(new ByteArrayInputStream(content), 256)) {
+			assertFalse(spool.isSpilled());
+			assertEquals(256, spool.getSize());
+			assertArrayEquals(content, readAll(spool));
+		}
+	}
+
+	@Test
+	public void testSpilled() throws IOException {
+		byte[] content = content(200 * 1024);
+		try (StreamSpool spool = StreamSpool.read(new ByteArrayInputStream(content), 100 * 1024)) {
+			assertTrue(spool.isSpilled());
+			assertEquals(100 * 1024, spool.getThreshold());
+			assertEquals(content.length, spool.getSize());
+			assertArrayEquals(content, readAll(spool));
+		}
+	}
+
+	@Test
+	public void testZeroThreshold() throws IOException {
+		try (StreamSpool spool = StreamSpool.read(new ByteArrayInputStream(new byte[0]), 0)) {
+			assertFalse(spool.isSpilled());
+			assertEquals(0, spool.getSize());
+		}
+		byte[] content = content(3);
+		try (StreamSpool spool = StreamSpool.read(new ByteArrayInputStream(content), 0)) {
+			assertTrue(spool.isSpilled());
+			assertArrayEquals(content, readAll(spool));
+		}
+	}
+
+	private static byte[] content(final int length) {
+		byte[] content = new byte[length];
+		for (int i = 0; i < length; i++) {
+			content[i] = (byte) (i * 31);
+		}
+		return content;
+	}
+
+	private static byte[] readAll(final StreamSpool spool) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (InputStream source = spool.open()) {
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = source.read(buffer)) >= 0) {
+				bytes.write(buffer, 0, read);
+			}
+		}
+		return bytes.toByteArray();
+	}
+}
@@ -0,0 +1,161 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.apps.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TarInputStreamTest {
+
+	@Test
+	public void testEntries() throws IOException {
+		ByteArrayOutputStream archive = new ByteArrayOutputStream();
+		writeEntry(archive, "dir/", '5', new byte[0]);
+		writeEntry(archive, "dir/a.pdf", '0', content(1000));
+		writeEntry(archive, "dir/link.pdf", '2', new byte[0]);
+		writeEntry(archive, "dir/b.pdf", '0', content(512));
+		archive.write(new byte[1024]);
+		TarInputStream tar = new TarInputStream(new ByteArrayInputStream(archive.toByteArray()));
+		TarInputStream.Entry entry = tar.next();
+		assertEquals("dir/", entry.getName());
+		assertFalse(entry.isFile());
+		entry = tar.next();
+		assertEquals("dir/a.pdf", entry.getName());
+		assertTrue(entry.isFile());
+		assertEquals(1000, entry.getSize());
+		assertArrayEquals(content(1000), readAll(entry.getContent()));
+		entry = tar.next();
+		assertEquals("dir/link.pdf", entry.getName());
+		assertFalse(entry.isFile());
+		entry = tar.next();
+		assertEquals("dir/b.pdf", entry.getName());
+		assertArrayEquals(content(512), readAll(entry.getContent()));
+		assertNull(tar.next());
+	}
+
+	@Test
+	public void testSkippedContent() throws IOException {
+		ByteArrayOutputStream archive = new ByteArrayOutputStream();
+		writeEntry(archive, "a.pdf", '0', content(3000));
+		writeEntry(archive, "b.pdf", '0', content(10));
+		TarInputStream tar = new TarInputStream(new ByteArrayInputStream(archive.toByteArray()));
+		TarInputStream.Entry entry = tar.next();
+		assertEquals(5, entry.getContent().read(new byte[5]));
+		entry = tar.next();
+		assertEquals("b.pdf", entry.getName());
+		assertArrayEquals(content(10), readAll(entry.getContent()));
+		// archives may end without the closing zero blocks
+		assertNull(tar.next());
+	}
+
+	@Test
+	public void testLongNames() throws IOException {
+		char[] longName = new char[300];
+		Arrays.fill(longName, 'n');
+		String name = new String(longName) + ".pdf";
+		ByteArrayOutputStream archive = new ByteArrayOutputStream();
+		writeEntry(archive, "././@LongLink", 'L', (name + '\0').getBytes(StandardCharsets.UTF_8));
+		writeEntry(archive, "truncated", '0', content(20));
+		String record = " path=pax/" + name + '\n';
+		int length = record.length() + 3;
+		writeEntry(archive, "PaxHeader", 'x', (length + record).getBytes(StandardCharsets.UTF_8));
+		writeEntry(archive, "truncated", '0', content(30));
+		TarInputStream tar = new TarInputStream(new ByteArrayInputStream(archive.toByteArray()));
+		TarInputStream.Entry entry = tar.next();
+		assertEquals(name, entry.getName());
+		assertEquals(20, readAll(entry.getContent()).length);
+		entry = tar.next();
+		assertEquals("pax/" + name, entry.getName());
+		assertEquals(30, readAll(entry.getContent()).length);
+		assertNull(tar.next());
+	}
+
+	@Test(expected = EOFException.class)
+	public void testTruncatedEntry() throws IOException {
+		ByteArrayOutputStream archive = new ByteArrayOutputStream();
+		writeEntry(archive, "a.pdf", '0', content(2000));
+		byte[] truncated = Arrays.copyOf(archive.toByteArray(), 1024);
+		readAll(new TarInputStream(new ByteArrayInputStream(truncated)).next().getContent());
+	}
+
+	@Test(expected = IOException.class)
+	public void testNotTar() throws IOException {
+		byte[] notTar = new byte[512];
+		Arrays.fill(notTar, (byte) '%');
+		new TarInputStream(new ByteArrayInputStream(notTar)).next();
+	}
+
+	private static void writeEntry(final ByteArrayOutputStream archive, final String name, final char type,
+			final byte[] content) throws IOException {
+		byte[] header = new byte[512];
+		put(header, 0, name);
+		put(header, 100, "0000644");
+		put(header, 124, String.format("%011o", content.length));
+		header[156] = (byte) type;
+		put(header, 257, "ustar");
+		put(header, 263, "00");
+		Arrays.fill(header, 148, 156, (byte) ' ');
+		int checksum = 0;
+		for (byte b : header) {
+			checksum += b & 0xFF;
+		}
+		put(header, 148, String.format("%06o", checksum));
+		archive.write(header);
+		archive.write(content);
+		archive.write(new byte[(512 - content.length % 512) % 512]);
+	}
+
+	private static void put(final byte[] header, final int offset, final String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+		System.arraycopy(bytes, 0, header, offset, Math.min(bytes.length, 100));
+	}
+
+	private static byte[] content(final int size) {
+		byte[] content = new byte[size];
+		for (int i = 0; i < size; i++) {
+			content[i] = (byte) (i * 31);
+		}
+		return content;
+	}
+
+	private static byte[] readAll(final InputStream stream) throws IOException {
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		byte[] buffer = new byte[700];
+		int read;
+		while ((read = stream.read(buffer)) != -1) {
+			os.write(buffer, 0, read);
+		}
+		return os.toByteArray();
+	}
+}
@@ -0,0 +1,95 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.verapdf.cli.CliConstants.ExitCodes;
+
+public class DocumentStreamTest {
+
+	@Test
+	public void testDocuments() throws IOException {
+		DocumentStream documents = stream("3 first.pdf\nabc0 empty.pdf\n5 with space.pdf\r\n12345");
+		DocumentStream.Document document = documents.next();
+		assertEquals("first.pdf", document.getName());
+		assertEquals(3, document.getLength());
+		assertArrayEquals("abc".getBytes(StandardCharsets.US_ASCII), readAll(document.getContent()));
+		document = documents.next();
+		assertEquals("empty.pdf", document.getName());
+		assertEquals(0, readAll(document.getContent()).length);
+		document = documents.next();
+		assertEquals("with space.pdf", document.getName());
+		assertArrayEquals("12345".getBytes(StandardCharsets.US_ASCII), readAll(document.getContent()));
+		assertNull(documents.next());
+	}
+
+	@Test(expected = EOFException.class)
+	public void testTruncatedDocument() throws IOException {
+		readAll(stream("10 short.pdf\nabc").next().getContent());
+	}
+
+	@Test(expected = EOFException.class)
+	public void testTruncatedHeader() throws IOException {
+		stream("10 short.pdf").next();
+	}
+
+	@Test(expected = IOException.class)
+	public void testMalformedLength() throws IOException {
+		stream("ten short.pdf\n").next();
+	}
+
+	@Test(expected = IOException.class)
+	public void testMissingName() throws IOException {
+		stream("10\n").next();
+	}
+
+	@Test
+	public void testRecord() throws IOException {
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		DocumentStream.writeRecord(os, "a.pdf", ExitCodes.INVALID, "<report/>".getBytes(StandardCharsets.UTF_8));
+		assertEquals("9 1 a.pdf\n<report/>", new String(os.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	private static DocumentStream stream(final String content) {
+		return new DocumentStream(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static byte[] readAll(final InputStream stream) throws IOException {
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4];
+		int read;
+		while ((read = stream.read(buffer)) != -1) {
+			os.write(buffer, 0, read);
+		}
+		return os.toByteArray();
+	}
+}
@@ -0,0 +1,99 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.verapdf.cli.CliConstants.ExitCodes;
+import org.verapdf.core.VeraPDFException;
+import org.verapdf.processor.FormatOption;
+import org.verapdf.processor.ProcessorFactory;
+
+public class ResultCacheTest {
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private final AtomicInteger produced = new AtomicInteger();
+	private ResultCache cache;
+	private File pdf;
+
+	@Before
+	public void openCache() throws IOException {
+		this.cache = ResultCache.open(tempFolder.newFolder("cache"), ProcessorFactory.defaultConfig(), false, "");
+		assertNotNull(this.cache);
+		this.pdf = tempFolder.newFile("test.pdf");
+		Files.write(this.pdf.toPath(), "first".getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testNoDirectory() {
+		assertNull(ResultCache.open(null, ProcessorFactory.defaultConfig(), false, ""));
+	}
+
+	@Test
+	public void testReportReplayed() throws IOException, VeraPDFException {
+		assertEquals("report 1", report(FormatOption.TEXT, ExitCodes.INVALID));
+		assertEquals("report 1", report(FormatOption.TEXT, ExitCodes.INVALID));
+		assertEquals(1, this.produced.get());
+	}
+
+	@Test
+	public void testChangedContentProducedAgain() throws IOException, VeraPDFException {
+		report(FormatOption.TEXT, ExitCodes.VALID);
+		Files.write(this.pdf.toPath(), "second".getBytes(StandardCharsets.UTF_8));
+		assertEquals("report 2", report(FormatOption.TEXT, ExitCodes.VALID));
+	}
+
+	@Test
+	public void testFormatsCachedSeparately() throws IOException, VeraPDFException {
+		report(FormatOption.TEXT, ExitCodes.VALID);
+		assertEquals("report 2", report(FormatOption.XML, ExitCodes.VALID));
+	}
+
+	@Test
+	public void testExceptionNotCached() throws IOException, VeraPDFException {
+		report(FormatOption.TEXT, ExitCodes.VERAPDF_EXCEPTION);
+		assertEquals("report 2", report(FormatOption.TEXT, ExitCodes.VERAPDF_EXCEPTION));
+	}
+
+	private String report(FormatOption format, ExitCodes exitCode) throws IOException, VeraPDFException {
+		ByteArrayOutputStream reportStream = new ByteArrayOutputStream();
+		ExitCodes result = this.cache.writeReport(this.pdf, format, reportStream, os -> {
+			os.write(("report " + this.produced.incrementAndGet()).getBytes(StandardCharsets.UTF_8));
+			return exitCode;
+		});
+		assertEquals(exitCode, result);
+		return new String(reportStream.toByteArray(), StandardCharsets.UTF_8);
+	}
+}
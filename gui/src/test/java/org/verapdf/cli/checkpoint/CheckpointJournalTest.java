@@ -0,0 +1,189 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.checkpoint;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.verapdf.cli.CliConstants.ExitCodes;
+import org.verapdf.cli.multithread.ReportFrame;
+import org.verapdf.processor.FormatOption;
+
+public class CheckpointJournalTest {
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private static final byte[] FINGERPRINT = bytes("settings");
+
+	private File journalFile;
+	private File first;
+	private File second;
+
+	@Before
+	public void createFiles() throws IOException {
+		this.journalFile = new File(tempFolder.getRoot(), "run.journal");
+		this.first = tempFolder.newFile("first.pdf");
+		Files.write(this.first.toPath(), "first".getBytes(StandardCharsets.UTF_8));
+		this.second = tempFolder.newFile("second.pdf");
+		Files.write(this.second.toPath(), "second".getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testNoFile() {
+		assertNull(CheckpointJournal.open(null, true, FormatOption.XML, FINGERPRINT));
+	}
+
+	@Test
+	public void testResumed() throws IOException {
+		try (CheckpointJournal journal = CheckpointJournal.open(this.journalFile, false, FormatOption.XML, FINGERPRINT)) {
+			journal.append(this.first, frame("report 1", ExitCodes.INVALID));
+			journal.append(this.second, frame("report 2", ExitCodes.VALID));
+		}
+		try (CheckpointJournal journal = CheckpointJournal.open(this.journalFile, true, FormatOption.XML, FINGERPRINT)) {
+			assertTrue(journal.isCompleted(this.first));
+			assertTrue(journal.isCompleted(this.second));
+			ReportFrame firstReport = journal.completedReport(this.first);
+			assertArrayEquals(bytes("report 1"), firstReport.getReport());
+			assertEquals(ExitCodes.INVALID, firstReport.getExitCode());
+			ReportFrame secondReport = journal.completedReport(this.second);
+			assertArrayEquals(bytes("report 2"), secondReport.getReport());
+			assertEquals(ExitCodes.VALID, secondReport.getExitCode());
+		}
+	}
+
+	@Test
+	public void testChangedFileProcessedAgain() throws IOException {
+		try (CheckpointJournal journal = CheckpointJournal.open(this.journalFile, false, FormatOption.XML, FINGERPRINT)) {
+			journal.append(this.first, frame("report 1", ExitCodes.VALID));
+			journal.append(this.second, frame("report 2", ExitCodes.VALID));
+		}
+		Files.write(this.first.toPath(), "changed".getBytes(StandardCharsets.UTF_8));
+		try (CheckpointJournal journal = CheckpointJournal.open(this.journalFile, true, FormatOption.XML, FINGERPRINT)) {
+			assertFalse(journal.isCompleted(this.first));
+			// the stale report isn't replayed next to the one of the new run
+			assertNull(journal.completedReport(this.first));
+			assertArrayEquals(bytes("report 2"), journal.completedReport(this.second).getReport());
+		}
+	}
+
+	@Test
+	public void testFailedDocumentNotRecorded() throws IOException {
+		try (CheckpointJournal journal = CheckpointJournal.open(this.journalFile, false, FormatOption.XML, FINGERPRINT)) {
+			journal.append(this.first, frame("failed", ExitCodes.VERAPDF_EXCEPTION));
+		}
+		try (CheckpointJournal journal = CheckpointJournal.open(this.journalFile, true, FormatOption.XML, FINGERPRINT)) {
+			assertFalse(journal.isCompleted(this.first));
+		}
+	}
+
+	@Test
+	public void testTornRecordDropped() throws IOException {
+		try (CheckpointJournal journal = CheckpointJournal.open(this.journalFile, false, FormatOption.XML, FINGERPRINT)) {
+			journal.append(this.first, frame("report 1", ExitCodes.VALID));
+			journal.append(this.second, frame("report 2", ExitCodes.VALID));
+		}
+		try (RandomAccessFile raf = new RandomAccessFile(this.journalFile, "rw")) {
+			raf.setLength(raf.length() - 3);
+		}
+		try (CheckpointJournal journal = CheckpointJournal.open(this.journalFile, true, FormatOption.XML, FINGERPRINT)) {
+			assertTrue(journal.isCompleted(this.first));
+			assertFalse(journal.isCompleted(this.second));
+			// records appended after the torn one are readable by the next resume
+			journal.append(this.second, frame("report 2", ExitCodes.VALID));
+		}
+		try (CheckpointJournal journal = CheckpointJournal.open(this.journalFile, true, FormatOption.XML, FINGERPRINT)) {
+			assertTrue(journal.isCompleted(this.second));
+			assertArrayEquals(bytes("report 1"), journal.completedReport(this.first).getReport());
+			assertArrayEquals(bytes("report 2"), journal.completedReport(this.second).getReport());
+		}
+	}
+
+	@Test
+	public void testCorruptLengthDropped() throws IOException {
+		try (CheckpointJournal journal = CheckpointJournal.open(this.journalFile, false, FormatOption.XML, FINGERPRINT)) {
+			journal.append(this.first, frame("report 1", ExitCodes.VALID));
+		}
+		long end = this.journalFile.length();
+		try (RandomAccessFile raf = new RandomAccessFile(this.journalFile, "rw")) {
+			// a record claiming to be far longer than the journal
+			raf.seek(end);
+			raf.writeInt(Integer.MAX_VALUE - 8);
+			raf.write(new byte[16]);
+		}
+		try (CheckpointJournal journal = CheckpointJournal.open(this.journalFile, true, FormatOption.XML, FINGERPRINT)) {
+			assertTrue(journal.isCompleted(this.first));
+		}
+		assertEquals(end, this.journalFile.length());
+	}
+
+	@Test
+	public void testStartedAfresh() throws IOException {
+		try (CheckpointJournal journal = CheckpointJournal.open(this.journalFile, false, FormatOption.XML, FINGERPRINT)) {
+			journal.append(this.first, frame("report 1", ExitCodes.VALID));
+		}
+		try (CheckpointJournal journal = CheckpointJournal.open(this.journalFile, true, FormatOption.TEXT, FINGERPRINT)) {
+			assertFalse(journal.isCompleted(this.first));
+			journal.append(this.second, frame("report 2", ExitCodes.VALID));
+		}
+		try (CheckpointJournal journal = CheckpointJournal.open(this.journalFile, false, FormatOption.TEXT, FINGERPRINT)) {
+			assertFalse(journal.isCompleted(this.second));
+		}
+	}
+
+	@Test
+	public void testOtherSettingsStartedAfresh() throws IOException {
+		try (CheckpointJournal journal = CheckpointJournal.open(this.journalFile, false, FormatOption.XML, FINGERPRINT)) {
+			journal.append(this.first, frame("report 1", ExitCodes.VALID));
+		}
+		try (CheckpointJournal journal = CheckpointJournal.open(this.journalFile, true, FormatOption.XML,
+				bytes("other settings"))) {
+			assertFalse(journal.isCompleted(this.first));
+		}
+	}
+
+	@Test
+	public void testOtherFileNotOverwritten() throws IOException {
+		Files.write(this.journalFile.toPath(), "not a journal".getBytes(StandardCharsets.UTF_8));
+		assertNull(CheckpointJournal.open(this.journalFile, false, FormatOption.XML, FINGERPRINT));
+		assertEquals("not a journal", new String(Files.readAllBytes(this.journalFile.toPath()), StandardCharsets.UTF_8));
+	}
+
+	private static ReportFrame frame(final String report, final ExitCodes exitCode) {
+		return new ReportFrame(bytes(report), exitCode, 10);
+	}
+
+	private static byte[] bytes(final String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+}
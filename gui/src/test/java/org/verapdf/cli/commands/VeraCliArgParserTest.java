@@ -361,6 +361,28 @@ public class VeraCliArgParserTest {
         assertTrue(config.getProcessType().getTasks().contains(TaskType.VALIDATE));
     }
 
+    /**
+     * Test method for
+     * {@link org.verapdf.cli.commands.VeraCliArgParser#isInProcess()}.
+     */
+    @Test
+    public final void testInProcessOption() {
+        VeraCliArgParser parser = new VeraCliArgParser();
+        JCommander jCommander = initialiseJCommander(parser);
+
+        // Test default is false
+        jCommander.parse("--processes", "4");
+        assertFalse(parser.isInProcess());
+        assertTrue(parser.isMultiprocessing());
+
+        // Test option works
+        parser = new VeraCliArgParser();
+        jCommander = initialiseJCommander(parser);
+        jCommander.parse("--processes", "4", "--inprocess");
+        assertTrue(parser.isInProcess());
+        assertTrue(parser.isMultiprocessing());
+    }
+
     static final JCommander initialiseJCommander(final VeraCliArgParser parser) {
         JCommander jCommander = new JCommander(parser);
         jCommander.setUsageFormatter(new FormatterHelper(jCommander));
@@ -0,0 +1,142 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.multithread;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ConcurrencyControllerTest {
+	private static final long GB = 1024L * 1024L * 1024L;
+
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	@Test
+	public void testStartsAtProcessorCount() {
+		assertEquals(4, new ConcurrencyController(16, 4, true).getLimit());
+		assertEquals(2, new ConcurrencyController(2, 4, true).getLimit());
+	}
+
+	@Test
+	public void testGrowsOnlyWhenSaturated() throws Exception {
+		ConcurrencyController controller = new ConcurrencyController(4, 1, true);
+		controller.adjust(0.1, GB, 2 * GB);
+		assertEquals(1, controller.getLimit());
+		long size = controller.admit(file("small.pdf", 10));
+		controller.adjust(0.1, GB, 2 * GB);
+		assertEquals(2, controller.getLimit());
+		controller.adjust(0.9, GB, 2 * GB);
+		assertEquals(2, controller.getLimit());
+		controller.release(size);
+	}
+
+	@Test
+	public void testShrinksUnderPressure() throws Exception {
+		ConcurrencyController controller = new ConcurrencyController(16, 8, true);
+		controller.adjust(1.0, GB, 2 * GB);
+		assertEquals(8, controller.getLimit());
+		controller = new ConcurrencyController(16, 8, true);
+		File[] files = new File[8];
+		for (int i = 0; i < files.length; i++) {
+			files[i] = file(i + ".pdf", 10);
+			controller.admit(files[i]);
+		}
+		controller.adjust(0.5, GB, 2 * GB);
+		assertEquals(9, controller.getLimit());
+		controller.adjust(1.0, GB, 2 * GB);
+		assertEquals(8, controller.getLimit());
+		controller.adjust(0.5, GB / 100, 2 * GB);
+		assertEquals(4, controller.getLimit());
+	}
+
+	@Test
+	public void testLargeFileProcessedAlone() throws Exception {
+		ConcurrencyController controller = new ConcurrencyController(4, 4, true);
+		// a byte budget of 100 bytes
+		controller.adjust(0.9, 800, 1000);
+		File small = file("small.pdf", 10);
+		File large = file("large.pdf", 1000);
+		long smallSize = controller.admit(small);
+		CountDownLatch admitted = new CountDownLatch(1);
+		Thread worker = new Thread(() -> {
+			try {
+				controller.admit(large);
+				admitted.countDown();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		worker.start();
+		assertFalse(admitted.await(200, TimeUnit.MILLISECONDS));
+		controller.release(smallSize);
+		assertTrue(admitted.await(5, TimeUnit.SECONDS));
+		worker.join();
+		controller.release(large.length());
+	}
+
+	@Test
+	public void testReleasesAdmittedSize() throws Exception {
+		ConcurrencyController controller = new ConcurrencyController(4, 4, true);
+		// a byte budget of 100 bytes
+		controller.adjust(0.9, 800, 1000);
+		File shrunk = file("shrunk.pdf", 1000);
+		long shrunkSize = controller.admit(shrunk);
+		try (RandomAccessFile raf = new RandomAccessFile(shrunk, "rw")) {
+			raf.setLength(10);
+		}
+		controller.release(shrunkSize);
+		long firstSize = controller.admit(file("first.pdf", 50));
+		CountDownLatch admitted = new CountDownLatch(1);
+		File second = file("second.pdf", 40);
+		Thread worker = new Thread(() -> {
+			try {
+				controller.admit(second);
+				admitted.countDown();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		worker.start();
+		assertTrue(admitted.await(5, TimeUnit.SECONDS));
+		worker.join();
+		controller.release(firstSize);
+		controller.release(second.length());
+	}
+
+	private File file(final String name, final int size) throws IOException {
+		File file = this.tempFolder.newFile(name);
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(size);
+		}
+		return file;
+	}
+}
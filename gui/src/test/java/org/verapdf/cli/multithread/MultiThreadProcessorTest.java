@@ -0,0 +1,39 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.multithread;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class MultiThreadProcessorTest {
+
+	@Test
+	public void testKillDelay() {
+		assertEquals(0, MultiThreadProcessor.killDelay(0, 0));
+		assertEquals(15000, MultiThreadProcessor.killDelay(10000, 0));
+		// a document that hasn't used its CPU time in twice the time is stuck
+		assertEquals(30000, MultiThreadProcessor.killDelay(0, 10000));
+		assertEquals(15000, MultiThreadProcessor.killDelay(10000, 10000));
+		assertEquals(9000, MultiThreadProcessor.killDelay(60000, 2000));
+		assertEquals(7000, MultiThreadProcessor.killDelay(2000, 0));
+	}
+}
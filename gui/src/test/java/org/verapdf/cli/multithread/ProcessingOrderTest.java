@@ -0,0 +1,68 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.multithread;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ProcessingOrderTest {
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	@Test
+	public void testDiscoveryOrderKeepsFiles() throws IOException {
+		List<File> files = Arrays.asList(newFile("small.pdf", 1), newFile("large.pdf", 100));
+		assertSame(files, ProcessingOrder.DISCOVERY.order(files));
+	}
+
+	@Test
+	public void testSizeOrderLargestFirst() throws IOException {
+		File small = newFile("small.pdf", 1);
+		File large = newFile("large.pdf", 100);
+		File medium = newFile("medium.pdf", 10);
+		File mediumToo = newFile("medium2.pdf", 10);
+		assertEquals(Arrays.asList(large, medium, mediumToo, small),
+				ProcessingOrder.SIZE.order(Arrays.asList(small, large, medium, mediumToo)));
+	}
+
+	@Test
+	public void testFromOption() {
+		for (ProcessingOrder order : ProcessingOrder.values()) {
+			assertSame(order, ProcessingOrder.fromOption(order.getOption().toUpperCase()));
+		}
+	}
+
+	private File newFile(String name, int size) throws IOException {
+		File file = tempFolder.newFile(name);
+		Files.write(file.toPath(), new byte[size]);
+		return file;
+	}
+}
@@ -0,0 +1,58 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.multithread;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RecyclePolicyTest {
+	@Test
+	public void testNeverRecycles() {
+		assertTrue(RecyclePolicy.NEVER.isNever());
+		assertFalse(RecyclePolicy.NEVER.isExhausted(Integer.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE));
+	}
+
+	@Test
+	public void testDocumentLimit() {
+		RecyclePolicy policy = new RecyclePolicy(3, 0, 0);
+		assertFalse(policy.isNever());
+		assertFalse(policy.isExhausted(2, Long.MAX_VALUE, Long.MAX_VALUE));
+		assertTrue(policy.isExhausted(3, 0, -1));
+	}
+
+	@Test
+	public void testByteLimit() {
+		RecyclePolicy policy = new RecyclePolicy(0, 1024, 0);
+		assertFalse(policy.isExhausted(100, 1023, -1));
+		assertTrue(policy.isExhausted(1, 1024, -1));
+	}
+
+	@Test
+	public void testResidentSizeLimit() {
+		RecyclePolicy policy = new RecyclePolicy(0, 0, 1024);
+		assertTrue(policy.isResidentSizeLimited());
+		assertFalse(policy.isExhausted(100, 1L << 40, -1));
+		assertFalse(policy.isExhausted(1, 0, 1023));
+		assertTrue(policy.isExhausted(1, 0, 1024));
+	}
+}
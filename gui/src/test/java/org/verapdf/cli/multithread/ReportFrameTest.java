@@ -0,0 +1,72 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.multithread;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.verapdf.cli.CliConstants.ExitCodes;
+
+public class ReportFrameTest {
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		byte[] first = "PASS first.pdf 1b\n".getBytes(StandardCharsets.UTF_8);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		new ReportFrame(first, ExitCodes.VALID, 12L).writeTo(out);
+		new ReportFrame(new byte[0], ExitCodes.FAILED_PARSING, 3L, "{\"name\":\"second.pdf\"}", 1024L)
+				.writeTo(out);
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		ReportFrame frame = ReportFrame.readFrom(in);
+		assertArrayEquals(first, frame.getReport());
+		assertEquals(ExitCodes.VALID, frame.getExitCode());
+		assertEquals(12L, frame.getProcessingTime());
+		assertNull(frame.getMetrics());
+		assertEquals(-1L, frame.getResidentSize());
+		frame = ReportFrame.readFrom(in);
+		assertEquals(0, frame.getReport().length);
+		assertEquals(ExitCodes.FAILED_PARSING, frame.getExitCode());
+		assertEquals("{\"name\":\"second.pdf\"}", frame.getMetrics());
+		assertEquals(1024L, frame.getResidentSize());
+		assertNull(ReportFrame.readFrom(in));
+	}
+
+	@Test(expected = EOFException.class)
+	public void testTruncatedFrame() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		new ReportFrame(new byte[16], ExitCodes.VALID, 0L).writeTo(new DataOutputStream(bytes));
+		byte[] truncated = Arrays.copyOf(bytes.toByteArray(), 10);
+		ReportFrame.readFrom(new DataInputStream(new ByteArrayInputStream(truncated)));
+	}
+}
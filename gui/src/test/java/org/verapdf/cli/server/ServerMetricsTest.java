@@ -0,0 +1,64 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.verapdf.cli.CliConstants.ExitCodes;
+
+public class ServerMetricsTest {
+
+	@Test
+	public void testScrape() {
+		ServerMetrics metrics = new ServerMetrics(() -> 3);
+		metrics.jobStarted();
+		metrics.jobStarted();
+		metrics.jobStarted();
+		metrics.validated(80);
+		metrics.jobFinished(ExitCodes.VALID);
+		metrics.validated(1500);
+		metrics.jobFinished(ExitCodes.FAILED_PARSING);
+
+		List<String> lines = Arrays.asList(metrics.scrape().split("\n"));
+		assertTrue(lines.contains("verapdf_jobs_total 2"));
+		assertTrue(lines.contains("verapdf_job_results_total{exit_code=\"VALID\"} 1"));
+		assertTrue(lines.contains("verapdf_job_results_total{exit_code=\"FAILED_PARSING\"} 1"));
+		assertTrue(lines.contains("verapdf_job_results_total{exit_code=\"OOM\"} 0"));
+		assertTrue(lines.contains("verapdf_parse_failures_total 1"));
+		assertTrue(lines.contains("verapdf_out_of_memory_errors_total 0"));
+		assertTrue(lines.contains("verapdf_jobs_in_flight 1"));
+		assertTrue(lines.contains("verapdf_queue_depth 3"));
+		assertTrue(lines.contains("# UNIT verapdf_validation_duration_seconds seconds"));
+		assertTrue(lines.contains("verapdf_validation_duration_seconds_bucket{le=\"0.05\"} 0"));
+		assertTrue(lines.contains("verapdf_validation_duration_seconds_bucket{le=\"0.1\"} 1"));
+		assertTrue(lines.contains("verapdf_validation_duration_seconds_bucket{le=\"1.0\"} 1"));
+		assertTrue(lines.contains("verapdf_validation_duration_seconds_bucket{le=\"2.5\"} 2"));
+		assertTrue(lines.contains("verapdf_validation_duration_seconds_bucket{le=\"+Inf\"} 2"));
+		assertTrue(lines.contains("verapdf_validation_duration_seconds_count 2"));
+		assertTrue(lines.contains("verapdf_validation_duration_seconds_sum 1.58"));
+		assertEquals("# EOF", lines.get(lines.size() - 1));
+	}
+}
@@ -0,0 +1,136 @@
+/**
+ * This file is part of VeraPDF Library GUI, a module of the veraPDF project.
+ * Copyright (c) 2015-2025, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * VeraPDF Library GUI is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with VeraPDF Library GUI as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * VeraPDF Library GUI as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cli.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.verapdf.pdfa.flavours.PDFAFlavour;
+import org.verapdf.processor.FormatOption;
+
+public class ValidationRequestTest {
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		byte[] document = { '%', 'P', 'D', 'F' };
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		ValidationRequest.forPath(PDFAFlavour.PDFA_2_B, FormatOption.XML, "/data/test.pdf").writeTo(out);
+		ValidationRequest.forBytes(PDFAFlavour.NO_FLAVOUR, FormatOption.TEXT, "upload.pdf", document).writeTo(out);
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		ValidationRequest request = ValidationRequest.readFrom(in);
+		assertFalse(request.isInline());
+		assertEquals(PDFAFlavour.PDFA_2_B, request.getFlavour());
+		assertEquals(FormatOption.XML, request.getFormat());
+		assertEquals("/data/test.pdf", request.getName());
+		request = ValidationRequest.readFrom(in);
+		assertTrue(request.isInline());
+		assertEquals(PDFAFlavour.NO_FLAVOUR, request.getFlavour());
+		assertEquals(FormatOption.TEXT, request.getFormat());
+		assertEquals("upload.pdf", request.getName());
+		assertArrayEquals(document, request.getDocument());
+		assertNull(ValidationRequest.readFrom(in));
+	}
+
+	@Test
+	public void testIllegalFormat() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeUTF(PDFAFlavour.PDFA_1_B.getId());
+		out.writeUTF("pdf");
+		out.writeBoolean(true);
+		out.writeUTF("test.pdf");
+		out.writeInt(4);
+		out.write(new byte[] { '%', 'P', 'D', 'F' });
+		ValidationRequest.forPath(PDFAFlavour.PDFA_1_B, FormatOption.XML, "next.pdf").writeTo(out);
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		assertRejected(in, Integer.MAX_VALUE, "test.pdf");
+		assertEquals("next.pdf", ValidationRequest.readFrom(in).getName());
+	}
+
+	@Test
+	public void testIllegalFlavour() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeUTF("2x");
+		out.writeUTF(FormatOption.XML.getOption());
+		out.writeBoolean(true);
+		out.writeUTF("test.pdf");
+		out.writeInt(4);
+		out.write(new byte[] { '%', 'P', 'D', 'F' });
+		ValidationRequest.forPath(PDFAFlavour.NO_FLAVOUR, FormatOption.XML, "next.pdf").writeTo(out);
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		assertRejected(in, Integer.MAX_VALUE, "test.pdf");
+		ValidationRequest request = ValidationRequest.readFrom(in);
+		assertEquals("next.pdf", request.getName());
+		assertEquals(PDFAFlavour.NO_FLAVOUR, request.getFlavour());
+	}
+
+	@Test
+	public void testDocumentTooLarge() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		ValidationRequest.forBytes(PDFAFlavour.NO_FLAVOUR, FormatOption.XML, "large.pdf", new byte[1000]).writeTo(out);
+		ValidationRequest.forBytes(PDFAFlavour.NO_FLAVOUR, FormatOption.XML, "small.pdf", new byte[10]).writeTo(out);
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		assertRejected(in, 100, "large.pdf");
+		ValidationRequest request = ValidationRequest.readFrom(in, 100);
+		assertEquals("small.pdf", request.getName());
+		assertEquals(10, request.getDocument().length);
+		assertNull(ValidationRequest.readFrom(in, 100));
+	}
+
+	@Test(expected = IOException.class)
+	public void testNegativeLength() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeUTF(PDFAFlavour.PDFA_1_B.getId());
+		out.writeUTF(FormatOption.XML.getOption());
+		out.writeBoolean(true);
+		out.writeUTF("test.pdf");
+		out.writeInt(-1);
+		ValidationRequest.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+	}
+
+	private static void assertRejected(DataInputStream in, int maxDocumentLength, String name) throws IOException {
+		try {
+			ValidationRequest.readFrom(in, maxDocumentLength);
+			fail("Request for " + name + " wasn't rejected");
+		} catch (ValidationRequest.RejectedException e) {
+			assertEquals(name, e.getName());
+		}
+	}
+}